@@ -0,0 +1,81 @@
+package com.bookstore.bench;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookstore.analytics.Analytics;
+import com.bookstore.analytics.OrderLineColumns;
+import com.bookstore.customer.Customer;
+import com.bookstore.money.Money;
+
+// group-by บน 50M รายการสินค้า เทียบเวลาตามจำนวนเธรดเพื่อดูการขยายตามจำนวนคอร์
+// คอลัมน์ 50M แถวใช้ประมาณ 1.5 GB จึงตั้ง heap ของ fork ไว้ 4 GB
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class AnalyticsBenchmark {
+
+    private static final String[] TYPES = { "PhysicalBook", "EBook", "AudioBook" };
+
+    @Param({ "50000000" })
+    public int lines;
+
+    @Param({ "1", "2", "4", "8" })
+    public int threads;
+
+    private OrderLineColumns columns;
+    private Analytics analytics;
+
+    @Setup
+    public void setUp() {
+        OrderLineColumns.Builder builder = new OrderLineColumns.Builder(ZoneOffset.UTC, lines);
+        LocalDate firstDay = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < lines; i++) {
+            boolean vip = i % 4 == 0;
+            long lineTotal = 10_000_000L + (i * 7919L) % 90_000_000L;
+            builder.addLine(TYPES[i % 3], vip ? Customer.CustomerType.VIP : Customer.CustomerType.GENERAL,
+                    firstDay.plusDays(i % 365), 1 + i % 5, lineTotal, vip ? lineTotal * 15 / 85 : 0);
+        }
+        columns = builder.build();
+        analytics = new Analytics(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        analytics.close();
+    }
+
+    @Benchmark
+    public Map<String, Money> revenueByType() {
+        return analytics.revenueByType(columns);
+    }
+
+    @Benchmark
+    public SortedMap<LocalDate, Money> vipDiscountByDay() {
+        return analytics.vipDiscountByDay(columns);
+    }
+
+    @Benchmark
+    public Map<Customer.CustomerType, Money> revenueByCustomerType() {
+        return analytics.revenueByCustomerType(columns);
+    }
+}
@@ -0,0 +1,78 @@
+package com.bookstore.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookstore.checkout.BatchCheckout;
+import com.bookstore.checkout.CheckoutRequest;
+import com.bookstore.checkout.CheckoutResult;
+import com.bookstore.checkout.CheckoutService;
+import com.bookstore.customer.Customer;
+
+// คิดราคา backlog คำสั่งซื้อแบบทีละรายการเทียบกับ BatchCheckout แบบขนาน
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchCheckoutBenchmark {
+
+    @Param({ "10000" })
+    public int orders;
+
+    private CheckoutService checkoutService;
+    private BatchCheckout batchCheckout;
+    private List<CheckoutRequest> requests;
+
+    @Setup
+    public void setUp() {
+        checkoutService = new CheckoutService();
+        batchCheckout = new BatchCheckout(checkoutService);
+    }
+
+    // ลูกค้าชุดใหม่ทุกรอบ ledger ของแต่ละคนเก็บแต้มรายคำสั่งซื้อ จึงไม่ให้สะสมข้ามรอบ
+    @Setup(Level.Iteration)
+    public void newCustomers() {
+        requests = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            Customer customer = new Customer("C" + (i % 1_000), "user" + (i % 1_000),
+                    i % 4 == 0 ? Customer.CustomerType.VIP : Customer.CustomerType.GENERAL);
+            requests.add(new CheckoutRequest(customer, BenchmarkData.orderItems(1 + i % 20)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        batchCheckout.close();
+    }
+
+    @Benchmark
+    public List<CheckoutResult> sequential() {
+        List<CheckoutResult> results = new ArrayList<>(requests.size());
+        for (CheckoutRequest request : requests) {
+            results.add(checkoutService.checkout(request));
+        }
+        return results;
+    }
+
+    @Benchmark
+    public List<CheckoutResult> parallel() {
+        return batchCheckout.checkoutAll(requests.stream());
+    }
+}
@@ -0,0 +1,56 @@
+package com.bookstore.bench;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.bookstore.books.AudioBook;
+import com.bookstore.books.Book;
+import com.bookstore.books.EBook;
+import com.bookstore.books.PhysicalBook;
+import com.bookstore.order.OrderItem;
+
+// ข้อมูลตัวอย่างที่สร้างแบบกำหนดได้ (deterministic) สำหรับทุก benchmark
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static String isbn(int i) {
+        return String.format("978-%010d", i);
+    }
+
+    static Book book(int i) {
+        return book(i, i % 3);
+    }
+
+    static Book book(int i, int typeOrdinal) {
+        String author = "Author " + (i % 5_000);
+        String year = String.valueOf(1990 + i % 35);
+        BigDecimal price = BigDecimal.valueOf(1_000 + (i * 7919L) % 9_000, 2);
+        switch (typeOrdinal) {
+            case 0:
+                return new PhysicalBook(isbn(i), "Book " + i, author, price, "300", "Paperback", year);
+            case 1:
+                return new EBook(isbn(i), "Book " + i, author, price, year);
+            default:
+                return new AudioBook(isbn(i), "Book " + i, author, price, year);
+        }
+    }
+
+    static List<Book> books(int count) {
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            books.add(book(i));
+        }
+        return books;
+    }
+
+    static List<OrderItem> orderItems(int lines) {
+        List<OrderItem> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            items.add(new OrderItem(book(i), 1 + i % 5));
+        }
+        return items;
+    }
+}
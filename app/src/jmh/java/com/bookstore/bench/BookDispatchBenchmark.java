@@ -0,0 +1,85 @@
+package com.bookstore.bench;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.bookstore.books.Book;
+import com.bookstore.books.BookType;
+import com.bookstore.customer.Customer;
+import com.bookstore.pricing.CompiledPricing;
+import com.bookstore.pricing.PricingEngine;
+import com.bookstore.recommend.FullScanRecommender;
+
+// call site ที่เห็นหนังสือทั้งสามประเภทปนกัน: หา pipeline ด้วยชื่อประเภท (hash String) เทียบกับ ordinal ของ BookType,
+// จัดกลุ่มด้วย HashMap เทียบ EnumMap และ appendDetails ที่เคยเป็นเมธอด virtual สามแบบ
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookDispatchBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int books;
+
+    private Book[] mixed;
+    private List<Book> inventory;
+    private CompiledPricing pricing;
+    private final StringBuilder out = new StringBuilder(256);
+
+    @Setup
+    public void setUp() {
+        inventory = BenchmarkData.books(books);
+        mixed = inventory.toArray(new Book[0]);
+        pricing = PricingEngine.active();
+    }
+
+    @Benchmark
+    public void pipelineByLabel(Blackhole blackhole) {
+        for (Book book : mixed) {
+            blackhole.consume(pricing.pipeline(book.getBookType(), Customer.CustomerType.VIP));
+        }
+    }
+
+    @Benchmark
+    public void pipelineByType(Blackhole blackhole) {
+        for (Book book : mixed) {
+            blackhole.consume(pricing.pipeline(book.getType(), Customer.CustomerType.VIP));
+        }
+    }
+
+    @Benchmark
+    public Map<String, Book> highestPricedByLabel() {
+        return FullScanRecommender.highestPricedByType(inventory);
+    }
+
+    @Benchmark
+    public Map<BookType, Book> highestPricedByType() {
+        return FullScanRecommender.highestPricedByBookType(inventory);
+    }
+
+    @Benchmark
+    public int appendDetails() {
+        int length = 0;
+        for (Book book : mixed) {
+            out.setLength(0);
+            length += book.appendDetails(out).length();
+        }
+        return length;
+    }
+}
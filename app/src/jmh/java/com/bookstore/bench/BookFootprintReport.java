@@ -0,0 +1,74 @@
+package com.bookstore.bench;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jol.info.GraphLayout;
+
+import com.bookstore.books.Book;
+import com.bookstore.books.PhysicalBook;
+
+// ขนาดหน่วยความจำต่อเล่ม (JOL) ก่อนและหลังการรวมค่า String ที่ซ้ำกัน
+// รัน: ./gradlew :app:jmhJar แล้ว java -cp app/build/libs/app-jmh.jar com.bookstore.bench.BookFootprintReport
+public class BookFootprintReport {
+
+    // โครงสร้างฟิลด์ของ PhysicalBook ก่อนการเปลี่ยนแปลง (ทุกฟิลด์เป็น String แยกอินสแตนซ์)
+    static final class LegacyPhysicalBook {
+        final String isbn;
+        final String title;
+        final String author;
+        final String publishYear;
+        final BigDecimal basePrice;
+        final String pageNumber;
+        final String coverType;
+
+        LegacyPhysicalBook(String isbn, String title, String author, BigDecimal basePrice, String pageNumber,
+                String coverType, String publishYear) {
+            this.isbn = isbn;
+            this.title = title;
+            this.author = author;
+            this.basePrice = basePrice;
+            this.pageNumber = pageNumber;
+            this.coverType = coverType;
+            this.publishYear = publishYear;
+        }
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        List<LegacyPhysicalBook> before = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String[] row = row(i);
+            before.add(new LegacyPhysicalBook(row[0], row[1], row[2], new BigDecimal(row[3]), row[4], row[5], row[6]));
+        }
+        long beforeBytes = GraphLayout.parseInstance(before).totalSize();
+        before = null;
+
+        List<Book> after = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String[] row = row(i);
+            after.add(new PhysicalBook(row[0], row[1], row[2], new BigDecimal(row[3]), row[4], row[5], row[6]));
+        }
+        long afterBytes = GraphLayout.parseInstance(after).totalSize();
+
+        System.out.printf("Books: %d%n", count);
+        System.out.printf("Before: %,d bytes (%.1f bytes/book)%n", beforeBytes, (double) beforeBytes / count);
+        System.out.printf("After:  %,d bytes (%.1f bytes/book)%n", afterBytes, (double) afterBytes / count);
+        System.out.printf("Saved:  %.1f%%%n", 100.0 * (beforeBytes - afterBytes) / beforeBytes);
+    }
+
+    // สร้าง String ใหม่ทุกแถวเหมือนค่าที่ได้จากการ parse ไฟล์
+    private static String[] row(int i) {
+        return new String[] {
+                String.format("978-%010d", i),
+                "Book " + i,
+                new String("Author " + (i % 5_000)),
+                (10 + i % 90) + "." + (10 + i % 89),
+                Integer.toString(100 + i % 900),
+                new String(i % 2 == 0 ? "Hardcover" : "Paperback"),
+                Integer.toString(1990 + i % 35)
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package com.bookstore.bench;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookstore.books.BookType;
+import com.bookstore.customer.Customer;
+import com.bookstore.order.OrderItem;
+import com.bookstore.order.ShoppingCart;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+// การดูตะกร้าอ่านยอดสะสม เวลาต่อครั้งจึงไม่ควรโตตามจำนวนบรรทัด ส่วน updateQuantity ปรับยอดเฉพาะบรรทัดเดียว
+public class CartBenchmark {
+
+    @Param({ "1", "100", "10000" })
+    public int lines;
+
+    private ShoppingCart cart;
+    private String isbn;
+    private int quantity;
+
+    @Setup
+    public void setUp() {
+        cart = new ShoppingCart();
+        for (OrderItem item : BenchmarkData.orderItems(lines)) {
+            cart.addItem(item);
+        }
+        isbn = cart.getItems().get(0).getBook().getIsbn();
+    }
+
+    @Benchmark
+    public BigDecimal calculateSubTotalBeforeVipDiscount() {
+        return cart.calculateSubTotalBeforeVipDiscount();
+    }
+
+    @Benchmark
+    public BigDecimal subTotalByType() {
+        return cart.subTotal(BookType.EBOOK);
+    }
+
+    @Benchmark
+    public BigDecimal projectedVipTotal() {
+        return cart.projectedTotal(Customer.CustomerType.VIP);
+    }
+
+    @Benchmark
+    public boolean updateQuantity() {
+        return cart.updateQuantity(isbn, ++quantity % 50 + 1);
+    }
+}
@@ -0,0 +1,78 @@
+package com.bookstore.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookstore.books.Book;
+import com.bookstore.order.CartStore;
+import com.bookstore.order.OrderItem;
+
+// virtual thread จำนวนมากเพิ่ม/แก้/ลบสินค้าในตะกร้าเดียวกัน (shared) หรือคนละตะกร้า (disjoint)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartContentionBenchmark {
+    private static final int VIRTUAL_THREADS = 64;
+    private static final int OPS_PER_THREAD = 1_000;
+    private static final int BOOKS = 128;
+
+    @Param({ "shared", "disjoint" })
+    public String carts;
+
+    private Book[] books;
+    private CartStore store;
+
+    @Setup
+    public void setUp() {
+        books = BenchmarkData.books(BOOKS).toArray(new Book[0]);
+        store = new CartStore();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VIRTUAL_THREADS * OPS_PER_THREAD)
+    public int cartOperations() throws InterruptedException, ExecutionException {
+        boolean shared = "shared".equals(carts);
+        List<Future<?>> futures = new ArrayList<>(VIRTUAL_THREADS);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < VIRTUAL_THREADS; t++) {
+                String customerId = shared ? "C000" : "C" + t;
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < OPS_PER_THREAD; i++) {
+                        Book book = books[(seed * 31 + i) % BOOKS];
+                        switch (i & 3) {
+                            case 0, 1 -> store.addItem(customerId, new OrderItem(book, 1));
+                            case 2 -> store.updateQuantity(customerId, book.getIsbn(), 1 + (i & 7));
+                            default -> store.removeItem(customerId, book.getIsbn());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return store.size();
+    }
+}
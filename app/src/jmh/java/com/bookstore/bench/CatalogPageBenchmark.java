@@ -0,0 +1,104 @@
+package com.bookstore.bench;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookstore.books.Book;
+import com.bookstore.catalog.BookFilter;
+import com.bookstore.catalog.BookPage;
+import com.bookstore.catalog.Catalog;
+import com.bookstore.catalog.CatalogOrder;
+import com.bookstore.catalog.PageCursor;
+
+// เวลาต่อหน้า (20 เล่ม) ของแคตตาล็อกในหน่วยความจำ ที่ตำแหน่งสุ่มทั่วทั้งแคตตาล็อก
+// keyset ควรคงที่เมื่อขนาดแคตตาล็อกโตขึ้น ส่วน offsetPage (แบบเดิมที่นับข้ามทีละเล่ม) โตตามตำแหน่งของหน้า
+// รันกับ -prof gc เพื่อดูว่าหน่วยความจำที่จองต่อหน้าไม่ขึ้นกับขนาดแคตตาล็อก
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class CatalogPageBenchmark {
+    private static final int PAGE_SIZE = 20;
+    private static final int CURSORS = 1_024;
+
+    @Param({ "1000", "100000", "1000000" })
+    public int books;
+
+    private Catalog catalog;
+    private PageCursor[] isbnCursors;
+    private PageCursor[] priceCursors;
+    private int[] offsets;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        catalog = new Catalog();
+        for (int i = 0; i < books; i++) {
+            catalog.add(BenchmarkData.book(i));
+        }
+        Random random = new Random(42);
+        isbnCursors = new PageCursor[CURSORS];
+        priceCursors = new PageCursor[CURSORS];
+        offsets = new int[CURSORS];
+        for (int c = 0; c < CURSORS; c++) {
+            int position = random.nextInt(books);
+            Book book = catalog.findByIsbn(BenchmarkData.isbn(position)).orElseThrow();
+            isbnCursors[c] = PageCursor.after(book, CatalogOrder.ISBN);
+            priceCursors[c] = PageCursor.after(book, CatalogOrder.PRICE);
+            offsets[c] = position;
+        }
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = (next + 1) & (CURSORS - 1);
+        return index;
+    }
+
+    @Benchmark
+    public BookPage isbnPage() {
+        return catalog.page(CatalogOrder.ISBN, BookFilter.ANY, isbnCursors[nextIndex()], PAGE_SIZE);
+    }
+
+    @Benchmark
+    public BookPage pricePage() {
+        return catalog.page(CatalogOrder.PRICE, BookFilter.ANY, priceCursors[nextIndex()], PAGE_SIZE);
+    }
+
+    // ผู้แต่งหนึ่งคนมี books / 5000 เล่ม หน้าถูกอ่านจากดัชนีผู้แต่งโดยตรง
+    @Benchmark
+    public BookPage authorPage() {
+        PageCursor after = isbnCursors[nextIndex()];
+        return catalog.page(CatalogOrder.ISBN, BookFilter.ANY.withAuthor("Author 7"), after, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Book> offsetPage() {
+        Iterator<Book> iterator = catalog.books().iterator();
+        for (int skipped = offsets[nextIndex()]; skipped > 0 && iterator.hasNext(); skipped--) {
+            iterator.next();
+        }
+        List<Book> page = new ArrayList<>(PAGE_SIZE);
+        while (page.size() < PAGE_SIZE && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        return page;
+    }
+}
@@ -0,0 +1,47 @@
+package com.bookstore.bench;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openjdk.jol.info.GraphLayout;
+
+import com.bookstore.customer.Customer;
+import com.bookstore.customer.CustomerRegistry;
+
+// หน่วยความจำต่อบัญชี (JOL): ConcurrentHashMap ของ Customer สองดัชนี (ID, username) เทียบกับ CustomerRegistry
+// ที่ยังไม่ได้สร้าง Customer ให้บัญชีใดเลย
+// รัน: ./gradlew :app:jmhJar แล้ว java -cp app/build/libs/app-jmh.jar com.bookstore.bench.CustomerFootprintReport
+public class CustomerFootprintReport {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        Map<String, Customer> byId = new ConcurrentHashMap<>();
+        Map<String, Customer> byUsername = new ConcurrentHashMap<>();
+        for (int i = 0; i < count; i++) {
+            Customer customer = new Customer(String.format("C%08d", i), "user" + i,
+                    Customer.CustomerType.values()[i % 4]);
+            byId.put(customer.getCustomerId(), customer);
+            byUsername.put(customer.getUsername(), customer);
+        }
+        Map<String, Object> maps = new HashMap<>();
+        maps.put("byId", byId);
+        maps.put("byUsername", byUsername);
+        long beforeBytes = GraphLayout.parseInstance(maps).totalSize();
+        maps = null;
+        byId = null;
+        byUsername = null;
+
+        CustomerRegistry registry = new CustomerRegistry();
+        for (int i = 0; i < count; i++) {
+            registry.register(String.format("C%08d", i), "user" + i, Customer.CustomerType.values()[i % 4]);
+        }
+        long afterBytes = GraphLayout.parseInstance(registry).totalSize();
+
+        System.out.printf("Accounts: %d%n", count);
+        System.out.printf("Maps:     %,d bytes (%.1f bytes/account)%n", beforeBytes, (double) beforeBytes / count);
+        System.out.printf("Registry: %,d bytes (%.1f bytes/account)%n", afterBytes, (double) afterBytes / count);
+        System.out.printf("Saved:    %.1f%%%n", 100.0 * (beforeBytes - afterBytes) / beforeBytes);
+    }
+}
@@ -0,0 +1,120 @@
+package com.bookstore.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookstore.customer.Customer;
+import com.bookstore.customer.CustomerRegistry;
+
+// ค้นหาลูกค้าด้วย ID/username จากหลายเธรด และการสมัครพร้อมกันจาก virtual thread จำนวนมาก
+// shards=1 คือทุกการเขียนแย่งล็อกเดียว, map คือ ConcurrentHashMap ของ Customer ที่สร้างครบทุกบัญชี
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerRegistryBenchmark {
+    private static final int ACCOUNTS = 1_000_000;
+    private static final int VIRTUAL_THREADS = 64;
+    private static final int REGISTRATIONS_PER_THREAD = 2_000;
+
+    @Param({ "1", "64" })
+    public int shards;
+
+    private CustomerRegistry registry;
+    private Map<String, Customer> map;
+    private String[] ids;
+    private String[] usernames;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int next(int bound) {
+            next = next + 7_919 >= bound ? next + 7_919 - bound : next + 7_919;
+            return next;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        registry = new CustomerRegistry(shards);
+        map = new ConcurrentHashMap<>();
+        ids = new String[ACCOUNTS];
+        usernames = new String[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            ids[i] = String.format("C%08d", i);
+            usernames[i] = "user" + i;
+            Customer.CustomerType tier = tier(i);
+            registry.register(ids[i], usernames[i], tier);
+            map.put(ids[i], new Customer(ids[i], usernames[i], tier));
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<Customer> findById(Cursor cursor) {
+        return registry.findById(ids[cursor.next(ACCOUNTS)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<Customer> findByUsername(Cursor cursor) {
+        return registry.findByUsername(usernames[cursor.next(ACCOUNTS)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Customer mapFindById(Cursor cursor) {
+        return map.get(ids[cursor.next(ACCOUNTS)]);
+    }
+
+    // สมัครใหม่ลงทะเบียนว่าง วัดรวมการสร้าง virtual thread
+    @Benchmark
+    @OperationsPerInvocation(VIRTUAL_THREADS * REGISTRATIONS_PER_THREAD)
+    public int concurrentRegistration() throws InterruptedException, ExecutionException {
+        CustomerRegistry fresh = new CustomerRegistry(shards);
+        List<Future<?>> futures = new ArrayList<>(VIRTUAL_THREADS);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < VIRTUAL_THREADS; t++) {
+                int from = t * REGISTRATIONS_PER_THREAD;
+                futures.add(executor.submit(() -> {
+                    for (int i = from; i < from + REGISTRATIONS_PER_THREAD; i++) {
+                        fresh.register(ids[i], usernames[i], tier(i));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return fresh.size();
+    }
+
+    private static Customer.CustomerType tier(int i) {
+        return Customer.CustomerType.values()[i % 4];
+    }
+}
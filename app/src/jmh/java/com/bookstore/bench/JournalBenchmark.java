@@ -0,0 +1,72 @@
+package com.bookstore.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookstore.customer.Customer;
+import com.bookstore.journal.JournalEntry;
+import com.bookstore.journal.OrderJournal;
+import com.bookstore.order.Order;
+
+// จำนวนคำสั่งซื้อต่อวินาทีที่บันทึกลง journal ได้ เมื่อ 32 เธรด checkout พร้อมกันและรอ fsync
+// maxBatch = 1 คือ fsync ทุก record, ค่ามากขึ้นคือ group commit
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class JournalBenchmark {
+
+    @Param({ "1", "8", "64", "256" })
+    public int maxBatch;
+
+    private Path directory;
+    private OrderJournal journal;
+    private JournalEntry[] entries;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        entries = new JournalEntry[1024];
+        for (int i = 0; i < entries.length; i++) {
+            Customer customer = new Customer("C" + (i % 100), "user" + (i % 100),
+                    i % 4 == 0 ? Customer.CustomerType.VIP : Customer.CustomerType.GENERAL);
+            entries[i] = JournalEntry.of(new Order(customer, BenchmarkData.orderItems(1 + i % 5)), i % 50);
+        }
+        directory = Files.createTempDirectory("journal-bench");
+        journal = OrderJournal.open(directory.resolve("orders.journal"), maxBatch, entry -> {
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        Files.deleteIfExists(directory.resolve("orders.journal"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void appendAndSync() {
+        journal.appendAndSync(entries[next.getAndIncrement() & (entries.length - 1)]);
+    }
+}
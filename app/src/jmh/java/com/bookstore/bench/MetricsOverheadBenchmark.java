@@ -0,0 +1,79 @@
+package com.bookstore.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookstore.customer.Customer;
+import com.bookstore.metrics.Metrics;
+import com.bookstore.metrics.Timer;
+import com.bookstore.order.Order;
+import com.bookstore.order.OrderItem;
+import com.bookstore.order.ShoppingCart;
+
+// ต้นทุนของ metrics บนทางร้อน: เทียบ enabled=false กับ true ของการทำงานเดียวกัน
+// timerOnly คือ start/stop เปล่าๆ ต่อหนึ่งการเรียก (ค่าเฉลี่ยรวมรอบที่ถูกสุ่มวัดแล้ว)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class MetricsOverheadBenchmark {
+    private static final Timer EMPTY = Metrics.timer("bench.empty");
+
+    @Param({ "false", "true" })
+    public boolean enabled;
+
+    private Customer vip;
+    private List<OrderItem> orderLines;
+    private OrderItem[] additions;
+    private ShoppingCart cart;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Metrics.setEnabled(enabled);
+        vip = new Customer("C001", "vip", Customer.CustomerType.VIP);
+        orderLines = BenchmarkData.orderItems(10);
+        additions = BenchmarkData.orderItems(64).toArray(new OrderItem[0]);
+        cart = new ShoppingCart();
+    }
+
+    @TearDown
+    public void tearDown() {
+        Metrics.setEnabled(false);
+        Metrics.reset();
+    }
+
+    @Benchmark
+    public ShoppingCart cartAddItem() {
+        cart.addItem(additions[next]);
+        next = (next + 1) & 63;
+        return cart;
+    }
+
+    @Benchmark
+    public Order orderGrandTotal() {
+        return new Order(vip, orderLines);
+    }
+
+    @Benchmark
+    public long timerOnly() {
+        long start = EMPTY.start();
+        EMPTY.stop(start);
+        return start;
+    }
+}
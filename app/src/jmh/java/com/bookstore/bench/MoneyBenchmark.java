@@ -0,0 +1,74 @@
+package com.bookstore.bench;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookstore.money.Money;
+
+// เทียบการคำนวณยอดรวมแบบ VIP ด้วย BigDecimal (แบบเดิม) กับ Money (long แบบ fixed-point)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+    private static final BigDecimal VIP_DISCOUNT_RATE = new BigDecimal("0.15");
+    private static final Money VIP_DISCOUNT = Money.of(VIP_DISCOUNT_RATE);
+
+    @Param({ "1", "100", "10000" })
+    public int lines;
+
+    private BigDecimal[] decimalPrices;
+    private Money[] moneyPrices;
+    private int[] quantities;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        decimalPrices = new BigDecimal[lines];
+        moneyPrices = new Money[lines];
+        quantities = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            // ราคาหลังส่วนลด EBook มีทศนิยม 4 ตำแหน่ง เช่น 29.6910
+            decimalPrices[i] = BigDecimal.valueOf(100_000 + random.nextInt(900_000), 4);
+            moneyPrices[i] = Money.of(decimalPrices[i]);
+            quantities[i] = 1 + random.nextInt(10);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalVipTotal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            BigDecimal price = decimalPrices[i];
+            BigDecimal vipPrice = price.subtract(price.multiply(VIP_DISCOUNT_RATE));
+            total = total.add(vipPrice.multiply(new BigDecimal(quantities[i])));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money moneyVipTotal() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < lines; i++) {
+            Money price = moneyPrices[i];
+            Money vipPrice = price.minus(price.times(VIP_DISCOUNT));
+            total = total.plus(vipPrice.times(quantities[i]));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,50 @@
+package com.bookstore.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookstore.customer.Customer;
+import com.bookstore.order.Order;
+import com.bookstore.order.OrderItem;
+
+// new Order(...) คำนวณยอดรวมสุดท้ายใน constructor
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderBenchmark {
+
+    @Param({ "GENERAL", "VIP" })
+    public Customer.CustomerType customerType;
+
+    @Param({ "1", "10", "100" })
+    public int lines;
+
+    private Customer customer;
+    private List<OrderItem> items;
+
+    @Setup
+    public void setUp() {
+        customer = new Customer("C001", "bench", customerType);
+        items = BenchmarkData.orderItems(lines);
+    }
+
+    @Benchmark
+    public Order createOrder() {
+        return new Order(customer, items);
+    }
+}
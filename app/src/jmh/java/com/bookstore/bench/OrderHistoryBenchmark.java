@@ -0,0 +1,111 @@
+package com.bookstore.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookstore.customer.Customer;
+import com.bookstore.history.OrderHistory;
+import com.bookstore.journal.JournalEntry;
+import com.bookstore.journal.OrderJournal;
+import com.bookstore.order.Order;
+
+// ประวัติคำสั่งซื้อของลูกค้าหนึ่งรายในหนึ่งเดือน จาก segment รายเดือน เทียบกับการอ่าน journal ทั้งไฟล์แล้วกรอง
+// คำสั่งซื้อกระจายตลอด 12 เดือน ลูกค้า 10,000 ราย
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderHistoryBenchmark {
+    private static final int CUSTOMERS = 10_000;
+    private static final long START = Instant.parse("2024-01-01T00:00:00Z").getEpochSecond();
+    private static final YearMonth MARCH = YearMonth.of(2024, 3);
+
+    @Param({ "100000", "1000000" })
+    public int orders;
+
+    private Path directory;
+    private OrderHistory history;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("history-bench");
+        List<Customer> customers = new ArrayList<>(CUSTOMERS);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customers.add(new Customer("C" + i, "user" + i, Customer.CustomerType.values()[i % 4]));
+        }
+        long span = 365L * 86_400;
+        try (OrderJournal journal = OrderJournal.open(directory.resolve("orders.journal"));
+                OrderHistory writer = OrderHistory.open(directory.resolve("history"))) {
+            for (int i = 0; i < orders; i++) {
+                Instant createdAt = Instant.ofEpochSecond(START + i * span / orders, i % 1_000_000 * 1_000L);
+                Order order = new Order(customers.get((int) ((i * 7_919L) % CUSTOMERS)),
+                        BenchmarkData.orderItems(1 + i % 4), createdAt);
+                JournalEntry entry = JournalEntry.of(order, i % 50);
+                journal.append(entry);
+                writer.append(entry);
+            }
+        }
+        history = OrderHistory.open(directory.resolve("history"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        history.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<JournalEntry> customerMonth() {
+        return history.ordersOf("C" + (next++ % CUSTOMERS), MARCH);
+    }
+
+    @Benchmark
+    public List<JournalEntry> customerYear() {
+        return history.ordersOf("C" + (next++ % CUSTOMERS), Instant.ofEpochSecond(START),
+                Instant.ofEpochSecond(START + 366L * 86_400));
+    }
+
+    // วิธีเดียวที่มีก่อนหน้านี้: อ่านทุก record ของ journal เข้า heap แล้วกรอง
+    @Benchmark
+    public List<JournalEntry> journalScan() throws IOException {
+        String customerId = "C" + (next++ % CUSTOMERS);
+        List<JournalEntry> found = new ArrayList<>();
+        OrderJournal.replay(directory.resolve("orders.journal"), entry -> {
+            if (entry.customerId().equals(customerId)
+                    && YearMonth.from(entry.createdAt().atOffset(ZoneOffset.UTC)).equals(MARCH)) {
+                found.add(entry);
+            }
+        });
+        return found;
+    }
+}
@@ -0,0 +1,94 @@
+package com.bookstore.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookstore.customer.PointsLedger;
+
+// หลายเธรดสะสม/แลก/อ่านแต้มของลูกค้า VIP คนเดียวกันพร้อมกัน: PointsLedger เทียบกับ synchronized
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PointsLedgerBenchmark {
+
+    // ตัวเทียบ: ยอดคงเหลือ long ธรรมดาใต้ล็อกของ object
+    static final class LockedPoints {
+        private long balance;
+
+        synchronized long add(int points) {
+            balance += points;
+            return balance;
+        }
+
+        synchronized boolean redeem(int points) {
+            if (balance < points) {
+                return false;
+            }
+            balance -= points;
+            return true;
+        }
+
+        synchronized long balance() {
+            return balance;
+        }
+    }
+
+    private final PointsLedger ledger = new PointsLedger();
+    private final LockedPoints locked = new LockedPoints();
+
+    @Benchmark
+    @Group("ledger")
+    @GroupThreads(4)
+    public long ledgerAccrue() {
+        return ledger.add(2);
+    }
+
+    @Benchmark
+    @Group("ledger")
+    @GroupThreads(2)
+    public boolean ledgerRedeem() {
+        return ledger.redeem(3);
+    }
+
+    @Benchmark
+    @Group("ledger")
+    @GroupThreads(2)
+    public long ledgerBalance() {
+        return ledger.balance();
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(4)
+    public long lockedAccrue() {
+        return locked.add(2);
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(2)
+    public boolean lockedRedeem() {
+        return locked.redeem(3);
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(2)
+    public long lockedBalance() {
+        return locked.balance();
+    }
+}
@@ -0,0 +1,53 @@
+package com.bookstore.bench;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookstore.books.Book;
+
+// Book.calculatePrice ของทั้งสามประเภท: อ่านจากแคช และคำนวณใหม่หลังเปลี่ยนราคาตั้งต้น
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    @Param({ "PhysicalBook", "EBook", "AudioBook" })
+    public String bookType;
+
+    private Book book;
+    private BigDecimal[] basePrices;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        int typeOrdinal = "PhysicalBook".equals(bookType) ? 0 : "EBook".equals(bookType) ? 1 : 2;
+        book = BenchmarkData.book(1, typeOrdinal);
+        basePrices = new BigDecimal[] { new BigDecimal("32.99"), new BigDecimal("47.50") };
+    }
+
+    @Benchmark
+    public BigDecimal calculatePriceCached() {
+        return book.calculatePrice();
+    }
+
+    @Benchmark
+    public BigDecimal calculatePriceAfterReprice() {
+        book.setBasePrice(basePrices[next++ & 1]);
+        return book.calculatePrice();
+    }
+}
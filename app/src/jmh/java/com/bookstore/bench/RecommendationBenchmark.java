@@ -0,0 +1,67 @@
+package com.bookstore.bench;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookstore.books.Book;
+import com.bookstore.recommend.FullScanRecommender;
+import com.bookstore.recommend.RecommendationIndex;
+
+// การสแกนทั้งคลัง (FullScanRecommender) เทียบกับ RecommendationIndex ที่อัปเดตทีละเล่ม
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecommendationBenchmark {
+
+    @Param({ "12", "10000", "1000000" })
+    public int books;
+
+    private List<Book> inventory;
+    private RecommendationIndex index;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        inventory = BenchmarkData.books(books);
+        index = new RecommendationIndex(inventory);
+    }
+
+    @Benchmark
+    public Map<String, Book> highestPricedByType() {
+        return FullScanRecommender.highestPricedByType(inventory);
+    }
+
+    @Benchmark
+    public Map<String, Book> indexedHighestPricedByType() {
+        return index.highestPricedByType();
+    }
+
+    @Benchmark
+    public List<Book> indexedTop10ByAuthor() {
+        return index.topByAuthor("Author 42", 10);
+    }
+
+    // ค่าใช้จ่ายในการอัปเดตดัชนีเมื่อราคาเปลี่ยน (ลบแล้วใส่กลับหนึ่งเล่ม)
+    @Benchmark
+    public void indexedReprice() {
+        Book book = inventory.get(next);
+        next = next + 1 == inventory.size() ? 0 : next + 1;
+        index.reprice(book);
+    }
+}
@@ -0,0 +1,106 @@
+package com.bookstore.bench;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.bookstore.books.AudioBook;
+import com.bookstore.books.Book;
+import com.bookstore.books.EBook;
+import com.bookstore.books.PhysicalBook;
+import com.bookstore.customer.Customer;
+import com.bookstore.order.Order;
+import com.bookstore.render.TextBuffer;
+
+// แสดงรายการหนังสือ 100k เล่มและสรุปคำสั่งซื้อ 10k บรรทัด: ต่อ String แบบเดิม เทียบกับเขียนลงบัฟเฟอร์ที่ใช้ซ้ำ
+// ดู gc.alloc.rate.norm (ไบต์ต่อครั้ง) จาก -prof gc ที่ตั้งไว้ใน build.gradle
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderBenchmark {
+    private static final OutputStream DISCARD = OutputStream.nullOutputStream();
+
+    private List<Book> books;
+    private Order order;
+    private final StringBuilder summary = new StringBuilder();
+    private final TextBuffer listing = new TextBuffer(StandardCharsets.UTF_8, 64 * 1024);
+
+    @Setup
+    public void setUp() {
+        books = BenchmarkData.books(100_000);
+        order = new Order(new Customer("C1", "vip", Customer.CustomerType.VIP), BenchmarkData.orderItems(10_000));
+        for (Book book : books) {
+            book.calculatePrice(); // เติมแคชราคาก่อนวัด
+        }
+    }
+
+    @Benchmark
+    public void listingConcat(Blackhole blackhole) {
+        int number = 1;
+        for (Book book : books) {
+            blackhole.consume((number++) + ". " + legacyDetails(book));
+        }
+    }
+
+    @Benchmark
+    public void listingBuffered() throws IOException {
+        StringBuilder text = listing.text();
+        int number = 1;
+        for (Book book : books) {
+            book.appendDetails(text.append(number++).append(". "));
+            listing.newline().flushIfFull(DISCARD);
+        }
+        listing.flush(DISCARD);
+    }
+
+    @Benchmark
+    public String receiptFormat() {
+        return order.toReceipt().format();
+    }
+
+    @Benchmark
+    public int receiptBuffered() {
+        summary.setLength(0);
+        return order.appendSummary(summary).length();
+    }
+
+    // Book.displayDetails() ก่อนเปลี่ยนมาใช้ appendDetails
+    private static String legacyDetails(Book book) {
+        String base = "ISBN: " + book.getIsbn() + ", Title: '" + book.getTitle() + "', Author: '" + book.getAuthor()
+                + "', Publish Year: " + book.getPublishYearValue() + ", Base Price: $"
+                + book.getBasePrice().setScale(2, RoundingMode.HALF_EVEN);
+        String finalPrice = ", Final Price (after type adjustment): $"
+                + book.calculatePrice().setScale(2, RoundingMode.HALF_EVEN);
+        if (book instanceof PhysicalBook physical) {
+            return " " + base + ", Page Number: " + physical.getPageNumberValue() + ", Cover Type: "
+                    + physical.getCoverType() + finalPrice;
+        }
+        if (book instanceof EBook) {
+            return " " + base + ", Discount: " + percent(EBook.getDiscountRate()) + "%" + finalPrice;
+        }
+        return " " + base + ", Fee: " + percent(AudioBook.getFeeRate()) + "%" + finalPrice;
+    }
+
+    private static String percent(BigDecimal rate) {
+        return rate.movePointRight(2).stripTrailingZeros().toPlainString();
+    }
+}
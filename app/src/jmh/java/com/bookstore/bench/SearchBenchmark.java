@@ -0,0 +1,116 @@
+package com.bookstore.bench;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookstore.books.Book;
+import com.bookstore.books.EBook;
+import com.bookstore.search.SearchIndex;
+
+// เวลาตอบของการค้นหา (SampleTime รายงาน p50/p99/p99.9) บนชื่อหนังสือที่สุ่มจากคลังคำแบบ Zipf
+// คำค้นคือ 1-3 คำจากชื่อหนังสือหรือผู้แต่งจริง โดยคำสุดท้ายพิมพ์ไม่ครบ (typeahead)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class SearchBenchmark {
+
+    private static final String[] SYLLABLES = { "ba", "ko", "ri", "tem", "sun", "lo", "ma", "vin", "de", "qua",
+            "pe", "zor", "li", "an", "ex", "tor", "mi", "nu", "sta", "ge" };
+
+    @Param({ "5000000" })
+    public int books;
+
+    private SearchIndex index;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] vocabulary = vocabulary();
+        List<Book> inventory = new ArrayList<>(books);
+        index = new SearchIndex();
+        for (int i = 0; i < books; i++) {
+            Book book = new EBook(BenchmarkData.isbn(i), title(random, vocabulary),
+                    author(random.nextInt(500), random.nextInt(2_000)), new BigDecimal("19.99"), "2020");
+            index.add(book);
+            if (i % 5_000 == 0) {
+                inventory.add(book);
+            }
+        }
+        queries = new String[1_024];
+        for (int q = 0; q < queries.length; q++) {
+            queries[q] = query(random, inventory.get(random.nextInt(inventory.size())));
+        }
+    }
+
+    @Benchmark
+    public List<SearchIndex.Hit> typeahead() {
+        String query = queries[next];
+        next = (next + 1) & (queries.length - 1);
+        return index.search(query, 10);
+    }
+
+    static String[] vocabulary() {
+        List<String> words = new ArrayList<>();
+        for (String a : SYLLABLES) {
+            for (String b : SYLLABLES) {
+                words.add(a + b);
+                for (String c : SYLLABLES) {
+                    words.add(a + b + c);
+                }
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    // คำที่ index ต่ำถูกเลือกบ่อยกว่ามาก (คล้ายการกระจายของคำในชื่อหนังสือจริง)
+    static String title(Random random, String[] vocabulary) {
+        int words = 2 + random.nextInt(5);
+        StringBuilder title = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            double u = random.nextDouble();
+            title.append(w == 0 ? "" : " ").append(vocabulary[(int) (vocabulary.length * u * u * u)]);
+        }
+        return title.toString();
+    }
+
+    static String author(int first, int last) {
+        return SYLLABLES[first % 20] + SYLLABLES[first / 20 % 20] + " " + SYLLABLES[last % 20]
+                + SYLLABLES[last / 20 % 20] + SYLLABLES[last / 400 % 20];
+    }
+
+    static String query(Random random, Book book) {
+        String[] title = book.getTitle().split(" ");
+        List<String> words = new ArrayList<>();
+        int count = 1 + random.nextInt(Math.min(3, title.length));
+        int start = random.nextInt(title.length - count + 1);
+        for (int w = start; w < start + count; w++) {
+            words.add(title[w]);
+        }
+        if (random.nextInt(4) == 0) {
+            words.add(0, book.getAuthor().split(" ")[1]);
+        }
+        String last = words.remove(words.size() - 1);
+        words.add(last.substring(0, Math.max(2, 1 + random.nextInt(last.length()))));
+        return String.join(" ", words);
+    }
+}
@@ -0,0 +1,78 @@
+package com.bookstore.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookstore.catalog.BookFilter;
+import com.bookstore.catalog.BookPage;
+import com.bookstore.catalog.CatalogSnapshot;
+import com.bookstore.catalog.MappedCatalog;
+import com.bookstore.catalog.PageCursor;
+
+// เวลาต่อหน้า (20 เล่ม) ของ snapshot ที่เปิดด้วย mmap ตั้งแต่ 1 พันถึง 10 ล้านเล่ม
+// หน้าเริ่มด้วย binary search และสร้าง Book เฉพาะ 20 เล่มในหน้า heap จึงไม่โตตามขนาดแคตตาล็อก (ดูด้วย -prof gc)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms8g", "-Xmx8g" })
+public class SnapshotPageBenchmark {
+    private static final int PAGE_SIZE = 20;
+    private static final int CURSORS = 1_024;
+
+    @Param({ "1000", "100000", "1000000", "10000000" })
+    public int books;
+
+    private Path file;
+    private MappedCatalog snapshot;
+    private PageCursor[] cursors;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("catalog-" + books, ".snap");
+        CatalogSnapshot.write(BenchmarkData.books(books), file);
+        System.gc(); // หนังสือที่ใช้เขียนไฟล์ไม่ค้างอยู่ใน heap ระหว่างวัด
+        snapshot = MappedCatalog.open(file);
+        Random random = new Random(42);
+        cursors = new PageCursor[CURSORS];
+        for (int c = 0; c < CURSORS; c++) {
+            cursors[c] = new PageCursor(null, BenchmarkData.isbn(random.nextInt(books)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        snapshot.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public BookPage page() {
+        PageCursor after = cursors[next];
+        next = (next + 1) & (CURSORS - 1);
+        return snapshot.page(BookFilter.ANY, after, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public BookPage firstPage() {
+        return snapshot.page(BookFilter.ANY, null, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,235 @@
+package com.bookstore.analytics;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import com.bookstore.books.Book;
+import com.bookstore.customer.Customer;
+import com.bookstore.money.Money;
+
+// group-by / sum / avg / top-N บนคอลัมน์ แบ่งแถวเป็นช่วงแล้วรวมผลบางส่วนแบบขนานบน ForkJoinPool ของตัวเอง
+public class Analytics implements AutoCloseable {
+    // จำนวนแถวต่องานย่อย: ใหญ่พอให้ค่าใช้จ่ายของ fork-join ไม่มีผล เล็กพอให้แบ่งงานได้ทั่วทุกคอร์
+    static final int CHUNK_SIZE = 1 << 16;
+
+    private final ForkJoinPool pool;
+
+    public Analytics() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public Analytics(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    // ยอดขายสุทธิ (หลังส่วนลด VIP) แยกตามประเภทหนังสือ
+    public Map<String, Money> revenueByType(OrderLineColumns lines) {
+        long[] sums = aggregate(lines.size, lines.typeNames.length, (partial, from, to) -> {
+            int[] type = lines.type;
+            long[] lineTotal = lines.lineTotal;
+            for (int i = from; i < to; i++) {
+                partial[type[i]] += lineTotal[i];
+            }
+        });
+        Map<String, Money> revenue = new LinkedHashMap<>();
+        for (int t = 0; t < sums.length; t++) {
+            revenue.put(lines.typeNames[t], Money.ofUnits(sums[t], OrderLineColumns.SCALE));
+        }
+        return revenue;
+    }
+
+    public Map<String, Long> quantityByType(OrderLineColumns lines) {
+        long[] sums = aggregate(lines.size, lines.typeNames.length, (partial, from, to) -> {
+            int[] type = lines.type;
+            int[] quantity = lines.quantity;
+            for (int i = from; i < to; i++) {
+                partial[type[i]] += quantity[i];
+            }
+        });
+        Map<String, Long> quantities = new LinkedHashMap<>();
+        for (int t = 0; t < sums.length; t++) {
+            quantities.put(lines.typeNames[t], sums[t]);
+        }
+        return quantities;
+    }
+
+    public Map<Customer.CustomerType, Money> revenueByCustomerType(OrderLineColumns lines) {
+        Customer.CustomerType[] customerTypes = Customer.CustomerType.values();
+        long[] sums = aggregate(lines.size, customerTypes.length, (partial, from, to) -> {
+            byte[] customerType = lines.customerType;
+            long[] lineTotal = lines.lineTotal;
+            for (int i = from; i < to; i++) {
+                partial[customerType[i]] += lineTotal[i];
+            }
+        });
+        Map<Customer.CustomerType, Money> revenue = new EnumMap<>(Customer.CustomerType.class);
+        for (Customer.CustomerType customerType : customerTypes) {
+            revenue.put(customerType, Money.ofUnits(sums[customerType.ordinal()], OrderLineColumns.SCALE));
+        }
+        return revenue;
+    }
+
+    // ส่วนลด VIP รวมรายวัน (เฉพาะวันที่มีส่วนลด) เรียงตามวันที่
+    public SortedMap<LocalDate, Money> vipDiscountByDay(OrderLineColumns lines) {
+        long[] sums = aggregate(lines.size, lines.dayCount, (partial, from, to) -> {
+            int[] day = lines.day;
+            long[] vipDiscount = lines.vipDiscount;
+            for (int i = from; i < to; i++) {
+                partial[day[i]] += vipDiscount[i];
+            }
+        });
+        SortedMap<LocalDate, Money> discounts = new TreeMap<>();
+        for (int d = 0; d < sums.length; d++) {
+            if (sums[d] != 0) {
+                discounts.put(lines.date(d), Money.ofUnits(sums[d], OrderLineColumns.SCALE));
+            }
+        }
+        return discounts;
+    }
+
+    // ราคาสุดท้ายเฉลี่ยต่อผู้แต่ง (ปัดแบบ HALF_EVEN ที่ BookColumns.SCALE)
+    public Map<String, Money> averageFinalPriceByAuthor(BookColumns books) {
+        return averageByKey(books, books.author, books.authorNames);
+    }
+
+    public Map<String, Money> averageFinalPriceByType(BookColumns books) {
+        return averageByKey(books, books.type, books.typeNames);
+    }
+
+    // n เล่มที่ราคาสุดท้ายสูงสุด ราคาเท่ากันเล่มที่มาก่อนในแคตตาล็อกมาก่อน
+    public List<Book> topByFinalPrice(BookColumns books, int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must not be negative: " + n);
+        }
+        int chunks = chunkCount(books.size);
+        int[] top = run(() -> IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> topInChunk(books.finalPrice, chunk * CHUNK_SIZE,
+                        Math.min(books.size, (chunk + 1) * CHUNK_SIZE), n))
+                .reduce((a, b) -> mergeTop(books.finalPrice, a, b, n))
+                .orElse(new int[0]));
+        List<Book> result = new ArrayList<>(top.length);
+        for (int row : top) {
+            result.add(books.books[row]);
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private Map<String, Money> averageByKey(BookColumns books, int[] key, String[] names) {
+        int groups = names.length;
+        // [0, groups) คือผลรวมราคา, [groups, 2 * groups) คือจำนวนเล่ม
+        long[] sums = aggregate(books.size, 2 * groups, (partial, from, to) -> {
+            long[] finalPrice = books.finalPrice;
+            for (int i = from; i < to; i++) {
+                partial[key[i]] += finalPrice[i];
+                partial[groups + key[i]]++;
+            }
+        });
+        Map<String, Money> averages = new LinkedHashMap<>();
+        for (int g = 0; g < groups; g++) {
+            BigDecimal average = BigDecimal.valueOf(sums[g], BookColumns.SCALE)
+                    .divide(BigDecimal.valueOf(sums[groups + g]), BookColumns.SCALE, RoundingMode.HALF_EVEN);
+            averages.put(names[g], Money.of(average));
+        }
+        return averages;
+    }
+
+    @FunctionalInterface
+    private interface ChunkAggregator {
+        // สะสมแถว [from, to) ลงใน partial ที่เป็นของงานย่อยนี้เท่านั้น
+        void accumulate(long[] partial, int from, int to);
+    }
+
+    private long[] aggregate(int size, int groups, ChunkAggregator aggregator) {
+        int chunks = chunkCount(size);
+        return run(() -> IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    long[] partial = new long[groups];
+                    aggregator.accumulate(partial, chunk * CHUNK_SIZE, Math.min(size, (chunk + 1) * CHUNK_SIZE));
+                    return partial;
+                })
+                .reduce(Analytics::merge)
+                .orElseGet(() -> new long[groups]));
+    }
+
+    private static long[] merge(long[] left, long[] right) {
+        for (int g = 0; g < left.length; g++) {
+            left[g] = Math.addExact(left[g], right[g]);
+        }
+        return left;
+    }
+
+    private static int chunkCount(int size) {
+        return (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    // แถวที่ดีกว่ามาก่อน: ราคาสูงกว่า แล้วจึงแถวที่มาก่อน
+    private static int compareRows(long[] price, int a, int b) {
+        int byPrice = Long.compare(price[b], price[a]);
+        return byPrice != 0 ? byPrice : Integer.compare(a, b);
+    }
+
+    private static int[] topInChunk(long[] price, int from, int to, int n) {
+        // heap ที่หัวเป็นแถวที่แย่ที่สุดในบรรดา n แถวที่เก็บไว้
+        PriorityQueue<Integer> heap = new PriorityQueue<>((a, b) -> compareRows(price, b, a));
+        for (int i = from; i < to && n > 0; i++) {
+            if (heap.size() < n) {
+                heap.add(i);
+            } else if (compareRows(price, i, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(i);
+            }
+        }
+        int[] top = new int[heap.size()];
+        for (int k = top.length - 1; k >= 0; k--) {
+            top[k] = heap.poll();
+        }
+        return top;
+    }
+
+    private static int[] mergeTop(long[] price, int[] a, int[] b, int n) {
+        int[] merged = new int[Math.min(n, a.length + b.length)];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < merged.length; k++) {
+            if (j >= b.length || (i < a.length && compareRows(price, a[i], b[j]) < 0)) {
+                merged[k] = a[i++];
+            } else {
+                merged[k] = b[j++];
+            }
+        }
+        return merged;
+    }
+
+    private <T> T run(Callable<T> task) {
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Analytics query interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Analytics query failed", cause);
+        }
+    }
+}
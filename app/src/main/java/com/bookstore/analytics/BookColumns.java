@@ -0,0 +1,68 @@
+package com.bookstore.analytics;
+
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.bookstore.books.Book;
+
+// ภาพฉายของแคตตาล็อกเป็นอาร์เรย์ primitive แยกตามคอลัมน์ (สร้างครั้งเดียว ใช้ query ได้หลายครั้ง)
+public final class BookColumns {
+    // ราคาทุกคอลัมน์เก็บเป็นหน่วยย่อยที่ scale คงที่ เพื่อรวมด้วย long ได้โดยตรง
+    public static final int SCALE = 6;
+
+    final int size;
+    final Book[] books;
+    final String[] typeNames;
+    final int[] type;
+    final String[] authorNames;
+    final int[] author;
+    final int[] year;
+    final long[] finalPrice;
+
+    private BookColumns(List<Book> books, Dictionary types, int[] type, Dictionary authors, int[] author,
+            int[] year, long[] finalPrice) {
+        this.size = books.size();
+        this.books = books.toArray(new Book[0]);
+        this.typeNames = types.values();
+        this.type = type;
+        this.authorNames = authors.values();
+        this.author = author;
+        this.year = year;
+        this.finalPrice = finalPrice;
+    }
+
+    public static BookColumns of(Iterable<? extends Book> source) {
+        List<Book> books = new ArrayList<>();
+        for (Book book : source) {
+            books.add(book);
+        }
+        Dictionary types = new Dictionary();
+        Dictionary authors = new Dictionary();
+        int[] type = new int[books.size()];
+        int[] author = new int[books.size()];
+        int[] year = new int[books.size()];
+        long[] finalPrice = new long[books.size()];
+        for (int i = 0; i < books.size(); i++) {
+            Book book = books.get(i);
+            type[i] = types.code(book.getBookType());
+            author[i] = authors.code(book.getAuthor());
+            year[i] = book.getPublishYearValue();
+            finalPrice[i] = book.calculatePriceMoney().setScale(SCALE, RoundingMode.HALF_EVEN).getUnits();
+        }
+        return new BookColumns(books, types, type, authors, author, year, finalPrice);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public List<String> bookTypes() {
+        return Arrays.asList(typeNames.clone());
+    }
+
+    public List<String> authors() {
+        return Arrays.asList(authorNames.clone());
+    }
+}
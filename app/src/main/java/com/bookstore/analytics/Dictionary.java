@@ -0,0 +1,26 @@
+package com.bookstore.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// แปลงค่าข้อความ (ประเภทหนังสือ, ผู้แต่ง) เป็นรหัส int สำหรับเก็บในคอลัมน์
+final class Dictionary {
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    int code(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    String[] values() {
+        return values.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,161 @@
+package com.bookstore.analytics;
+
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+import com.bookstore.customer.Customer;
+import com.bookstore.money.Money;
+import com.bookstore.order.Order;
+import com.bookstore.order.OrderItem;
+
+// รายการสินค้าในคำสั่งซื้อทั้งหมด หนึ่งแถวต่อหนึ่ง OrderItem เก็บเป็นอาร์เรย์ primitive
+public final class OrderLineColumns {
+    public static final int SCALE = BookColumns.SCALE;
+
+    final int size;
+    final String[] typeNames;
+    final int[] type;
+    final byte[] customerType; // Customer.CustomerType.ordinal()
+    final int firstDay; // epoch day ของวันแรก
+    final int dayCount;
+    final int[] day; // วันนับจาก firstDay
+    final int[] quantity;
+    final long[] lineTotal; // ยอดหลังส่วนลด VIP
+    final long[] vipDiscount;
+
+    private OrderLineColumns(Builder builder) {
+        this.size = builder.size;
+        this.typeNames = builder.types.values();
+        // Builder ที่กำหนดจำนวนแถวไว้ถูกต้องส่งอาร์เรย์มาได้เลยโดยไม่ต้องคัดลอก
+        this.type = builder.type.length == size ? builder.type : Arrays.copyOf(builder.type, size);
+        this.customerType = builder.customerType.length == size ? builder.customerType
+                : Arrays.copyOf(builder.customerType, size);
+        this.quantity = builder.quantity.length == size ? builder.quantity : Arrays.copyOf(builder.quantity, size);
+        this.lineTotal = builder.lineTotal.length == size ? builder.lineTotal
+                : Arrays.copyOf(builder.lineTotal, size);
+        this.vipDiscount = builder.vipDiscount.length == size ? builder.vipDiscount
+                : Arrays.copyOf(builder.vipDiscount, size);
+        this.day = builder.day.length == size ? builder.day : Arrays.copyOf(builder.day, size);
+        int first = Integer.MAX_VALUE;
+        int last = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            first = Math.min(first, day[i]);
+            last = Math.max(last, day[i]);
+        }
+        this.firstDay = size == 0 ? 0 : first;
+        this.dayCount = size == 0 ? 0 : last - first + 1;
+        for (int i = 0; i < size; i++) {
+            day[i] -= firstDay;
+        }
+    }
+
+    public static OrderLineColumns of(Iterable<Order> orders) {
+        return of(orders, ZoneId.systemDefault());
+    }
+
+    public static OrderLineColumns of(Iterable<Order> orders, ZoneId zone) {
+        Builder builder = new Builder(zone);
+        for (Order order : orders) {
+            builder.addOrder(order);
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    LocalDate date(int dayOffset) {
+        return LocalDate.ofEpochDay((long) firstDay + dayOffset);
+    }
+
+    // สร้างคอลัมน์ทีละคำสั่งซื้อ หรือเพิ่มแถวโดยตรง (สำหรับข้อมูลจำนวนมากที่ไม่ได้เก็บเป็น Order)
+    // ใช้ build() ได้ครั้งเดียว
+    public static final class Builder {
+        private final ZoneId zone;
+        private final Dictionary types = new Dictionary();
+        private int size;
+        private boolean built;
+        private int[] type;
+        private byte[] customerType;
+        private int[] day;
+        private int[] quantity;
+        private long[] lineTotal;
+        private long[] vipDiscount;
+
+        public Builder() {
+            this(ZoneId.systemDefault(), 1024);
+        }
+
+        public Builder(ZoneId zone) {
+            this(zone, 1024);
+        }
+
+        public Builder(ZoneId zone, int expectedLines) {
+            if (expectedLines < 0) {
+                throw new IllegalArgumentException("expectedLines must not be negative: " + expectedLines);
+            }
+            this.zone = zone;
+            type = new int[expectedLines];
+            customerType = new byte[expectedLines];
+            day = new int[expectedLines];
+            quantity = new int[expectedLines];
+            lineTotal = new long[expectedLines];
+            vipDiscount = new long[expectedLines];
+        }
+
+        public Builder addOrder(Order order) {
+            LocalDate date = order.getCreatedAt().atZone(zone).toLocalDate();
+            Customer.CustomerType buyer = order.getCustomer().getCustomerType();
+            for (OrderItem item : order.getOrderItems()) {
+                Money beforeVip = item.getLineItemTotalMoney();
+                Money afterVip = order.getLineTotalMoney(item);
+                addLine(item.getBook().getBookType(), buyer, date, item.getQuantity(), units(afterVip),
+                        units(beforeVip.minus(afterVip)));
+            }
+            return this;
+        }
+
+        public Builder addLine(String bookType, Customer.CustomerType buyer, LocalDate date, int quantity,
+                long lineTotalUnits, long vipDiscountUnits) {
+            if (built) {
+                throw new IllegalStateException("Builder already built");
+            }
+            if (size == type.length) {
+                grow();
+            }
+            type[size] = types.code(bookType);
+            customerType[size] = (byte) buyer.ordinal();
+            day[size] = Math.toIntExact(date.toEpochDay());
+            this.quantity[size] = quantity;
+            lineTotal[size] = lineTotalUnits;
+            vipDiscount[size] = vipDiscountUnits;
+            size++;
+            return this;
+        }
+
+        public OrderLineColumns build() {
+            if (built) {
+                throw new IllegalStateException("Builder already built");
+            }
+            built = true;
+            return new OrderLineColumns(this);
+        }
+
+        private void grow() {
+            int capacity = Math.toIntExact(Math.min(Integer.MAX_VALUE - 8, Math.max(16, type.length * 2L)));
+            type = Arrays.copyOf(type, capacity);
+            customerType = Arrays.copyOf(customerType, capacity);
+            day = Arrays.copyOf(day, capacity);
+            quantity = Arrays.copyOf(quantity, capacity);
+            lineTotal = Arrays.copyOf(lineTotal, capacity);
+            vipDiscount = Arrays.copyOf(vipDiscount, capacity);
+        }
+
+        private static long units(Money amount) {
+            return amount.setScale(SCALE, RoundingMode.HALF_EVEN).getUnits();
+        }
+    }
+}
@@ -1,32 +1,97 @@
 package com.bookstore.app;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.ArrayList;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Scanner;
 
 import com.bookstore.books.AudioBook;
 import com.bookstore.books.Book;
+import com.bookstore.books.BookType;
 import com.bookstore.books.EBook;
 import com.bookstore.books.PhysicalBook;
+import com.bookstore.catalog.BookFilter;
+import com.bookstore.catalog.BookPage;
+import com.bookstore.catalog.Catalog;
+import com.bookstore.catalog.CatalogOrder;
+import com.bookstore.catalog.CatalogImporter;
+import com.bookstore.catalog.ImportReport;
+import com.bookstore.catalog.MappedCatalog;
+import com.bookstore.catalog.PageCursor;
+import com.bookstore.checkout.CheckoutService;
 import com.bookstore.customer.Customer;
+import com.bookstore.customer.CustomerRegistry;
+import com.bookstore.event.AsyncConsoleSink;
+import com.bookstore.event.StoreEvents;
+import com.bookstore.history.OrderHistory;
+import com.bookstore.http.Storefront;
+import com.bookstore.http.StorefrontServer;
+import com.bookstore.inventory.Stock;
+import com.bookstore.journal.JournalEntry;
+import com.bookstore.journal.OrderJournal;
+import com.bookstore.metrics.Counter;
+import com.bookstore.metrics.Metrics;
+import com.bookstore.metrics.Timer;
+import com.bookstore.order.CartStore;
 import com.bookstore.order.Order;
 import com.bookstore.order.OrderItem;
 import com.bookstore.order.ShoppingCart;
+import com.bookstore.recommend.FullScanRecommender;
+import com.bookstore.render.TextBuffer;
+import com.bookstore.recommend.RecommendationIndex;
+import com.bookstore.search.SearchIndex;
 
 public class BookstoreApp {
-    private static List<Book> inventory = new ArrayList<>(); // รายการหนังสือในคลัง
-    private static List<Customer> customers = new ArrayList<>(); // รายชื่อลูกค้า
+    private static Catalog catalog = new Catalog(); // คลังหนังสือ (ค้นหาตาม ISBN ได้ทันที)
+    private static RecommendationIndex recommendations = new RecommendationIndex(); // หนังสือแนะนำ อัปเดตตาม catalog
+    private static SearchIndex searchIndex = new SearchIndex(); // ค้นหาจากชื่อหนังสือ/ผู้แต่ง
+    private static MappedCatalog snapshot = null; // แคตตาล็อกจากไฟล์ snapshot (ถ้ามี)
+    private static final CustomerRegistry customers = new CustomerRegistry(); // ทะเบียนลูกค้า ค้นด้วย ID หรือ username
     private static Customer currentCustomer = null; // ลูกค้าที่กำลังใช้งานระบบ
-    private static ShoppingCart shoppingCart = new ShoppingCart(); // ตะกร้าสินค้าปัจจุบัน
+    private static CartStore cartStore = new CartStore(); // ตะกร้าสินค้าแยกตามลูกค้า
+    private static Stock stock = new Stock(); // จำนวนหนังสือเล่มในคลัง (เล่มที่ไม่ได้ตั้งไว้ถือว่าไม่จำกัด)
+    private static OrderJournal journal = null; // journal ของการ checkout (ถ้าเปิดได้)
+    private static OrderHistory history = null; // ประวัติคำสั่งซื้อแยกไฟล์ตามเดือน (ถ้าเปิดได้)
+    private static CheckoutService checkoutService = new CheckoutService();
     private static Scanner scanner = new Scanner(System.in); // สำหรับรับอินพุต
+    private static final Timer CHECKOUT = Metrics.timer("checkout");
+    private static final Counter ORDERS = Metrics.counter("checkout.orders");
+    private static final Timer RECOMMENDATIONS = Metrics.timer("recommendations");
+    private static final int PAGE_SIZE = 20; // จำนวนหนังสือต่อหน้าของรายการ
+    private static TextBuffer listing = new TextBuffer(System.out.charset(), 64 * 1024); // ใช้ซ้ำทุกครั้งที่แสดงรายการหนังสือ
 
     public static void main(String[] args) {
-        initializeInventory();
+        OptionalInt httpPort = httpPort(args); // --http หรือ --http=<port> เปิด HTTP API แทนเมนู
+        args = Arrays.stream(args).filter(arg -> !arg.startsWith("--http")).toArray(String[]::new);
+        StoreEvents.setSink(new AsyncConsoleSink()); // ข้อความจาก cart/checkout พิมพ์ผ่าน console sink
+        catalog.addListener(recommendations);
+        catalog.addListener(searchIndex);
+        if (args.length > 0 && args[0].endsWith(".snap")) {
+            openSnapshot(Path.of(args[0])); // snapshot แบบ memory-mapped เปิดได้ทันทีโดยไม่ต้อง parse
+        } else if (args.length > 0) {
+            importInventory(Path.of(args[0])); // แคตตาล็อกจากไฟล์ CSV / JSON Lines
+        } else {
+            initializeInventory();
+        }
         initializeCustomers();
+        openHistory(Path.of(System.getProperty("bookstore.history", "bookstore-history")));
+        openJournal(Path.of(System.getProperty("bookstore.journal", "bookstore-orders.journal")));
+        if (httpPort.isPresent()) {
+            serveHttp(httpPort.getAsInt());
+            return;
+        }
 
         while (true) {
             printMainMenu();
@@ -46,14 +111,14 @@ public class BookstoreApp {
                     addBookToCart();
                     break;
                 case 4:
-                    shoppingCart.displayCart();
+                    currentCart().displayCart();
                     break;
                 case 5:
                     if (currentCustomer == null) {
                         System.out.println("Please select a customer first (Option 2).");
                         break;
                     }
-                    if (shoppingCart.getItems().isEmpty()) {
+                    if (currentCart().isEmpty()) {
                         System.out.println("Shopping cart is empty. Add items before checkout.");
                         break;
                     }
@@ -62,8 +127,21 @@ public class BookstoreApp {
                 case 6:
                     viewRecommendedBooks();
                     break;
+                case 7:
+                    if (currentCustomer == null) {
+                        System.out.println("Please select a customer first (Option 2).");
+                        break;
+                    }
+                    viewOrderHistory();
+                    break;
                 case 0:
                     System.out.println("Exiting application. Thank you!");
+                    if (Metrics.isEnabled()) {
+                        System.out.print(Metrics.appendText(new StringBuilder()));
+                    }
+                    StoreEvents.sink().close();
+                    closeJournal();
+                    closeHistory();
                     scanner.close();
                     return;
                 default:
@@ -72,9 +150,53 @@ public class BookstoreApp {
         }
     }
 
+    private static OptionalInt httpPort(String[] args) {
+        for (String arg : args) {
+            if (arg.equals("--http")) {
+                return OptionalInt.of(8080);
+            }
+            if (arg.startsWith("--http=")) {
+                return OptionalInt.of(Integer.parseInt(arg.substring("--http=".length())));
+            }
+        }
+        return OptionalInt.empty();
+    }
+
+    // ให้บริการหลายผู้ใช้พร้อมกันผ่าน HTTP; เธรดของ HttpServer ทำให้ JVM ทำงานต่อหลัง main จบ
+    private static void serveHttp(int port) {
+        if (snapshot != null) {
+            // ตะกร้าและดัชนีค้นหาต้องใช้ catalog ในหน่วยความจำ
+            try (MappedCatalog mapped = snapshot) {
+                mapped.forEach(catalog::add);
+            } catch (IOException e) {
+                System.out.println("Could not close catalog snapshot: " + e.getMessage());
+            }
+            snapshot = null;
+        }
+        Storefront storefront = new Storefront(catalog, recommendations, searchIndex, customers, checkoutService, stock);
+        StorefrontServer server;
+        try {
+            server = StorefrontServer.start(storefront, port);
+        } catch (IOException e) {
+            System.out.println("Could not start HTTP server on port " + port + ": " + e.getMessage());
+            StoreEvents.sink().close();
+            closeJournal();
+            closeHistory();
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            StoreEvents.sink().close();
+            closeJournal();
+            closeHistory();
+        }));
+        System.out.println("Storefront API listening on http://localhost:" + server.address().getPort()
+                + " (" + catalog.size() + " books, " + customers.size() + " customers)");
+    }
+
     private static void initializeInventory() {
         // Physical Books
-        inventory.add(new PhysicalBook(
+        catalog.add(new PhysicalBook(
                 "978-0684832722",
                 "The Sovereign Individual",
                 "James Dale Davidson",
@@ -83,7 +205,7 @@ public class BookstoreApp {
                 "Hardcover",
                 "1997"));
 
-        inventory.add(new PhysicalBook(
+        catalog.add(new PhysicalBook(
                 "978-1491954386",
                 "Mastering Bitcoin",
                 "Andreas M. Antonopoulos",
@@ -92,7 +214,7 @@ public class BookstoreApp {
                 "Paperback",
                 "2017"));
 
-        inventory.add(new PhysicalBook(
+        catalog.add(new PhysicalBook(
                 "978-1492054856",
                 "Mastering the Lightning Network",
                 "Andreas M. Antonopoulos",
@@ -101,7 +223,7 @@ public class BookstoreApp {
                 "Paperback",
                 "2018"));
 
-        inventory.add(new PhysicalBook(
+        catalog.add(new PhysicalBook(
                 "978-1544526474",
                 "The Bitcoin Standard",
                 "Saifedean Ammous",
@@ -110,7 +232,7 @@ public class BookstoreApp {
                 "Hardcover",
                 "2018"));
 
-        inventory.add(new PhysicalBook(
+        catalog.add(new PhysicalBook(
                 "978-1544526478",
                 "The Fiat Standard",
                 "Saifedean Ammous",
@@ -119,7 +241,7 @@ public class BookstoreApp {
                 "Hardcover",
                 "2021"));
 
-        inventory.add(new PhysicalBook(
+        catalog.add(new PhysicalBook(
                 "978-1337563079",
                 "Principles of Economics (2022)",
                 "N. Gregory Mankiw",
@@ -129,21 +251,21 @@ public class BookstoreApp {
                 "2022"));
 
         // E-Books
-        inventory.add(new EBook(
+        catalog.add(new EBook(
                 "978-1098150097",
                 "Bitcoin for Everyone",
                 "Andreas M. Antonopoulos",
                 new BigDecimal("32.99"),
                 "2020"));
 
-        inventory.add(new EBook(
+        catalog.add(new EBook(
                 "978-1492054863",
                 "Mastering the Lightning Network",
                 "Andreas M. Antonopoulos",
                 new BigDecimal("39.99"),
                 "2018"));
 
-        inventory.add(new EBook(
+        catalog.add(new EBook(
                 "978-1544526481",
                 "The Bitcoin Standard",
                 "Saifedean Ammous",
@@ -151,34 +273,131 @@ public class BookstoreApp {
                 "2018"));
 
         // Audio Books
-        inventory.add(new AudioBook(
+        catalog.add(new AudioBook(
                 "978-1098150110",
                 "Bitcoin: The Future of Money",
                 "Andreas M. Antonopoulos",
                 new BigDecimal("29.95"),
                 "2020"));
 
-        inventory.add(new AudioBook(
+        catalog.add(new AudioBook(
                 "978-1544526488",
                 "The Fiat Standard",
                 "Saifedean Ammous",
                 new BigDecimal("39.95"),
                 "2021"));
 
-        inventory.add(new AudioBook(
+        catalog.add(new AudioBook(
                 "978-1099876550",
                 "The Bitcoin Enlightenment (2025, Co-Authored)",
                 "Various Authors",
                 new BigDecimal("37.95"),
                 "2025"));
+
+        // จำนวนหนังสือเล่มในคลัง
+        stock.stock("978-0684832722", 5);
+        stock.stock("978-1491954386", 12);
+        stock.stock("978-1492054856", 8);
+        stock.stock("978-1544526474", 20);
+        stock.stock("978-1544526478", 10);
+        stock.stock("978-1337563079", 6);
+    }
+
+    private static void importInventory(Path file) {
+        try {
+            ImportReport report = new CatalogImporter().importInto(file, catalog);
+            System.out.println(report);
+            for (ImportReport.RowError error : report.errors()) {
+                System.out.println("  line " + error.lineNumber() + ": " + error.message());
+            }
+        } catch (IOException e) {
+            System.out.println("Could not read catalog file " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static void openSnapshot(Path file) {
+        try {
+            snapshot = MappedCatalog.open(file);
+            System.out.println("Opened catalog snapshot with " + snapshot.size() + " books.");
+        } catch (IOException e) {
+            System.out.println("Could not open catalog snapshot " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean hasBooks() {
+        return snapshot != null ? !snapshot.isEmpty() : !catalog.isEmpty();
+    }
+
+    private static Optional<Book> findBook(String isbn) {
+        return snapshot != null ? snapshot.findByIsbn(isbn) : catalog.findByIsbn(isbn);
     }
 
     private static void initializeCustomers() {
-        customers.add(new Customer("C001", "demo1", Customer.CustomerType.VIP));
-        customers.add(new Customer("C002", "demo2", Customer.CustomerType.GENERAL));
+        customers.register("C001", "demo1", Customer.CustomerType.VIP);
+        customers.register("C002", "demo2", Customer.CustomerType.GENERAL);
+        customers.register("C003", "demo3", Customer.CustomerType.GOLD);
+    }
+
+    private static void openHistory(Path directory) {
+        try {
+            history = OrderHistory.open(directory);
+        } catch (IOException e) {
+            System.out.println("Order history unavailable (" + e.getMessage() + ").");
+        }
+    }
+
+    // กู้แต้มสะสมของลูกค้าจาก journal (แต้มที่ได้ลบแต้มที่แลก) แล้วบันทึกการ checkout ต่อท้ายไฟล์เดิม
+    // คำสั่งซื้อที่ยังไม่ถูกเขียนลงประวัติ (เช่นโปรแกรมปิดไม่ปกติ) ถูกเติมจาก journal ด้วย
+    private static void openJournal(Path path) {
+        Map<String, Integer> points = new HashMap<>();
+        try {
+            journal = OrderJournal.open(path, OrderJournal.DEFAULT_MAX_BATCH, entry -> {
+                points.merge(entry.customerId(), entry.pointsAwarded(), Integer::sum);
+                if (history != null && !entry.isRedemption()) {
+                    history.backfill(entry);
+                }
+            });
+        } catch (IOException e) {
+            System.out.println("Order journal unavailable (" + e.getMessage() + "), orders will not be recorded.");
+            checkoutService = new CheckoutService(null, history);
+            return;
+        }
+        points.forEach((customerId, restored) -> customers.findById(customerId)
+                .ifPresent(customer -> customer.restoreLoyaltyPoints(restored)));
+        OrderJournal.ReplayResult recovered = journal.recovered();
+        if (recovered.entries() > 0 || recovered.discardedBytes() > 0) {
+            System.out.println("Recovered " + recovered.entries() + " orders from " + path
+                    + (recovered.discardedBytes() > 0
+                            ? " (discarded " + recovered.discardedBytes() + " bytes of incomplete writes)"
+                            : ""));
+        }
+        checkoutService = new CheckoutService(journal, history);
+    }
+
+    private static void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.out.println("Failed to close order journal: " + e.getMessage());
+        }
+    }
+
+    private static void closeHistory() {
+        if (history == null) {
+            return;
+        }
+        try {
+            history.close();
+        } catch (IOException e) {
+            System.out.println("Failed to write order history: " + e.getMessage());
+        }
     }
 
     private static void printMainMenu() {
+        StoreEvents.flush(); // ให้ข้อความจาก event แสดงก่อนเมนู
         System.out.println("\n--- Online Bookstore Menu ---");
         if (currentCustomer != null) {
             System.out.println("Customer Account : " + currentCustomer.getUsername() + " ("
@@ -192,6 +411,7 @@ public class BookstoreApp {
         System.out.println("4. View Cart");
         System.out.println("5. Checkout");
         System.out.println("6. View Recommended Books (Highest Price per Type)");
+        System.out.println("7. View Order History");
         System.out.println("0. Exit");
         System.out.print("Enter your choice: ");
     }
@@ -206,14 +426,48 @@ public class BookstoreApp {
         return choice;
     }
 
+    // ตะกร้าของลูกค้าที่เลือกอยู่ (ยังไม่เลือกลูกค้าจะได้ตะกร้าว่าง)
+    private static ShoppingCart currentCart() {
+        return currentCustomer == null ? new ShoppingCart() : cartStore.cartFor(currentCustomer);
+    }
+
+    private static String getUserInput() {
+        return scanner.nextLine().trim();
+    }
+
     private static void viewBooks() {
         System.out.println("\n--- Available Books ---");
-        if (inventory.isEmpty()) {
+        if (!hasBooks()) {
             System.out.println("No books available in inventory.");
             return;
         }
-        for (int i = 0; i < inventory.size(); i++) {
-            System.out.println((i + 1) + ". " + inventory.get(i).displayDetails());
+        // แสดงทีละหน้าตาม ISBN แต่ละหน้าอ่านต่อจาก cursor ของหน้าก่อน
+        StringBuilder text = listing.text();
+        int number = 1;
+        PageCursor after = null;
+        while (true) {
+            // snapshot สร้าง Book เฉพาะเล่มในหน้านั้น
+            BookPage page = snapshot != null
+                    ? snapshot.page(BookFilter.ANY, after, PAGE_SIZE)
+                    : catalog.page(CatalogOrder.ISBN, BookFilter.ANY, after, PAGE_SIZE);
+            try {
+                // เขียนทั้งหน้าผ่านบัฟเฟอร์เดียว ไม่สร้าง String ต่อเล่ม
+                for (Book book : page.books()) {
+                    book.appendDetails(text.append(number++).append(". "));
+                    listing.newline().flushIfFull(System.out);
+                }
+                listing.flush(System.out);
+            } catch (IOException e) {
+                text.setLength(0);
+            }
+            if (page.next().isEmpty()) {
+                break;
+            }
+            System.out.print("-- Enter for more, q to stop: ");
+            if (getUserInput().equalsIgnoreCase("q")) {
+                break;
+            }
+            after = page.next().get();
         }
         System.out.println("---------------------");
     }
@@ -224,15 +478,13 @@ public class BookstoreApp {
             return;
         }
         System.out.println("\n--- Select Customer ---");
-        for (int i = 0; i < customers.size(); i++) {
-            System.out.println((i + 1) + ". " + customers.get(i).toString());
-        }
-        System.out.print("Enter customer number to select: ");
-        int choice = getUserChoice();
-        if (choice > 0 && choice <= customers.size()) {
-            currentCustomer = customers.get(choice - 1);
+        System.out.println("Demo customers: C001 (demo1), C002 (demo2), C003 (demo3)");
+        System.out.print("Enter customer ID or username: ");
+        String key = getUserInput().trim();
+        Optional<Customer> customer = customers.findById(key).or(() -> customers.findByUsername(key));
+        if (customer.isPresent()) {
+            currentCustomer = customer.get();
             System.out.println("Customer selected: " + currentCustomer.getUsername());
-            shoppingCart.clearCart(); // ล้างตะกร้าสำหรับลูกค้าที่เลือก
         } else {
             System.out.println("Invalid customer selection.");
         }
@@ -240,16 +492,19 @@ public class BookstoreApp {
 
     private static void addBookToCart() {
         viewBooks();
-        if (inventory.isEmpty())
+        if (!hasBooks())
             return;
 
-        System.out.print("Enter book number to add to cart: ");
-        int bookChoice = getUserChoice();
-        if (bookChoice <= 0 || bookChoice > inventory.size()) {
+        System.out.print("Enter book ISBN or search words to add to cart: ");
+        String input = getUserInput();
+        Book selectedBook = findBook(input).orElse(null);
+        if (selectedBook == null && snapshot == null) {
+            selectedBook = chooseFromSearch(input);
+        }
+        if (selectedBook == null) {
             System.out.println("Invalid book selection.");
             return;
         }
-        Book selectedBook = inventory.get(bookChoice - 1);
 
         System.out.print("Enter quantity: ");
         int quantity = getUserChoice();
@@ -258,55 +513,127 @@ public class BookstoreApp {
             return;
         }
 
-        shoppingCart.addItem(new OrderItem(selectedBook, quantity));
+        // จองสต็อกไว้ก่อนใส่ตะกร้า ตัดจริงตอน checkout
+        if (!stock.reserve(selectedBook, quantity)) {
+            System.out.println("Not enough stock. Only " + stock.available(selectedBook) + " left.");
+            return;
+        }
+        currentCart().addItem(new OrderItem(selectedBook, quantity));
     }
 
-    private static void checkout() {
-        Order order = new Order(currentCustomer, new ArrayList<>(shoppingCart.getItems()));
-        order.displayOrderSummary(); // แสดงสรุปคำสั่งซื้อพร้อมราคาสุดท้าย
-
-        // การให้แต้มสะสม
-        // ลูกค้าทั่วไป 1 แต้ม ต่อทุกๆ 10 หน่วยสกุลเงินที่ใช้จ่าย
-        // ลูกค้า VIP 2 แต้ม ต่อทุกๆ 10 หน่วยสกุลเงินที่ใช้จ่าย
-        BigDecimal amountSpent = order.getGrandTotal(); // ยอดที่จ่ายจริง
-        int pointsEarnedBase = amountSpent.divide(new BigDecimal("10"), 0, RoundingMode.FLOOR).intValue();
-        int pointsMultiplier = currentCustomer.isVIP() ? 2 : 1;
-        int totalPointsEarned = pointsEarnedBase * pointsMultiplier;
-
-        if (totalPointsEarned > 0) {
-            currentCustomer.addLoyaltyPoints(totalPointsEarned);
+    // แสดงผลค้นหา 10 อันดับแรกแล้วให้เลือกตามลำดับ
+    private static Book chooseFromSearch(String query) {
+        List<Book> results = searchIndex.searchBooks(query, 10);
+        if (results.isEmpty()) {
+            return null;
+        }
+        System.out.println("\n--- Search Results ---");
+        for (int i = 0; i < results.size(); i++) {
+            System.out.println((i + 1) + ". " + results.get(i).displayDetails());
         }
+        System.out.print("Enter result number: ");
+        int choice = getUserChoice();
+        return choice > 0 && choice <= results.size() ? results.get(choice - 1) : null;
+    }
 
-        System.out.println("Thank you for your order, " + currentCustomer.getUsername() + "!");
-        shoppingCart.clearCart();
+    private static void checkout() {
+        long start = CHECKOUT.start();
+        try {
+            ShoppingCart shoppingCart = currentCart();
+            List<OrderItem> items = shoppingCart.getItems();
+            // สรุปคำสั่งซื้อพร้อมราคาสุดท้ายถูกส่งเป็น OrderPriced event หลัง recordCheckout สำเร็จ
+            Order order = checkoutService.priceOrder(currentCustomer, items);
+
+            int points = checkoutService.pointsFor(order); // การให้แต้มสะสมตามยอดที่จ่ายจริง
+            // ตัดสต็อกก่อนบันทึก หลังบันทึกแล้วจึงไม่เหลือขั้นที่ล้มเหลวจนตะกร้าค้างให้ checkout ซ้ำได้
+            stock.commit(items);
+            try {
+                checkoutService.recordCheckout(order, points); // ลงดิสก์ก่อนยืนยันคำสั่งซื้อ
+            } catch (UncheckedIOException e) {
+                // คืนสต็อกเป็นยอดจองและไม่ให้แต้ม ตะกร้ายังอยู่ให้ลองใหม่
+                stock.uncommit(items);
+                System.out.println("Your order was not placed: it could not be saved (" + e.getCause().getMessage()
+                        + "). Please try again.");
+                return;
+            } catch (RuntimeException e) {
+                stock.uncommit(items);
+                throw e;
+            }
+            checkoutService.awardPoints(order, points);
+            ORDERS.increment();
+            StoreEvents.flush();
+
+            System.out.println("Thank you for your order, " + currentCustomer.getUsername() + "!");
+            shoppingCart.clearCart();
+        } finally {
+            CHECKOUT.stop(start);
+        }
     }
 
-    private static void viewRecommendedBooks() {
-        System.out.println("\n--- Recommended Books (Highest Price per Type) ---");
-        if (inventory.isEmpty()) {
-            System.out.println("No books available to recommend.");
+    // ค้นเฉพาะเดือนที่ต้องการจาก segment ของเดือนนั้น ไม่โหลดประวัติทั้งหมด
+    private static void viewOrderHistory() {
+        if (history == null) {
+            System.out.println("Order history is not available.");
             return;
         }
-
-        Map<String, Book> highestPriceBooks = new HashMap<>();
-
-        for (Book book : inventory) {
-            String type = book.getBookType();
-            BigDecimal currentBookPrice = book.calculatePrice();
-
-            if (!highestPriceBooks.containsKey(type) ||
-                    currentBookPrice.compareTo(highestPriceBooks.get(type).calculatePrice()) > 0) {
-                highestPriceBooks.put(type, book);
+        System.out.print("Enter month (yyyy-MM, blank for the last 12 months): ");
+        String input = getUserInput();
+        String customerId = currentCustomer.getCustomerId();
+        List<JournalEntry> orders;
+        try {
+            if (input.isEmpty()) {
+                // ไฟล์แบ่งเดือนตาม UTC จึงนับ 12 เดือนตาม UTC ด้วย
+                Instant from = YearMonth.now(ZoneOffset.UTC).minusMonths(11).atDay(1).atStartOfDay()
+                        .toInstant(ZoneOffset.UTC);
+                orders = history.ordersOf(customerId, from, Instant.now().plusSeconds(1));
+            } else {
+                orders = history.ordersOf(customerId, YearMonth.parse(input));
             }
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid month: " + input);
+            return;
+        }
+        System.out.println("\n--- Order History for " + currentCustomer.getUsername() + " ---");
+        if (orders.isEmpty()) {
+            System.out.println("No orders found.");
+            return;
         }
+        for (JournalEntry order : orders) {
+            int quantity = 0;
+            for (JournalEntry.Line line : order.lines()) {
+                quantity += line.quantity();
+            }
+            System.out.println(order.createdAt() + "  Order " + order.orderId() + " - " + quantity + " item(s) - $"
+                    + order.grandTotal().setScale(2, RoundingMode.HALF_EVEN) + " (+" + order.pointsAwarded()
+                    + " points)");
+        }
+    }
 
-        if (highestPriceBooks.isEmpty()) {
-            System.out.println("Could not determine recommendations.");
-        } else {
-            highestPriceBooks
-                    .forEach((type, book) -> System.out.println("Highest priced " + type + ": " + book.getTitle() +
-                            " at $" + book.calculatePrice().setScale(2, RoundingMode.HALF_EVEN)));
+    private static void viewRecommendedBooks() {
+        long start = RECOMMENDATIONS.start();
+        try {
+            System.out.println("\n--- Recommended Books (Highest Price per Type) ---");
+            if (!hasBooks()) {
+                System.out.println("No books available to recommend.");
+                return;
+            }
+
+            // snapshot ไม่มีดัชนีแนะนำ จึงยังใช้การสแกน
+            Map<BookType, Book> highestPriceBooks = snapshot != null
+                    ? FullScanRecommender.highestPricedByBookType(snapshot)
+                    : recommendations.highestPricedByBookType();
+
+            if (highestPriceBooks.isEmpty()) {
+                System.out.println("Could not determine recommendations.");
+            } else {
+                highestPriceBooks
+                        .forEach((type, book) -> System.out.println("Highest priced " + type.label() + ": "
+                                + book.getTitle() + " at $"
+                                + book.calculatePrice().setScale(2, RoundingMode.HALF_EVEN)));
+            }
+            System.out.println("--------------------------------------------------");
+        } finally {
+            RECOMMENDATIONS.stop(start);
         }
-        System.out.println("--------------------------------------------------");
     }
 }
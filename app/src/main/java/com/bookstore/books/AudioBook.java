@@ -1,30 +1,32 @@
 package com.bookstore.books;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 
-public class AudioBook extends Book {
-    private static final BigDecimal FEE_RATE = new BigDecimal("0.05"); // ค่าธรรมเนียม 5%
+import com.bookstore.pricing.PricingEngine;
+import com.bookstore.pricing.PricingRules;
+
+public final class AudioBook extends Book {
+    private static final RateLabel FEE_LABEL = new RateLabel(AudioBook::feeRate);
 
     public AudioBook(String isbn, String title, String author, BigDecimal basePrice, String publishYear) {
-        super(isbn, title, author, basePrice, publishYear);
+        super(BookType.AUDIO, isbn, title, author, basePrice, publishYear);
+    }
+
+    // ค่าธรรมเนียมของ AudioBook คือกฎ TypeAdjustment (ค่าเริ่มต้น 5%)
+    public static BigDecimal getFeeRate() {
+        return feeRate(PricingEngine.rules());
     }
 
-    @Override
-    public BigDecimal calculatePrice() {
-        BigDecimal feeAmount = this.basePrice.multiply(FEE_RATE);
-        return this.basePrice.add(feeAmount);
+    private static BigDecimal feeRate(PricingRules rules) {
+        return rules.typeAdjustment("AudioBook").orElse(BigDecimal.ZERO);
     }
 
-    @Override
-    public String displayDetails() {
-        return " " + super.displayDetails() +
-                ", Fee: 5%" +
-                ", Final Price (after type adjustment): $" + calculatePrice().setScale(2, RoundingMode.HALF_EVEN);
+    public static void setFeeRate(BigDecimal rate) {
+        PricingEngine.update(rules -> rules.withTypeAdjustment("AudioBook", rate));
     }
 
-    @Override
-    public String getBookType() {
-        return "AudioBook";
+    // ข้อความอัตราที่ Book.appendDetails ใช้
+    static String feeLabel() {
+        return FEE_LABEL.text();
     }
 }
@@ -1,21 +1,39 @@
 package com.bookstore.books;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.util.concurrent.atomic.AtomicLong;
 
-public abstract class Book {
-    protected String isbn;
-    protected String title;
-    protected String author;
-    protected String publishYear; // ปีที่ตีพิมพ์ (อาจจะใช้ในอนาคต)
-    protected BigDecimal basePrice; // ราคาตั้งต้น
+import com.bookstore.money.Money;
+import com.bookstore.pricing.CompiledPricing;
+import com.bookstore.pricing.PricingEngine;
 
-    public Book(String isbn, String title, String author, BigDecimal basePrice, String publishYear) {
+// ลำดับชั้นปิด (sealed) มีแค่สามประเภท การแยกตามประเภทจึงเป็น switch บน BookType หรือ pattern
+// ที่ JIT inline ได้ แทนการเรียกเมธอด virtual ที่ call site เห็นสามคลาส (megamorphic)
+public abstract sealed class Book permits PhysicalBook, EBook, AudioBook {
+    private final String isbn;
+    private final String title;
+    private final String author;
+    private final int publishYear; // ปีที่ตีพิมพ์ (อาจจะใช้ในอนาคต)
+    private final BookType type;
+    // จำนวนครั้งที่ราคาตั้งต้นของเล่มใดก็ตามเปลี่ยน ใช้ร่วมกับ pricingVersion ตรวจว่ายอดที่สะสมไว้ยังใช้ได้
+    private static final AtomicLong BASE_PRICE_CHANGES = new AtomicLong();
+    // ราคาตั้งต้น เป็นฟิลด์เดียวที่ยังเปลี่ยนได้ (setBasePrice ผ่าน Catalog.updateBasePrice)
+    private volatile BigDecimal basePrice;
+
+    // ราคาสุดท้ายที่คำนวณไว้แล้ว พร้อมราคาตั้งต้นและเวอร์ชันกฎที่ใช้คำนวณ
+    private volatile CachedPrice cachedPrice;
+
+    private record CachedPrice(BigDecimal basePrice, long version, Money baseMoney, Money finalPrice,
+            BigDecimal finalPriceDecimal) {
+    }
+
+    Book(BookType type, String isbn, String title, String author, BigDecimal basePrice, String publishYear) {
+        this.type = type;
         this.isbn = isbn;
         this.title = title;
-        this.author = author;
+        this.author = BookStrings.canonical(author);
         this.basePrice = basePrice;
-        this.publishYear = publishYear;
+        this.publishYear = BookStrings.parseNumber("publish year", publishYear);
     }
 
     public String getIsbn() {
@@ -35,17 +53,97 @@ public abstract class Book {
     }
 
     public String getPublishYear() {
+        return BookStrings.numberString(publishYear);
+    }
+
+    public int getPublishYearValue() {
         return publishYear;
     }
 
-    // คำนวณราคาหลังจากการปรับปรุงตามประเภทหนังสือ (เช่น ส่วนลด E-book, ค่าธรรมเนียม Audiobook)
-    public abstract BigDecimal calculatePrice();
+    // เล่มที่อยู่ใน Catalog ควรเปลี่ยนราคาผ่าน Catalog.updateBasePrice ซึ่งแจ้ง listener ด้วย
+    // ถ้าเรียกตรงๆ Catalog จะเห็นจาก basePriceChanges() และจัดดัชนีราคาใหม่ตอนอ่านครั้งถัดไป
+    public void setBasePrice(BigDecimal basePrice) {
+        this.basePrice = basePrice;
+        this.cachedPrice = null;
+        BASE_PRICE_CHANGES.incrementAndGet(); // หลังเขียนราคาใหม่ ผู้ที่เห็นค่านับใหม่จึงเห็นราคาใหม่ด้วย
+    }
+
+    // ราคาหลังปรับตามประเภทหนังสือ คำนวณครั้งเดียวต่อราคาตั้งต้นและเวอร์ชันกฎ แล้วใช้ซ้ำจากแคช
+    public final BigDecimal calculatePrice() {
+        return cachedPrice().finalPriceDecimal();
+    }
+
+    // ราคาเดียวกับ calculatePrice() ในรูป Money สำหรับการคำนวณยอดรวม
+    public final Money calculatePriceMoney() {
+        return cachedPrice().finalPrice();
+    }
+
+    // ราคาตามชุดกฎที่ระบุ (คำสั่งซื้อใช้ชุดกฎเดียวทั้งคำสั่งซื้อแม้มีการสลับกฎระหว่างคิดราคา)
+    public final Money calculatePriceMoney(CompiledPricing pricing) {
+        CachedPrice cached = this.cachedPrice;
+        if (cached != null && cached.basePrice() == basePrice && cached.version() == pricing.version()) {
+            return cached.finalPrice();
+        }
+        return computePrice(pricing, Money.of(basePrice));
+    }
+
+    private CachedPrice cachedPrice() {
+        BigDecimal base = this.basePrice;
+        CompiledPricing pricing = PricingEngine.active();
+        CachedPrice cached = this.cachedPrice;
+        if (cached == null || cached.basePrice() != base || cached.version() != pricing.version()) {
+            Money baseMoney = Money.of(base);
+            Money finalPrice = computePrice(pricing, baseMoney);
+            cached = new CachedPrice(base, pricing.version(), baseMoney, finalPrice, finalPrice.toBigDecimal());
+            this.cachedPrice = cached;
+        }
+        return cached;
+    }
+
+    // คำนวณราคาหลังจากการปรับปรุงตามประเภทหนังสือ (เช่น ส่วนลด E-book, ค่าธรรมเนียม Audiobook) ตามกฎใน PricingRules
+    private Money computePrice(CompiledPricing pricing, Money basePrice) {
+        return pricing.catalogPrice(type, basePrice);
+    }
+
+    // เวอร์ชันของกฎการคิดราคา เปลี่ยนเมื่อใดแคชราคาทุกเล่มจะหมดอายุ
+    public static long pricingVersion() {
+        return PricingEngine.active().version();
+    }
+
+    public static long basePriceChanges() {
+        return BASE_PRICE_CHANGES.get();
+    }
+
+    // ติดตั้งกฎชุดเดิมใหม่เพื่อให้ราคาในแคชถูกคำนวณใหม่
+    public static void invalidatePriceCache() {
+        PricingEngine.update(rules -> rules);
+    }
 
     public String displayDetails() {
-        return "ISBN: " + isbn + ", Title: '" + title + "', Author: '" + author +
-               "', Publish Year: " + publishYear + ", Base Price: $" + basePrice.setScale(2, RoundingMode.HALF_EVEN);
+        return appendDetails(new StringBuilder(160)).toString();
+    }
+
+    // เขียนรายละเอียดต่อท้าย out (ใช้ StringBuilder เดิมซ้ำได้) ราคาเขียนจาก Money ในแคชโดยไม่สร้าง BigDecimal ใหม่
+    public final StringBuilder appendDetails(StringBuilder out) {
+        out.append(" ISBN: ").append(isbn).append(", Title: '").append(title).append("', Author: '").append(author)
+                .append("', Publish Year: ").append(publishYear).append(", Base Price: $");
+        cachedPrice().baseMoney().appendTo(out, 2);
+        switch (this) {
+            case PhysicalBook physical -> out.append(", Page Number: ").append(physical.getPageNumberValue())
+                    .append(", Cover Type: ").append(physical.getCoverType());
+            case EBook ebook -> out.append(", Discount: ").append(EBook.discountLabel()).append('%');
+            case AudioBook audio -> out.append(", Fee: ").append(AudioBook.feeLabel()).append('%');
+        }
+        out.append(", Final Price (after type adjustment): $");
+        return calculatePriceMoney().appendTo(out, 2);
+    }
+
+    public final BookType getType() {
+        return type;
     }
 
     // เมธอดเสริมสำหรับช่วยในการแสดงประเภทหนังสือ
-    public abstract String getBookType();
+    public final String getBookType() {
+        return type.label();
+    }
 }
@@ -0,0 +1,43 @@
+package com.bookstore.books;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+// ค่าที่ซ้ำกันมากในแคตตาล็อก (ชื่อผู้แต่ง, ชนิดปก) เก็บเป็นอินสแตนซ์เดียวร่วมกัน
+// อ้างอิงแบบ weak: ค่าที่ไม่มีหนังสือเล่มไหนใช้แล้ว (เช่นหลังลบหรือนำเข้าแคตตาล็อกใหม่) ถูก GC เก็บได้
+// และตัวเลขเล็ก ๆ (ปีที่พิมพ์, จำนวนหน้า) แปลงกลับเป็น String โดยไม่สร้างใหม่ทุกครั้ง
+public final class BookStrings {
+    private static final Interner<String> POOL = Interners.newWeakInterner();
+    private static final String[] NUMBERS = new String[4096];
+
+    private BookStrings() {
+    }
+
+    public static String canonical(String value) {
+        if (value == null) {
+            return null;
+        }
+        return POOL.intern(value);
+    }
+
+    public static String numberString(int value) {
+        if (value < 0 || value >= NUMBERS.length) {
+            return Integer.toString(value);
+        }
+        // การแข่งกันเขียนไม่เป็นปัญหา: ทุกเธรดได้ String ที่มีค่าเท่ากัน
+        String cached = NUMBERS[value];
+        if (cached == null) {
+            cached = Integer.toString(value);
+            NUMBERS[value] = cached;
+        }
+        return cached;
+    }
+
+    static int parseNumber(String field, String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid " + field + " '" + value + "'");
+        }
+    }
+}
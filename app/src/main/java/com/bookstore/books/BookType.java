@@ -0,0 +1,32 @@
+package com.bookstore.books;
+
+import java.util.Optional;
+
+// ประเภทหนังสือ label คือชื่อเดิมที่ใช้เป็น String (getBookType(), กฎราคา, CSV, JSON)
+public enum BookType {
+    PHYSICAL("PhysicalBook"),
+    EBOOK("EBook"),
+    AUDIO("AudioBook");
+
+    private static final BookType[] VALUES = values();
+
+    private final String label;
+
+    BookType(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    // ประเภทจาก label; ว่างถ้าไม่รู้จัก
+    public static Optional<BookType> fromLabel(String label) {
+        for (BookType type : VALUES) {
+            if (type.label.equals(label)) {
+                return Optional.of(type);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -1,30 +1,32 @@
 package com.bookstore.books;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 
-public class EBook extends Book {
-    private static final BigDecimal DISCOUNT_RATE = new BigDecimal("0.10"); // ส่วนลด 10%
+import com.bookstore.pricing.PricingEngine;
+import com.bookstore.pricing.PricingRules;
+
+public final class EBook extends Book {
+    private static final RateLabel DISCOUNT_LABEL = new RateLabel(EBook::discountRate);
 
     public EBook(String isbn, String title, String author, BigDecimal basePrice, String publishYear) {
-        super(isbn, title, author, basePrice, publishYear);
+        super(BookType.EBOOK, isbn, title, author, basePrice, publishYear);
+    }
+
+    // ส่วนลดของ EBook คือกฎ TypeAdjustment ที่มี rate ติดลบ (ค่าเริ่มต้น 10%)
+    public static BigDecimal getDiscountRate() {
+        return discountRate(PricingEngine.rules());
     }
 
-    @Override
-    public BigDecimal calculatePrice() {
-        BigDecimal discountAmount = this.basePrice.multiply(DISCOUNT_RATE);
-        return this.basePrice.subtract(discountAmount);
+    private static BigDecimal discountRate(PricingRules rules) {
+        return rules.typeAdjustment("EBook").map(BigDecimal::negate).orElse(BigDecimal.ZERO);
     }
 
-    @Override
-    public String displayDetails() {
-        return " " + super.displayDetails() +
-               ", Discount: 10%" +
-               ", Final Price (after type adjustment): $" + calculatePrice().setScale(2, RoundingMode.HALF_EVEN);
+    public static void setDiscountRate(BigDecimal rate) {
+        PricingEngine.update(rules -> rules.withTypeAdjustment("EBook", rate.negate()));
     }
 
-    @Override
-    public String getBookType() {
-        return "EBook";
+    // ข้อความอัตราที่ Book.appendDetails ใช้
+    static String discountLabel() {
+        return DISCOUNT_LABEL.text();
     }
 }
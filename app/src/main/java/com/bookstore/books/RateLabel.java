@@ -0,0 +1,32 @@
+package com.bookstore.books;
+
+import java.math.BigDecimal;
+import java.util.function.Function;
+
+import com.bookstore.pricing.CompiledPricing;
+import com.bookstore.pricing.PricingEngine;
+import com.bookstore.pricing.PricingRules;
+
+// ข้อความเปอร์เซ็นต์ของอัตราปรับราคาตามประเภท (เช่น "10") สร้างครั้งเดียวต่อเวอร์ชันกฎราคา
+final class RateLabel {
+    private record Cached(long version, String text) {
+    }
+
+    private final Function<PricingRules, BigDecimal> rate;
+    private volatile Cached cached;
+
+    RateLabel(Function<PricingRules, BigDecimal> rate) {
+        this.rate = rate;
+    }
+
+    String text() {
+        CompiledPricing pricing = PricingEngine.active();
+        Cached current = this.cached;
+        if (current == null || current.version() != pricing.version()) {
+            String text = rate.apply(pricing.rules()).movePointRight(2).stripTrailingZeros().toPlainString();
+            current = new Cached(pricing.version(), text);
+            this.cached = current;
+        }
+        return current.text();
+    }
+}
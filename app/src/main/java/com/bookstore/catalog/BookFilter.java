@@ -0,0 +1,68 @@
+package com.bookstore.catalog;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.bookstore.books.Book;
+
+// เงื่อนไขกรองของการแบ่งหน้า ค่า null คือไม่กรองด้วยฟิลด์นั้น
+public record BookFilter(String bookType, String author, String publishYear) {
+    public static final BookFilter ANY = new BookFilter(null, null, null);
+
+    public BookFilter withType(String bookType) {
+        return new BookFilter(bookType, author, publishYear);
+    }
+
+    public BookFilter withAuthor(String author) {
+        return new BookFilter(bookType, author, publishYear);
+    }
+
+    public BookFilter withYear(String publishYear) {
+        return new BookFilter(bookType, author, publishYear);
+    }
+
+    public boolean isAny() {
+        return bookType == null && author == null && publishYear == null;
+    }
+
+    public boolean matches(Book book) {
+        return (bookType == null || bookType.equals(book.getBookType()))
+                && (author == null || author.equals(book.getAuthor()))
+                && (publishYear == null || publishYear.equals(book.getPublishYear()));
+    }
+
+    // กรองแบบ lazy: อ่านต้นทางไปทีละเล่มจนเจอเล่มที่ตรงเงื่อนไข
+    Iterator<Book> apply(Iterator<Book> books) {
+        if (isAny()) {
+            return books;
+        }
+        return new Iterator<>() {
+            private Book next = advance();
+
+            private Book advance() {
+                while (books.hasNext()) {
+                    Book book = books.next();
+                    if (matches(book)) {
+                        return book;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Book next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Book book = next;
+                next = advance();
+                return book;
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.bookstore.catalog;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import com.bookstore.books.Book;
+
+// หนึ่งหน้าของรายการหนังสือ next ว่างเมื่อเป็นหน้าสุดท้าย
+public record BookPage(List<Book> books, Optional<PageCursor> next) {
+
+    // อ่านจาก iterator ที่เรียงและกรองแล้วไม่เกิน limit เล่ม ดูเล่มถัดไปแค่ว่ามีหรือไม่
+    static BookPage take(Iterator<Book> books, int limit, CatalogOrder order) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + limit);
+        }
+        List<Book> page = new ArrayList<>(Math.min(limit, 256));
+        while (page.size() < limit && books.hasNext()) {
+            page.add(books.next());
+        }
+        Optional<PageCursor> next = books.hasNext() && !page.isEmpty()
+                ? Optional.of(PageCursor.after(page.get(page.size() - 1), order))
+                : Optional.empty();
+        return new BookPage(List.copyOf(page), next);
+    }
+}
@@ -0,0 +1,238 @@
+package com.bookstore.catalog;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.bookstore.books.AudioBook;
+import com.bookstore.books.Book;
+import com.bookstore.books.EBook;
+import com.bookstore.books.PhysicalBook;
+import com.bookstore.money.Money;
+
+// แปลงหนึ่งแถว (CSV หรือ JSON หนึ่งบรรทัด) เป็น Book
+// คอลัมน์: isbn, title, author, price, type, pages, cover, year
+final class BookRowParser {
+    static final String[] COLUMNS = { "isbn", "title", "author", "price", "type", "pages", "cover", "year" };
+
+    private BookRowParser() {
+    }
+
+    static Book parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() != COLUMNS.length) {
+            throw new IllegalArgumentException("Expected " + COLUMNS.length + " columns but found " + fields.size());
+        }
+        return toBook(fields.get(0), fields.get(1), fields.get(2), fields.get(3), fields.get(4), fields.get(5),
+                fields.get(6), fields.get(7));
+    }
+
+    static Book parseJson(String line) {
+        Map<String, String> fields = parseJsonObject(line);
+        return toBook(fields.get("isbn"), fields.get("title"), fields.get("author"), fields.get("price"),
+                fields.get("type"), fields.get("pages"), fields.get("cover"), fields.get("year"));
+    }
+
+    static boolean isCsvHeader(String line) {
+        return line.regionMatches(true, 0, "isbn,", 0, 5);
+    }
+
+    private static Book toBook(String isbn, String title, String author, String price, String type, String pages,
+            String cover, String year) {
+        require("isbn", isbn);
+        require("title", title);
+        require("author", author);
+        require("price", price);
+        require("type", type);
+        require("year", year);
+        BigDecimal basePrice;
+        try {
+            basePrice = new BigDecimal(price.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid price '" + price + "'");
+        }
+        if (basePrice.signum() < 0) {
+            throw new IllegalArgumentException("Negative price " + price);
+        }
+        try {
+            // ราคาทุกเล่มต้องเก็บเป็น Money ได้ ไม่เช่นนั้นจะล้มตอนคิดราคาหลังนำเข้าไปแล้ว
+            Money.of(basePrice);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Price out of range '" + price + "'");
+        }
+        switch (type.trim().toLowerCase()) {
+            case "physicalbook":
+            case "physical":
+                require("pages", pages);
+                require("cover", cover);
+                return new PhysicalBook(isbn, title, author, basePrice, pages, cover, year);
+            case "ebook":
+                return new EBook(isbn, title, author, basePrice, year);
+            case "audiobook":
+            case "audio":
+                return new AudioBook(isbn, title, author, basePrice, year);
+            default:
+                throw new IllegalArgumentException("Unknown book type '" + type + "'");
+        }
+    }
+
+    private static void require(String column, String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing " + column);
+        }
+    }
+
+    // CSV แบบ RFC 4180: ฟิลด์ในเครื่องหมายคำพูดมี , ได้ และ "" แทน "
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(COLUMNS.length);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // JSON object แบบแบน (ค่าเป็น string, number หรือ null) หนึ่งอ็อบเจกต์ต่อบรรทัด
+    static Map<String, String> parseJsonObject(String line) {
+        JsonCursor cursor = new JsonCursor(line);
+        Map<String, String> fields = new HashMap<>();
+        cursor.expect('{');
+        if (!cursor.consumeIf('}')) {
+            do {
+                String key = cursor.readString();
+                cursor.expect(':');
+                fields.put(key, cursor.readValue());
+            } while (cursor.consumeIf(','));
+            cursor.expect('}');
+        }
+        cursor.expectEnd();
+        return fields;
+    }
+
+    private static final class JsonCursor {
+        private final String text;
+        private int position;
+
+        JsonCursor(String text) {
+            this.text = text;
+        }
+
+        void expect(char expected) {
+            skipWhitespace();
+            if (position >= text.length() || text.charAt(position) != expected) {
+                throw new IllegalArgumentException("Expected '" + expected + "' at column " + (position + 1));
+            }
+            position++;
+        }
+
+        boolean consumeIf(char expected) {
+            skipWhitespace();
+            if (position < text.length() && text.charAt(position) == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        void expectEnd() {
+            skipWhitespace();
+            if (position != text.length()) {
+                throw new IllegalArgumentException("Unexpected content at column " + (position + 1));
+            }
+        }
+
+        String readValue() {
+            skipWhitespace();
+            if (position < text.length() && text.charAt(position) == '"') {
+                return readString();
+            }
+            int start = position;
+            while (position < text.length() && ",} \t".indexOf(text.charAt(position)) < 0) {
+                position++;
+            }
+            String literal = text.substring(start, position);
+            if (literal.isEmpty()) {
+                throw new IllegalArgumentException("Missing value at column " + (start + 1));
+            }
+            return "null".equals(literal) ? null : literal;
+        }
+
+        String readString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (position < text.length()) {
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (position >= text.length()) {
+                    break;
+                }
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'u':
+                        if (position + 4 > text.length()) {
+                            throw new IllegalArgumentException("Invalid unicode escape");
+                        }
+                        value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        position += 4;
+                        break;
+                    default:
+                        value.append(escaped);
+                }
+            }
+            throw new IllegalArgumentException("Unterminated string");
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+    }
+}
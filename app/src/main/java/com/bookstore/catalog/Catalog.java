@@ -0,0 +1,315 @@
+package com.bookstore.catalog;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.bookstore.books.Book;
+import com.bookstore.books.BookType;
+
+public class Catalog {
+    // ดัชนีหลักตาม ISBN (คงลำดับการเพิ่มไว้สำหรับการแสดงผล)
+    private final Map<String, Book> booksByIsbn = new LinkedHashMap<>();
+    // เรียงตาม ISBN สำหรับการแบ่งหน้าแบบ keyset
+    private final NavigableMap<String, Book> booksInIsbnOrder = new TreeMap<>();
+    // ดัชนีรอง แต่ละกลุ่มเรียงตาม ISBN เพื่อให้แบ่งหน้าต่อจาก cursor ได้โดยไม่ต้องไล่จากต้น
+    private final Map<String, NavigableMap<String, Book>> booksByAuthor = new HashMap<>();
+    private final Map<BookType, NavigableMap<String, Book>> booksByType = new EnumMap<>(BookType.class);
+    private final Map<String, NavigableMap<String, Book>> booksByYear = new HashMap<>();
+    // เรียงตามราคาหลังปรับตามประเภทหนังสือ (calculatePrice) สร้างใหม่ทั้งชุดเมื่อกฎราคาเปลี่ยน
+    // การเพิ่ม/ลบ/เปลี่ยนราคาแก้ดัชนีชุดที่ใช้อยู่ในที่เดิม จึงต้องทำจากเธรดเดียวและไม่มีผู้อ่านพร้อมกัน
+    // (เช่น โหลดแคตตาล็อกให้เสร็จก่อนเปิดรับ request) หลังจากนั้นอ่านพร้อมกันหลายเธรดได้
+    // รวมถึงตอนกฎราคาเปลี่ยนระหว่างอ่าน ซึ่งผู้อ่านสร้างดัชนีราคาชุดใหม่แล้วจึงสลับเข้า
+    private volatile PriceIndex priceIndex = new PriceIndex(Book.pricingVersion(), Book.basePriceChanges());
+    private final List<CatalogListener> listeners = new ArrayList<>();
+
+    // listener ที่เพิ่มทีหลังจะได้รับหนังสือที่มีอยู่แล้วทั้งหมดก่อน
+    public void addListener(CatalogListener listener) {
+        listeners.add(listener);
+        for (Book book : booksByIsbn.values()) {
+            listener.bookAdded(book);
+        }
+    }
+
+    public void removeListener(CatalogListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void add(Book book) {
+        Book previous = booksByIsbn.put(book.getIsbn(), book);
+        if (previous != null) {
+            unindex(previous);
+            for (CatalogListener listener : listeners) {
+                listener.bookRemoved(previous);
+            }
+        }
+        index(book);
+        for (CatalogListener listener : listeners) {
+            listener.bookAdded(book);
+        }
+    }
+
+    public void addAll(Collection<? extends Book> books) {
+        for (Book book : books) {
+            add(book);
+        }
+    }
+
+    public Optional<Book> remove(String isbn) {
+        Book removed = booksByIsbn.remove(isbn);
+        if (removed != null) {
+            unindex(removed);
+            for (CatalogListener listener : listeners) {
+                listener.bookRemoved(removed);
+            }
+        }
+        return Optional.ofNullable(removed);
+    }
+
+    // เปลี่ยนราคาตั้งต้นผ่าน Catalog เพื่อให้ดัชนีราคายังถูกต้อง
+    public boolean updateBasePrice(String isbn, BigDecimal basePrice) {
+        Book book = booksByIsbn.get(isbn);
+        if (book == null) {
+            return false;
+        }
+        PriceIndex prices = currentPriceIndex();
+        long changes = prices.basePriceChanges;
+        prices.remove(book);
+        book.setBasePrice(basePrice);
+        prices.add(book);
+        if (Book.basePriceChanges() == changes + 1) {
+            // มีแค่การเปลี่ยนครั้งนี้ ไม่ต้องสร้างดัชนีราคาใหม่ทั้งหมดในการอ่านครั้งถัดไป
+            prices.basePriceChanges = changes + 1;
+        }
+        for (CatalogListener listener : listeners) {
+            listener.bookRepriced(book);
+        }
+        return true;
+    }
+
+    public Optional<Book> findByIsbn(String isbn) {
+        return Optional.ofNullable(booksByIsbn.get(isbn));
+    }
+
+    public Collection<Book> findByAuthor(String author) {
+        return view(booksByAuthor.get(author));
+    }
+
+    public Collection<Book> findByType(String bookType) {
+        return BookType.fromLabel(bookType).map(this::findByType).orElse(Collections.emptyList());
+    }
+
+    public Collection<Book> findByType(BookType bookType) {
+        return view(booksByType.get(bookType));
+    }
+
+    public Collection<Book> findByYear(String publishYear) {
+        return view(booksByYear.get(publishYear));
+    }
+
+    // ช่วงราคา [minPrice, maxPrice] เรียงจากราคาต่ำไปสูง
+    public List<Book> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        List<Book> result = new ArrayList<>();
+        if (minPrice.compareTo(maxPrice) > 0) {
+            return result;
+        }
+        PriceIndex prices = currentPriceIndex();
+        for (NavigableMap<String, Book> books : prices.books.subMap(minPrice, true, maxPrice, true).values()) {
+            result.addAll(books.values());
+        }
+        return result;
+    }
+
+    public Set<String> authors() {
+        return Collections.unmodifiableSet(booksByAuthor.keySet());
+    }
+
+    public Set<String> bookTypes() {
+        return booksByType.keySet().stream().map(BookType::label).collect(Collectors.toUnmodifiableSet());
+    }
+
+    public Collection<Book> books() {
+        return Collections.unmodifiableCollection(booksByIsbn.values());
+    }
+
+    // หนึ่งหน้าต่อจาก after (null = หน้าแรก) งานต่อหน้าขึ้นกับขนาดหน้า ไม่ขึ้นกับขนาดแคตตาล็อก
+    // ยกเว้นเมื่อกรองแบบเรียงตามราคา ซึ่งต้องข้ามเล่มที่ไม่ตรงเงื่อนไขไปทีละเล่ม
+    public BookPage page(CatalogOrder order, BookFilter filter, PageCursor after, int limit) {
+        return BookPage.take(iterator(order, filter, after), limit, order);
+    }
+
+    // ไล่ทีละเล่มตามลำดับโดยไม่สร้างรายการผลลัพธ์ทั้งหมด ห้ามแก้ไขแคตตาล็อกระหว่างใช้งาน
+    public Stream<Book> stream(CatalogOrder order, BookFilter filter) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(order, filter, null),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    public Iterator<Book> iterator(CatalogOrder order, BookFilter filter, PageCursor after) {
+        if (after != null) {
+            after.requireOrder(order);
+        }
+        if (order == CatalogOrder.PRICE) {
+            return filter.apply(byPrice(currentPriceIndex().books, after));
+        }
+        // เริ่มจากดัชนีรองที่เล็กที่สุดในเงื่อนไข แล้วกรองฟิลด์ที่เหลือ
+        NavigableMap<String, Book> source = booksInIsbnOrder;
+        if (filter.bookType() != null) {
+            source = smaller(source, BookType.fromLabel(filter.bookType()).orElse(null), booksByType);
+        }
+        source = smaller(source, filter.author(), booksByAuthor);
+        source = smaller(source, filter.publishYear(), booksByYear);
+        NavigableMap<String, Book> remaining = after == null ? source : source.tailMap(after.isbn(), false);
+        return filter.apply(remaining.values().iterator());
+    }
+
+    public int size() {
+        return booksByIsbn.size();
+    }
+
+    public boolean isEmpty() {
+        return booksByIsbn.isEmpty();
+    }
+
+    private static Iterator<Book> byPrice(NavigableMap<BigDecimal, NavigableMap<String, Book>> booksByPrice,
+            PageCursor after) {
+        if (after == null) {
+            return flatten(booksByPrice.values().iterator(), Collections.emptyIterator());
+        }
+        NavigableMap<String, Book> samePrice = booksByPrice.get(after.price());
+        Iterator<Book> rest = samePrice == null
+                ? Collections.emptyIterator()
+                : samePrice.tailMap(after.isbn(), false).values().iterator();
+        return flatten(booksByPrice.tailMap(after.price(), false).values().iterator(), rest);
+    }
+
+    private static <K> NavigableMap<String, Book> smaller(NavigableMap<String, Book> current, K key,
+            Map<K, NavigableMap<String, Book>> index) {
+        if (key == null) {
+            return current;
+        }
+        NavigableMap<String, Book> books = index.getOrDefault(key, Collections.emptyNavigableMap());
+        return books.size() < current.size() ? books : current;
+    }
+
+    // ต่อกลุ่มหนังสือในดัชนีราคาเป็น iterator เดียว เริ่มจาก first
+    private static Iterator<Book> flatten(Iterator<NavigableMap<String, Book>> groups, Iterator<Book> first) {
+        return new Iterator<>() {
+            private Iterator<Book> current = first;
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && groups.hasNext()) {
+                    current = groups.next().values().iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public Book next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    private void index(Book book) {
+        booksInIsbnOrder.put(book.getIsbn(), book);
+        addTo(booksByAuthor, book.getAuthor(), book);
+        addTo(booksByType, book.getType(), book);
+        addTo(booksByYear, book.getPublishYear(), book);
+        currentPriceIndex().add(book);
+    }
+
+    private void unindex(Book book) {
+        booksInIsbnOrder.remove(book.getIsbn());
+        removeFrom(booksByAuthor, book.getAuthor(), book);
+        removeFrom(booksByType, book.getType(), book);
+        removeFrom(booksByYear, book.getPublishYear(), book);
+        currentPriceIndex().remove(book);
+    }
+
+    // อัตราส่วนลด/ค่าธรรมเนียมเปลี่ยน หรือมีเล่มที่ถูกเปลี่ยนราคาตั้งต้นโดยไม่ผ่าน updateBasePrice
+    // ราคาสุดท้ายทุกเล่มจึงต้องจัดเรียงใหม่ (อ่านตัวนับก่อนคำนวณราคา การเปลี่ยนระหว่างนี้จะทำให้สร้างใหม่อีกรอบ)
+    // สร้างชุดใหม่แยกจากชุดที่ผู้อ่านอื่นอาจกำลังไล่อยู่แล้วจึงสลับเข้า ผู้อ่านจึงไม่เห็น TreeMap ที่สร้างไม่เสร็จ
+    // ปลอดภัยเฉพาะระหว่างผู้อ่านด้วยกัน ถ้ามีการเพิ่มพร้อมกัน ชุดที่สลับเข้าอาจไม่มีเล่มนั้น
+    private PriceIndex currentPriceIndex() {
+        PriceIndex current = priceIndex;
+        long changes = Book.basePriceChanges();
+        long version = Book.pricingVersion();
+        if (version == current.pricingVersion && changes == current.basePriceChanges) {
+            return current;
+        }
+        PriceIndex rebuilt = new PriceIndex(version, changes);
+        for (Book book : booksByIsbn.values()) {
+            rebuilt.add(book);
+        }
+        priceIndex = rebuilt;
+        return rebuilt;
+    }
+
+    private static <K> void addTo(Map<K, NavigableMap<String, Book>> index, K key, Book book) {
+        index.computeIfAbsent(key, k -> new TreeMap<>()).put(book.getIsbn(), book);
+    }
+
+    private static <K> void removeFrom(Map<K, NavigableMap<String, Book>> index, K key, Book book) {
+        NavigableMap<String, Book> books = index.get(key);
+        if (books != null && books.remove(book.getIsbn(), book) && books.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static Collection<Book> view(NavigableMap<String, Book> books) {
+        return books == null ? Collections.emptySet() : Collections.unmodifiableCollection(books.values());
+    }
+
+    // ดัชนีราคาตามกฎราคาเวอร์ชันเดียว ราคาเท่ากันเรียงตาม ISBN
+    private static final class PriceIndex {
+        final NavigableMap<BigDecimal, NavigableMap<String, Book>> books = new TreeMap<>();
+        // ราคาที่ใช้เป็นคีย์ของแต่ละเล่ม ลบออกด้วยคีย์นี้เสมอ แม้ราคาปัจจุบันของเล่มจะเปลี่ยนไปแล้ว
+        final Map<String, BigDecimal> prices = new HashMap<>();
+        final long pricingVersion;
+        long basePriceChanges;
+
+        PriceIndex(long pricingVersion, long basePriceChanges) {
+            this.pricingVersion = pricingVersion;
+            this.basePriceChanges = basePriceChanges;
+        }
+
+        void add(Book book) {
+            BigDecimal price = book.calculatePrice();
+            prices.put(book.getIsbn(), price);
+            addTo(books, price, book);
+        }
+
+        // ลบเฉพาะถ้าเป็นเล่มเดียวกัน (ดัชนีที่เพิ่งสร้างใหม่ระหว่างแทนที่เล่มอาจมีเล่มใหม่ที่ ISBN เดียวกันอยู่แล้ว)
+        void remove(Book book) {
+            BigDecimal price = prices.get(book.getIsbn());
+            NavigableMap<String, Book> samePrice = price == null ? null : books.get(price);
+            if (samePrice != null && samePrice.remove(book.getIsbn(), book)) {
+                prices.remove(book.getIsbn());
+                if (samePrice.isEmpty()) {
+                    books.remove(price);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.bookstore.catalog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import com.bookstore.books.Book;
+
+// นำเข้าแคตตาล็อกจาก CSV หรือ JSON Lines แบบ streaming:
+// อ่านไฟล์ทีละ chunk ผ่าน FileChannel, แยกแถวเป็น batch ให้หลายเธรด parse พร้อมกัน
+// และจำกัดจำนวน batch ที่ค้างอยู่ หน่วยความจำจึงไม่ขึ้นกับขนาดไฟล์
+public class CatalogImporter {
+    public enum Format {
+        CSV, JSON_LINES;
+
+        public static Format fromPath(Path path) {
+            String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+            return name.endsWith(".json") || name.endsWith(".jsonl") || name.endsWith(".ndjson") ? JSON_LINES : CSV;
+        }
+    }
+
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    private static final int DEFAULT_BATCH_SIZE = 4096;
+
+    private final int parallelism;
+    private final int chunkSize;
+    private final int batchSize;
+
+    public CatalogImporter() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE, DEFAULT_BATCH_SIZE);
+    }
+
+    public CatalogImporter(int parallelism, int chunkSize, int batchSize) {
+        this.parallelism = Math.max(1, parallelism);
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+    }
+
+    public ImportReport importInto(Path file, Catalog catalog) throws IOException {
+        return importFile(file, Format.fromPath(file), catalog::addAll);
+    }
+
+    // bookSink ถูกเรียกจากเธรดที่เรียก importFile เท่านั้น ตามลำดับแถวในไฟล์
+    public ImportReport importFile(Path file, Format format, Consumer<List<Book>> bookSink) throws IOException {
+        long start = System.nanoTime();
+        ExecutorService parsers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "catalog-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Progress progress = new Progress(bookSink, parallelism * 2);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(chunkSize);
+            byte[] chunk = buffer.array();
+            long lineNumber = 0;
+            Batch batch = new Batch(1, batchSize);
+
+            // เธรดนี้แค่หาขอบเขตบรรทัดและคัดลอก byte; การ decode UTF-8 และ parse ทำใน worker
+            while (channel.read(buffer) >= 0) {
+                int limit = buffer.position();
+                int segmentStart = 0;
+                for (int i = 0; i < limit; i++) {
+                    if (chunk[i] != '\n') {
+                        continue;
+                    }
+                    batch.append(chunk, segmentStart, i - segmentStart);
+                    batch.endLine();
+                    segmentStart = i + 1;
+                    lineNumber++;
+                    if (batch.isFull()) {
+                        progress.submit(parsers, batch, format);
+                        batch = new Batch(lineNumber + 1, batchSize);
+                    }
+                }
+                batch.append(chunk, segmentStart, limit - segmentStart);
+                buffer.clear();
+            }
+            if (batch.hasPartialLine()) {
+                batch.endLine();
+            }
+            progress.submit(parsers, batch, format);
+            progress.drainAll();
+        } finally {
+            parsers.shutdownNow();
+        }
+        return progress.report(System.nanoTime() - start);
+    }
+
+    private static final class Batch {
+        private final long firstLineNumber;
+        private final int[] lineEnds;
+        private byte[] data = new byte[8192];
+        private int dataLength;
+        private int lineStart;
+        int size;
+
+        Batch(long firstLineNumber, int capacity) {
+            this.firstLineNumber = firstLineNumber;
+            this.lineEnds = new int[capacity];
+        }
+
+        void append(byte[] source, int offset, int length) {
+            if (dataLength + length > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, dataLength + length));
+            }
+            System.arraycopy(source, offset, data, dataLength, length);
+            dataLength += length;
+        }
+
+        void endLine() {
+            lineEnds[size++] = dataLength;
+            lineStart = dataLength;
+        }
+
+        boolean hasPartialLine() {
+            return dataLength > lineStart;
+        }
+
+        boolean isFull() {
+            return size == lineEnds.length;
+        }
+
+        ParsedBatch parse(Format format) {
+            List<Book> books = new ArrayList<>(size);
+            List<ImportReport.RowError> errors = new ArrayList<>();
+            long rows = 0;
+            int start = 0;
+            for (int i = 0; i < size; i++) {
+                int end = lineEnds[i];
+                int length = end - start;
+                if (length > 0 && data[end - 1] == '\r') {
+                    length--;
+                }
+                String line = new String(data, start, length, StandardCharsets.UTF_8);
+                start = end;
+                long lineNumber = firstLineNumber + i;
+                if (line.isBlank() || (format == Format.CSV && lineNumber == 1 && BookRowParser.isCsvHeader(line))) {
+                    continue;
+                }
+                rows++;
+                try {
+                    books.add(format == Format.CSV ? BookRowParser.parseCsv(line) : BookRowParser.parseJson(line));
+                } catch (RuntimeException e) {
+                    String row = line.length() > 200 ? line.substring(0, 200) + "..." : line;
+                    errors.add(new ImportReport.RowError(lineNumber, e.getMessage(), row));
+                }
+            }
+            return new ParsedBatch(rows, books, errors);
+        }
+    }
+
+    private record ParsedBatch(long rows, List<Book> books, List<ImportReport.RowError> errors) {
+    }
+
+    // รับผล parse ตามลำดับ batch และบล็อกผู้อ่านไฟล์เมื่อมี batch ค้างเกิน maxInFlight
+    private static final class Progress {
+        private final Consumer<List<Book>> bookSink;
+        private final int maxInFlight;
+        private final ArrayDeque<Future<ParsedBatch>> inFlight = new ArrayDeque<>();
+        private final List<ImportReport.RowError> errors = new ArrayList<>();
+        private long rowsRead;
+        private long booksImported;
+        private long malformedRows;
+
+        Progress(Consumer<List<Book>> bookSink, int maxInFlight) {
+            this.bookSink = bookSink;
+            this.maxInFlight = maxInFlight;
+        }
+
+        void submit(ExecutorService parsers, Batch batch, Format format) {
+            if (batch.size == 0) {
+                return;
+            }
+            while (inFlight.size() >= maxInFlight) {
+                drainOne();
+            }
+            inFlight.add(parsers.submit(() -> batch.parse(format)));
+        }
+
+        void drainAll() {
+            while (!inFlight.isEmpty()) {
+                drainOne();
+            }
+        }
+
+        private void drainOne() {
+            ParsedBatch parsed;
+            try {
+                parsed = inFlight.poll().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Catalog import interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Catalog import failed", e.getCause());
+            }
+            rowsRead += parsed.rows();
+            booksImported += parsed.books().size();
+            malformedRows += parsed.errors().size();
+            for (ImportReport.RowError error : parsed.errors()) {
+                if (errors.size() < ImportReport.MAX_ERRORS) {
+                    errors.add(error);
+                }
+            }
+            if (!parsed.books().isEmpty()) {
+                bookSink.accept(parsed.books());
+            }
+        }
+
+        ImportReport report(long elapsedNanos) {
+            return new ImportReport(rowsRead, booksImported, malformedRows, List.copyOf(errors), elapsedNanos);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.bookstore.catalog;
+
+import com.bookstore.books.Book;
+
+// ดัชนีภายนอก (เช่น หนังสือแนะนำ) รับการเปลี่ยนแปลงของ Catalog เพื่ออัปเดตทีละเล่ม
+public interface CatalogListener {
+
+    void bookAdded(Book book);
+
+    void bookRemoved(Book book);
+
+    // ราคาตั้งต้นเปลี่ยนผ่าน Catalog.updateBasePrice
+    void bookRepriced(Book book);
+}
@@ -0,0 +1,7 @@
+package com.bookstore.catalog;
+
+// ลำดับของการแบ่งหน้า ทั้งสองแบบใช้ ISBN ตัดสินเมื่อค่าเท่ากัน ลำดับจึงคงที่ระหว่างหน้า
+public enum CatalogOrder {
+    ISBN,
+    PRICE // ราคาหลังปรับตามประเภทหนังสือ (calculatePrice)
+}
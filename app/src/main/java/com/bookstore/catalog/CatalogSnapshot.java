@@ -0,0 +1,167 @@
+package com.bookstore.catalog;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.bookstore.books.AudioBook;
+import com.bookstore.books.Book;
+import com.bookstore.books.EBook;
+import com.bookstore.books.PhysicalBook;
+import com.bookstore.money.Money;
+
+// ไฟล์ snapshot ของแคตตาล็อกแบบไบนารี เปิดอ่านด้วย MappedCatalog
+//
+// header  : magic, version, recordCount, stringCount, recordsOffset, stringOffsetsOffset, stringDataOffset
+// records : RECORD_SIZE ไบต์ต่อเล่ม เรียงตาม ISBN
+//           priceUnits(long) isbn title author year pages cover (int อ้างอิง string pool) type, priceScale (byte)
+// strings : ตาราง offset (int, stringCount + 1 ค่า) ตามด้วยข้อความ UTF-8 ที่ไม่ซ้ำกัน
+public final class CatalogSnapshot {
+    static final int MAGIC = 0x424B534E; // "BKSN"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 40;
+    static final int RECORD_SIZE = 40;
+
+    static final int PRICE_UNITS = 0;
+    static final int ISBN = 8;
+    static final int TITLE = 12;
+    static final int AUTHOR = 16;
+    static final int YEAR = 20;
+    static final int PAGES = 24;
+    static final int COVER = 28;
+    static final int TYPE = 32;
+    static final int PRICE_SCALE = 33;
+
+    static final byte TYPE_PHYSICAL = 0;
+    static final byte TYPE_EBOOK = 1;
+    static final byte TYPE_AUDIO = 2;
+
+    static final int NO_STRING = -1;
+
+    private static final byte[] RECORD_PADDING = new byte[RECORD_SIZE - PRICE_SCALE - 1];
+
+    private CatalogSnapshot() {
+    }
+
+    public static void write(Collection<? extends Book> books, Path file) throws IOException {
+        List<Book> sorted = new ArrayList<>(books);
+        sorted.sort(Comparator.comparing(Book::getIsbn));
+
+        StringPool pool = new StringPool();
+        for (Book book : sorted) {
+            pool.add(book.getIsbn());
+            pool.add(book.getTitle());
+            pool.add(book.getAuthor());
+            pool.add(book.getPublishYear());
+            if (book instanceof PhysicalBook physicalBook) {
+                pool.add(physicalBook.getPageNumber());
+                pool.add(physicalBook.getCoverType());
+            }
+        }
+
+        long recordsOffset = HEADER_SIZE;
+        long stringOffsetsOffset = recordsOffset + (long) sorted.size() * RECORD_SIZE;
+        long stringDataOffset = stringOffsetsOffset + 4L * (pool.size() + 1);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+                OutputStream stream = Channels.newOutputStream(channel);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sorted.size());
+            out.writeInt(pool.size());
+            out.writeLong(recordsOffset);
+            out.writeLong(stringOffsetsOffset);
+            out.writeLong(stringDataOffset);
+
+            for (Book book : sorted) {
+                Money price = Money.of(book.getBasePrice());
+                out.writeLong(price.getUnits());
+                out.writeInt(pool.indexOf(book.getIsbn()));
+                out.writeInt(pool.indexOf(book.getTitle()));
+                out.writeInt(pool.indexOf(book.getAuthor()));
+                out.writeInt(pool.indexOf(book.getPublishYear()));
+                if (book instanceof PhysicalBook physicalBook) {
+                    out.writeInt(pool.indexOf(physicalBook.getPageNumber()));
+                    out.writeInt(pool.indexOf(physicalBook.getCoverType()));
+                    out.writeByte(TYPE_PHYSICAL);
+                } else {
+                    out.writeInt(NO_STRING);
+                    out.writeInt(NO_STRING);
+                    out.writeByte(book instanceof EBook ? TYPE_EBOOK : TYPE_AUDIO);
+                }
+                out.writeByte(price.getScale());
+                out.write(RECORD_PADDING);
+            }
+
+            int offset = 0;
+            for (byte[] bytes : pool.values) {
+                out.writeInt(offset);
+                offset += bytes.length;
+            }
+            out.writeInt(offset);
+            for (byte[] bytes : pool.values) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    static Book materialize(byte type, String isbn, String title, String author, Money price, String year,
+            String pages, String cover) {
+        switch (type) {
+            case TYPE_PHYSICAL:
+                return new PhysicalBook(isbn, title, author, price.toBigDecimal(), pages, cover, year);
+            case TYPE_EBOOK:
+                return new EBook(isbn, title, author, price.toBigDecimal(), year);
+            case TYPE_AUDIO:
+                return new AudioBook(isbn, title, author, price.toBigDecimal(), year);
+            default:
+                throw new IllegalStateException("Unknown book type tag " + type);
+        }
+    }
+
+    // แปลงไฟล์ CSV / JSON Lines เป็น snapshot: CatalogSnapshot <catalog.csv> <catalog.snap>
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: CatalogSnapshot <catalog.csv|catalog.jsonl> <catalog.snap>");
+            return;
+        }
+        Catalog catalog = new Catalog();
+        System.out.println(new CatalogImporter().importInto(Path.of(args[0]), catalog));
+        write(catalog.books(), Path.of(args[1]));
+        System.out.println("Wrote snapshot of " + catalog.size() + " books to " + args[1]);
+    }
+
+    private static final class StringPool {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<byte[]> values = new ArrayList<>();
+
+        void add(String value) {
+            if (value != null && !indexes.containsKey(value)) {
+                indexes.put(value, values.size());
+                values.add(value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        int indexOf(String value) {
+            return value == null ? NO_STRING : indexes.get(value);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.bookstore.catalog;
+
+import java.util.List;
+
+// สรุปผลการนำเข้า: แถวที่ผิดรูปแบบถูกข้ามและบันทึกไว้ (เก็บรายละเอียดไม่เกิน MAX_ERRORS แถว)
+public record ImportReport(long rowsRead, long booksImported, long malformedRows, List<RowError> errors,
+        long elapsedNanos) {
+
+    public static final int MAX_ERRORS = 100;
+
+    public record RowError(long lineNumber, String message, String row) {
+    }
+
+    public double rowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rowsRead * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Imported %d of %d rows (%d malformed) in %.1f ms, %.0f rows/sec",
+                booksImported, rowsRead, malformedRows, elapsedNanos / 1_000_000.0, rowsPerSecond());
+    }
+}
@@ -0,0 +1,167 @@
+package com.bookstore.catalog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.bookstore.books.Book;
+import com.bookstore.money.Money;
+
+// เปิด snapshot ด้วย MappedByteBuffer: ไม่โหลดข้อมูลเข้า heap และสร้าง Book เฉพาะเล่มที่ถูกอ่าน
+public class MappedCatalog implements Iterable<Book>, AutoCloseable {
+    private final FileChannel channel;
+    private final ByteBuffer records;
+    private final ByteBuffer stringOffsets;
+    private final ByteBuffer stringData;
+    private final int size;
+
+    private MappedCatalog(FileChannel channel) throws IOException {
+        this.channel = channel;
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, CatalogSnapshot.HEADER_SIZE);
+        if (header.getInt(0) != CatalogSnapshot.MAGIC || header.getInt(4) != CatalogSnapshot.VERSION) {
+            throw new IOException("Not a catalog snapshot (version " + CatalogSnapshot.VERSION + ")");
+        }
+        this.size = header.getInt(8);
+        int stringCount = header.getInt(12);
+        long recordsOffset = header.getLong(16);
+        long stringOffsetsOffset = header.getLong(24);
+        long stringDataOffset = header.getLong(32);
+        this.records = channel.map(FileChannel.MapMode.READ_ONLY, recordsOffset,
+                (long) size * CatalogSnapshot.RECORD_SIZE);
+        this.stringOffsets = channel.map(FileChannel.MapMode.READ_ONLY, stringOffsetsOffset, 4L * (stringCount + 1));
+        this.stringData = channel.map(FileChannel.MapMode.READ_ONLY, stringDataOffset,
+                channel.size() - stringDataOffset);
+    }
+
+    public static MappedCatalog open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new MappedCatalog(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // index ตามลำดับ ISBN
+    public Book get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        int record = index * CatalogSnapshot.RECORD_SIZE;
+        Money price = Money.ofUnits(records.getLong(record + CatalogSnapshot.PRICE_UNITS),
+                records.get(record + CatalogSnapshot.PRICE_SCALE));
+        return CatalogSnapshot.materialize(records.get(record + CatalogSnapshot.TYPE),
+                string(record + CatalogSnapshot.ISBN), string(record + CatalogSnapshot.TITLE),
+                string(record + CatalogSnapshot.AUTHOR), price, string(record + CatalogSnapshot.YEAR),
+                string(record + CatalogSnapshot.PAGES), string(record + CatalogSnapshot.COVER));
+    }
+
+    // ค้นหาแบบ binary search บนข้อมูลใน mapped memory
+    public Optional<Book> findByIsbn(String isbn) {
+        int index = firstAtOrAfter(isbn);
+        return index < size && isbnAt(index).equals(isbn) ? Optional.of(get(index)) : Optional.empty();
+    }
+
+    // snapshot เรียงตาม ISBN อยู่แล้ว หาจุดเริ่มของหน้าด้วย binary search แล้วสร้าง Book เฉพาะเล่มที่อ่าน
+    // การกรองต้องสร้าง Book ของเล่มที่ถูกข้ามด้วย
+    public BookPage page(BookFilter filter, PageCursor after, int limit) {
+        return BookPage.take(iterator(filter, after), limit, CatalogOrder.ISBN);
+    }
+
+    public Stream<Book> stream(BookFilter filter) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(filter, null),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    public Iterator<Book> iterator(BookFilter filter, PageCursor after) {
+        int start = 0;
+        if (after != null) {
+            after.requireOrder(CatalogOrder.ISBN);
+            start = firstAtOrAfter(after.isbn());
+            if (start < size && isbnAt(start).equals(after.isbn())) {
+                start++;
+            }
+        }
+        return filter.apply(iteratorFrom(start));
+    }
+
+    @Override
+    public Iterator<Book> iterator() {
+        return iteratorFrom(0);
+    }
+
+    private Iterator<Book> iteratorFrom(int start) {
+        return new Iterator<>() {
+            private int next = start;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Book next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return get(next++);
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ตำแหน่งแรกที่ ISBN >= isbn (size ถ้าไม่มี)
+    private int firstAtOrAfter(String isbn) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (isbnAt(mid).compareTo(isbn) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private String isbnAt(int index) {
+        return string(index * CatalogSnapshot.RECORD_SIZE + CatalogSnapshot.ISBN);
+    }
+
+    private String string(int fieldPosition) {
+        int index = records.getInt(fieldPosition);
+        if (index == CatalogSnapshot.NO_STRING) {
+            return null;
+        }
+        int start = stringOffsets.getInt(index * 4);
+        int end = stringOffsets.getInt(index * 4 + 4);
+        byte[] bytes = new byte[end - start];
+        stringData.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
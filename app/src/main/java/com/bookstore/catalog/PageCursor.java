@@ -0,0 +1,44 @@
+package com.bookstore.catalog;
+
+import java.math.BigDecimal;
+
+import com.bookstore.books.Book;
+
+// ตำแหน่งต่อจากเล่มสุดท้ายของหน้าก่อน (keyset) แทนการนับ offset
+// หน้าถัดไปจึงเริ่มค้นจากดัชนีได้ทันทีไม่ว่าจะอยู่ลึกแค่ไหน และไม่ข้าม/ซ้ำเมื่อมีการเพิ่มลบหนังสือระหว่างหน้า
+public record PageCursor(BigDecimal price, String isbn) {
+    private static final char SEPARATOR = '~';
+
+    public PageCursor {
+        if (isbn == null || isbn.isEmpty()) {
+            throw new IllegalArgumentException("Cursor needs an ISBN");
+        }
+    }
+
+    public static PageCursor after(Book book, CatalogOrder order) {
+        return new PageCursor(order == CatalogOrder.PRICE ? book.calculatePrice() : null, book.getIsbn());
+    }
+
+    // ข้อความสำหรับส่งให้ client: "isbn" หรือ "price~isbn"
+    public String token() {
+        return price == null ? isbn : price.toPlainString() + SEPARATOR + isbn;
+    }
+
+    public static PageCursor parse(String token) {
+        int separator = token.indexOf(SEPARATOR);
+        if (separator < 0) {
+            return new PageCursor(null, token);
+        }
+        try {
+            return new PageCursor(new BigDecimal(token.substring(0, separator)), token.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor '" + token + "'");
+        }
+    }
+
+    void requireOrder(CatalogOrder order) {
+        if ((order == CatalogOrder.PRICE) != (price != null)) {
+            throw new IllegalArgumentException("Cursor '" + token() + "' does not belong to " + order + " order");
+        }
+    }
+}
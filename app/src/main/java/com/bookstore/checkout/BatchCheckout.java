@@ -0,0 +1,57 @@
+package com.bookstore.checkout;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// คิดราคาคำสั่งซื้อจำนวนมากแบบขนานบน ForkJoinPool แล้วคืนผลเป็น CheckoutResult
+public class BatchCheckout implements AutoCloseable {
+    private final CheckoutService checkoutService;
+    private final ForkJoinPool pool;
+
+    public BatchCheckout(CheckoutService checkoutService) {
+        this(checkoutService, Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchCheckout(CheckoutService checkoutService, int parallelism) {
+        this.checkoutService = checkoutService;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    // ผลลัพธ์เรียงตามลำดับของคำขอ
+    public List<CheckoutResult> checkoutAll(Stream<CheckoutRequest> requests) {
+        return run(() -> requests.parallel().map(checkoutService::checkout).toList());
+    }
+
+    // สำหรับ backlog ขนาดใหญ่: ส่งผลทีละรายการโดยไม่เก็บทั้งหมดไว้ในหน่วยความจำ
+    // resultConsumer ถูกเรียกจากหลายเธรดพร้อมกัน จึงต้อง thread-safe
+    public void checkoutEach(Stream<CheckoutRequest> requests, Consumer<CheckoutResult> resultConsumer) {
+        run(() -> {
+            requests.parallel().map(checkoutService::checkout).forEach(resultConsumer);
+            return null;
+        });
+    }
+
+    private <T> T run(Callable<T> task) {
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch checkout interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Batch checkout failed", cause);
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
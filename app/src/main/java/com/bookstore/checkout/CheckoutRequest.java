@@ -0,0 +1,14 @@
+package com.bookstore.checkout;
+
+import java.util.List;
+
+import com.bookstore.customer.Customer;
+import com.bookstore.order.OrderItem;
+import com.bookstore.order.ShoppingCart;
+
+public record CheckoutRequest(Customer customer, List<OrderItem> items) {
+
+    public static CheckoutRequest of(Customer customer, ShoppingCart cart) {
+        return new CheckoutRequest(customer, cart.getItems());
+    }
+}
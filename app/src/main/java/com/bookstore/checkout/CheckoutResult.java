@@ -0,0 +1,13 @@
+package com.bookstore.checkout;
+
+import java.math.BigDecimal;
+
+import com.bookstore.customer.Customer;
+import com.bookstore.order.Order;
+
+public record CheckoutResult(Customer customer, Order order, int pointsEarned) {
+
+    public BigDecimal grandTotal() {
+        return order.getGrandTotal();
+    }
+}
@@ -0,0 +1,124 @@
+package com.bookstore.checkout;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.List;
+
+import com.bookstore.customer.Customer;
+import com.bookstore.event.StoreEvent;
+import com.bookstore.event.StoreEvents;
+import com.bookstore.history.OrderHistory;
+import com.bookstore.journal.JournalEntry;
+import com.bookstore.journal.OrderJournal;
+import com.bookstore.metrics.Counter;
+import com.bookstore.metrics.Metrics;
+import com.bookstore.metrics.Timer;
+import com.bookstore.order.Order;
+import com.bookstore.order.OrderItem;
+import com.bookstore.pricing.CompiledPricing;
+import com.bookstore.pricing.PricingEngine;
+
+public class CheckoutService {
+    private static final Timer CHECKOUT = Metrics.timer("checkout");
+    private static final Counter ORDERS = Metrics.counter("checkout.orders");
+    private static final Counter HISTORY_FAILURES = Metrics.counter("checkout.historyFailures");
+    private static final BigDecimal POINTS_SPEND_UNIT = new BigDecimal("10");
+
+    private final OrderJournal journal; // null = ไม่บันทึก journal
+    private final OrderHistory history; // null = ไม่เก็บประวัติคำสั่งซื้อ
+
+    public CheckoutService() {
+        this(null);
+    }
+
+    public CheckoutService(OrderJournal journal) {
+        this(journal, null);
+    }
+
+    public CheckoutService(OrderJournal journal, OrderHistory history) {
+        this.journal = journal;
+        this.history = history;
+    }
+
+    public CheckoutResult checkout(CheckoutRequest request) {
+        return checkout(request.customer(), request.items());
+    }
+
+    public CheckoutResult checkout(Customer customer, List<OrderItem> items) {
+        long start = CHECKOUT.start();
+        try {
+            Order order = priceOrder(customer, items);
+            int points = pointsFor(order);
+            // ให้แต้มหลัง journal ลงดิสก์แล้วเท่านั้น ถ้าบันทึกไม่สำเร็จคำสั่งซื้อไม่เกิดและลูกค้าไม่ได้แต้ม
+            recordCheckout(order, points);
+            awardPoints(order, points);
+            ORDERS.increment();
+            return new CheckoutResult(customer, order, points);
+        } finally {
+            CHECKOUT.stop(start);
+        }
+    }
+
+    // บันทึก checkout ลง journal และรอจน fsync เสร็จ เธรดที่ checkout พร้อมกันจะถูกรวม fsync เป็นครั้งเดียว
+    // แล้วจึงเพิ่มเข้าประวัติคำสั่งซื้อ (ถ้าเครื่องล่มก่อน segment ถูกเขียน จะเติมกลับจาก journal ได้)
+    // ใบเสร็จ (OrderPriced) ส่งหลังบันทึกสำเร็จเท่านั้น ถ้าบันทึกไม่ได้ลูกค้าจึงไม่เห็นใบเสร็จของคำสั่งซื้อที่ไม่เกิด
+    public void recordCheckout(Order order, int pointsAwarded) {
+        if (journal != null || history != null) {
+            JournalEntry entry = JournalEntry.of(order, pointsAwarded);
+            if (journal != null) {
+                journal.appendAndSync(entry);
+            }
+            if (history != null) {
+                // คำสั่งซื้ออยู่ใน journal แล้ว ถือว่าสำเร็จ ประวัติที่ขาดจะเติมจาก journal ตอนเปิดครั้งถัดไป
+                try {
+                    history.append(entry);
+                } catch (RuntimeException e) {
+                    HISTORY_FAILURES.increment();
+                    System.err.println("Order " + entry.orderId() + " was not added to order history: " + e);
+                }
+            }
+        }
+        if (StoreEvents.isEnabled()) {
+            StoreEvents.publish(new StoreEvent.OrderPriced(order.toReceipt()));
+        }
+    }
+
+    // คิดราคาเท่านั้น ยังไม่ถือว่าสั่งซื้อจนกว่า recordCheckout จะสำเร็จ
+    public Order priceOrder(Customer customer, List<OrderItem> items) {
+        return new Order(customer, items);
+    }
+
+    // แต้มสะสมจากยอดที่จ่ายจริง ตามกฎราคาชุดที่ใช้คิดคำสั่งซื้อนี้
+    public int pointsFor(Order order) {
+        return loyaltyPointsFor(order.getPricing(), order.getCustomer(), order.getGrandTotal());
+    }
+
+    // แลกแต้ม บันทึกลง journal ก่อนถือว่าสำเร็จ ตอนเปิดใหม่ยอดที่กู้จึงหักแต้มที่แลกไปแล้ว
+    // ถ้าบันทึกไม่ได้ แต้มถูกคืนและโยน UncheckedIOException
+    public boolean redeemPoints(Customer customer, String referenceId, int points) {
+        return customer.redeemLoyaltyPoints(referenceId, points, () -> {
+            if (journal != null) {
+                journal.appendAndSync(JournalEntry.redemption(customer, referenceId, points, Instant.now()));
+            }
+        });
+    }
+
+    // เพิ่มแต้มให้ลูกค้า เรียกหลัง recordCheckout สำเร็จ
+    public void awardPoints(Order order, int points) {
+        if (points > 0) {
+            order.getCustomer().earnLoyaltyPoints(order.getOrderId(), points);
+        }
+    }
+
+    // การให้แต้มสะสม
+    // 1 แต้ม ต่อทุกๆ 10 หน่วยสกุลเงินที่ใช้จ่าย คูณด้วยตัวคูณของระดับลูกค้าใน PricingRules (VIP x2)
+    public static int loyaltyPointsFor(Customer customer, BigDecimal amountSpent) {
+        return loyaltyPointsFor(PricingEngine.active(), customer, amountSpent);
+    }
+
+    public static int loyaltyPointsFor(CompiledPricing pricing, Customer customer, BigDecimal amountSpent) {
+        int pointsEarnedBase = amountSpent.divide(POINTS_SPEND_UNIT, 0, RoundingMode.FLOOR).intValue();
+        return pointsEarnedBase * pricing.pointsMultiplier(customer.getCustomerType());
+    }
+}
@@ -1,20 +1,24 @@
 package com.bookstore.customer;
 
+import com.bookstore.event.StoreEvent;
+import com.bookstore.event.StoreEvents;
+
 public class Customer {
+    // ระดับลูกค้า ส่วนลดและตัวคูณแต้มของแต่ละระดับมาจาก PricingRules ไม่ได้เขียนตายตัวในโค้ด
     public enum CustomerType {
-        GENERAL, VIP
+        GENERAL, SILVER, GOLD, VIP
     }
 
     private String customerId;
     private String username;
     private CustomerType customerType;
-    private int loyaltyPoints;
+    private final PointsLedger loyaltyPoints; // เพิ่ม/แลกแต้มพร้อมกันได้จากหลายเธรด
 
     public Customer(String customerId, String username, CustomerType customerType) {
         this.customerId = customerId;
         this.username = username;
         this.customerType = customerType;
-        this.loyaltyPoints = 0;
+        this.loyaltyPoints = new PointsLedger();
     }
 
     public String getCustomerId() {
@@ -34,18 +38,49 @@ public class Customer {
     }
 
     public int getLoyaltyPoints() {
+        return Math.toIntExact(loyaltyPoints.balance());
+    }
+
+    public PointsLedger getPointsLedger() {
         return loyaltyPoints;
     }
 
     public void addLoyaltyPoints(int points) {
-        this.loyaltyPoints += points;
-        System.out.printf("%s earned %d loyalty points. Total points: %d%n", 
-                 username, points, this.loyaltyPoints);
+        publishEarned(points, loyaltyPoints.add(points));
+    }
+
+    // แต้มจากคำสั่งซื้อ บันทึกแยกตามเลขคำสั่งซื้อใน ledger คำสั่งซื้อที่ได้แต้มไปแล้วไม่ได้ซ้ำ
+    public void earnLoyaltyPoints(String orderId, int points) {
+        long total = loyaltyPoints.accrueOnce(orderId, points);
+        if (total >= 0) {
+            publishEarned(points, total);
+        }
+    }
+
+    // แลกแต้ม คืนค่า false ถ้าแต้มไม่พอ
+    public boolean redeemLoyaltyPoints(String referenceId, int points) {
+        return loyaltyPoints.redeem(referenceId, points);
+    }
+
+    // แลกแต้มแล้วบันทึกด้วย record ถ้าบันทึกไม่สำเร็จแต้มจะถูกคืน
+    public boolean redeemLoyaltyPoints(String referenceId, int points, Runnable record) {
+        return loyaltyPoints.redeem(referenceId, points, record);
+    }
+
+    // คืนยอดแต้มที่กู้จาก journal ตอนเริ่มระบบ ไม่ใช่แต้มที่ได้ใหม่จึงไม่ส่งเหตุการณ์
+    public void restoreLoyaltyPoints(int points) {
+        this.loyaltyPoints.restore(points);
+    }
+
+    private void publishEarned(int points, long total) {
+        if (StoreEvents.isEnabled()) {
+            StoreEvents.publish(new StoreEvent.PointsEarned(customerId, username, points, Math.toIntExact(total)));
+        }
     }
 
     @Override
     public String toString() {
         return String.format("Customer[ID=%s, Username='%s', Type=%s, LoyaltyPoints=%d]", 
-                            customerId, username, customerType, loyaltyPoints);
+                            customerId, username, customerType, loyaltyPoints.balance());
     }
 }
@@ -0,0 +1,322 @@
+package com.bookstore.customer;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+
+// ทะเบียนลูกค้า ค้นหาด้วย customerId หรือ username แบบ O(1)
+// แบ่งเป็น shard ตาม hash ของคีย์ แต่ละ shard มีล็อกของตัวเอง การสมัครใน shard ต่างกันจึงไม่แย่งกัน
+// ข้อมูลบัญชีเก็บเป็นคอลัมน์ (String[], byte[]) กับตาราง open addressing ของ int ไม่มี object ต่อบัญชี
+// Customer (พร้อม PointsLedger) สร้างเมื่อค้นหาบัญชีนั้นครั้งแรก บัญชีที่ไม่เคยใช้จึงกินที่แค่คอลัมน์
+public final class CustomerRegistry {
+    public static final int DEFAULT_SHARDS = 64;
+    private static final Customer.CustomerType[] TIERS = Customer.CustomerType.values();
+
+    private final Shard[] shards;
+    private final int shardBits;
+    private final int shardShift; // เลือก shard จากบิตสูงของ hash บิตต่ำใช้เลือกช่องในตารางของ shard
+
+    public CustomerRegistry() {
+        this(DEFAULT_SHARDS);
+    }
+
+    public CustomerRegistry(int shards) {
+        if (shards < 1 || shards > 1 << 12 || Integer.bitCount(shards) != 1) {
+            throw new IllegalArgumentException("shards must be a power of two up to 4096: " + shards);
+        }
+        this.shards = new Shard[shards];
+        for (int i = 0; i < shards; i++) {
+            this.shards[i] = new Shard();
+        }
+        this.shardBits = Integer.numberOfTrailingZeros(shards);
+        this.shardShift = 32 - shardBits;
+    }
+
+    // ลูกค้าที่สร้างไว้แล้ว customerId หรือ username ซ้ำถือว่าข้อมูลผิด
+    public static CustomerRegistry of(Collection<Customer> customers) {
+        CustomerRegistry registry = new CustomerRegistry();
+        for (Customer customer : customers) {
+            if (!registry.add(customer)) {
+                throw new IllegalArgumentException("Duplicate customer: " + customer);
+            }
+        }
+        return registry;
+    }
+
+    // สมัครบัญชีใหม่โดยยังไม่สร้าง Customer คืนค่า false ถ้า customerId หรือ username มีอยู่แล้ว
+    public boolean register(String customerId, String username, Customer.CustomerType tier) {
+        requireKey("customerId", customerId);
+        requireKey("username", username);
+        if (tier == null) {
+            throw new IllegalArgumentException("tier is required");
+        }
+        return insert(customerId, username, tier, null);
+    }
+
+    public boolean add(Customer customer) {
+        requireKey("customerId", customer.getCustomerId());
+        requireKey("username", customer.getUsername());
+        return insert(customer.getCustomerId(), customer.getUsername(), customer.getCustomerType(), customer);
+    }
+
+    public Optional<Customer> findById(String customerId) {
+        if (customerId == null) {
+            return Optional.empty();
+        }
+        int hash = spread(customerId.hashCode());
+        Shard shard = shards[shardOf(hash)];
+        StampedLock lock = shard.lock;
+        long stamp = lock.tryOptimisticRead();
+        int record = shard.findId(customerId, hash);
+        Customer customer = record < 0 ? null : shard.loadedAt(record);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                record = shard.findId(customerId, hash);
+                customer = record < 0 ? null : shard.loadedAt(record);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        if (record < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(customer != null ? customer : shard.load(record));
+    }
+
+    public Optional<Customer> findByUsername(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        int hash = spread(username.hashCode());
+        Shard shard = shards[shardOf(hash)];
+        StampedLock lock = shard.lock;
+        long stamp = lock.tryOptimisticRead();
+        int handle = shard.findName(username, hash);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                handle = shard.findName(username, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        if (handle < 0) {
+            return Optional.empty();
+        }
+        // handle ชี้ไปยังระเบียนใน shard ที่เป็นเจ้าของ customerId
+        Shard owner = shards[handle & shards.length - 1];
+        int record = handle >>> shardBits;
+        Customer customer = owner.readLoaded(record);
+        return Optional.of(customer != null ? customer : owner.load(record));
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            long stamp = shard.lock.readLock();
+            try {
+                size += shard.count;
+            } finally {
+                shard.lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // ล็อก shard ของ customerId และของ username ตามลำดับ index เสมอ จึงไม่เกิด deadlock
+    private boolean insert(String customerId, String username, Customer.CustomerType tier, Customer customer) {
+        int idHash = spread(customerId.hashCode());
+        int nameHash = spread(username.hashCode());
+        int ownerIndex = shardOf(idHash);
+        int namesIndex = shardOf(nameHash);
+        Shard owner = shards[ownerIndex];
+        Shard names = shards[namesIndex];
+        Shard first = ownerIndex <= namesIndex ? owner : names;
+        Shard second = ownerIndex <= namesIndex ? names : owner;
+        long firstStamp = first.lock.writeLock();
+        long secondStamp = second == first ? 0 : second.lock.writeLock();
+        try {
+            if (owner.findId(customerId, idHash) >= 0 || names.findName(username, nameHash) >= 0) {
+                return false;
+            }
+            if (owner.count == Integer.MAX_VALUE >>> shardBits) {
+                throw new IllegalStateException("Customer shard is full");
+            }
+            int record = owner.append(customerId, username, tier, customer, idHash);
+            names.putName(username, record << shardBits | ownerIndex, nameHash);
+            return true;
+        } finally {
+            if (second != first) {
+                second.lock.unlockWrite(secondStamp);
+            }
+            first.lock.unlockWrite(firstStamp);
+        }
+    }
+
+    private int shardOf(int hash) {
+        return (int) (Integer.toUnsignedLong(hash) >>> shardShift);
+    }
+
+    // ผสมบิตของ hashCode ให้ทั้งบิตสูง (เลือก shard) และบิตต่ำ (เลือกช่อง) กระจายดี
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        return hash ^ hash >>> 13;
+    }
+
+    private static void requireKey(String name, String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+    }
+
+    // อ่านแบบ optimistic ได้: เมธอด find*/loadedAt อ่านอาร์เรย์ที่อาจกำลังถูกแก้ จึงตรวจขอบเขตเอง
+    // และผลจะถูกใช้ก็ต่อเมื่อ validate ผ่าน
+    private static final class Shard {
+        final StampedLock lock = new StampedLock();
+
+        // คอลัมน์ของบัญชีที่ customerId ตกใน shard นี้ เพิ่มต่อท้ายเท่านั้น
+        String[] ids = new String[8];
+        String[] usernames = new String[8];
+        byte[] tiers = new byte[8];
+        Customer[] loaded = new Customer[8];
+        int count;
+        // ตาราง customerId: แต่ละช่องคือ (hash << 32 | ลำดับระเบียน + 1), 0 คือช่องว่าง
+        // เทียบ hash ในช่องก่อน ช่องที่ชนกันจึงไม่ต้องอ่าน String
+        long[] idSlots = new long[16];
+
+        // username ที่ hash ตก shard นี้: ช่องคือ (hash << 32 | handle + 1) โดย handle = ลำดับระเบียน << shardBits
+        // | shard เจ้าของ และ nameKeys เก็บ username ของช่องเดียวกันไว้เทียบ
+        long[] nameSlots = new long[16];
+        String[] nameKeys = new String[16];
+        int nameCount;
+
+        int findId(String customerId, int hash) {
+            long[] slots = idSlots;
+            String[] keys = ids;
+            int mask = slots.length - 1;
+            for (int i = hash & mask, probes = 0; probes <= mask; i = i + 1 & mask, probes++) {
+                long slot = slots[i];
+                if (slot == 0) {
+                    return -1;
+                }
+                int record = (int) slot - 1;
+                if ((int) (slot >>> 32) == hash && record < keys.length && customerId.equals(keys[record])) {
+                    return record;
+                }
+            }
+            return -1;
+        }
+
+        int findName(String username, int hash) {
+            long[] slots = nameSlots;
+            String[] keys = nameKeys;
+            int mask = Math.min(slots.length, keys.length) - 1;
+            for (int i = hash & mask, probes = 0; probes <= mask; i = i + 1 & mask, probes++) {
+                long slot = slots[i];
+                if (slot == 0) {
+                    return -1;
+                }
+                if ((int) (slot >>> 32) == hash && username.equals(keys[i])) {
+                    return (int) slot - 1;
+                }
+            }
+            return -1;
+        }
+
+        Customer loadedAt(int record) {
+            Customer[] customers = loaded;
+            return record < customers.length ? customers[record] : null;
+        }
+
+        // อ่าน Customer ที่สร้างแล้วจาก shard อื่นที่ยังไม่ได้ถือล็อก
+        Customer readLoaded(int record) {
+            long stamp = lock.tryOptimisticRead();
+            Customer customer = loadedAt(record);
+            if (lock.validate(stamp)) {
+                return customer;
+            }
+            stamp = lock.readLock();
+            try {
+                return loadedAt(record);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        // สร้าง Customer ครั้งแรก ถ้ามีเธรดอื่นสร้างไปก่อนก็ใช้ตัวเดิม (แต้มสะสมอยู่ในตัว Customer)
+        Customer load(int record) {
+            long stamp = lock.writeLock();
+            try {
+                Customer customer = loaded[record];
+                if (customer == null) {
+                    customer = new Customer(ids[record], usernames[record], TIERS[tiers[record]]);
+                    loaded[record] = customer;
+                }
+                return customer;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        int append(String customerId, String username, Customer.CustomerType tier, Customer customer, int hash) {
+            if (count == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                usernames = Arrays.copyOf(usernames, capacity);
+                tiers = Arrays.copyOf(tiers, capacity);
+                loaded = Arrays.copyOf(loaded, capacity);
+            }
+            int record = count;
+            ids[record] = customerId;
+            usernames[record] = username;
+            tiers[record] = (byte) tier.ordinal();
+            loaded[record] = customer;
+            count = record + 1;
+            if (count * 2 > idSlots.length) {
+                idSlots = grow(idSlots, null, null);
+            }
+            place(idSlots, null, null, hash, record + 1);
+            return record;
+        }
+
+        void putName(String username, int handle, int hash) {
+            if ((nameCount + 1) * 2 > nameSlots.length) {
+                String[] keys = new String[nameKeys.length * 2];
+                nameSlots = grow(nameSlots, nameKeys, keys);
+                nameKeys = keys;
+            }
+            place(nameSlots, nameKeys, username, hash, handle + 1);
+            nameCount++;
+        }
+
+        // ย้ายทุกช่องไปตารางขนาดสองเท่า ใช้ hash ที่เก็บไว้ในช่องจึงไม่ต้องคำนวณใหม่
+        private static long[] grow(long[] slots, String[] keys, String[] newKeys) {
+            long[] grown = new long[slots.length * 2];
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] != 0) {
+                    place(grown, newKeys, keys == null ? null : keys[i], (int) (slots[i] >>> 32), (int) slots[i]);
+                }
+            }
+            return grown;
+        }
+
+        private static void place(long[] slots, String[] keys, String key, int hash, int value) {
+            int mask = slots.length - 1;
+            int i = hash & mask;
+            while (slots[i] != 0) {
+                i = i + 1 & mask;
+            }
+            if (keys != null) {
+                keys[i] = key;
+            }
+            slots[i] = (long) hash << 32 | Integer.toUnsignedLong(value);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.bookstore.customer;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// สมุดแต้มสะสมของลูกค้าหนึ่งคน ไม่ใช้ล็อก
+// ยอดคงเหลืออยู่ใน AtomicLong ตัวเดียว: สะสมด้วย getAndAdd, แลกแต้มด้วย CAS ที่ตรวจว่ายอดไม่ติดลบ
+// และจำแต้มที่ได้/ใช้ของ RECENT_ENTRIES รายการล่าสุด (แยกสะสมกับแลก) คำขอซ้ำภายในช่วงนี้ไม่ถูกบันทึกอีก
+// ทั้ง accrue และ redeem: ไม่เพิ่ม/หักซ้ำและถือว่าสำเร็จ ส่วนเลขที่เก่ากว่านั้นถูกลืมและจะบันทึกใหม่
+// (รายการทั้งหมดอยู่ใน journal และประวัติคำสั่งซื้อ ไม่ต้องเก็บทุกเลขอ้างอิงไว้ใน heap)
+public final class PointsLedger {
+    public static final int RECENT_ENTRIES = 1024;
+
+    private final AtomicLong balance = new AtomicLong();
+    private final RecentEntries accruals = new RecentEntries();
+    private final RecentEntries redemptions = new RecentEntries();
+
+    // อ่านยอดได้ทันทีโดยไม่ต้องรอผู้เขียน
+    public long balance() {
+        return balance.get();
+    }
+
+    // เพิ่มแต้มของคำสั่งซื้อ คืนค่ายอดคงเหลือหลังเพิ่ม
+    // คำสั่งซื้อที่เพิ่งบันทึกไปแล้วไม่เพิ่มซ้ำ คืนยอดคงเหลือเดิม
+    public long accrue(String orderId, int points) {
+        long total = accrueOnce(orderId, points);
+        return total < 0 ? balance.get() : total;
+    }
+
+    // เหมือน accrue แต่คืนค่า -1 ถ้าคำสั่งซื้อนี้บันทึกไปแล้ว
+    long accrueOnce(String orderId, int points) {
+        requirePositive(points);
+        if (!accruals.putIfAbsent(orderId, points)) {
+            return -1;
+        }
+        return balance.addAndGet(points);
+    }
+
+    // เพิ่มแต้มที่ไม่ผูกกับคำสั่งซื้อ
+    public long add(int points) {
+        requirePositive(points);
+        return balance.addAndGet(points);
+    }
+
+    // แลกแต้ม คืนค่า false ถ้าแต้มไม่พอ (ยอดคงเหลือไม่มีทางติดลบ)
+    // เลขอ้างอิงที่เพิ่งแลกไปแล้วไม่หักซ้ำ คืนค่า true
+    public boolean redeem(String referenceId, int points) {
+        return redeem(referenceId, points, () -> {
+        });
+    }
+
+    // เหมือน redeem แต่เรียก record (เช่นบันทึกลง journal) หลังหักแต้ม ถ้า record โยน exception จะคืนแต้มแล้วโยนต่อ
+    public boolean redeem(String referenceId, int points, Runnable record) {
+        requirePositive(points);
+        if (!redemptions.putIfAbsent(referenceId, points)) {
+            return true;
+        }
+        if (!tryDebit(points)) {
+            redemptions.remove(referenceId, points);
+            return false;
+        }
+        try {
+            record.run();
+        } catch (RuntimeException e) {
+            balance.addAndGet(points);
+            redemptions.remove(referenceId, points);
+            throw e;
+        }
+        return true;
+    }
+
+    // แลกแต้มที่ไม่ผูกกับรายการใด
+    public boolean redeem(int points) {
+        requirePositive(points);
+        return tryDebit(points);
+    }
+
+    // แต้มที่ได้จากคำสั่งซื้อนี้ (0 ถ้าไม่มี หรือเก่ากว่า RECENT_ENTRIES รายการล่าสุด)
+    public int accruedFor(String orderId) {
+        return accruals.get(orderId);
+    }
+
+    public int redeemedFor(String referenceId) {
+        return redemptions.get(referenceId);
+    }
+
+    // จำนวนคำสั่งซื้อที่ยังจำไว้ ไม่เกิน RECENT_ENTRIES
+    public int accrualCount() {
+        return accruals.size();
+    }
+
+    // ตั้งยอดที่กู้จาก journal ตอนเริ่มระบบ (แต้มที่ได้ลบแต้มที่แลกไปแล้ว)
+    void restore(long points) {
+        if (points < 0) {
+            throw new IllegalArgumentException("Points balance cannot be negative: " + points);
+        }
+        balance.set(points);
+    }
+
+    // CAS จากยอดที่เห็นล่าสุด ถ้ามีเธรดอื่นเปลี่ยนยอดก่อนก็ตรวจใหม่กับยอดนั้น
+    private boolean tryDebit(int points) {
+        long current = balance.get();
+        while (current >= points) {
+            long witness = balance.compareAndExchange(current, current - points);
+            if (witness == current) {
+                return true;
+            }
+            current = witness;
+        }
+        return false;
+    }
+
+    private static void requirePositive(int points) {
+        if (points <= 0) {
+            throw new IllegalArgumentException("Points must be positive: " + points);
+        }
+    }
+
+    // เลขอ้างอิง -> แต้ม ของรายการล่าสุด เมื่อเกิน RECENT_ENTRIES จะลืมรายการที่เก่าที่สุด
+    private static final class RecentEntries {
+        private final Map<String, Integer> points = new ConcurrentHashMap<>();
+        private final Queue<String> order = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+
+        boolean putIfAbsent(String id, int value) {
+            if (points.putIfAbsent(id, value) != null) {
+                return false;
+            }
+            order.add(id);
+            if (queued.incrementAndGet() > RECENT_ENTRIES) {
+                String oldest = order.poll();
+                if (oldest != null) {
+                    queued.decrementAndGet();
+                    points.remove(oldest);
+                }
+            }
+            return true;
+        }
+
+        // เอาออกจากคิวด้วย ไม่เช่นนั้นเลขที่ไม่อยู่แล้วยังนับเป็นรายการและช่วงที่จำได้จะสั้นลง
+        void remove(String id, int value) {
+            if (points.remove(id, value) && order.remove(id)) {
+                queued.decrementAndGet();
+            }
+        }
+
+        int get(String id) {
+            return points.getOrDefault(id, 0);
+        }
+
+        int size() {
+            return points.size();
+        }
+    }
+}
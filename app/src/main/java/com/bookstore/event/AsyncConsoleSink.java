@@ -0,0 +1,118 @@
+package com.bookstore.event;
+
+import java.io.PrintStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// จัดรูปแบบและพิมพ์เหตุการณ์บนเธรดแยก เธรดที่ทำงานหลักไม่ต้องแย่งล็อกของ PrintStream
+public class AsyncConsoleSink implements EventSink {
+    private static final Object SHUTDOWN = new Object();
+    // ระยะที่ผู้ส่งรอก่อนตรวจซ้ำว่า sink ถูกปิดไปแล้วหรือยัง
+    private static final long RECHECK_MILLIS = 10;
+
+    private final BlockingQueue<Object> queue;
+    private final PrintStream out;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    public AsyncConsoleSink() {
+        this(System.out, 8192);
+    }
+
+    public AsyncConsoleSink(PrintStream out, int capacity) {
+        this.out = out;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::drain, "console-event-sink");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void publish(StoreEvent event) {
+        enqueue(event);
+    }
+
+    // หลังปิดแล้วคืนทันที ไม่มีเธรดเขียนมาปลด latch
+    @Override
+    public void flush() {
+        CountDownLatch drained = new CountDownLatch(1);
+        if (!enqueue(drained)) {
+            return;
+        }
+        try {
+            while (!drained.await(RECHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!writer.isAlive()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // เขียนเหตุการณ์ที่ค้างในคิวให้หมดแล้วหยุดเธรดเขียน เรียกซ้ำได้ เหตุการณ์ที่ส่งหลังปิดจะถูกทิ้ง
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        try {
+            queue.put(SHUTDOWN);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // คิวเต็มจะบล็อกผู้ส่ง (backpressure) แทนการทิ้งข้อความ จนกว่า sink จะถูกปิด คืนค่า false ถ้าไม่ได้ใส่คิว
+    private boolean enqueue(Object item) {
+        try {
+            while (!closed) {
+                if (queue.offer(item, RECHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private void drain() {
+        StringBuilder batch = new StringBuilder();
+        try {
+            while (true) {
+                Object item = queue.take();
+                do {
+                    if (item == SHUTDOWN) {
+                        write(batch);
+                        return;
+                    }
+                    if (item instanceof CountDownLatch drained) {
+                        write(batch);
+                        drained.countDown();
+                    } else {
+                        ConsoleFormat.appendTo(batch, (StoreEvent) item).append(System.lineSeparator());
+                    }
+                    item = queue.poll();
+                } while (item != null);
+                write(batch);
+            }
+        } catch (InterruptedException e) {
+            write(batch);
+        }
+    }
+
+    private void write(StringBuilder batch) {
+        if (batch.length() > 0) {
+            out.print(batch);
+            out.flush();
+            batch.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.bookstore.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// เก็บเหตุการณ์ไว้ในหน่วยความจำ สำหรับการทดสอบ
+public class CollectingSink implements EventSink {
+    private final ConcurrentLinkedQueue<StoreEvent> events = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void publish(StoreEvent event) {
+        events.add(event);
+    }
+
+    public List<StoreEvent> events() {
+        return new ArrayList<>(events);
+    }
+
+    public <T extends StoreEvent> List<T> eventsOf(Class<T> type) {
+        List<T> matching = new ArrayList<>();
+        for (StoreEvent event : events) {
+            if (type.isInstance(event)) {
+                matching.add(type.cast(event));
+            }
+        }
+        return matching;
+    }
+
+    public void clear() {
+        events.clear();
+    }
+}
@@ -0,0 +1,24 @@
+package com.bookstore.event;
+
+// ข้อความ console แบบเดียวกับที่ BookstoreApp เคยพิมพ์
+public final class ConsoleFormat {
+
+    private ConsoleFormat() {
+    }
+
+    public static String format(StoreEvent event) {
+        return appendTo(new StringBuilder(64), event).toString();
+    }
+
+    // เขียนต่อท้าย out โดยตรง ใช้กับบัฟเฟอร์ของ AsyncConsoleSink
+    public static StringBuilder appendTo(StringBuilder out, StoreEvent event) {
+        if (event instanceof StoreEvent.CartItemAdded added) {
+            return out.append("Added to cart: ").append(added.quantity()).append(" x ").append(added.title());
+        }
+        if (event instanceof StoreEvent.PointsEarned earned) {
+            return out.append(earned.username()).append(" earned ").append(earned.points())
+                    .append(" loyalty points. Total points: ").append(earned.totalPoints());
+        }
+        return ((StoreEvent.OrderPriced) event).receipt().appendTo(out);
+    }
+}
@@ -0,0 +1,16 @@
+package com.bookstore.event;
+
+public interface EventSink extends AutoCloseable {
+    EventSink NOOP = event -> {
+    };
+
+    void publish(StoreEvent event);
+
+    // รอจนเหตุการณ์ที่ส่งไปแล้วถูกประมวลผลครบ (สำหรับ sink แบบ async)
+    default void flush() {
+    }
+
+    @Override
+    default void close() {
+    }
+}
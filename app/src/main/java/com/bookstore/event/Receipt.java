@@ -0,0 +1,61 @@
+package com.bookstore.event;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.bookstore.money.Money;
+
+// สรุปคำสั่งซื้อที่คิดราคาแล้ว ใช้แสดงผลหรือส่งต่อโดยไม่ต้องพึ่ง Order
+public record Receipt(String orderId, String customerId, String username, String customerType, boolean vip,
+        List<Line> lines, BigDecimal totalVipDiscountApplied, BigDecimal grandTotal) {
+
+    // unitPrice คือราคาต่อหน่วยที่จ่ายจริง ส่วน priceBeforeVipDiscount คือราคาหลังปรับตามประเภทหนังสือ
+    public record Line(String isbn, String title, int quantity, BigDecimal unitPrice, BigDecimal priceBeforeVipDiscount) {
+    }
+
+    public String format() {
+        return appendTo(new StringBuilder(256 + lines.size() * 128)).toString();
+    }
+
+    public StringBuilder appendTo(StringBuilder summary) {
+        appendHeader(summary, orderId, username, customerType);
+        for (Line line : lines) {
+            appendLine(summary, vip ? customerType : null, line.quantity(), line.title(), Money.of(line.unitPrice()),
+                    Money.of(line.priceBeforeVipDiscount()));
+        }
+        return appendFooter(summary, vip ? customerType : null, Money.of(totalVipDiscountApplied),
+                Money.of(grandTotal));
+    }
+
+    // ส่วนหัว/บรรทัด/ส่วนท้ายของสรุปคำสั่งซื้อ ใช้ร่วมกับ Order ที่เขียนจาก Money โดยตรง
+    public static StringBuilder appendHeader(StringBuilder summary, String orderId, String username,
+            String customerType) {
+        return summary.append("\n--- Order Summary ---\n")
+                .append("Order ID: ").append(orderId).append('\n')
+                .append("Customer: ").append(username).append(" (").append(customerType).append(")\n")
+                .append("Items:\n");
+    }
+
+    // tier คือชื่อระดับลูกค้าที่ได้ส่วนลดต่อหน่วย (null = ไม่มีส่วนลด ไม่ต้องแสดงราคาก่อนลด)
+    public static StringBuilder appendLine(StringBuilder summary, String tier, int quantity, String title,
+            Money unitPrice, Money priceBeforeVipDiscount) {
+        summary.append("  - ").append(quantity).append(" x ").append(title).append(" @ $");
+        unitPrice.appendTo(summary, 2).append(" each");
+        if (tier != null) {
+            summary.append(" (").append(tier).append(" Price: $");
+            unitPrice.appendTo(summary, 2).append(", Original Item Price (after type adj.): $");
+            priceBeforeVipDiscount.appendTo(summary, 2).append(')');
+        }
+        return summary.append('\n');
+    }
+
+    public static StringBuilder appendFooter(StringBuilder summary, String tier, Money totalVipDiscountApplied,
+            Money grandTotal) {
+        if (tier != null && totalVipDiscountApplied.signum() > 0) {
+            summary.append("Total ").append(tier).append(" Discount Applied: $");
+            totalVipDiscountApplied.appendTo(summary, 2).append('\n');
+        }
+        summary.append("Grand Total: $");
+        return grandTotal.appendTo(summary, 2).append('\n').append("--------------------");
+    }
+}
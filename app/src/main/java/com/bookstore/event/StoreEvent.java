@@ -0,0 +1,14 @@
+package com.bookstore.event;
+
+// เหตุการณ์จาก business logic ที่ส่งให้ EventSink แทนการพิมพ์ออก console โดยตรง
+public sealed interface StoreEvent permits StoreEvent.CartItemAdded, StoreEvent.PointsEarned, StoreEvent.OrderPriced {
+
+    record CartItemAdded(String isbn, String title, int quantity) implements StoreEvent {
+    }
+
+    record PointsEarned(String customerId, String username, int points, int totalPoints) implements StoreEvent {
+    }
+
+    record OrderPriced(Receipt receipt) implements StoreEvent {
+    }
+}
@@ -0,0 +1,30 @@
+package com.bookstore.event;
+
+// จุดกลางสำหรับส่งเหตุการณ์ ค่าเริ่มต้นคือ NOOP จึงไม่มีการสร้าง event หรือจัดรูปแบบข้อความเลย
+public final class StoreEvents {
+    private static volatile EventSink sink = EventSink.NOOP;
+
+    private StoreEvents() {
+    }
+
+    public static EventSink sink() {
+        return sink;
+    }
+
+    public static void setSink(EventSink eventSink) {
+        sink = eventSink == null ? EventSink.NOOP : eventSink;
+    }
+
+    // ให้ผู้เรียกเช็คก่อนสร้าง event เพื่อไม่ต้องจองหน่วยความจำเมื่อไม่มีผู้รับ
+    public static boolean isEnabled() {
+        return sink != EventSink.NOOP;
+    }
+
+    public static void publish(StoreEvent event) {
+        sink.publish(event);
+    }
+
+    public static void flush() {
+        sink.flush();
+    }
+}
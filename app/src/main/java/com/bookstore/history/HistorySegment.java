@@ -0,0 +1,500 @@
+package com.bookstore.history;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.bookstore.journal.JournalEntry;
+import com.bookstore.money.Money;
+
+// ไฟล์ segment ของประวัติคำสั่งซื้อหนึ่งเดือน เขียนครั้งเดียวแล้วไม่แก้อีก อ่านผ่าน MappedByteBuffer
+//
+// header    : magic, version, yearMonth, customerCount, blockCount, seq, firstSeq, orderCount,
+//             minCreated, maxCreated (epoch second), customersOffset, blocksTableOffset
+// blocks    : คำสั่งซื้อเรียงตาม (ลูกค้า, เวลา, orderId) ลูกค้าละหลาย block ไม่เกิน BLOCK_ORDERS รายการ
+//             แต่ละ block บีบอัดด้วย Deflater และไม่เก็บ customerId ซ้ำ
+// customers : CUSTOMER_SIZE ไบต์ต่อลูกค้า เรียงตามไบต์ UTF-8 ของ customerId
+//             idOffset idLength firstBlock blockCount (int)
+// blocks tb : BLOCK_SIZE ไบต์ต่อ block: offset (long) firstCreated lastCreated (long, epoch second)
+//             compressedLength uncompressedLength orderCount (int)
+// ids       : customerId แบบ UTF-8 ต่อกัน (ต่อจาก blocks table)
+final class HistorySegment {
+    static final int MAGIC = 0x424B4831; // "BKH1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 80;
+    static final int CUSTOMER_SIZE = 16;
+    static final int BLOCK_SIZE = 40;
+    static final int BLOCK_ORDERS = 128;
+
+    static final Comparator<JournalEntry> BY_TIME = Comparator.comparing(JournalEntry::createdAt)
+            .thenComparing(JournalEntry::orderId);
+
+    private record Row(byte[] customerId, JournalEntry entry) {
+    }
+
+    private final Path file;
+    private final YearMonth month;
+    private final long seq;
+    private final long firstSeq;
+    private final long orderCount;
+    private final long minCreated;
+    private final long maxCreated;
+    private final int customerCount;
+    private final ByteBuffer customers;
+    private final ByteBuffer blocks;
+    private final ByteBuffer ids;
+    private final ByteBuffer data;
+
+    private HistorySegment(Path file, MappedByteBuffer data) throws IOException {
+        this.file = file;
+        this.data = data;
+        if (data.capacity() < HEADER_SIZE || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IOException("Not an order history segment (version " + VERSION + "): " + file);
+        }
+        int yearMonth = data.getInt(8);
+        this.month = YearMonth.of(yearMonth / 100, yearMonth % 100);
+        this.customerCount = data.getInt(12);
+        int blockCount = data.getInt(16);
+        this.seq = data.getLong(24);
+        this.firstSeq = data.getLong(32);
+        this.orderCount = data.getLong(40);
+        this.minCreated = data.getLong(48);
+        this.maxCreated = data.getLong(56);
+        int customersOffset = Math.toIntExact(data.getLong(64));
+        int blocksOffset = Math.toIntExact(data.getLong(72));
+        int idsOffset = blocksOffset + blockCount * BLOCK_SIZE;
+        this.customers = data.slice(customersOffset, customerCount * CUSTOMER_SIZE);
+        this.blocks = data.slice(blocksOffset, blockCount * BLOCK_SIZE);
+        this.ids = data.slice(idsOffset, data.capacity() - idsOffset);
+    }
+
+    // แมปทั้งไฟล์แล้วปิด channel ทันที mapping ยังใช้ได้จนกว่า buffer จะถูก GC แม้ไฟล์ถูกลบ (เช่นหลัง compact)
+    static HistorySegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Order history segment too large: " + file);
+            }
+            return new HistorySegment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt order history segment: " + file, e);
+        }
+    }
+
+    // เขียนลงไฟล์ชั่วคราว fsync แล้วค่อยเปลี่ยนชื่อ ผู้อ่านจึงไม่เห็น segment ที่เขียนไม่ครบ
+    static HistorySegment write(Path file, YearMonth month, long seq, long firstSeq, List<JournalEntry> entries)
+            throws IOException {
+        List<Row> rows = new ArrayList<>(entries.size());
+        for (JournalEntry entry : entries) {
+            rows.add(new Row(entry.customerId().getBytes(StandardCharsets.UTF_8), entry));
+        }
+        rows.sort(Comparator.comparing(Row::customerId, Arrays::compareUnsigned).thenComparing(Row::entry, BY_TIME));
+        try (Writer writer = new Writer(file, month, seq, firstSeq)) {
+            for (Row row : rows) {
+                writer.add(row.customerId(), row.entry());
+            }
+            return writer.finish();
+        }
+    }
+
+    // รวม segment ของเดือนเดียวกันเป็นไฟล์เดียว แต่ละไฟล์เรียง (ลูกค้า, เวลา) อยู่แล้วจึง merge ทีละรายการ
+    // ถือใน heap แค่ block ที่กำลังอ่านของแต่ละไฟล์ ไม่ต้องอ่านทั้งเดือน
+    static HistorySegment merge(Path file, YearMonth month, long seq, long firstSeq, List<HistorySegment> parts)
+            throws IOException {
+        List<Cursor> cursors = new ArrayList<>(parts.size());
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(Math.max(1, parts.size()), Cursor.ORDER);
+        try (Writer writer = new Writer(file, month, seq, firstSeq)) {
+            for (HistorySegment part : parts) {
+                Cursor cursor = part.new Cursor();
+                cursors.add(cursor);
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+            while (!queue.isEmpty()) {
+                Cursor cursor = queue.poll();
+                writer.add(cursor.customerId, cursor.entry);
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+            return writer.finish();
+        } finally {
+            for (Cursor cursor : cursors) {
+                cursor.close();
+            }
+        }
+    }
+
+    Path file() {
+        return file;
+    }
+
+    YearMonth month() {
+        return month;
+    }
+
+    long seq() {
+        return seq;
+    }
+
+    long firstSeq() {
+        return firstSeq;
+    }
+
+    long orderCount() {
+        return orderCount;
+    }
+
+    long maxCreated() {
+        return maxCreated;
+    }
+
+    // segment นี้อาจมีคำสั่งซื้อในช่วง [from, to) หรือไม่ (ดูจากเวลาระดับวินาทีใน header)
+    boolean overlaps(Instant from, Instant to) {
+        return orderCount > 0 && maxCreated >= from.getEpochSecond() && minCreated <= to.getEpochSecond();
+    }
+
+    // ส่งคำสั่งซื้อของลูกค้าในช่วง [from, to) ให้ consumer ตามลำดับเวลา
+    // คลายการบีบอัดเฉพาะ block ของลูกค้านี้ที่ช่วงเวลาทับกับที่ขอ
+    void scan(String customerId, Instant from, Instant to, Consumer<JournalEntry> consumer) throws IOException {
+        int customer = findCustomer(customerId.getBytes(StandardCharsets.UTF_8));
+        if (customer < 0) {
+            return;
+        }
+        int firstBlock = customers.getInt(customer * CUSTOMER_SIZE + 8);
+        int end = firstBlock + customers.getInt(customer * CUSTOMER_SIZE + 12);
+        // block ของลูกค้าเดียวกันเรียงตามเวลา หา block แรกที่จบไม่ก่อน from
+        int low = firstBlock;
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (blocks.getLong(mid * BLOCK_SIZE + 16) < from.getEpochSecond()) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        Inflater inflater = new Inflater();
+        try {
+            for (int block = low; block < end && blocks.getLong(block * BLOCK_SIZE + 8) <= to.getEpochSecond();
+                    block++) {
+                for (JournalEntry entry : readBlock(inflater, block, customerId)) {
+                    if (entry.createdAt().compareTo(from) >= 0 && entry.createdAt().compareTo(to) < 0) {
+                        consumer.accept(entry);
+                    }
+                }
+            }
+        } finally {
+            inflater.end();
+        }
+    }
+
+    // binary search บนตารางลูกค้าใน mapped memory เทียบไบต์ตรงๆ ไม่สร้าง String
+    private int findCustomer(byte[] customerId) {
+        int low = 0;
+        int high = customerCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareId(mid, customerId);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int compareId(int customer, byte[] key) {
+        int offset = customers.getInt(customer * CUSTOMER_SIZE);
+        int length = customers.getInt(customer * CUSTOMER_SIZE + 4);
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Byte.compareUnsigned(ids.get(offset + i), key[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private String customerId(int customer) {
+        byte[] bytes = new byte[customers.getInt(customer * CUSTOMER_SIZE + 4)];
+        ids.get(customers.getInt(customer * CUSTOMER_SIZE), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private List<JournalEntry> readBlock(Inflater inflater, int block, String customerId) throws IOException {
+        int row = block * BLOCK_SIZE;
+        int offset = Math.toIntExact(blocks.getLong(row));
+        int compressedLength = blocks.getInt(row + 24);
+        byte[] raw = new byte[blocks.getInt(row + 28)];
+        int count = blocks.getInt(row + 32);
+        inflater.reset();
+        inflater.setInput(data.slice(offset, compressedLength));
+        try {
+            if (inflater.inflate(raw) != raw.length || !inflater.finished()) {
+                throw new IOException("Truncated block " + block + " in " + file);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt block " + block + " in " + file, e);
+        }
+        return decode(new DataInputStream(new ByteArrayInputStream(raw)), count, customerId,
+                blocks.getLong(row + 8));
+    }
+
+    // เวลาเก็บเป็นส่วนต่างจากคำสั่งซื้อก่อนหน้าใน block เลขจึงเล็กและบีบอัดได้ดี
+    private static byte[] encode(List<JournalEntry> block) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(block.size() * 96);
+        DataOutputStream out = new DataOutputStream(bytes);
+        long previous = block.get(0).createdAt().getEpochSecond();
+        for (JournalEntry entry : block) {
+            out.writeUTF(entry.orderId());
+            out.writeUTF(entry.customerType());
+            out.writeLong(entry.createdAt().getEpochSecond() - previous);
+            out.writeInt(entry.createdAt().getNano());
+            previous = entry.createdAt().getEpochSecond();
+            out.writeInt(entry.lines().size());
+            for (JournalEntry.Line line : entry.lines()) {
+                out.writeUTF(line.isbn());
+                out.writeInt(line.quantity());
+                writeAmount(out, line.lineTotal());
+            }
+            writeAmount(out, entry.grandTotal());
+            writeAmount(out, entry.vipDiscount());
+            out.writeInt(entry.pointsAwarded());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<JournalEntry> decode(DataInputStream in, int count, String customerId, long firstSecond)
+            throws IOException {
+        List<JournalEntry> entries = new ArrayList<>(count);
+        long previous = firstSecond;
+        for (int i = 0; i < count; i++) {
+            String orderId = in.readUTF();
+            String customerType = in.readUTF();
+            long second = previous + in.readLong();
+            Instant createdAt = Instant.ofEpochSecond(second, in.readInt());
+            previous = second;
+            int lineCount = in.readInt();
+            List<JournalEntry.Line> lines = new ArrayList<>(lineCount);
+            for (int line = 0; line < lineCount; line++) {
+                lines.add(new JournalEntry.Line(in.readUTF(), in.readInt(), readAmount(in)));
+            }
+            BigDecimal grandTotal = readAmount(in);
+            BigDecimal vipDiscount = readAmount(in);
+            entries.add(new JournalEntry(orderId, customerId, customerType, createdAt, lines, grandTotal,
+                    vipDiscount, in.readInt()));
+        }
+        return entries;
+    }
+
+    private static byte[] deflate(Deflater deflater, byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 64);
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            out.write(chunk, 0, deflater.deflate(chunk));
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    // จำนวนเงินเก็บเป็น units + scale แบบเดียวกับ journal
+    private static void writeAmount(DataOutputStream out, BigDecimal amount) throws IOException {
+        Money money = Money.of(amount);
+        out.writeLong(money.getUnits());
+        out.writeByte(money.getScale());
+    }
+
+    private static BigDecimal readAmount(DataInputStream in) throws IOException {
+        return BigDecimal.valueOf(in.readLong(), in.readUnsignedByte());
+    }
+
+    // อ่านทุกคำสั่งซื้อตามลำดับ (ลูกค้า, เวลา) ทีละ block ใช้ตอน merge
+    private final class Cursor {
+        static final Comparator<Cursor> ORDER = Comparator.<Cursor, byte[]>comparing(cursor -> cursor.customerId,
+                Arrays::compareUnsigned).thenComparing(cursor -> cursor.entry, BY_TIME);
+
+        private final Inflater inflater = new Inflater();
+        private int customer = -1;
+        private int block;
+        private int blockEnd;
+        private List<JournalEntry> entries = List.of();
+        private int index;
+        private String customerIdString;
+        byte[] customerId;
+        JournalEntry entry;
+
+        boolean advance() throws IOException {
+            while (index == entries.size()) {
+                if (block < blockEnd) {
+                    entries = readBlock(inflater, block++, customerIdString);
+                    index = 0;
+                } else if (++customer < customerCount) {
+                    customerIdString = customerId(customer);
+                    customerId = customerIdString.getBytes(StandardCharsets.UTF_8);
+                    block = customers.getInt(customer * CUSTOMER_SIZE + 8);
+                    blockEnd = block + customers.getInt(customer * CUSTOMER_SIZE + 12);
+                } else {
+                    entry = null;
+                    return false;
+                }
+            }
+            entry = entries.get(index++);
+            return true;
+        }
+
+        void close() {
+            inflater.end();
+        }
+    }
+
+    // เขียน segment จากคำสั่งซื้อที่ส่งมาตามลำดับ (ลูกค้า, เวลา) เขียน block ลงไฟล์ทันทีที่ครบ
+    // ใน heap มีแค่ block ปัจจุบันกับตารางลูกค้า/ตาราง block
+    private static final class Writer implements AutoCloseable {
+        private final Path file;
+        private final Path temp;
+        private final YearMonth month;
+        private final long seq;
+        private final long firstSeq;
+        private final FileChannel channel;
+        private final Deflater deflater = new Deflater();
+        private final ByteArrayOutputStream customerTable = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream blockTable = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream idData = new ByteArrayOutputStream();
+        private final DataOutputStream customerOut = new DataOutputStream(customerTable);
+        private final DataOutputStream blockOut = new DataOutputStream(blockTable);
+        private final List<JournalEntry> block = new ArrayList<>(BLOCK_ORDERS);
+        private byte[] currentId;
+        private int customerFirstBlock;
+        private long position = HEADER_SIZE;
+        private long minCreated = Long.MAX_VALUE;
+        private long maxCreated = Long.MIN_VALUE;
+        private long orderCount;
+        private int customerCount;
+        private int blockCount;
+        private boolean finished;
+
+        Writer(Path file, YearMonth month, long seq, long firstSeq) throws IOException {
+            this.file = file;
+            this.temp = file.resolveSibling(file.getFileName() + ".tmp");
+            this.month = month;
+            this.seq = seq;
+            this.firstSeq = firstSeq;
+            this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void add(byte[] customerId, JournalEntry entry) throws IOException {
+            if (currentId == null || !Arrays.equals(currentId, customerId)) {
+                endCustomer();
+                currentId = customerId;
+                customerFirstBlock = blockCount;
+            } else if (block.size() == BLOCK_ORDERS) {
+                writeBlock();
+            }
+            block.add(entry);
+            orderCount++;
+        }
+
+        HistorySegment finish() throws IOException {
+            endCustomer();
+            long customersOffset = position;
+            long blocksOffset = customersOffset + customerTable.size();
+            if (blocksOffset + blockTable.size() + idData.size() > Integer.MAX_VALUE) {
+                throw new IOException("Order history segment too large: " + file);
+            }
+            writeFully(channel, ByteBuffer.wrap(customerTable.toByteArray()), customersOffset);
+            writeFully(channel, ByteBuffer.wrap(blockTable.toByteArray()), blocksOffset);
+            writeFully(channel, ByteBuffer.wrap(idData.toByteArray()), blocksOffset + blockTable.size());
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(month.getYear() * 100 + month.getMonthValue())
+                    .putInt(customerCount).putInt(blockCount).putInt(0).putLong(seq).putLong(firstSeq)
+                    .putLong(orderCount).putLong(minCreated).putLong(maxCreated).putLong(customersOffset)
+                    .putLong(blocksOffset).flip();
+            writeFully(channel, header, 0);
+            channel.force(true);
+            channel.close();
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            finished = true;
+            return open(file);
+        }
+
+        // ลูกค้าละหลาย block ตารางลูกค้าเก็บ block แรกกับจำนวน block
+        private void endCustomer() throws IOException {
+            if (currentId == null) {
+                return;
+            }
+            writeBlock();
+            customerOut.writeInt(idData.size());
+            customerOut.writeInt(currentId.length);
+            customerOut.writeInt(customerFirstBlock);
+            customerOut.writeInt(blockCount - customerFirstBlock);
+            idData.write(currentId);
+            customerCount++;
+        }
+
+        private void writeBlock() throws IOException {
+            byte[] raw = encode(block);
+            byte[] compressed = deflate(deflater, raw);
+            long first = block.get(0).createdAt().getEpochSecond();
+            long last = block.get(block.size() - 1).createdAt().getEpochSecond();
+            blockOut.writeLong(position);
+            blockOut.writeLong(first);
+            blockOut.writeLong(last);
+            blockOut.writeInt(compressed.length);
+            blockOut.writeInt(raw.length);
+            blockOut.writeInt(block.size());
+            blockOut.writeInt(0);
+            writeFully(channel, ByteBuffer.wrap(compressed), position);
+            position += compressed.length;
+            blockCount++;
+            minCreated = Math.min(minCreated, first);
+            maxCreated = Math.max(maxCreated, last);
+            block.clear();
+        }
+
+        // ไม่สำเร็จ (ยังไม่ได้ finish) ลบไฟล์ชั่วคราวทิ้ง
+        @Override
+        public void close() throws IOException {
+            deflater.end();
+            channel.close();
+            if (!finished) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+}
@@ -0,0 +1,475 @@
+package com.bookstore.history;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.bookstore.journal.JournalEntry;
+
+// ประวัติคำสั่งซื้อย้อนหลังหลายปีบนเครื่องเดียว แบ่งไฟล์ตามเดือน (UTC) ของเวลาสั่งซื้อ
+// คำสั่งซื้อใหม่พักใน heap จนครบ flushThreshold แล้วเขียนเป็น segment ที่ไม่แก้อีก (ข้อมูลล่าสุดยังอยู่ใน journal)
+// การเขียนและ compact ทำบนเธรดเขียนของประวัติ เธรดที่ checkout แค่ส่งชุดคำสั่งซื้อต่อให้ ไม่ต้องรอ I/O
+// การค้นตามลูกค้าและช่วงเวลาข้าม segment ของเดือนที่ไม่เกี่ยวข้อง และอ่านเฉพาะ block ของลูกค้านั้นจาก mapped memory
+// ชื่อไฟล์ orders-<yyyy-MM>-<seq>.seg, segment ที่ compact แล้วครอบคลุม seq ตั้งแต่ firstSeq ถึง seq ของตัวเอง
+public final class OrderHistory implements AutoCloseable {
+    public static final int DEFAULT_FLUSH_THRESHOLD = 4096;
+    // segment ที่ติดกันในเดือนเดียวกันและขนาดอยู่ชั้นเดียวกันครบจำนวนนี้จะถูกรวม
+    // ชั้นขนาดกว้างทีละ SEGMENTS_PER_MERGE เท่า คำสั่งซื้อแต่ละรายการจึงถูกเขียนซ้ำแค่ O(log n) ครั้ง
+    public static final int SEGMENTS_PER_MERGE = 4;
+    // เพดานจำนวน segment ต่อเดือน ถ้าเกินจะรวมคู่ที่ติดกันที่เล็กที่สุด
+    public static final int MAX_SEGMENTS_PER_MONTH = 8;
+    // ชุดที่รอเธรดเขียนได้ไม่เกินนี้ ถ้าเธรดเขียนตามไม่ทัน append จะรอ
+    private static final int MAX_QUEUED_BATCHES = 4;
+    // คำสั่งซื้อที่เก่ากว่า segment ล่าสุดตอนเปิดเกินช่วงนี้ ถือว่าเขียนลง segment แล้ว
+    // (เผื่อเธรดที่บันทึกไม่ตามลำดับเวลา)
+    private static final long BACKFILL_WINDOW_SECONDS = 3_600;
+
+    private static final String PREFIX = "orders-";
+    private static final String SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int flushThreshold;
+    // เปลี่ยนทั้งรายการเมื่อ flush/compact ผู้อ่านสแกน snapshot เดิมต่อได้โดยไม่ถือล็อก
+    private volatile List<HistorySegment> segments;
+    // ReentrantLock แทน synchronized: append อาจรอเธรดเขียนบน virtual thread ของ HTTP โดยไม่ pin carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchWritten = lock.newCondition();
+    private List<JournalEntry> pending = new ArrayList<>();
+    // ชุดที่ส่งให้เธรดเขียนแล้วแต่ยังไม่อยู่ใน segments ผู้อ่านยังเห็นจากที่นี่
+    private final Deque<List<JournalEntry>> flushing = new ArrayDeque<>();
+    private Future<Void> background; // งานเขียนที่ append ส่งไป null = ไม่มีงานค้าง
+    private IOException writeFailure; // งานเขียนล่าสุดล้มเหลว ชุดที่ค้างจะเขียนใหม่รอบถัดไป
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("order-history-writer").daemon().factory());
+    private long nextSeq; // ใช้เฉพาะบนเธรดเขียน
+    private boolean closed;
+    private final long backfillFrom; // epoch second
+
+    private OrderHistory(Path directory, int flushThreshold, List<HistorySegment> segments, long nextSeq) {
+        this.directory = directory;
+        this.flushThreshold = flushThreshold;
+        this.segments = List.copyOf(segments);
+        this.nextSeq = nextSeq;
+        long newest = Long.MIN_VALUE;
+        for (HistorySegment segment : segments) {
+            newest = Math.max(newest, segment.maxCreated());
+        }
+        this.backfillFrom = newest == Long.MIN_VALUE ? Long.MIN_VALUE : newest - BACKFILL_WINDOW_SECONDS;
+    }
+
+    public static OrderHistory open(Path directory) throws IOException {
+        return open(directory, DEFAULT_FLUSH_THRESHOLD);
+    }
+
+    // โหลดเฉพาะ header ของแต่ละ segment ลบไฟล์ชั่วคราวที่เขียนค้าง และ segment ที่ถูก compact ไปแล้วแต่ยังลบไม่ทัน
+    public static OrderHistory open(Path directory, int flushThreshold) throws IOException {
+        if (flushThreshold < 1) {
+            throw new IllegalArgumentException("flushThreshold must be positive");
+        }
+        Files.createDirectories(directory);
+        List<HistorySegment> loaded = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(SUFFIX + ".tmp")) {
+                    Files.deleteIfExists(file);
+                } else if (name.endsWith(SUFFIX)) {
+                    loaded.add(HistorySegment.open(file));
+                }
+            }
+        }
+        List<HistorySegment> live = new ArrayList<>();
+        long nextSeq = 1;
+        for (HistorySegment segment : loaded) {
+            nextSeq = Math.max(nextSeq, segment.seq() + 1);
+            if (supersededBy(segment, loaded)) {
+                Files.deleteIfExists(segment.file());
+            } else {
+                live.add(segment);
+            }
+        }
+        live.sort(Comparator.comparing(HistorySegment::month).thenComparingLong(HistorySegment::seq));
+        return new OrderHistory(directory, flushThreshold, live, nextSeq);
+    }
+
+    // ครบ flushThreshold แล้วส่งต่อให้เธรดเขียน ไม่เขียนไฟล์บนเธรดที่เรียก
+    // ถ้าเธรดเขียนตามไม่ทัน (ค้าง MAX_QUEUED_BATCHES ชุด) จะรอ ถ้าเขียนล้มเหลวอยู่จะไม่รับเพิ่ม
+    // (คำสั่งซื้ออยู่ใน journal แล้ว เติมกลับได้ด้วย backfill)
+    public void append(JournalEntry entry) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Order history is closed");
+            }
+            if (pending.size() + 1 >= flushThreshold) {
+                while (flushing.size() >= MAX_QUEUED_BATCHES) {
+                    if (writeFailure != null) {
+                        throw new UncheckedIOException("Order history writer is failing", writeFailure);
+                    }
+                    batchWritten.await();
+                }
+            }
+            pending.add(entry);
+            if (pending.size() >= flushThreshold) {
+                handOff();
+                if (background == null) {
+                    background = writer.submit(this::writeBatches);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted while waiting for order history"));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // เขียนคำสั่งซื้อที่พักไว้เป็น segment ใหม่เดือนละไฟล์ แล้วรอจนเขียน (และ compact) เสร็จ
+    public void flush() throws IOException {
+        lock.lock();
+        try {
+            handOff();
+        } finally {
+            lock.unlock();
+        }
+        awaitWrites();
+    }
+
+    // รอจนชุดที่ส่งให้เธรดเขียนไปแล้วอยู่ใน segment (ไม่รวมที่ยังพักใน heap)
+    public void awaitWrites() throws IOException {
+        Future<Void> done;
+        lock.lock();
+        try {
+            if (flushing.isEmpty() && writer.isShutdown()) {
+                return;
+            }
+            try {
+                done = writer.submit(this::writeBatches);
+            } catch (RejectedExecutionException e) {
+                throw new IOException("Order history is closed", e);
+            }
+        } finally {
+            lock.unlock();
+        }
+        try {
+            done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing order history");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to write order history: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    // คำสั่งซื้อของลูกค้าในช่วง [from, to) เรียงตามเวลา
+    public List<JournalEntry> ordersOf(String customerId, Instant from, Instant to) {
+        List<JournalEntry> orders = new ArrayList<>();
+        if (customerId == null || !from.isBefore(to)) {
+            return orders;
+        }
+        // อ่านรายการ segment พร้อมกับ pending และชุดที่รอเขียนใต้ล็อกเดียวกัน คำสั่งซื้อที่ flush อยู่จึงไม่หายหรือซ้ำ
+        List<HistorySegment> snapshot;
+        lock.lock();
+        try {
+            snapshot = segments;
+            collect(pending, customerId, from, to, orders);
+            for (List<JournalEntry> batch : flushing) {
+                collect(batch, customerId, from, to, orders);
+            }
+        } finally {
+            lock.unlock();
+        }
+        try {
+            for (HistorySegment segment : snapshot) {
+                if (segment.overlaps(from, to)) {
+                    segment.scan(customerId, from, to, orders::add);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        orders.sort(HistorySegment.BY_TIME);
+        return orders;
+    }
+
+    public List<JournalEntry> ordersOf(String customerId, YearMonth month) {
+        return ordersOf(customerId, month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC),
+                month.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC));
+    }
+
+    // มีคำสั่งซื้อนี้แล้วหรือไม่ ใช้ตอนเติมประวัติจาก journal ให้เติมซ้ำได้โดยไม่เกิดรายการซ้ำ
+    public boolean contains(JournalEntry entry) {
+        for (JournalEntry existing : ordersOf(entry.customerId(), entry.createdAt(), entry.createdAt().plusNanos(1))) {
+            if (existing.orderId().equals(entry.orderId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // เติมคำสั่งซื้อจาก journal ที่ยังไม่อยู่ในประวัติ (เช่นที่ค้างใน pending ตอนเครื่องล่ม) คืนค่า true ถ้าเพิ่ม
+    // คำสั่งซื้อเก่าไม่ต้องคลาย block มาตรวจ การ replay journal ทั้งไฟล์ตอนเปิดแอปจึงไม่ช้าลงตามขนาดประวัติ
+    public boolean backfill(JournalEntry entry) {
+        if (entry.createdAt().getEpochSecond() < backfillFrom || contains(entry)) {
+            return false;
+        }
+        append(entry);
+        return true;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public long size() {
+        lock.lock();
+        try {
+            long size = pending.size();
+            for (List<JournalEntry> batch : flushing) {
+                size += batch.size();
+            }
+            for (HistorySegment segment : segments) {
+                size += segment.orderCount();
+            }
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // เขียนที่เหลือ รอเธรดเขียนทำงานที่ค้างให้เสร็จแล้วหยุด
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flush();
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void handOff() {
+        if (!pending.isEmpty()) {
+            flushing.addLast(pending);
+            pending = new ArrayList<>();
+        }
+    }
+
+    private static void collect(List<JournalEntry> entries, String customerId, Instant from, Instant to,
+            List<JournalEntry> orders) {
+        for (JournalEntry entry : entries) {
+            if (entry.customerId().equals(customerId) && !entry.createdAt().isBefore(from)
+                    && entry.createdAt().isBefore(to)) {
+                orders.add(entry);
+            }
+        }
+    }
+
+    // บนเธรดเขียน: เขียนทุกชุดที่รออยู่ตามลำดับ แล้ว compact เดือนที่ได้ segment ใหม่
+    // เมื่อไม่มีชุดเหลือหรือล้มเหลว ล้าง background ใต้ล็อกเดียวกับที่ตรวจ append ครั้งถัดไปจึงส่งงานใหม่เสมอ
+    private Void writeBatches() throws IOException {
+        try {
+            while (true) {
+                List<JournalEntry> batch;
+                lock.lock();
+                try {
+                    batch = flushing.peekFirst();
+                    if (batch == null) {
+                        background = null;
+                        return null;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                for (YearMonth month : writeBatch(batch)) {
+                    compact(month);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            lock.lock();
+            try {
+                writeFailure = e instanceof IOException io ? io : new IOException(e);
+                background = null;
+                batchWritten.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    // ชุดหนึ่งเขียนเป็น segment เดือนละไฟล์ เผยแพร่ segment พร้อมกับเอาชุดออกจาก flushing ใต้ล็อกเดียวกัน
+    private Set<YearMonth> writeBatch(List<JournalEntry> batch) throws IOException {
+        Map<YearMonth, List<JournalEntry>> byMonth = new TreeMap<>();
+        for (JournalEntry entry : batch) {
+            byMonth.computeIfAbsent(monthOf(entry.createdAt()), month -> new ArrayList<>()).add(entry);
+        }
+        List<HistorySegment> written = new ArrayList<>();
+        Set<YearMonth> months = new HashSet<>();
+        try {
+            for (Map.Entry<YearMonth, List<JournalEntry>> month : byMonth.entrySet()) {
+                long seq = nextSeq++;
+                written.add(HistorySegment.write(file(month.getKey(), seq), month.getKey(), seq, seq,
+                        month.getValue()));
+                months.add(month.getKey());
+            }
+        } finally {
+            // เดือนที่เขียนสำเร็จแล้วไม่ต้องเขียนซ้ำแม้เดือนถัดไปล้มเหลว
+            lock.lock();
+            try {
+                List<HistorySegment> updated = new ArrayList<>(segments);
+                updated.addAll(written);
+                publish(updated);
+                List<JournalEntry> rest = new ArrayList<>();
+                for (JournalEntry entry : batch) {
+                    if (!months.contains(monthOf(entry.createdAt()))) {
+                        rest.add(entry);
+                    }
+                }
+                flushing.removeFirst();
+                if (!rest.isEmpty()) {
+                    flushing.addFirst(rest);
+                }
+                if (rest.isEmpty()) {
+                    writeFailure = null;
+                }
+                batchWritten.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return months;
+    }
+
+    // size-tiered: รวมเฉพาะ segment เล็กที่ติดกัน ไม่อ่าน segment ใหญ่ของเดือนซ้ำทุกครั้งที่มี segment ใหม่
+    private void compact(YearMonth month) throws IOException {
+        List<HistorySegment> parts;
+        while ((parts = nextMerge(month)) != null) {
+            merge(month, parts);
+        }
+    }
+
+    // segment ที่ติดกัน (ตาม seq ในเดือนนี้) และอยู่ชั้นขนาดเดียวกันตั้งแต่ SEGMENTS_PER_MERGE ไฟล์
+    // ถ้าไม่มีแต่ยังเกิน MAX_SEGMENTS_PER_MONTH ใช้คู่ที่ติดกันที่รวมแล้วเล็กที่สุด null = ไม่ต้องรวม
+    private List<HistorySegment> nextMerge(YearMonth month) {
+        List<HistorySegment> parts = new ArrayList<>();
+        for (HistorySegment segment : segments) {
+            if (segment.month().equals(month)) {
+                parts.add(segment);
+            }
+        }
+        for (int start = 0; start < parts.size();) {
+            int tier = tier(parts.get(start));
+            int end = start + 1;
+            while (end < parts.size() && tier(parts.get(end)) == tier) {
+                end++;
+            }
+            if (end - start >= SEGMENTS_PER_MERGE) {
+                return parts.subList(start, end);
+            }
+            start = end;
+        }
+        if (parts.size() <= MAX_SEGMENTS_PER_MONTH) {
+            return null;
+        }
+        int smallest = 0;
+        for (int i = 1; i + 1 < parts.size(); i++) {
+            if (parts.get(i).orderCount() + parts.get(i + 1).orderCount()
+                    < parts.get(smallest).orderCount() + parts.get(smallest + 1).orderCount()) {
+                smallest = i;
+            }
+        }
+        return parts.subList(smallest, smallest + 2);
+    }
+
+    private static int tier(HistorySegment segment) {
+        int tier = 0;
+        for (long count = segment.orderCount(); count >= SEGMENTS_PER_MERGE; count /= SEGMENTS_PER_MERGE) {
+            tier++;
+        }
+        return tier;
+    }
+
+    // ไฟล์ใหม่ใช้ seq ของ segment ล่าสุดในกลุ่มและบันทึก firstSeq ของ segment แรก จึงครอบคลุมเฉพาะกลุ่มนี้
+    // และเปลี่ยนชื่อทับไฟล์ของ segment ล่าสุด ถ้าเครื่องล่มก่อนลบไฟล์อื่นในกลุ่ม ตอนเปิดครั้งถัดไปจะรู้ว่าถูกรวมไปแล้ว
+    private void merge(YearMonth month, List<HistorySegment> parts) throws IOException {
+        HistorySegment newest = parts.get(parts.size() - 1);
+        HistorySegment merged = HistorySegment.merge(file(month, newest.seq()), month, newest.seq(),
+                parts.get(0).firstSeq(), parts);
+        List<HistorySegment> replaced = List.copyOf(parts);
+        lock.lock();
+        try {
+            List<HistorySegment> updated = new ArrayList<>(segments);
+            updated.removeAll(replaced);
+            updated.add(merged);
+            publish(updated);
+        } finally {
+            lock.unlock();
+        }
+        for (HistorySegment part : replaced) {
+            if (part == newest) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(part.file());
+            } catch (IOException e) {
+                // ลบไม่ได้ (เช่นไฟล์ยังถูก map บาง OS) จะถูกลบตอนเปิดครั้งถัดไป
+            }
+        }
+    }
+
+    private void publish(List<HistorySegment> updated) {
+        updated.sort(Comparator.comparing(HistorySegment::month).thenComparingLong(HistorySegment::seq));
+        segments = List.copyOf(updated);
+    }
+
+    // ช่วง seq ของ segment อยู่ในช่วงของ segment อื่นที่กว้างกว่าในเดือนเดียวกัน
+    private static boolean supersededBy(HistorySegment segment, List<HistorySegment> all) {
+        for (HistorySegment other : all) {
+            if (other != segment && other.month().equals(segment.month())
+                    && other.firstSeq() <= segment.firstSeq() && segment.seq() <= other.seq()
+                    && other.seq() - other.firstSeq() > segment.seq() - segment.firstSeq()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Path file(YearMonth month, long seq) {
+        return directory.resolve(PREFIX + month + "-" + String.format("%06d", seq) + SUFFIX);
+    }
+
+    private static YearMonth monthOf(Instant instant) {
+        return YearMonth.from(instant.atOffset(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,141 @@
+package com.bookstore.http;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+// เขียน JSON ลง StringBuilder ตรงๆ ใส่จุลภาคระหว่างค่าให้อัตโนมัติ
+final class JsonWriter {
+    private final StringBuilder out = new StringBuilder(256);
+    private boolean needsComma;
+
+    JsonWriter beginObject() {
+        separator();
+        out.append('{');
+        needsComma = false;
+        return this;
+    }
+
+    JsonWriter endObject() {
+        out.append('}');
+        needsComma = true;
+        return this;
+    }
+
+    JsonWriter beginArray() {
+        separator();
+        out.append('[');
+        needsComma = false;
+        return this;
+    }
+
+    JsonWriter endArray() {
+        out.append(']');
+        needsComma = true;
+        return this;
+    }
+
+    JsonWriter name(String name) {
+        separator();
+        string(name);
+        out.append(':');
+        needsComma = false;
+        return this;
+    }
+
+    JsonWriter value(String value) {
+        separator();
+        if (value == null) {
+            out.append("null");
+        } else {
+            string(value);
+        }
+        needsComma = true;
+        return this;
+    }
+
+    JsonWriter value(long value) {
+        separator();
+        out.append(value);
+        needsComma = true;
+        return this;
+    }
+
+    JsonWriter value(double value) {
+        separator();
+        out.append(value);
+        needsComma = true;
+        return this;
+    }
+
+    JsonWriter value(boolean value) {
+        separator();
+        out.append(value);
+        needsComma = true;
+        return this;
+    }
+
+    // ตัวเลขทศนิยมเขียนแบบ plain ไม่ใช้ exponent
+    JsonWriter value(BigDecimal value) {
+        separator();
+        out.append(value.toPlainString());
+        needsComma = true;
+        return this;
+    }
+
+    JsonWriter field(String name, String value) {
+        return name(name).value(value);
+    }
+
+    JsonWriter field(String name, long value) {
+        return name(name).value(value);
+    }
+
+    JsonWriter field(String name, double value) {
+        return name(name).value(value);
+    }
+
+    JsonWriter field(String name, boolean value) {
+        return name(name).value(value);
+    }
+
+    JsonWriter field(String name, BigDecimal value) {
+        return name(name).value(value);
+    }
+
+    byte[] toBytes() {
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+
+    private void separator() {
+        if (needsComma) {
+            out.append(',');
+        }
+    }
+
+    private void string(String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+}
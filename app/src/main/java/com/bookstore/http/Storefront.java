@@ -0,0 +1,301 @@
+package com.bookstore.http;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.bookstore.books.Book;
+import com.bookstore.catalog.Catalog;
+import com.bookstore.checkout.CheckoutResult;
+import com.bookstore.checkout.CheckoutService;
+import com.bookstore.customer.Customer;
+import com.bookstore.customer.CustomerRegistry;
+import com.bookstore.inventory.Stock;
+import com.bookstore.order.CartStore;
+import com.bookstore.order.OrderItem;
+import com.bookstore.order.ShoppingCart;
+import com.bookstore.recommend.RecommendationIndex;
+import com.bookstore.search.SearchIndex;
+
+// สถานะของร้านที่ใช้ร่วมกันระหว่าง request: แคตตาล็อก ลูกค้า และ session ที่มีตะกร้าของตัวเอง
+// session ที่ไม่ถูกใช้นานเกิน sessionTtl หมดอายุ ตะกร้าถูกทิ้งและคืนสต็อกที่จองไว้
+public final class Storefront {
+    public static final Duration DEFAULT_SESSION_TTL = Duration.ofMinutes(30);
+
+    // ล็อกต่อ session กันไม่ให้ checkout ซ้อนกันหรือเพิ่มสินค้าระหว่างที่กำลัง checkout
+    // ใช้ ReentrantLock แทน synchronized เพื่อไม่ให้ virtual thread ติดกับ carrier thread
+    // lastUsed คือ System.nanoTime() ของครั้งล่าสุดที่ใช้ session
+    public record Session(String id, Customer customer, ReentrantLock lock, AtomicLong lastUsed) {
+    }
+
+    public enum CartChange {
+        OK, NO_SUCH_BOOK, NO_SUCH_ITEM, OUT_OF_STOCK, NO_SUCH_SESSION
+    }
+
+    private final Catalog catalog;
+    private final RecommendationIndex recommendations;
+    private final SearchIndex searchIndex;
+    private final CheckoutService checkoutService;
+    private final Stock stock; // จองสต็อกตอนเพิ่มลงตะกร้า ตัดตอน checkout
+    private final CustomerRegistry customers;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final CartStore carts = new CartStore(); // ตะกร้าแยกตาม session id
+    private final SecureRandom random = new SecureRandom();
+    private final long sessionTtlNanos;
+
+    public Storefront(Catalog catalog, RecommendationIndex recommendations, SearchIndex searchIndex,
+            Collection<Customer> customers, CheckoutService checkoutService) {
+        this(catalog, recommendations, searchIndex, customers, checkoutService, new Stock());
+    }
+
+    public Storefront(Catalog catalog, RecommendationIndex recommendations, SearchIndex searchIndex,
+            Collection<Customer> customers, CheckoutService checkoutService, Stock stock) {
+        this(catalog, recommendations, searchIndex, CustomerRegistry.of(customers), checkoutService, stock);
+    }
+
+    public Storefront(Catalog catalog, RecommendationIndex recommendations, SearchIndex searchIndex,
+            CustomerRegistry customers, CheckoutService checkoutService, Stock stock) {
+        this(catalog, recommendations, searchIndex, customers, checkoutService, stock, DEFAULT_SESSION_TTL);
+    }
+
+    public Storefront(Catalog catalog, RecommendationIndex recommendations, SearchIndex searchIndex,
+            CustomerRegistry customers, CheckoutService checkoutService, Stock stock, Duration sessionTtl) {
+        if (sessionTtl.isNegative() || sessionTtl.isZero()) {
+            throw new IllegalArgumentException("sessionTtl must be positive: " + sessionTtl);
+        }
+        this.sessionTtlNanos = sessionTtl.toNanos();
+        this.catalog = catalog;
+        this.stock = stock;
+        this.recommendations = recommendations;
+        this.searchIndex = searchIndex;
+        this.checkoutService = checkoutService;
+        this.customers = customers;
+    }
+
+    public Catalog catalog() {
+        return catalog;
+    }
+
+    public RecommendationIndex recommendations() {
+        return recommendations;
+    }
+
+    public SearchIndex searchIndex() {
+        return searchIndex;
+    }
+
+    public Stock stock() {
+        return stock;
+    }
+
+    public Optional<Customer> findCustomer(String customerId) {
+        return customers.findById(customerId);
+    }
+
+    public Optional<Session> openSession(String customerId) {
+        Customer customer = customers.findById(customerId).orElse(null);
+        if (customer == null) {
+            return Optional.empty();
+        }
+        byte[] token = new byte[16];
+        random.nextBytes(token);
+        Session session = new Session(HexFormat.of().formatHex(token), customer, new ReentrantLock(),
+                new AtomicLong(System.nanoTime()));
+        sessions.put(session.id(), session);
+        return Optional.of(session);
+    }
+
+    // session ที่หมดอายุแล้วแต่ยังไม่ถูกเก็บกวาดถือว่าไม่มี และถูกปิดทันที
+    public Optional<Session> findSession(String sessionId) {
+        Session session = sessionId == null ? null : sessions.get(sessionId);
+        if (session == null) {
+            return Optional.empty();
+        }
+        long now = System.nanoTime();
+        if (expireIfIdle(session, now)) {
+            return Optional.empty();
+        }
+        session.lastUsed().set(now);
+        return Optional.of(session);
+    }
+
+    public Duration sessionTtl() {
+        return Duration.ofNanos(sessionTtlNanos);
+    }
+
+    // ปิด session ที่ไม่ถูกใช้นานเกิน sessionTtl คืนค่าจำนวน session ที่ปิด (เรียกเป็นระยะจาก StorefrontServer)
+    public int evictIdleSessions() {
+        long now = System.nanoTime();
+        int evicted = 0;
+        for (Session session : sessions.values()) {
+            if (expireIfIdle(session, now)) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    // ปิด session แล้วคืนสต็อกที่ตะกร้าจองไว้
+    public boolean closeSession(String sessionId) {
+        Session session = sessions.remove(sessionId);
+        if (session == null) {
+            return false;
+        }
+        session.lock().lock();
+        try {
+            carts.removeCart(sessionId).ifPresent(cart -> stock.release(cart.getItems()));
+        } finally {
+            session.lock().unlock();
+        }
+        return true;
+    }
+
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    // session ที่ปิดไปแล้วได้ตะกร้าว่างที่ไม่ผูกกับ session ใด (ไม่สร้างตะกร้าค้างไว้ใน CartStore)
+    public ShoppingCart cart(Session session) {
+        session.lock().lock();
+        try {
+            return isLive(session) ? carts.cartFor(session.id()) : new ShoppingCart();
+        } finally {
+            session.lock().unlock();
+        }
+    }
+
+    // จองสต็อกใต้ล็อกของ session หลังตรวจว่ายังไม่ถูกปิด การปิด session จึงคืนสต็อกที่จองไว้ครบทุกครั้ง
+    public CartChange addToCart(Session session, String isbn, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+        Optional<Book> book = catalog.findByIsbn(isbn);
+        if (book.isEmpty()) {
+            return CartChange.NO_SUCH_BOOK;
+        }
+        boolean reserved = false;
+        session.lock().lock();
+        try {
+            if (!isLive(session)) {
+                return CartChange.NO_SUCH_SESSION;
+            }
+            if (!stock.reserve(book.get(), quantity)) {
+                return CartChange.OUT_OF_STOCK;
+            }
+            reserved = true;
+            carts.addItem(session.id(), new OrderItem(book.get(), quantity));
+        } catch (RuntimeException e) {
+            // คืนเฉพาะสต็อกที่การเรียกนี้จองได้ ถ้า reserve เองล้มเหลวก็ไม่มีอะไรต้องคืน
+            if (reserved) {
+                stock.release(book.get(), quantity);
+            }
+            throw e;
+        } finally {
+            session.lock().unlock();
+        }
+        return CartChange.OK;
+    }
+
+    // จองหรือคืนสต็อกตามส่วนต่างจากจำนวนเดิม จำนวน <= 0 คือลบออกจากตะกร้า
+    public CartChange updateCartItem(Session session, String isbn, int quantity) {
+        if (quantity <= 0) {
+            return removeCartItem(session, isbn) ? CartChange.OK : CartChange.NO_SUCH_ITEM;
+        }
+        session.lock().lock();
+        try {
+            if (!isLive(session)) {
+                return CartChange.NO_SUCH_SESSION;
+            }
+            OrderItem current = carts.cartFor(session.id()).getItem(isbn);
+            if (current == null) {
+                return CartChange.NO_SUCH_ITEM;
+            }
+            int delta = quantity - current.getQuantity();
+            if (delta > 0 && !stock.reserve(current.getBook(), delta)) {
+                return CartChange.OUT_OF_STOCK;
+            }
+            if (delta < 0) {
+                stock.release(current.getBook(), -delta);
+            }
+            carts.updateQuantity(session.id(), isbn, quantity);
+            return CartChange.OK;
+        } finally {
+            session.lock().unlock();
+        }
+    }
+
+    public boolean removeCartItem(Session session, String isbn) {
+        session.lock().lock();
+        try {
+            if (!isLive(session)) {
+                return false;
+            }
+            ShoppingCart cart = carts.cartFor(session.id());
+            OrderItem removed = cart.getItem(isbn);
+            if (removed == null || !cart.removeItem(isbn)) {
+                return false;
+            }
+            stock.release(removed.getBook(), removed.getQuantity());
+            return true;
+        } finally {
+            session.lock().unlock();
+        }
+    }
+
+    // ตัดสต็อกที่จองไว้ก่อน แล้วคิดราคา บันทึก journal ให้แต้ม และล้างตะกร้า; ตะกร้าว่างหรือ session ปิดแล้วคืนค่า empty
+    // ถ้า checkout ล้มเหลวคืนสต็อกกลับเป็นยอดจอง หลัง journal บันทึกแล้วจึงเหลือแค่ล้างตะกร้าซึ่งไม่ล้มเหลว
+    public Optional<CheckoutResult> checkout(Session session) {
+        session.lock().lock();
+        try {
+            if (!isLive(session)) {
+                return Optional.empty();
+            }
+            ShoppingCart cart = carts.cartFor(session.id());
+            if (cart.isEmpty()) {
+                return Optional.empty();
+            }
+            List<OrderItem> items = cart.getItems();
+            stock.commit(items);
+            CheckoutResult result;
+            try {
+                result = checkoutService.checkout(session.customer(), items);
+            } catch (RuntimeException e) {
+                stock.uncommit(items);
+                throw e;
+            }
+            cart.clearCart();
+            return Optional.of(result);
+        } finally {
+            session.lock().unlock();
+        }
+    }
+
+    // เรียกขณะถือล็อกของ session: closeSession ลบออกจาก map ก่อนแล้วจึงรอล็อกเพื่อคืนสต็อก
+    private boolean isLive(Session session) {
+        return sessions.get(session.id()) == session;
+    }
+
+    // ตรวจซ้ำใต้ล็อก request ที่ใช้ session อยู่ระหว่างนี้จึงไม่ถูกตัดกลางคัน
+    private boolean expireIfIdle(Session session, long now) {
+        if (now - session.lastUsed().get() <= sessionTtlNanos) {
+            return false;
+        }
+        session.lock().lock();
+        try {
+            if (now - session.lastUsed().get() <= sessionTtlNanos || !sessions.remove(session.id(), session)) {
+                return false;
+            }
+            carts.removeCart(session.id()).ifPresent(cart -> stock.release(cart.getItems()));
+            return true;
+        } finally {
+            session.lock().unlock();
+        }
+    }
+}
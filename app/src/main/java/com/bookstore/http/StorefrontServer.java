@@ -0,0 +1,423 @@
+package com.bookstore.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.bookstore.books.Book;
+import com.bookstore.catalog.BookFilter;
+import com.bookstore.catalog.BookPage;
+import com.bookstore.catalog.CatalogOrder;
+import com.bookstore.catalog.PageCursor;
+import com.bookstore.checkout.CheckoutResult;
+import com.bookstore.event.Receipt;
+import com.bookstore.metrics.Metrics;
+import com.bookstore.metrics.Timer;
+import com.bookstore.order.OrderItem;
+import com.bookstore.order.ShoppingCart;
+import com.bookstore.search.SearchIndex;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// HTTP API ของร้าน บน HttpServer ของ JDK โดยแต่ละ request ทำงานบน virtual thread ของตัวเอง
+//
+//   GET    /books?after=&limit=&sort=isbn|price&type=&author=&year=
+//   GET    /books/{isbn}
+//   GET    /search?q=&limit=             GET /recommendations[?type=&limit=]
+//   POST   /sessions?customerId=         DELETE /sessions
+//   GET    /cart                         POST /cart/items?isbn=&quantity=
+//   PUT    /cart/items/{isbn}?quantity=  DELETE /cart/items/{isbn}
+//   POST   /checkout                     GET /metrics (text)
+//
+// request ที่ต้องมี session ส่ง id ใน header X-Session-Id; พารามิเตอร์รับได้ทั้ง query string และ form body
+public final class StorefrontServer implements AutoCloseable {
+    public static final String SESSION_HEADER = "X-Session-Id";
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 500;
+    private static final Timer RECOMMENDATIONS = Metrics.timer("recommendations");
+    // รอบเก็บกวาด session ที่หมดอายุ (ไม่ห่างกว่า sessionTtl ของ Storefront)
+    private static final long EVICTION_INTERVAL_MILLIS = 30_000;
+
+    private final Storefront storefront;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService sessionReaper;
+
+    private record Response(int status, String contentType, byte[] body) {
+        Response(int status, byte[] body) {
+            this(status, "application/json; charset=utf-8", body);
+        }
+    }
+
+    private static final class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        HttpError(int status, String message) {
+            super(message, null, false, false);
+            this.status = status;
+        }
+    }
+
+    private StorefrontServer(Storefront storefront, HttpServer server) {
+        this.storefront = storefront;
+        this.server = server;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        this.sessionReaper = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("session-reaper").daemon().factory());
+        long period = Math.max(1, Math.min(EVICTION_INTERVAL_MILLIS, storefront.sessionTtl().toMillis()));
+        sessionReaper.scheduleWithFixedDelay(storefront::evictIdleSessions, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // port 0 = ให้ระบบเลือก port ว่าง
+    public static StorefrontServer start(Storefront storefront, InetSocketAddress address, int backlog)
+            throws IOException {
+        StorefrontServer storefrontServer = new StorefrontServer(storefront, HttpServer.create(address, backlog));
+        storefrontServer.server.start();
+        return storefrontServer;
+    }
+
+    public static StorefrontServer start(Storefront storefront, int port) throws IOException {
+        return start(storefront, new InetSocketAddress(port), 4096);
+    }
+
+    public InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    @Override
+    public void close() {
+        sessionReaper.shutdownNow();
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        Response response;
+        try {
+            response = route(exchange);
+        } catch (HttpError e) {
+            response = error(e.status, e.getMessage());
+        } catch (RuntimeException e) {
+            response = error(500, "Internal error: " + e.getClass().getSimpleName());
+        }
+        try (exchange) {
+            exchange.getResponseHeaders().set("Content-Type", response.contentType());
+            if (response.body().length == 0) {
+                exchange.sendResponseHeaders(response.status(), -1);
+            } else {
+                exchange.sendResponseHeaders(response.status(), response.body().length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(response.body());
+                }
+            }
+        }
+    }
+
+    private Response route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getRawPath();
+        Map<String, String> params = parameters(exchange);
+
+        if (path.equals("/books")) {
+            requireMethod(method, "GET");
+            return listBooks(params);
+        }
+        if (path.startsWith("/books/")) {
+            requireMethod(method, "GET");
+            Book book = storefront.catalog().findByIsbn(decode(path.substring("/books/".length())))
+                    .orElseThrow(() -> new HttpError(404, "Book not found"));
+            return ok(book(new JsonWriter(), book));
+        }
+        if (path.equals("/search")) {
+            requireMethod(method, "GET");
+            return search(params);
+        }
+        if (path.equals("/recommendations")) {
+            requireMethod(method, "GET");
+            return recommendations(params);
+        }
+        if (path.equals("/metrics")) {
+            requireMethod(method, "GET");
+            return new Response(200, "text/plain; charset=utf-8",
+                    Metrics.appendText(new StringBuilder()).toString().getBytes(StandardCharsets.UTF_8));
+        }
+        if (path.equals("/sessions")) {
+            if (method.equals("POST")) {
+                return openSession(params);
+            }
+            requireMethod(method, "DELETE");
+            storefront.closeSession(session(exchange).id());
+            return new Response(204, new byte[0]);
+        }
+        if (path.equals("/cart")) {
+            requireMethod(method, "GET");
+            Storefront.Session session = session(exchange);
+            return ok(cart(new JsonWriter(), session, storefront.cart(session)));
+        }
+        if (path.equals("/cart/items")) {
+            requireMethod(method, "POST");
+            Storefront.Session session = session(exchange);
+            String isbn = required(params, "isbn");
+            requireChanged(storefront.addToCart(session, isbn, positiveInt(params, "quantity", 1)));
+            return ok(cart(new JsonWriter(), session, storefront.cart(session)));
+        }
+        if (path.startsWith("/cart/items/")) {
+            Storefront.Session session = session(exchange);
+            String isbn = decode(path.substring("/cart/items/".length()));
+            if (method.equals("PUT")) {
+                requireChanged(storefront.updateCartItem(session, isbn, intParam(params, "quantity", 0)));
+            } else {
+                requireMethod(method, "DELETE");
+                if (!storefront.removeCartItem(session, isbn)) {
+                    throw new HttpError(404, "Item not in cart");
+                }
+            }
+            return ok(cart(new JsonWriter(), session, storefront.cart(session)));
+        }
+        if (path.equals("/checkout")) {
+            requireMethod(method, "POST");
+            CheckoutResult result = storefront.checkout(session(exchange))
+                    .orElseThrow(() -> new HttpError(409, "Shopping cart is empty"));
+            return ok(checkout(new JsonWriter(), result));
+        }
+        throw new HttpError(404, "No such resource");
+    }
+
+    // แบ่งหน้าด้วย cursor: ส่ง next ของหน้าก่อนกลับมาเป็น after
+    private Response listBooks(Map<String, String> params) {
+        CatalogOrder order = switch (params.getOrDefault("sort", "isbn")) {
+            case "isbn" -> CatalogOrder.ISBN;
+            case "price" -> CatalogOrder.PRICE;
+            default -> throw new HttpError(400, "sort must be 'isbn' or 'price'");
+        };
+        BookFilter filter = new BookFilter(params.get("type"), params.get("author"), params.get("year"));
+        BookPage page;
+        try {
+            String after = params.get("after");
+            page = storefront.catalog().page(order, filter, after == null ? null : PageCursor.parse(after),
+                    limit(params));
+        } catch (IllegalArgumentException e) {
+            throw new HttpError(400, e.getMessage());
+        }
+        JsonWriter json = new JsonWriter().beginObject().field("total", storefront.catalog().size());
+        json.name("books").beginArray();
+        for (Book book : page.books()) {
+            book(json, book);
+        }
+        json.endArray().field("next", page.next().map(PageCursor::token).orElse(null));
+        return ok(json.endObject());
+    }
+
+    private Response search(Map<String, String> params) {
+        String query = required(params, "q");
+        List<SearchIndex.Hit> hits = storefront.searchIndex().search(query, limit(params));
+        JsonWriter json = new JsonWriter().beginObject().field("query", query).name("hits").beginArray();
+        for (SearchIndex.Hit hit : hits) {
+            json.beginObject().field("score", hit.score()).name("book");
+            book(json, hit.book());
+            json.endObject();
+        }
+        return ok(json.endArray().endObject());
+    }
+
+    private Response recommendations(Map<String, String> params) {
+        long start = RECOMMENDATIONS.start();
+        try {
+            String type = params.get("type");
+            JsonWriter json = new JsonWriter().beginObject();
+            if (type == null) {
+                json.name("highestPricedByType").beginObject();
+                for (Map.Entry<String, Book> entry : storefront.recommendations().highestPricedByType().entrySet()) {
+                    json.name(entry.getKey());
+                    book(json, entry.getValue());
+                }
+                json.endObject();
+            } else {
+                json.field("type", type).name("books").beginArray();
+                for (Book book : storefront.recommendations().topByType(type, limit(params))) {
+                    book(json, book);
+                }
+                json.endArray();
+            }
+            return ok(json.endObject());
+        } finally {
+            RECOMMENDATIONS.stop(start);
+        }
+    }
+
+    private Response openSession(Map<String, String> params) {
+        Storefront.Session session = storefront.openSession(required(params, "customerId"))
+                .orElseThrow(() -> new HttpError(404, "Customer not found"));
+        JsonWriter json = new JsonWriter().beginObject().field("sessionId", session.id());
+        json.name("customer").beginObject()
+                .field("customerId", session.customer().getCustomerId())
+                .field("username", session.customer().getUsername())
+                .field("customerType", session.customer().getCustomerType().name())
+                .field("loyaltyPoints", session.customer().getLoyaltyPoints())
+                .endObject();
+        return new Response(201, json.endObject().toBytes());
+    }
+
+    private Storefront.Session session(HttpExchange exchange) {
+        return storefront.findSession(exchange.getRequestHeaders().getFirst(SESSION_HEADER))
+                .orElseThrow(() -> new HttpError(401, "Missing or unknown " + SESSION_HEADER));
+    }
+
+    private static JsonWriter book(JsonWriter json, Book book) {
+        return json.beginObject()
+                .field("isbn", book.getIsbn())
+                .field("title", book.getTitle())
+                .field("author", book.getAuthor())
+                .field("type", book.getBookType())
+                .field("publishYear", book.getPublishYearValue())
+                .field("basePrice", book.getBasePrice())
+                .field("price", book.calculatePrice())
+                .endObject();
+    }
+
+    // ยอดรวมอ่านจากยอดสะสมของตะกร้า ไม่คิดราคาทุกบรรทัดใหม่ทุกครั้งที่ดูตะกร้า
+    private static JsonWriter cart(JsonWriter json, Storefront.Session session, ShoppingCart cart) {
+        json.beginObject().name("items").beginArray();
+        for (OrderItem item : cart.getItems()) {
+            json.beginObject()
+                    .field("isbn", item.getBook().getIsbn())
+                    .field("title", item.getBook().getTitle())
+                    .field("type", item.getBook().getBookType())
+                    .field("quantity", item.getQuantity())
+                    .field("unitPrice", item.getItemPriceBeforeVipDiscount())
+                    .field("lineTotal", item.getLineItemTotalBeforeVipDiscount())
+                    .endObject();
+        }
+        return json.endArray().field("subtotal", cart.calculateSubTotalBeforeVipDiscount())
+                .field("total", cart.projectedTotal(session.customer().getCustomerType())).endObject();
+    }
+
+    private static JsonWriter checkout(JsonWriter json, CheckoutResult result) {
+        Receipt receipt = result.order().toReceipt();
+        json.beginObject()
+                .field("orderId", receipt.orderId())
+                .field("customerId", receipt.customerId())
+                .field("customerType", receipt.customerType());
+        json.name("lines").beginArray();
+        for (Receipt.Line line : receipt.lines()) {
+            json.beginObject()
+                    .field("isbn", line.isbn())
+                    .field("title", line.title())
+                    .field("quantity", line.quantity())
+                    .field("unitPrice", line.unitPrice())
+                    .field("priceBeforeVipDiscount", line.priceBeforeVipDiscount())
+                    .endObject();
+        }
+        return json.endArray()
+                .field("vipDiscount", receipt.totalVipDiscountApplied())
+                .field("grandTotal", receipt.grandTotal())
+                .field("pointsEarned", result.pointsEarned())
+                .field("loyaltyPoints", result.customer().getLoyaltyPoints())
+                .endObject();
+    }
+
+    private static Response ok(JsonWriter json) {
+        return new Response(200, json.toBytes());
+    }
+
+    private static Response error(int status, String message) {
+        return new Response(status, new JsonWriter().beginObject().field("error", message).endObject().toBytes());
+    }
+
+    private static void requireChanged(Storefront.CartChange change) {
+        switch (change) {
+            case OK -> {
+            }
+            case NO_SUCH_BOOK -> throw new HttpError(404, "Book not found");
+            case NO_SUCH_ITEM -> throw new HttpError(404, "Item not in cart");
+            case NO_SUCH_SESSION -> throw new HttpError(401, "Session expired");
+            case OUT_OF_STOCK -> throw new HttpError(409, "Not enough stock");
+        }
+    }
+
+    private static void requireMethod(String method, String expected) {
+        if (!method.equals(expected)) {
+            throw new HttpError(405, "Method " + method + " not allowed");
+        }
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            throw new HttpError(400, "Missing parameter '" + name + "'");
+        }
+        return value;
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue) {
+        String value = params.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new HttpError(400, "Invalid " + name + " '" + value + "'");
+        }
+    }
+
+    private static int positiveInt(Map<String, String> params, String name, int defaultValue) {
+        int value = intParam(params, name, defaultValue);
+        if (value <= 0) {
+            throw new HttpError(400, name + " must be positive");
+        }
+        return value;
+    }
+
+    private static int limit(Map<String, String> params) {
+        return Math.min(positiveInt(params, "limit", DEFAULT_LIMIT), MAX_LIMIT);
+    }
+
+    // query string รวมกับ form body (application/x-www-form-urlencoded) ถ้ามี
+    private static Map<String, String> parameters(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        try (InputStream body = exchange.getRequestBody()) {
+            byte[] bytes = body.readNBytes(64 * 1024);
+            if (bytes.length > 0) {
+                parseForm(new String(bytes, StandardCharsets.UTF_8), params);
+            }
+        }
+        return params;
+    }
+
+    private static void parseForm(String form, Map<String, String> params) {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = decode(eq < 0 ? pair : pair.substring(0, eq));
+            if (!name.isEmpty()) {
+                params.putIfAbsent(name, eq < 0 ? "" : decode(pair.substring(eq + 1)));
+            }
+        }
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new HttpError(400, "Malformed URL encoding");
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.bookstore.inventory;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.bookstore.books.Book;
+import com.bookstore.books.PhysicalBook;
+import com.bookstore.order.OrderItem;
+
+// คลังสินค้าของหนังสือเล่ม (PhysicalBook) แยกตาม ISBN
+// EBook/AudioBook และเล่มที่ยังไม่ได้ตั้งจำนวนถือว่าไม่จำกัด
+// แต่ละ ISBN มี StockLevel ของตัวเอง การจองหนังสือขายดีเล่มเดียวจึงไม่ขวางการจองเล่มอื่น
+public class Stock {
+    private final ConcurrentHashMap<String, StockLevel> levels = new ConcurrentHashMap<>();
+
+    // ตั้งจำนวนเริ่มต้น (ISBN ที่มีอยู่แล้วจะถูกเติมเพิ่ม)
+    public StockLevel stock(String isbn, int onHand) {
+        StockLevel created = new StockLevel(onHand);
+        StockLevel existing = levels.putIfAbsent(isbn, created);
+        if (existing == null) {
+            return created;
+        }
+        if (onHand > 0) {
+            existing.restock(onHand);
+        }
+        return existing;
+    }
+
+    public Optional<StockLevel> level(String isbn) {
+        return Optional.ofNullable(levels.get(isbn));
+    }
+
+    public boolean isTracked(Book book) {
+        return book instanceof PhysicalBook && levels.containsKey(book.getIsbn());
+    }
+
+    // จำนวนที่ยังจองได้ หนังสือที่ไม่จำกัดคืน Integer.MAX_VALUE
+    public int available(Book book) {
+        StockLevel level = levelOf(book);
+        return level == null ? Integer.MAX_VALUE : level.available();
+    }
+
+    public boolean reserve(Book book, int quantity) {
+        StockLevel level = levelOf(book);
+        return level == null || level.reserve(quantity);
+    }
+
+    public void release(Book book, int quantity) {
+        StockLevel level = levelOf(book);
+        if (level != null) {
+            level.release(quantity);
+        }
+    }
+
+    public void release(List<OrderItem> items) {
+        for (OrderItem item : items) {
+            release(item.getBook(), item.getQuantity());
+        }
+    }
+
+    // ตัดสต็อกของทุกรายการที่จองไว้ตอน checkout ถ้ารายการใดตัดไม่ได้ คืนรายการที่ตัดไปแล้วก่อนโยนต่อ
+    public void commit(List<OrderItem> items) {
+        int committed = 0;
+        try {
+            for (OrderItem item : items) {
+                StockLevel level = levelOf(item.getBook());
+                if (level != null) {
+                    level.commit(item.getQuantity());
+                }
+                committed++;
+            }
+        } catch (RuntimeException e) {
+            uncommit(items.subList(0, committed));
+            throw e;
+        }
+    }
+
+    // ย้อน commit: ของกลับเข้าคลังและยังจองไว้ให้ตะกร้าเดิม (เมื่อคำสั่งซื้อบันทึกไม่สำเร็จ)
+    public void uncommit(List<OrderItem> items) {
+        for (OrderItem item : items) {
+            StockLevel level = levelOf(item.getBook());
+            if (level != null) {
+                level.uncommit(item.getQuantity());
+            }
+        }
+    }
+
+    private StockLevel levelOf(Book book) {
+        return book instanceof PhysicalBook ? levels.get(book.getIsbn()) : null;
+    }
+}
@@ -0,0 +1,139 @@
+package com.bookstore.inventory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// จำนวนคงคลังของหนังสือหนึ่ง ISBN: onHand (32 บิตบน) กับ reserved (32 บิตล่าง) อยู่ใน long เดียว
+// ทุกการเปลี่ยนแปลงเป็น CAS ครั้งเดียวบนค่าคู่นี้ จึงไม่มีจังหวะที่ reserved เกิน onHand
+public final class StockLevel {
+    private static final long LOW_MASK = 0xFFFF_FFFFL;
+
+    private final AtomicLong state;
+
+    StockLevel(int onHand) {
+        requireNonNegative(onHand);
+        this.state = new AtomicLong(pack(onHand, 0));
+    }
+
+    public int onHand() {
+        return onHand(state.get());
+    }
+
+    public int reserved() {
+        return reserved(state.get());
+    }
+
+    // จำนวนที่ยังจองได้ อ่านจาก snapshot เดียวกันของ onHand/reserved
+    public int available() {
+        long current = state.get();
+        return onHand(current) - reserved(current);
+    }
+
+    // จองถ้ายังมีของพอ คืนค่า false โดยไม่เปลี่ยนอะไรถ้าไม่พอ
+    public boolean reserve(int quantity) {
+        requirePositive(quantity);
+        long current = state.get();
+        while (true) {
+            int onHand = onHand(current);
+            int reserved = reserved(current);
+            if (onHand - reserved < quantity) {
+                return false;
+            }
+            long witness = state.compareAndExchange(current, pack(onHand, reserved + quantity));
+            if (witness == current) {
+                return true;
+            }
+            current = witness;
+        }
+    }
+
+    // คืนของที่จองไว้ (ลบออกจากตะกร้า/ล้างตะกร้า)
+    public void release(int quantity) {
+        requirePositive(quantity);
+        long current = state.get();
+        while (true) {
+            int reserved = reserved(current);
+            if (reserved < quantity) {
+                throw new IllegalStateException("Releasing " + quantity + " but only " + reserved + " reserved");
+            }
+            long witness = state.compareAndExchange(current, pack(onHand(current), reserved - quantity));
+            if (witness == current) {
+                return;
+            }
+            current = witness;
+        }
+    }
+
+    // ตัดของที่จองไว้ออกจากคลังตอน checkout
+    public void commit(int quantity) {
+        requirePositive(quantity);
+        long current = state.get();
+        while (true) {
+            int reserved = reserved(current);
+            if (reserved < quantity) {
+                throw new IllegalStateException("Committing " + quantity + " but only " + reserved + " reserved");
+            }
+            long witness = state.compareAndExchange(current, pack(onHand(current) - quantity, reserved - quantity));
+            if (witness == current) {
+                return;
+            }
+            current = witness;
+        }
+    }
+
+    // ย้อน commit ที่ทำไปแล้ว: เพิ่มทั้ง onHand และ reserved ใน CAS เดียว
+    public void uncommit(int quantity) {
+        requirePositive(quantity);
+        long current = state.get();
+        while (true) {
+            long witness = state.compareAndExchange(current,
+                    pack(Math.addExact(onHand(current), quantity), Math.addExact(reserved(current), quantity)));
+            if (witness == current) {
+                return;
+            }
+            current = witness;
+        }
+    }
+
+    public void restock(int quantity) {
+        requirePositive(quantity);
+        long current = state.get();
+        while (true) {
+            long witness = state.compareAndExchange(current,
+                    pack(Math.addExact(onHand(current), quantity), reserved(current)));
+            if (witness == current) {
+                return;
+            }
+            current = witness;
+        }
+    }
+
+    @Override
+    public String toString() {
+        long current = state.get();
+        return "StockLevel[onHand=" + onHand(current) + ", reserved=" + reserved(current) + "]";
+    }
+
+    private static long pack(int onHand, int reserved) {
+        return ((long) onHand << 32) | (reserved & LOW_MASK);
+    }
+
+    private static int onHand(long state) {
+        return (int) (state >>> 32);
+    }
+
+    private static int reserved(long state) {
+        return (int) state;
+    }
+
+    private static void requirePositive(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+    }
+
+    private static void requireNonNegative(int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Stock cannot be negative: " + quantity);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.bookstore.journal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import com.bookstore.money.Money;
+
+// รูปแบบบนดิสก์: ส่วนหัวไฟล์ MAGIC แล้วตามด้วย record [int ความยาว payload][int CRC32C ของ payload][payload]
+// record ที่เขียนไม่ครบหรือ CRC ไม่ตรง ถือเป็นจุดสิ้นสุดของ journal
+final class JournalCodec {
+    static final int MAGIC = 0x424B4A31; // "BKJ1"
+    static final int FILE_HEADER_BYTES = Integer.BYTES;
+    static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+    static final int MAX_PAYLOAD_BYTES = 16 * 1024 * 1024;
+
+    private JournalCodec() {
+    }
+
+    static ByteBuffer encode(JournalEntry entry) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 + entry.lines().size() * 32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(entry.orderId());
+            out.writeUTF(entry.customerId());
+            out.writeUTF(entry.customerType());
+            out.writeLong(entry.createdAt().getEpochSecond());
+            out.writeInt(entry.createdAt().getNano());
+            out.writeInt(entry.lines().size());
+            for (JournalEntry.Line line : entry.lines()) {
+                out.writeUTF(line.isbn());
+                out.writeInt(line.quantity());
+                writeAmount(out, line.lineTotal());
+            }
+            writeAmount(out, entry.grandTotal());
+            writeAmount(out, entry.vipDiscount());
+            out.writeInt(entry.pointsAwarded());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (bytes.size() > MAX_PAYLOAD_BYTES) {
+            throw new IllegalArgumentException("Journal entry too large: " + bytes.size() + " bytes");
+        }
+        byte[] payload = bytes.toByteArray();
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + payload.length);
+        record.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        return record;
+    }
+
+    static JournalEntry decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        String orderId = in.readUTF();
+        String customerId = in.readUTF();
+        String customerType = in.readUTF();
+        Instant createdAt = Instant.ofEpochSecond(in.readLong(), in.readInt());
+        int lineCount = in.readInt();
+        List<JournalEntry.Line> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            lines.add(new JournalEntry.Line(in.readUTF(), in.readInt(), readAmount(in)));
+        }
+        BigDecimal grandTotal = readAmount(in);
+        BigDecimal vipDiscount = readAmount(in);
+        int points = in.readInt();
+        return new JournalEntry(orderId, customerId, customerType, createdAt, lines, grandTotal, vipDiscount, points);
+    }
+
+    static boolean checksumMatches(byte[] payload, int expected) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue() == expected;
+    }
+
+    // จำนวนเงินเก็บเป็น units + scale แบบเดียวกับ Money
+    private static void writeAmount(DataOutputStream out, BigDecimal amount) throws IOException {
+        Money money = Money.of(amount);
+        out.writeLong(money.getUnits());
+        out.writeByte(money.getScale());
+    }
+
+    private static BigDecimal readAmount(DataInputStream in) throws IOException {
+        return BigDecimal.valueOf(in.readLong(), in.readUnsignedByte());
+    }
+}
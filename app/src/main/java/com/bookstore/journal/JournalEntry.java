@@ -0,0 +1,48 @@
+package com.bookstore.journal;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.bookstore.customer.Customer;
+import com.bookstore.order.Order;
+import com.bookstore.order.OrderItem;
+
+// เหตุการณ์ checkout หนึ่งครั้งที่บันทึกลง journal: รายการสินค้า ยอดรวม และแต้มที่ได้
+// การแลกแต้มบันทึกเป็น entry ที่ไม่มีรายการสินค้าและแต้มติดลบ ผลรวม pointsAwarded ของลูกค้าจึงเท่ากับยอดคงเหลือ
+public record JournalEntry(String orderId, String customerId, String customerType, Instant createdAt,
+        List<Line> lines, BigDecimal grandTotal, BigDecimal vipDiscount, int pointsAwarded) {
+
+    public JournalEntry {
+        lines = List.copyOf(lines);
+    }
+
+    // ยอดรวมของบรรทัดที่ลูกค้าจ่ายจริง (หลังส่วนลดตามประเภทลูกค้า/จำนวน)
+    public record Line(String isbn, int quantity, BigDecimal lineTotal) {
+    }
+
+    public static JournalEntry redemption(Customer customer, String referenceId, int points, Instant createdAt) {
+        if (points <= 0) {
+            throw new IllegalArgumentException("Points must be positive: " + points);
+        }
+        return new JournalEntry(referenceId, customer.getCustomerId(), customer.getCustomerType().name(), createdAt,
+                List.of(), BigDecimal.ZERO, BigDecimal.ZERO, -points);
+    }
+
+    // ไม่ใช่คำสั่งซื้อ ไม่ต้องเติมเข้าประวัติคำสั่งซื้อ
+    public boolean isRedemption() {
+        return pointsAwarded < 0;
+    }
+
+    public static JournalEntry of(Order order, int pointsAwarded) {
+        List<Line> lines = new ArrayList<>(order.getOrderItems().size());
+        for (OrderItem item : order.getOrderItems()) {
+            lines.add(new Line(item.getBook().getIsbn(), item.getQuantity(),
+                    order.getLineTotalMoney(item).toBigDecimal()));
+        }
+        return new JournalEntry(order.getOrderId(), order.getCustomer().getCustomerId(),
+                order.getCustomer().getCustomerType().name(), order.getCreatedAt(), lines, order.getGrandTotal(),
+                order.getTotalVipDiscountApplied(), pointsAwarded);
+    }
+}
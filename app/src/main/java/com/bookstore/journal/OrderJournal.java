@@ -0,0 +1,293 @@
+package com.bookstore.journal;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// journal แบบเขียนต่อท้ายอย่างเดียวของเหตุการณ์ checkout
+// เธรดผู้เขียนรวบ record ที่รออยู่ในคิวเป็นชุด เขียนครั้งเดียวแล้ว fsync ครั้งเดียว (group commit)
+// ผู้เรียกจะได้ผลลัพธ์หลังข้อมูลลงดิสก์แล้วเท่านั้น
+public final class OrderJournal implements AutoCloseable {
+    public static final int DEFAULT_MAX_BATCH = 256;
+
+    // validBytes คือความยาวส่วนที่อ่านได้ครบ ส่วนที่เหลือ (discardedBytes) คือ record ที่เขียนค้างตอนเครื่องล่ม
+    public record ReplayResult(int entries, long validBytes, long discardedBytes) {
+    }
+
+    private record Pending(ByteBuffer record, CompletableFuture<Void> done) {
+    }
+
+    private static final Pending SHUTDOWN = new Pending(null, null);
+
+    private final FileChannel channel;
+    private final int maxBatch;
+    private final BlockingQueue<Pending> queue;
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private final Thread writer;
+    private final ReplayResult recovered;
+    private boolean closed;
+    private volatile IOException failure;
+    private volatile long batches;
+    private volatile long entriesWritten;
+
+    private OrderJournal(FileChannel channel, int maxBatch, ReplayResult recovered) {
+        this.channel = channel;
+        this.maxBatch = maxBatch;
+        this.recovered = recovered;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1024, maxBatch * 2));
+        this.writer = new Thread(this::drain, "order-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public static OrderJournal open(Path path) throws IOException {
+        return open(path, DEFAULT_MAX_BATCH, entry -> {
+        });
+    }
+
+    // อ่าน record เดิมทั้งหมดส่งให้ replayTo ก่อน แล้วตัดส่วนท้ายที่เขียนค้างทิ้งเพื่อเขียนต่อจากจุดที่ถูกต้อง
+    public static OrderJournal open(Path path, int maxBatch, Consumer<JournalEntry> replayTo) throws IOException {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("maxBatch must be positive");
+        }
+        ReplayResult recovered = replay(path, replayTo);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (recovered.validBytes() == 0) {
+                channel.truncate(0);
+                channel.write(ByteBuffer.allocate(JournalCodec.FILE_HEADER_BYTES).putInt(JournalCodec.MAGIC).flip(), 0);
+                channel.force(true);
+                channel.position(JournalCodec.FILE_HEADER_BYTES);
+            } else {
+                if (recovered.discardedBytes() > 0) {
+                    channel.truncate(recovered.validBytes());
+                    channel.force(true);
+                }
+                channel.position(recovered.validBytes());
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return new OrderJournal(channel, maxBatch, recovered);
+    }
+
+    // อ่าน journal ตามลำดับที่เขียน หยุดที่ record แรกที่ไม่ครบหรือ CRC ไม่ตรง
+    public static ReplayResult replay(Path path, Consumer<JournalEntry> consumer) throws IOException {
+        long fileSize;
+        try {
+            fileSize = Files.size(path);
+        } catch (NoSuchFileException e) {
+            return new ReplayResult(0, 0, 0);
+        }
+        if (fileSize < JournalCodec.FILE_HEADER_BYTES) {
+            // ไฟล์ว่างหรือส่วนหัวเขียนไม่ครบ
+            return new ReplayResult(0, 0, fileSize);
+        }
+        int entries = 0;
+        long valid = JournalCodec.FILE_HEADER_BYTES;
+        try (InputStream raw = Files.newInputStream(path);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(raw, 1 << 16))) {
+            if (in.readInt() != JournalCodec.MAGIC) {
+                throw new IOException("Not an order journal: " + path);
+            }
+            while (valid + JournalCodec.RECORD_HEADER_BYTES <= fileSize) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length < 0 || length > JournalCodec.MAX_PAYLOAD_BYTES
+                        || valid + JournalCodec.RECORD_HEADER_BYTES + length > fileSize) {
+                    break;
+                }
+                byte[] payload = in.readNBytes(length);
+                if (payload.length < length || !JournalCodec.checksumMatches(payload, checksum)) {
+                    break;
+                }
+                JournalEntry entry;
+                try {
+                    entry = JournalCodec.decode(payload);
+                } catch (EOFException | RuntimeException e) {
+                    break;
+                }
+                consumer.accept(entry);
+                entries++;
+                valid += JournalCodec.RECORD_HEADER_BYTES + length;
+            }
+        }
+        return new ReplayResult(entries, valid, fileSize - valid);
+    }
+
+    public ReplayResult recovered() {
+        return recovered;
+    }
+
+    // เข้ารหัสบนเธรดผู้เรียก future จะเสร็จเมื่อ record ถูก fsync แล้ว
+    public CompletableFuture<Void> append(JournalEntry entry) {
+        Pending pending = new Pending(JournalCodec.encode(entry), new CompletableFuture<>());
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Order journal is closed");
+            }
+            IOException failed = failure;
+            if (failed != null) {
+                pending.done().completeExceptionally(failed);
+                return pending.done();
+            }
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.done().completeExceptionally(e);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        return pending.done();
+    }
+
+    // บล็อกจนกว่า record จะลงดิสก์ ถ้าบันทึกไม่ได้ (รวมถึงถูก interrupt ก่อนเข้าคิว) โยน UncheckedIOException
+    public void appendAndSync(JournalEntry entry) {
+        try {
+            append(entry).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw new UncheckedIOException(io);
+            }
+            if (e.getCause() instanceof InterruptedException) {
+                throw new UncheckedIOException(new InterruptedIOException("Interrupted before journaling"));
+            }
+            throw e;
+        }
+    }
+
+    public long batches() {
+        return batches;
+    }
+
+    public long entriesWritten() {
+        return entriesWritten;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.put(SHUTDOWN);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        ByteBuffer[] buffers = new ByteBuffer[maxBatch];
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, maxBatch - 1);
+                boolean shutdown = batch.get(batch.size() - 1) == SHUTDOWN;
+                if (shutdown) {
+                    batch.remove(batch.size() - 1);
+                }
+                if (!batch.isEmpty()) {
+                    commit(batch, buffers);
+                    batch.clear();
+                }
+                if (shutdown) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            // เธรดผู้เขียนหยุด ผู้ที่รออยู่และผู้ที่จะ append ต่อจากนี้ได้ข้อผิดพลาดแทนการรอตลอดไป
+            failure = new InterruptedIOException("Order journal writer was interrupted");
+            queue.drainTo(batch);
+            for (Pending pending : batch) {
+                if (pending != SHUTDOWN) {
+                    pending.done().completeExceptionally(failure);
+                }
+            }
+        }
+    }
+
+    // ข้อผิดพลาดทุกแบบทำให้ทั้งชุดล้มเหลว เธรดผู้เขียนไม่ตาย
+    private void commit(List<Pending> batch, ByteBuffer[] buffers) {
+        IOException failed = failure;
+        if (failed == null) {
+            int count = batch.size();
+            long remaining = 0;
+            for (int i = 0; i < count; i++) {
+                buffers[i] = batch.get(i).record();
+                remaining += buffers[i].remaining();
+            }
+            long start = -1;
+            try {
+                start = channel.position();
+                while (remaining > 0) {
+                    remaining -= channel.write(buffers, 0, count);
+                }
+                channel.force(false);
+                batches++;
+                entriesWritten += count;
+            } catch (IOException | RuntimeException e) {
+                // ผู้รอทุกคนได้ยินว่าล้มเหลว จึงตัด record ของชุดนี้ที่อาจเขียนครบแล้วทิ้ง
+                // ไม่เช่นนั้น replay ตอนเปิดใหม่จะคืนแต้มและเติมประวัติของคำสั่งซื้อที่ไม่ได้เกิดขึ้น
+                failed = e instanceof IOException io ? io : new IOException("Order journal write failed", e);
+                discardFrom(start, failed);
+                // หลังเขียนพลาดแล้วไม่เขียนต่อ
+                failure = failed;
+            }
+            Arrays.fill(buffers, 0, count, null);
+        }
+        for (Pending pending : batch) {
+            if (failed == null) {
+                pending.done().complete(null);
+            } else {
+                pending.done().completeExceptionally(failed);
+            }
+        }
+    }
+
+    private void discardFrom(long start, IOException failed) {
+        if (start < 0) {
+            return;
+        }
+        try {
+            channel.truncate(start);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            failed.addSuppressed(e);
+        }
+    }
+}
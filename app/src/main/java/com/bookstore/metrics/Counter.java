@@ -0,0 +1,37 @@
+package com.bookstore.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// ตัวนับค่าแน่นอน แต่ละครั้งเป็นการเขียนแบบ atomic (~10 ns) จึงใช้กับการทำงานที่นานระดับไมโครวินาทีขึ้นไป
+public final class Counter {
+    private final String name;
+    private final LongAdder count = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public void increment() {
+        if (Metrics.enabled) {
+            count.increment();
+        }
+    }
+
+    public void add(long amount) {
+        if (Metrics.enabled) {
+            count.add(amount);
+        }
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    void reset() {
+        count.reset();
+    }
+}
@@ -0,0 +1,82 @@
+package com.bookstore.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// histogram แบบ log-linear (แนวเดียวกับ HdrHistogram): แต่ละช่วงกำลังสองแบ่งเป็น 16 ช่องเท่ากัน
+// ค่าที่อ่านกลับคลาดไม่เกิน 1/16 (~6%) ใช้หน่วยความจำคงที่และบันทึกได้พร้อมกันหลายเธรดโดยไม่ล็อก
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+
+    public record Snapshot(long count, double mean, long p50, long p90, long p99, long p999, long max) {
+    }
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.getAndIncrement(bucketOf(value));
+        total.add(value);
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        int last = -1;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+            if (copy[i] != 0) {
+                last = i;
+            }
+        }
+        if (count == 0) {
+            return new Snapshot(0, 0, 0, 0, 0, 0, 0);
+        }
+        return new Snapshot(count, (double) total.sum() / count, percentile(copy, count, 0.50),
+                percentile(copy, count, 0.90), percentile(copy, count, 0.99), percentile(copy, count, 0.999),
+                highestValueIn(last));
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.reset();
+    }
+
+    private static long percentile(long[] counts, long count, double fraction) {
+        long rank = Math.max(1, (long) Math.ceil(count * fraction));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return highestValueIn(i);
+            }
+        }
+        return highestValueIn(counts.length - 1);
+    }
+
+    // ค่าต่ำกว่า 16 มีช่องของตัวเอง ค่าที่สูงกว่าใช้บิตสูงสุดเป็นช่วง และ 4 บิตถัดไปเป็นช่องย่อย
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long low = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return low + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,100 @@
+package com.bookstore.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// จุดกลางของ metrics ปิดไว้เป็นค่าเริ่มต้น เมื่อปิด Timer/Counter เหลือแค่การอ่าน flag หนึ่งครั้ง
+// เปิดด้วย -Dbookstore.metrics=true หรือ setEnabled(true)
+public final class Metrics {
+    public static final int DEFAULT_SAMPLE_EVERY = 64;
+
+    static volatile boolean enabled = Boolean.getBoolean("bookstore.metrics");
+
+    private static final ConcurrentSkipListMap<String, Timer> timers = new ConcurrentSkipListMap<>();
+    private static final ConcurrentSkipListMap<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private static final com.sun.management.ThreadMXBean threads = allocationCounter();
+
+    private Metrics() {
+    }
+
+    // ชื่อเดียวกันคือตัวเดียวกัน ให้เก็บไว้ใน static final ของคลาสที่ใช้
+    public static Timer timer(String name) {
+        return timer(name, DEFAULT_SAMPLE_EVERY);
+    }
+
+    // sampleEvery ต้องเป็นกำลังของ 2; 1 = วัดทุกครั้ง
+    public static Timer timer(String name, int sampleEvery) {
+        Timer timer = timers.computeIfAbsent(name, key -> new Timer(key, sampleEvery));
+        if (timer.sampleEvery() != sampleEvery) {
+            throw new IllegalArgumentException("Timer " + name + " already samples every " + timer.sampleEvery());
+        }
+        return timer;
+    }
+
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, Counter::new);
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    public static List<Timer.Snapshot> timers() {
+        List<Timer.Snapshot> snapshots = new ArrayList<>(timers.size());
+        for (Timer timer : timers.values()) {
+            snapshots.add(timer.snapshot());
+        }
+        return snapshots;
+    }
+
+    public static Map<String, Long> counters() {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        counters.forEach((name, counter) -> snapshot.put(name, counter.count()));
+        return snapshot;
+    }
+
+    public static void reset() {
+        timers.values().forEach(Timer::reset);
+        counters.values().forEach(Counter::reset);
+    }
+
+    // ตัวนับหนึ่งบรรทัดต่อชื่อ ตามด้วยตาราง Timer (เวลาเป็นไมโครวินาที)
+    public static StringBuilder appendText(StringBuilder out) {
+        for (Map.Entry<String, Long> counter : counters().entrySet()) {
+            out.append(String.format(Locale.ROOT, "%-24s %12d%n", counter.getKey(), counter.getValue()));
+        }
+        out.append(String.format(Locale.ROOT, "%-24s %12s %10s %10s %10s %10s %10s %10s %12s%n", "operation",
+                "~calls", "samples", "mean_us", "p50_us", "p99_us", "p999_us", "max_us", "alloc_B/call"));
+        for (Timer.Snapshot timer : timers()) {
+            LatencyHistogram.Snapshot latency = timer.latency();
+            out.append(String.format(Locale.ROOT, "%-24s %12d %10d %10.2f %10.2f %10.2f %10.2f %10.2f %12d%n",
+                    timer.name(), timer.estimatedCalls(), timer.samples(), latency.mean() / 1e3,
+                    latency.p50() / 1e3, latency.p99() / 1e3, latency.p999() / 1e3, latency.max() / 1e3,
+                    timer.allocatedBytesPerCall()));
+        }
+        return out;
+    }
+
+    // -1 เมื่อ JVM หรือเธรดนี้ไม่รองรับ
+    static long allocatedBytes() {
+        return threads == null ? -1 : threads.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean counter && counter.isThreadAllocatedMemorySupported()) {
+            return counter;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,78 @@
+package com.bookstore.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// ตัววัดเวลาและหน่วยความจำที่จองของหนึ่งการทำงาน วัดแบบสุ่ม 1 ใน sampleEvery ครั้ง
+// การเรียกที่ไม่ถูกสุ่มจ่ายแค่การสุ่มเลขของเธรดตัวเอง ไม่มีการเขียนหน่วยความจำร่วม
+// จำนวนครั้งที่เรียกจึงเป็นค่าประมาณ (samples x sampleEvery) ถ้าต้องการค่าแน่นอนให้ใช้ Counter คู่กัน
+//
+//   long start = TIMER.start();
+//   try { ... } finally { TIMER.stop(start); }
+public final class Timer {
+    static final long NOT_SAMPLED = 0;
+
+    private final String name;
+    private final int sampleMask;
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder allocationSamples = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    // หน่วยความจำที่เธรดจองไว้ตอนเริ่มการวัด (แยกต่อ Timer เพราะการวัดซ้อนกันได้ เช่น checkout > order.grandTotal)
+    private final ThreadLocal<long[]> allocationStart = ThreadLocal.withInitial(() -> new long[1]);
+
+    public record Snapshot(String name, long samples, long estimatedCalls, long allocatedBytesPerCall,
+            LatencyHistogram.Snapshot latency) {
+    }
+
+    Timer(String name, int sampleEvery) {
+        if (sampleEvery <= 0 || Integer.bitCount(sampleEvery) != 1) {
+            throw new IllegalArgumentException("Sample interval must be a power of two: " + sampleEvery);
+        }
+        this.name = name;
+        this.sampleMask = sampleEvery - 1;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int sampleEvery() {
+        return sampleMask + 1;
+    }
+
+    // คืนค่า NOT_SAMPLED เมื่อปิด metrics หรือไม่ได้ถูกสุ่ม แล้ว stop() จะไม่ทำอะไร
+    public long start() {
+        if (!Metrics.enabled || (ThreadLocalRandom.current().nextInt() & sampleMask) != 0) {
+            return NOT_SAMPLED;
+        }
+        allocationStart.get()[0] = Metrics.allocatedBytes();
+        return System.nanoTime() | 1; // ไม่ให้ชนกับ NOT_SAMPLED; คลาดได้ 1 ns
+    }
+
+    public void stop(long start) {
+        if (start == NOT_SAMPLED) {
+            return;
+        }
+        latency.record(System.nanoTime() - start);
+        long before = allocationStart.get()[0];
+        long after = Metrics.allocatedBytes();
+        // virtual thread ไม่รองรับการนับหน่วยความจำ (คืน -1) จึงได้แค่เวลา
+        if (before >= 0 && after >= before) {
+            allocatedBytes.add(after - before);
+            allocationSamples.increment();
+        }
+    }
+
+    public Snapshot snapshot() {
+        LatencyHistogram.Snapshot latency = this.latency.snapshot();
+        long samples = allocationSamples.sum();
+        return new Snapshot(name, latency.count(), latency.count() * sampleEvery(),
+                samples == 0 ? 0 : allocatedBytes.sum() / samples, latency);
+    }
+
+    void reset() {
+        allocatedBytes.reset();
+        allocationSamples.reset();
+        latency.reset();
+    }
+}
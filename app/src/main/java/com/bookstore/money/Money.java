@@ -0,0 +1,179 @@
+package com.bookstore.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// จำนวนเงินแบบ fixed-point: ค่า long (หน่วยย่อย) กับ scale (จำนวนตำแหน่งทศนิยม)
+// ผลลัพธ์ของ plus/minus/times มี scale เท่ากับ BigDecimal ทุกกรณี จึงแปลงกลับได้ตรงตัว
+public final class Money implements Comparable<Money> {
+    public static final int MAX_SCALE = 18;
+    public static final Money ZERO = new Money(0, 0);
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_SCALE + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= MAX_SCALE; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final long units;
+    private final int scale;
+
+    private Money(long units, int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new ArithmeticException("Unsupported money scale: " + scale);
+        }
+        this.units = units;
+        this.scale = scale;
+    }
+
+    public static Money ofUnits(long units, int scale) {
+        return new Money(units, scale);
+    }
+
+    public static Money of(BigDecimal amount) {
+        if (amount.scale() < 0) {
+            amount = amount.setScale(0);
+        }
+        // longValueExact โยน ArithmeticException ถ้าค่าเกินช่วง long
+        return new Money(amount.unscaledValue().longValueExact(), amount.scale());
+    }
+
+    public static Money of(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(units, scale);
+    }
+
+    public Money plus(Money other) {
+        if (scale == other.scale) {
+            return new Money(Math.addExact(units, other.units), scale);
+        }
+        int resultScale = Math.max(scale, other.scale);
+        return new Money(Math.addExact(unitsAt(resultScale), other.unitsAt(resultScale)), resultScale);
+    }
+
+    public Money minus(Money other) {
+        if (scale == other.scale) {
+            return new Money(Math.subtractExact(units, other.units), scale);
+        }
+        int resultScale = Math.max(scale, other.scale);
+        return new Money(Math.subtractExact(unitsAt(resultScale), other.unitsAt(resultScale)), resultScale);
+    }
+
+    public Money times(long quantity) {
+        return new Money(Math.multiplyExact(units, quantity), scale);
+    }
+
+    // คูณด้วยอัตรา (เช่น 0.15) scale ของผลลัพธ์ = ผลรวม scale เหมือน BigDecimal.multiply
+    public Money times(Money rate) {
+        return new Money(Math.multiplyExact(units, rate.units), scale + rate.scale);
+    }
+
+    public Money setScale(int newScale, RoundingMode roundingMode) {
+        if (newScale == scale) {
+            return this;
+        }
+        if (newScale > scale) {
+            return new Money(unitsAt(newScale), newScale);
+        }
+        if (roundingMode != RoundingMode.HALF_EVEN) {
+            return of(toBigDecimal().setScale(newScale, roundingMode));
+        }
+        return new Money(roundHalfEven(units, POWERS_OF_TEN[scale - newScale]), newScale);
+    }
+
+    public int signum() {
+        return Long.signum(units);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        if (scale == other.scale) {
+            return Long.compare(units, other.units);
+        }
+        int commonScale = Math.max(scale, other.scale);
+        try {
+            return Long.compare(unitsAt(commonScale), other.unitsAt(commonScale));
+        } catch (ArithmeticException overflow) {
+            return toBigDecimal().compareTo(other.toBigDecimal());
+        }
+    }
+
+    // เหมือน BigDecimal.equals: 2.0 กับ 2.00 ไม่เท่ากัน ใช้ compareTo เมื่อต้องการเทียบค่า
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Money)) {
+            return false;
+        }
+        Money other = (Money) obj;
+        return units == other.units && scale == other.scale;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(units) + scale;
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    // เขียนค่าที่ปัดแบบ HALF_EVEN เหลือ decimals ตำแหน่งลง out โดยไม่สร้าง BigDecimal/String
+    // ได้ผลเหมือน toBigDecimal().setScale(decimals, HALF_EVEN).toPlainString()
+    public StringBuilder appendTo(StringBuilder out, int decimals) {
+        long value = decimals >= scale ? unitsAt(decimals) : roundHalfEven(units, POWERS_OF_TEN[scale - decimals]);
+        long divisor = POWERS_OF_TEN[decimals];
+        long whole = value / divisor;
+        long fraction = Math.abs(value % divisor);
+        if (value < 0 && whole == 0) {
+            out.append('-');
+        }
+        out.append(whole);
+        if (decimals > 0) {
+            out.append('.');
+            for (long digit = divisor / 10; digit > 0; digit /= 10) {
+                out.append((char) ('0' + fraction / digit % 10));
+            }
+        }
+        return out;
+    }
+
+    private long unitsAt(int targetScale) {
+        if (targetScale > MAX_SCALE) {
+            throw new ArithmeticException("Unsupported money scale: " + targetScale);
+        }
+        return Math.multiplyExact(units, POWERS_OF_TEN[targetScale - scale]);
+    }
+
+    // ปัดแบบ HALF_EVEN (Banker's Rounding) ตาม RoundingModeTest
+    private static long roundHalfEven(long value, long divisor) {
+        long quotient = value / divisor;
+        long remainder = value % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        long twiceRemainder = Math.abs(remainder) * 2;
+        int direction = value < 0 ? -1 : 1;
+        if (twiceRemainder > divisor || (twiceRemainder == divisor && (quotient & 1) != 0)) {
+            return quotient + direction;
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,46 @@
+package com.bookstore.order;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.bookstore.customer.Customer;
+
+// ตะกร้าสินค้าแยกตามลูกค้า (customerId) สำหรับหลาย session พร้อมกัน
+public class CartStore {
+    private final ConcurrentHashMap<String, ShoppingCart> carts = new ConcurrentHashMap<>();
+
+    public ShoppingCart cartFor(String customerId) {
+        return carts.computeIfAbsent(customerId, id -> new ShoppingCart());
+    }
+
+    public ShoppingCart cartFor(Customer customer) {
+        return cartFor(customer.getCustomerId());
+    }
+
+    public Optional<ShoppingCart> findCart(String customerId) {
+        return Optional.ofNullable(carts.get(customerId));
+    }
+
+    public void addItem(String customerId, OrderItem item) {
+        cartFor(customerId).addItem(item);
+    }
+
+    public boolean removeItem(String customerId, String isbn) {
+        ShoppingCart cart = carts.get(customerId);
+        return cart != null && cart.removeItem(isbn);
+    }
+
+    public boolean updateQuantity(String customerId, String isbn, int quantity) {
+        ShoppingCart cart = carts.get(customerId);
+        return cart != null && cart.updateQuantity(isbn, quantity);
+    }
+
+    // ปิด session: นำตะกร้าออกจาก store
+    public Optional<ShoppingCart> removeCart(String customerId) {
+        return Optional.ofNullable(carts.remove(customerId));
+    }
+
+    public int size() {
+        return carts.size();
+    }
+}
@@ -1,22 +1,45 @@
 package com.bookstore.order;
 
 import com.bookstore.customer.Customer;
+import com.bookstore.event.Receipt;
+import com.bookstore.metrics.Metrics;
+import com.bookstore.metrics.Timer;
+import com.bookstore.money.Money;
+import com.bookstore.pricing.CompiledPricing;
+import com.bookstore.pricing.PricePipeline;
+import com.bookstore.pricing.PricingEngine;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Order {
+    private static final Timer GRAND_TOTAL = Metrics.timer("order.grandTotal");
+    private static final String ORDER_ID_PREFIX = String.format("%016x-", new SecureRandom().nextLong());
+    private static final AtomicLong ORDER_SEQUENCE = new AtomicLong();
+
     private String orderId;
     private Customer customer;
     private List<OrderItem> orderItems;
     private BigDecimal grandTotal;
     private BigDecimal totalVipDiscountApplied;     
-    private static final BigDecimal VIP_DISCOUNT_RATE = new BigDecimal("0.15"); // ส่วนลด VIP 15%
+    private Money grandTotalMoney; // ยอดเดียวกันในรูป Money สำหรับเขียนสรุปคำสั่งซื้อ
+    private Money vipDiscountMoney;
+    private final Instant createdAt; // เวลาที่สร้างคำสั่งซื้อ (ใช้จัดกลุ่มรายวันใน analytics)
+    // กฎราคาชุดที่ใช้ทั้งคำสั่งซื้อ (ส่วนลด VIP 15% อยู่ใน PricingRules.defaults())
+    private final CompiledPricing pricing;
 
     // Constructor
     public Order(Customer customer, List<OrderItem> orderItems) {
-        this.orderId = UUID.randomUUID().toString().substring(0, 8);
+        this(customer, orderItems, Instant.now());
+    }
+
+    public Order(Customer customer, List<OrderItem> orderItems, Instant createdAt) {
+        this.orderId = newOrderId();
+        this.createdAt = createdAt;
+        this.pricing = PricingEngine.active();
         this.customer = customer;
         this.orderItems = orderItems;
         this.totalVipDiscountApplied = BigDecimal.ZERO;
@@ -24,59 +47,109 @@ public class Order {
     }
 
     private BigDecimal calculateGrandTotal() {
-        BigDecimal currentTotal = BigDecimal.ZERO;
-        totalVipDiscountApplied = BigDecimal.ZERO;
+        long start = GRAND_TOTAL.start();
+        try {
+            Money currentTotal = Money.ZERO;
+            Money vipDiscountTotal = Money.ZERO;
 
-        for (OrderItem item : orderItems) {
-            //  EBook ลด 10%, AudioBook บวก 5%
-            BigDecimal itemPriceAfterTypeAdjustment = item.getItemPriceBeforeVipDiscount();
-            // ยังไม่รวมส่วนลด VIP
-            BigDecimal lineItemPriceBeforeVip = itemPriceAfterTypeAdjustment.multiply(new BigDecimal(item.getQuantity()));
-
-            if (customer.isVIP()) {
-                // คำนวณส่วนลด VIP สำหรับรายการสินค้านี้
-                BigDecimal vipDiscountAmountPerUnit = itemPriceAfterTypeAdjustment.multiply(VIP_DISCOUNT_RATE);
-                BigDecimal priceAfterVipDiscountPerUnit = itemPriceAfterTypeAdjustment.subtract(vipDiscountAmountPerUnit);
-                BigDecimal lineItemPriceAfterVip = priceAfterVipDiscountPerUnit.multiply(new BigDecimal(item.getQuantity()));
-                
-                // สะสมยอดส่วนลด VIP ที่ใช้ไป
-                totalVipDiscountApplied = totalVipDiscountApplied.add(lineItemPriceBeforeVip.subtract(lineItemPriceAfterVip));
-                currentTotal = currentTotal.add(lineItemPriceAfterVip);
-            } else {
-                currentTotal = currentTotal.add(lineItemPriceBeforeVip);
+            for (OrderItem item : orderItems) {
+                //  EBook ลด 10%, AudioBook บวก 5%
+                Money itemPriceAfterTypeAdjustment = item.getBook().calculatePriceMoney(pricing);
+                // ยังไม่รวมส่วนลด VIP
+                Money lineItemPriceBeforeVip = itemPriceAfterTypeAdjustment.times(item.getQuantity());
+                Money lineItemPriceAfterVip = getLineTotalMoney(item);
+
+                // สะสมยอดส่วนลดตามประเภทลูกค้า/จำนวนที่ใช้ไป
+                Money discount = lineItemPriceBeforeVip.minus(lineItemPriceAfterVip);
+                if (discount.signum() != 0) {
+                    vipDiscountTotal = vipDiscountTotal.plus(discount);
+                }
+                currentTotal = currentTotal.plus(lineItemPriceAfterVip);
             }
+            vipDiscountMoney = vipDiscountTotal;
+            grandTotalMoney = currentTotal;
+            totalVipDiscountApplied = vipDiscountTotal.toBigDecimal();
+            return currentTotal.toBigDecimal();
+        } finally {
+            GRAND_TOTAL.stop(start);
         }
-        return currentTotal;
     }
 
-    public void displayOrderSummary() {
-        System.out.println("\n--- Order Summary ---");
-        System.out.println("Order ID: " + orderId);
-        System.out.println("Customer: " + customer.getUsername() + " (" + customer.getCustomerType() + ")");
-        System.out.println("Items:");
-        for (OrderItem item : orderItems) {
-            BigDecimal itemPriceAfterTypeAdj = item.getItemPriceBeforeVipDiscount();
-            BigDecimal finalPricePerUnit = itemPriceAfterTypeAdj;
-            String vipNote = "";
-
-            if (customer.isVIP()) {
-                BigDecimal vipDiscountAmount = itemPriceAfterTypeAdj.multiply(VIP_DISCOUNT_RATE);
-                finalPricePerUnit = itemPriceAfterTypeAdj.subtract(vipDiscountAmount);
-                vipNote = " (VIP Price: $" + finalPricePerUnit.setScale(2, RoundingMode.HALF_EVEN) +
-                          ", Original Item Price (after type adj.): $" + itemPriceAfterTypeAdj.setScale(2, RoundingMode.HALF_EVEN) + ")";
-            }
+    // ยอดของรายการหลังส่วนลด VIP (ถ้าเป็นลูกค้า VIP) และส่วนลดตามจำนวน
+    public final Money getLineTotalMoney(OrderItem item) {
+        return pipelineFor(item).lineTotal(item.getBook().calculatePriceMoney(pricing), item.getQuantity());
+    }
 
-            System.out.println("  - " + item.getQuantity() + " x " + item.getBook().getTitle() +
-                               " @ $" + finalPricePerUnit.setScale(2, RoundingMode.HALF_EVEN) + " each" + vipNote);
+    // ใบเสร็จของคำสั่งซื้อนี้ (ราคาต่อหน่วยหลังส่วนลด VIP ถ้าเป็นลูกค้า VIP)
+    public Receipt toReceipt() {
+        List<Receipt.Line> lines = new ArrayList<>(orderItems.size());
+        for (OrderItem item : orderItems) {
+            Money itemPriceAfterTypeAdj = item.getBook().calculatePriceMoney(pricing);
+            Money finalPricePerUnit = pipelineFor(item).unitPrice(itemPriceAfterTypeAdj, item.getQuantity());
+            lines.add(new Receipt.Line(item.getBook().getIsbn(), item.getBook().getTitle(), item.getQuantity(),
+                    finalPricePerUnit.toBigDecimal(), itemPriceAfterTypeAdj.toBigDecimal()));
         }
-        if (customer.isVIP() && totalVipDiscountApplied.compareTo(BigDecimal.ZERO) > 0) {
-            System.out.println("Total VIP Discount Applied: $" + totalVipDiscountApplied.setScale(2, RoundingMode.HALF_EVEN));
+        return new Receipt(orderId, customer.getCustomerId(), customer.getUsername(),
+                customer.getCustomerType().name(), hasTierDiscount(), lines, totalVipDiscountApplied, grandTotal);
+    }
+
+    // ระดับลูกค้าที่มีส่วนลดต่อหน่วยตามกฎชุดนี้ (เดิมคือเฉพาะ VIP)
+    private boolean hasTierDiscount() {
+        return pricing.hasTierDiscount(customer.getCustomerType());
+    }
+
+    public CompiledPricing getPricing() {
+        return pricing;
+    }
+
+    private PricePipeline pipelineFor(OrderItem item) {
+        return pricing.pipeline(item.getBook().getType(), customer.getCustomerType());
+    }
+
+    // สรุปคำสั่งซื้อแบบเดียวกับ toReceipt().format() แต่เขียนจาก Money ลง out โดยตรง ไม่สร้าง Receipt
+    public StringBuilder appendSummary(StringBuilder out) {
+        String tier = hasTierDiscount() ? customer.getCustomerType().name() : null;
+        Receipt.appendHeader(out, orderId, customer.getUsername(), customer.getCustomerType().name());
+        for (OrderItem item : orderItems) {
+            Money itemPriceAfterTypeAdj = item.getBook().calculatePriceMoney(pricing);
+            Receipt.appendLine(out, tier, item.getQuantity(), item.getBook().getTitle(),
+                    pipelineFor(item).unitPrice(itemPriceAfterTypeAdj, item.getQuantity()), itemPriceAfterTypeAdj);
         }
-        System.out.println("Grand Total: $" + grandTotal.setScale(2, RoundingMode.HALF_EVEN));
-        System.out.println("--------------------");
+        return Receipt.appendFooter(out, tier, vipDiscountMoney, grandTotalMoney);
+    }
+
+    public void displayOrderSummary() {
+        System.out.println(appendSummary(new StringBuilder(256 + orderItems.size() * 128)));
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    public List<OrderItem> getOrderItems() {
+        return orderItems;
+    }
+
+    public BigDecimal getTotalVipDiscountApplied() {
+        return totalVipDiscountApplied;
     }
 
     public BigDecimal getGrandTotal() {
         return grandTotal;
     }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    // <ค่าสุ่ม 64 บิตต่อการรันโปรแกรม>-<ลำดับ> ไม่ซ้ำกันภายในการรันเดียว และไม่ชนกับการรันก่อนๆ ใน journal
+    // (เลขสุ่ม 32 บิตแบบเดิมชนกันได้เมื่อคำสั่งซื้อถึงหลักหมื่น) สุ่มครั้งเดียว จึงไม่แย่ง SecureRandom ของ UUID
+    // เมื่อคิดราคาแบบขนาน
+    private static String newOrderId() {
+        return ORDER_ID_PREFIX + Long.toHexString(ORDER_SEQUENCE.incrementAndGet());
+    }
 }
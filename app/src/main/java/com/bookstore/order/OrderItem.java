@@ -1,6 +1,7 @@
 package com.bookstore.order;
 
 import com.bookstore.books.Book;
+import com.bookstore.money.Money;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 
@@ -26,7 +27,11 @@ public class OrderItem {
     }
 
     public BigDecimal getLineItemTotalBeforeVipDiscount() {
-        return getItemPriceBeforeVipDiscount().multiply(new BigDecimal(quantity));
+        return getLineItemTotalMoney().toBigDecimal();
+    }
+
+    public Money getLineItemTotalMoney() {
+        return book.calculatePriceMoney().times(quantity);
     }
 
     @Override
@@ -0,0 +1,60 @@
+package com.bookstore.order;
+
+import com.bookstore.money.Money;
+
+// ผลรวมของ Money ที่เพิ่ม/ลบทีละรายการ ค่าที่อ่านได้เท่ากับการบวกทุกรายการใหม่ด้วย Money.plus ทุกหลักรวมถึง scale
+// (scale ของผลรวมคือ scale สูงสุดของรายการที่ยังอยู่ หรือ 0 ถ้าไม่มี) จึงนับจำนวนรายการแยกตาม scale ไว้
+// เปลี่ยนค่าไม่ได้ plus/minus คืนผลรวมใหม่ ถ้าเกินช่วง long จะโยนก่อนสร้าง ผลรวมเดิมจึงยังใช้ได้และแชร์ข้ามเธรดได้
+final class RunningTotal {
+    private static final long[] POWERS_OF_TEN = new long[Money.MAX_SCALE + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= Money.MAX_SCALE; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    static final RunningTotal ZERO = new RunningTotal(new int[Money.MAX_SCALE + 1], 0, 0);
+
+    private final int[] termsAtScale;
+    private final long units; // ผลรวมที่ scale ด้านล่าง
+    private final int scale; // เท่ากับ scale สูงสุดของรายการที่ยังอยู่เสมอ
+
+    private RunningTotal(int[] termsAtScale, long units, int scale) {
+        this.termsAtScale = termsAtScale;
+        this.units = units;
+        this.scale = scale;
+    }
+
+    RunningTotal plus(Money amount) {
+        int amountScale = amount.getScale();
+        int newScale = Math.max(scale, amountScale);
+        long newUnits = Math.addExact(Math.multiplyExact(units, POWERS_OF_TEN[newScale - scale]),
+                Math.multiplyExact(amount.getUnits(), POWERS_OF_TEN[newScale - amountScale]));
+        int[] terms = termsAtScale.clone();
+        terms[amountScale]++;
+        return new RunningTotal(terms, newUnits, newScale);
+    }
+
+    RunningTotal minus(Money amount) {
+        int amountScale = amount.getScale();
+        if (termsAtScale[amountScale] == 0) {
+            throw new IllegalStateException("No term at scale " + amountScale + " to subtract");
+        }
+        long newUnits = Math.subtractExact(units,
+                Math.multiplyExact(amount.getUnits(), POWERS_OF_TEN[scale - amountScale]));
+        int[] terms = termsAtScale.clone();
+        terms[amountScale]--;
+        // รายการที่เหลือใช้ทศนิยมไม่ถึง scale เดิม ผลรวมจึงหารลงตัวเสมอ
+        int top = scale;
+        while (top > 0 && terms[top] == 0) {
+            top--;
+        }
+        return new RunningTotal(terms, newUnits / POWERS_OF_TEN[scale - top], top);
+    }
+
+    Money value() {
+        return Money.ofUnits(units, scale);
+    }
+}
@@ -1,55 +1,303 @@
 package com.bookstore.order;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.UnaryOperator;
+
+import com.bookstore.books.Book;
+import com.bookstore.books.BookType;
+import com.bookstore.customer.Customer;
+import com.bookstore.event.StoreEvent;
+import com.bookstore.event.StoreEvents;
+import com.bookstore.metrics.Metrics;
+import com.bookstore.metrics.Timer;
+import com.bookstore.money.Money;
+import com.bookstore.pricing.CompiledPricing;
+import com.bookstore.pricing.PricingEngine;
 
 public class ShoppingCart {
-    private List<OrderItem> items;
+    // การเพิ่มของใช้เวลาไม่ถึง 100 ns จึงสุ่มวัดห่างกว่าค่าเริ่มต้น
+    private static final Timer ADD_ITEM = Metrics.timer("cart.addItem", 1024);
+    private static final BookType[] BOOK_TYPES = BookType.values();
+    private static final Customer.CustomerType[] TIERS = Customer.CustomerType.values();
+
+    // หนึ่งบรรทัดต่อ ISBN แก้ผ่าน compute ของ ConcurrentHashMap จึงล็อกแค่ช่องของ ISBN นั้น ไม่มีล็อกทั้งตะกร้า
+    private final ConcurrentHashMap<String, CartLine> lines;
+    // ลำดับการเพิ่มสินค้า ใช้เรียงรายการให้เหมือนเดิม
+    private final AtomicLong sequence = new AtomicLong();
+
+    // ยอดสะสมทั้งชุดเปลี่ยนค่าไม่ได้ แต่ละการแก้คำนวณชุดใหม่ให้เสร็จก่อนแล้วสลับด้วย CAS ภายใน compute ของบรรทัดนั้น
+    // ถ้าคำนวณไม่ได้ (เช่นเกินช่วง long) ทั้งบรรทัดและยอดสะสมจึงยังเป็นค่าเดิม
+    private final AtomicReference<Totals> totals = new AtomicReference<>(Totals.EMPTY);
+    // จำนวนการแก้ที่เขียนบรรทัดลง map เสร็จแล้ว ถ้าเท่ากับ Totals.changes แปลว่าไม่มีการแก้ที่ค้างอยู่
+    private final AtomicLong settled = new AtomicLong();
+    // ยอดที่ลูกค้าแต่ละระดับจะจ่าย คำนวณเมื่อมีคนถามถึงระดับนั้นแล้วใช้ซ้ำจนกว่า Totals.changes จะเปลี่ยน
+    // ระดับที่คิดราคาไม่ได้ (เช่นเกินช่วง long) จึงไม่ทำให้การแก้ตะกร้าหรือระดับอื่นล้มเหลวไปด้วย
+    private final AtomicReferenceArray<Projection> projectedByTier = new AtomicReferenceArray<>(TIERS.length);
+    // กฎราคาและตัวนับราคาตั้งต้นตอนที่ตรวจทุกบรรทัดครั้งล่าสุด ถ้ายังเท่าเดิม การอ่านยอดไม่ต้องวนบรรทัด
+    private volatile PriceCheck priceCheck = new PriceCheck(-1, 0);
+
+    // ยอดของบรรทัดก่อนส่วนลดลูกค้า พร้อมกฎราคาและราคาตั้งต้น (ตัวอ้างอิงเดียวกับใน Book) ที่ใช้คำนวณ
+    private record CartLine(long sequence, OrderItem item, CompiledPricing pricing, BigDecimal basePrice,
+            Money unitPrice, Money lineTotal) {
+
+        boolean pricedAt(CompiledPricing current) {
+            return pricing.version() == current.version() && basePrice == item.getBook().getBasePrice();
+        }
+    }
+
+    private record Projection(long changes, Money total) {
+    }
+
+    private record PriceCheck(long version, long baseChanges) {
+    }
+
+    private static final class Totals {
+        static final Totals EMPTY = new Totals(0, RunningTotal.ZERO, emptyByType());
+
+        final long changes;
+        final RunningTotal subTotal;
+        final RunningTotal[] subTotalByType;
+
+        private Totals(long changes, RunningTotal subTotal, RunningTotal[] subTotalByType) {
+            this.changes = changes;
+            this.subTotal = subTotal;
+            this.subTotalByType = subTotalByType;
+        }
+
+        private static RunningTotal[] emptyByType() {
+            RunningTotal[] byType = new RunningTotal[BOOK_TYPES.length];
+            Arrays.fill(byType, RunningTotal.ZERO);
+            return byType;
+        }
+
+        // ยอดหลังแทนบรรทัดเดิม (null = ไม่มี) ด้วยบรรทัดใหม่ (null = ลบ)
+        Totals replace(CartLine existing, CartLine updated) {
+            RunningTotal total = subTotal;
+            RunningTotal[] byType = subTotalByType.clone();
+            if (existing != null) {
+                int type = existing.item().getBook().getType().ordinal();
+                total = total.minus(existing.lineTotal());
+                byType[type] = byType[type].minus(existing.lineTotal());
+            }
+            if (updated != null) {
+                int type = updated.item().getBook().getType().ordinal();
+                total = total.plus(updated.lineTotal());
+                byType[type] = byType[type].plus(updated.lineTotal());
+            }
+            return new Totals(changes + 1, total, byType);
+        }
+    }
 
     public ShoppingCart() {
-        this.items = new ArrayList<>();
+        this.lines = new ConcurrentHashMap<>();
     }
 
+    // ISBN ซ้ำจะรวมจำนวนเข้ากับบรรทัดเดิมแทนการเพิ่มบรรทัดใหม่
     public void addItem(OrderItem item) {
-        this.items.add(item);
-        System.out.println("Added to cart: " + item.getQuantity() + " x " + item.getBook().getTitle());
+        long start = ADD_ITEM.start();
+        String isbn = item.getBook().getIsbn();
+        CompiledPricing pricing = PricingEngine.active();
+        change(isbn, existing -> existing == null
+                ? line(pricing, sequence.incrementAndGet(), item)
+                : line(pricing, existing.sequence(), new OrderItem(existing.item().getBook(),
+                        Math.addExact(existing.item().getQuantity(), item.getQuantity()))));
+        repriceIfStale(isbn);
+        try {
+            if (StoreEvents.isEnabled()) {
+                StoreEvents.publish(new StoreEvent.CartItemAdded(isbn, item.getBook().getTitle(),
+                        item.getQuantity()));
+            }
+        } finally {
+            ADD_ITEM.stop(start);
+        }
+    }
+
+    public boolean removeItem(String isbn) {
+        return change(isbn, existing -> null);
+    }
+
+    // จำนวน <= 0 หมายถึงลบรายการออกจากตะกร้า
+    public boolean updateQuantity(String isbn, int quantity) {
+        if (quantity <= 0) {
+            return removeItem(isbn);
+        }
+        CompiledPricing pricing = PricingEngine.active();
+        boolean updated = change(isbn, existing -> existing == null ? null
+                : line(pricing, existing.sequence(), new OrderItem(existing.item().getBook(), quantity)));
+        repriceIfStale(isbn);
+        return updated;
     }
 
+    public OrderItem getItem(String isbn) {
+        CartLine line = this.lines.get(isbn);
+        return line == null ? null : line.item();
+    }
+
+    // สำเนารายการ ณ ขณะเรียก เรียงตามลำดับที่เพิ่มเข้าตะกร้า
     public List<OrderItem> getItems() {
+        List<CartLine> snapshot = new ArrayList<>(this.lines.values());
+        snapshot.sort(Comparator.comparingLong(CartLine::sequence));
+        List<OrderItem> items = new ArrayList<>(snapshot.size());
+        for (CartLine line : snapshot) {
+            items.add(line.item());
+        }
         return items;
     }
 
+    public boolean isEmpty() {
+        return this.lines.isEmpty();
+    }
+
+    public int size() {
+        return this.lines.size();
+    }
+
+    // ลบทีละบรรทัด บรรทัดที่เพิ่มพร้อมกันระหว่างล้างอาจยังอยู่ เหมือนกับเพิ่มหลังล้างเสร็จ
     public void clearCart() {
-        this.items.clear();
+        for (String isbn : this.lines.keySet()) {
+            removeItem(isbn);
+        }
     }
 
     // คำนวณยอดรวมย่อย (ก่อนส่วนลด VIP)
     public BigDecimal calculateSubTotalBeforeVipDiscount() {
-        BigDecimal subTotal = BigDecimal.ZERO;
-        for (OrderItem item : items) {
-            subTotal = subTotal.add(item.getLineItemTotalBeforeVipDiscount());
+        return subTotalMoney().toBigDecimal();
+    }
+
+    public Money subTotalMoney() {
+        currentPricing();
+        return totals.get().subTotal.value();
+    }
+
+    // ยอดรวมย่อยของหนังสือประเภทนี้ (ก่อนส่วนลดลูกค้า)
+    public BigDecimal subTotal(BookType bookType) {
+        currentPricing();
+        return totals.get().subTotalByType[bookType.ordinal()].value().toBigDecimal();
+    }
+
+    // ยอดที่ลูกค้าระดับนี้จะจ่ายถ้า checkout ตอนนี้ (เท่ากับ Order.getGrandTotal ของรายการเดียวกัน)
+    // ถ้าระดับนี้คิดราคาไม่ได้จะโยน ArithmeticException เฉพาะการเรียกนี้ ตะกร้ายังใช้ต่อได้
+    public BigDecimal projectedTotal(Customer.CustomerType tier) {
+        currentPricing();
+        // อ่าน settled ก่อน totals: ถ้าเท่ากัน ทุกการแก้ที่นับใน totals เขียนลง map เสร็จแล้ว
+        long done = settled.get();
+        Totals current = totals.get();
+        Projection cached = projectedByTier.get(tier.ordinal());
+        if (cached != null && cached.changes() == current.changes) {
+            return cached.total().toBigDecimal();
+        }
+        RunningTotal sum = RunningTotal.ZERO;
+        for (CartLine line : lines.values()) {
+            Book book = line.item().getBook();
+            sum = sum.plus(line.pricing().pipeline(book.getType(), tier)
+                    .lineTotal(line.unitPrice(), line.item().getQuantity()));
         }
-        return subTotal;
+        Money total = sum.value();
+        // เก็บไว้ใช้ซ้ำเฉพาะเมื่อไม่มีการแก้ค้างก่อนเริ่มและไม่มีการแก้ใหม่ระหว่างวน ผลรวมจึงตรงกับ changes นั้นพอดี
+        if (done == current.changes && totals.get() == current) {
+            projectedByTier.set(tier.ordinal(), new Projection(current.changes, total));
+        }
+        return total.toBigDecimal();
+    }
+
+    // อ่านราคาตั้งต้นก่อนคิดราคา ถ้าเปลี่ยนระหว่างนั้นบรรทัดจะถูกมองว่าราคาเก่าและคิดใหม่ภายหลัง
+    private CartLine line(CompiledPricing pricing, long sequence, OrderItem item) {
+        BigDecimal basePrice = item.getBook().getBasePrice();
+        Money unitPrice = item.getBook().calculatePriceMoney(pricing);
+        return new CartLine(sequence, item, pricing, basePrice, unitPrice, unitPrice.times(item.getQuantity()));
+    }
+
+    // แทนบรรทัดของ ISBN นี้ด้วยค่าที่ remap คืน (null = ลบ, บรรทัดเดิม = ไม่เปลี่ยน)
+    // ยอดสะสมชุดใหม่คำนวณก่อนแล้วสลับภายใน compute ถ้าโยน map กับยอดสะสมจึงไม่เปลี่ยนทั้งคู่
+    private boolean change(String isbn, UnaryOperator<CartLine> remap) {
+        boolean[] changed = new boolean[1];
+        lines.compute(isbn, (key, existing) -> {
+            CartLine updated = remap.apply(existing);
+            if (updated != existing) {
+                Totals current;
+                Totals next;
+                do {
+                    current = totals.get();
+                    next = current.replace(existing, updated);
+                } while (!totals.compareAndSet(current, next));
+                changed[0] = true;
+            }
+            return updated;
+        });
+        if (changed[0]) {
+            settled.incrementAndGet();
+        }
+        return changed[0];
+    }
+
+    // หลังเขียนบรรทัดแล้วตรวจกฎและราคาตั้งต้นอีกครั้ง ถ้าเปลี่ยนก่อนบรรทัดลง map การตรวจทั้งตะกร้าอาจข้ามบรรทัดนี้ไป
+    private void repriceIfStale(String isbn) {
+        CompiledPricing pricing = PricingEngine.active();
+        CartLine line = lines.get(isbn);
+        if (line != null && !line.pricedAt(pricing)) {
+            reprice(isbn, pricing);
+        }
+    }
+
+    private void reprice(String isbn, CompiledPricing pricing) {
+        change(isbn, existing -> existing == null || existing.pricedAt(pricing) ? existing
+                : line(pricing, existing.sequence(), existing.item()));
+    }
+
+    // กฎราคาที่ใช้ตอนนี้ ถ้ากฎหรือราคาตั้งต้นเล่มใดเปลี่ยนตั้งแต่ตรวจครั้งก่อน คิดใหม่เฉพาะบรรทัดที่ราคาเก่า
+    // อ่านตัวนับราคาตั้งต้นก่อนกฎราคา ถ้ามีการเปลี่ยนระหว่างตรวจ ครั้งถัดไปจะเห็นค่าที่ต่างและตรวจอีกรอบ
+    private CompiledPricing currentPricing() {
+        long baseChanges = Book.basePriceChanges();
+        CompiledPricing pricing = PricingEngine.active();
+        PriceCheck checked = priceCheck;
+        if (checked.version() != pricing.version() || checked.baseChanges() != baseChanges) {
+            for (CartLine line : lines.values()) {
+                if (!line.pricedAt(pricing)) {
+                    reprice(line.item().getBook().getIsbn(), pricing);
+                }
+            }
+            priceCheck = new PriceCheck(pricing.version(), baseChanges);
+        }
+        return pricing;
     }
 
     public void displayCart() {
-        if (items.isEmpty()) {
+        if (isEmpty()) {
             System.out.println("Shopping cart is empty.");
             return;
         }
-        System.out.println("\n--- Shopping Cart ---");
-        for (int i = 0; i < items.size(); i++) {
-            OrderItem item = items.get(i);
-            System.out.println((i + 1) + ". " + item.getBook().getTitle() +
-                               " (Type: " + item.getBook().getBookType() + ")" +
-                               " - Qty: " + item.getQuantity() +
-                               " - Price per unit (after type adj.): $" + item.getItemPriceBeforeVipDiscount().setScale(2, RoundingMode.HALF_EVEN) +
-                               " - Line Total (before VIP): $" + item.getLineItemTotalBeforeVipDiscount().setScale(2, RoundingMode.HALF_EVEN));
-        }
-        System.out.println("---------------------");
-        System.out.println("Subtotal (before VIP discount): $" + calculateSubTotalBeforeVipDiscount().setScale(2, RoundingMode.HALF_EVEN));
-        System.out.println("---------------------");
+        System.out.print(appendCart(new StringBuilder(256 + lines.size() * 160)));
+    }
+
+    // ตะกร้าในรูปข้อความแบบเดียวกับ displayCart ราคาเขียนจาก Money ที่คำนวณครั้งเดียวต่อบรรทัด
+    public StringBuilder appendCart(StringBuilder out) {
+        String newline = System.lineSeparator();
+        currentPricing();
+        List<CartLine> snapshot = new ArrayList<>(this.lines.values());
+        snapshot.sort(Comparator.comparingLong(CartLine::sequence));
+        // ยอดรวมจากบรรทัดชุดเดียวกับที่แสดง แม้มีการแก้ตะกร้าพร้อมกัน
+        RunningTotal subTotal = RunningTotal.ZERO;
+        out.append('\n').append("--- Shopping Cart ---").append(newline);
+        int number = 1;
+        for (CartLine line : snapshot) {
+            OrderItem item = line.item();
+            out.append(number++).append(". ").append(item.getBook().getTitle())
+                    .append(" (Type: ").append(item.getBook().getBookType()).append(')')
+                    .append(" - Qty: ").append(item.getQuantity())
+                    .append(" - Price per unit (after type adj.): $");
+            line.unitPrice().appendTo(out, 2).append(" - Line Total (before VIP): $");
+            line.lineTotal().appendTo(out, 2).append(newline);
+            subTotal = subTotal.plus(line.lineTotal());
+        }
+        out.append("---------------------").append(newline).append("Subtotal (before VIP discount): $");
+        return subTotal.value().appendTo(out, 2).append(newline).append("---------------------").append(newline);
     }
 }
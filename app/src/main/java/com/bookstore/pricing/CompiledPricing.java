@@ -0,0 +1,156 @@
+package com.bookstore.pricing;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.bookstore.books.BookType;
+import com.bookstore.customer.Customer;
+import com.bookstore.money.Money;
+
+// PricingRules ที่คอมไพล์แล้ว ไม่เปลี่ยนแปลงหลังสร้าง จึงอ่านจากหลายเธรดพร้อมกันได้
+// version ใช้ตรวจว่าราคาที่แคชไว้คำนวณจากชุดกฎนี้หรือไม่
+public final class CompiledPricing {
+    private static final Customer.CustomerType[] CUSTOMER_TYPES = Customer.CustomerType.values();
+    private static final BookType[] BOOK_TYPES = BookType.values();
+
+    private final long version;
+    private final PricingRules rules;
+    private final Map<String, PricePipeline[]> pipelinesByType = new HashMap<>();
+    // ประเภทหนังสือที่ไม่มีกฎเฉพาะ ใช้เฉพาะกฎที่ไม่ระบุประเภท
+    private final PricePipeline[] defaultPipelines;
+    // ตารางเดียวกันแต่ใช้ ordinal ของ BookType เป็นดัชนี เส้นทางร้อนไม่ต้อง hash ชื่อประเภท
+    private final PricePipeline[][] pipelinesByBookType = new PricePipeline[BOOK_TYPES.length][];
+    private final int[] pointsMultipliers = new int[CUSTOMER_TYPES.length]; // ตาม ordinal ของประเภทลูกค้า
+    private final boolean[] tierDiscounts = new boolean[CUSTOMER_TYPES.length];
+
+    CompiledPricing(long version, PricingRules rules) {
+        this.version = version;
+        this.rules = rules;
+        Set<String> bookTypes = new LinkedHashSet<>();
+        for (PricingRule rule : rules.rules()) {
+            String bookType = bookTypeOf(rule);
+            if (bookType != null) {
+                bookTypes.add(bookType);
+            }
+        }
+        for (String bookType : bookTypes) {
+            pipelinesByType.put(bookType, compile(bookType));
+        }
+        this.defaultPipelines = compile(null);
+        for (BookType bookType : BOOK_TYPES) {
+            pipelinesByBookType[bookType.ordinal()] = pipelinesByType.getOrDefault(bookType.label(), defaultPipelines);
+        }
+        Arrays.fill(pointsMultipliers, 1);
+        for (PricingRule rule : rules.rules()) {
+            if (rule instanceof PricingRule.PointsMultiplier points) {
+                pointsMultipliers[points.customerType().ordinal()] = points.multiplier();
+            } else if (rule instanceof PricingRule.TierDiscount tier && tier.rate().signum() > 0) {
+                tierDiscounts[tier.customerType().ordinal()] = true;
+            }
+        }
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public PricingRules rules() {
+        return rules;
+    }
+
+    public PricePipeline pipeline(String bookType, Customer.CustomerType customerType) {
+        PricePipeline[] pipelines = pipelinesByType.getOrDefault(bookType, defaultPipelines);
+        return pipelines[customerType.ordinal()];
+    }
+
+    public PricePipeline pipeline(BookType bookType, Customer.CustomerType customerType) {
+        return pipelinesByBookType[bookType.ordinal()][customerType.ordinal()];
+    }
+
+    public int pointsMultiplier(Customer.CustomerType customerType) {
+        return pointsMultipliers[customerType.ordinal()];
+    }
+
+    // ลูกค้าประเภทนี้มีส่วนลดต่อหน่วย (ใบเสร็จจึงแสดงราคาก่อนและหลังส่วนลด)
+    public boolean hasTierDiscount(Customer.CustomerType customerType) {
+        return tierDiscounts[customerType.ordinal()];
+    }
+
+    // ราคาในแคตตาล็อกไม่ขึ้นกับประเภทลูกค้า
+    public Money catalogPrice(String bookType, Money basePrice) {
+        return pipeline(bookType, Customer.CustomerType.GENERAL).catalogPrice(basePrice);
+    }
+
+    public Money catalogPrice(BookType bookType, Money basePrice) {
+        return pipeline(bookType, Customer.CustomerType.GENERAL).catalogPrice(basePrice);
+    }
+
+    private PricePipeline[] compile(String bookType) {
+        List<Money> catalogSteps = new ArrayList<>();
+        List<Money> promotionSteps = new ArrayList<>();
+        for (PricingRule rule : rules.rules()) {
+            if (rule instanceof PricingRule.TypeAdjustment adjustment && adjustment.bookType().equals(bookType)) {
+                catalogSteps.add(Money.of(adjustment.rate()));
+            } else if (rule instanceof PricingRule.Promotion promotion && appliesTo(promotion.bookType(), bookType)) {
+                promotionSteps.add(discount(promotion.rate()));
+            }
+        }
+        catalogSteps.addAll(promotionSteps);
+
+        List<PricingRule.QuantityBreak> breaks = new ArrayList<>();
+        for (PricingRule rule : rules.rules()) {
+            if (rule instanceof PricingRule.QuantityBreak quantityBreak
+                    && appliesTo(quantityBreak.bookType(), bookType)) {
+                breaks.add(quantityBreak);
+            }
+        }
+        // List.sort เสถียร: ขั้นเดียวกันที่ประกาศก่อนมีผล
+        breaks.sort(Comparator.comparingInt(PricingRule.QuantityBreak::minQuantity).reversed());
+        int[] breakQuantities = new int[breaks.size()];
+        Money[] breakSteps = new Money[breaks.size()];
+        for (int i = 0; i < breaks.size(); i++) {
+            breakQuantities[i] = breaks.get(i).minQuantity();
+            breakSteps[i] = discount(breaks.get(i).rate());
+        }
+
+        PricePipeline[] pipelines = new PricePipeline[CUSTOMER_TYPES.length];
+        for (Customer.CustomerType customerType : CUSTOMER_TYPES) {
+            List<Money> unitSteps = new ArrayList<>();
+            for (PricingRule rule : rules.rules()) {
+                if (rule instanceof PricingRule.TierDiscount tier && tier.customerType() == customerType) {
+                    unitSteps.add(discount(tier.rate()));
+                }
+            }
+            pipelines[customerType.ordinal()] = new PricePipeline(catalogSteps.toArray(new Money[0]),
+                    unitSteps.toArray(new Money[0]), breakQuantities, breakSteps);
+        }
+        return pipelines;
+    }
+
+    // กฎที่ไม่ระบุประเภท (null) ใช้กับทุกประเภท
+    private static boolean appliesTo(String ruleType, String bookType) {
+        return ruleType == null || ruleType.equals(bookType);
+    }
+
+    private static String bookTypeOf(PricingRule rule) {
+        if (rule instanceof PricingRule.TypeAdjustment adjustment) {
+            return adjustment.bookType();
+        } else if (rule instanceof PricingRule.Promotion promotion) {
+            return promotion.bookType();
+        } else if (rule instanceof PricingRule.QuantityBreak quantityBreak) {
+            return quantityBreak.bookType();
+        }
+        return null;
+    }
+
+    private static Money discount(BigDecimal rate) {
+        return Money.of(rate.negate());
+    }
+}
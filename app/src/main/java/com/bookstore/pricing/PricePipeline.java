@@ -0,0 +1,67 @@
+package com.bookstore.pricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.bookstore.money.Money;
+
+// กฎที่คอมไพล์แล้วสำหรับหนึ่ง (ประเภทหนังสือ, ประเภทลูกค้า): แต่ละขั้นคือ price + price * rate
+// ส่วนลดเก็บเป็น rate ติดลบ จึงไม่มีการแยกกรณีตามชนิดกฎตอนคิดราคา
+public final class PricePipeline {
+    // แต่ละขั้นคิดแบบตรงตัวจนกว่า scale จะเกินค่านี้ แล้วปัด HALF_EVEN ที่ขั้นนั้น
+    // กฎชุดเริ่มต้นไม่ถึง (ราคาตั้งต้น 2-3 ตำแหน่ง + ปรับตามประเภท + ส่วนลด VIP + ส่วนลดตามจำนวน)
+    // โปรโมชันซ้อนหลายชั้นจึงไม่ทำให้ scale โตไม่สิ้นสุดจน long ล้นตอนคูณจำนวน
+    public static final int WORKING_SCALE = 8;
+
+    private final Money[] catalogSteps; // ปรับตามประเภท แล้วโปรโมชัน
+    private final Money[] unitSteps; // ส่วนลดตามประเภทลูกค้า
+    private final int[] breakQuantities; // เรียงจากมากไปน้อย
+    private final Money[] breakSteps;
+
+    PricePipeline(Money[] catalogSteps, Money[] unitSteps, int[] breakQuantities, Money[] breakSteps) {
+        this.catalogSteps = catalogSteps;
+        this.unitSteps = unitSteps;
+        this.breakQuantities = breakQuantities;
+        this.breakSteps = breakSteps;
+    }
+
+    // ราคาที่แสดงในแคตตาล็อก (ยังไม่ขึ้นกับลูกค้าหรือจำนวน)
+    public Money catalogPrice(Money basePrice) {
+        return apply(basePrice, catalogSteps);
+    }
+
+    // ราคาต่อหน่วยของลูกค้าประเภทนี้เมื่อซื้อ quantity เล่ม
+    public Money unitPrice(Money catalogPrice, int quantity) {
+        Money price = apply(catalogPrice, unitSteps);
+        for (int i = 0; i < breakQuantities.length; i++) {
+            if (quantity >= breakQuantities[i]) {
+                return step(price, breakSteps[i]);
+            }
+        }
+        return price;
+    }
+
+    public Money lineTotal(Money catalogPrice, int quantity) {
+        return unitPrice(catalogPrice, quantity).times(quantity);
+    }
+
+    private static Money apply(Money price, Money[] steps) {
+        for (Money step : steps) {
+            price = step(price, step);
+        }
+        return price;
+    }
+
+    private static Money step(Money price, Money rate) {
+        if (price.getScale() + rate.getScale() <= Money.MAX_SCALE) {
+            try {
+                Money next = price.plus(price.times(rate));
+                return next.getScale() > WORKING_SCALE ? next.setScale(WORKING_SCALE, RoundingMode.HALF_EVEN) : next;
+            } catch (ArithmeticException overflow) {
+                // ผลคูณตรงตัวเกินช่วง long คิดผ่าน BigDecimal แทน
+            }
+        }
+        BigDecimal exact = price.toBigDecimal().add(price.toBigDecimal().multiply(rate.toBigDecimal()));
+        return Money.of(exact.scale() > WORKING_SCALE ? exact.setScale(WORKING_SCALE, RoundingMode.HALF_EVEN) : exact);
+    }
+}
@@ -0,0 +1,36 @@
+package com.bookstore.pricing;
+
+import java.util.function.UnaryOperator;
+
+// ชุดกฎราคาที่ใช้งานอยู่ การเปลี่ยนกฎคอมไพล์ชุดใหม่ให้เสร็จก่อนแล้วสลับด้วยการเขียน volatile ครั้งเดียว
+// ผู้อ่าน (checkout, การคิดราคาหนังสือ) ไม่ต้องรอล็อก และเห็นกฎชุดเก่าหรือชุดใหม่ทั้งชุดเสมอ
+public final class PricingEngine {
+    private static volatile CompiledPricing active = new CompiledPricing(0, PricingRules.defaults());
+
+    private PricingEngine() {
+    }
+
+    public static CompiledPricing active() {
+        return active;
+    }
+
+    public static PricingRules rules() {
+        return active.rules();
+    }
+
+    // synchronized เฉพาะผู้เปลี่ยนกฎ เพื่อให้ version เพิ่มทีละหนึ่งและไม่มีการเขียนทับกัน
+    public static synchronized CompiledPricing install(PricingRules rules) {
+        CompiledPricing compiled = new CompiledPricing(active.version() + 1, rules);
+        active = compiled;
+        return compiled;
+    }
+
+    // ใช้ rules ปัจจุบันเป็นฐานในการแก้ไข (เช่น เปลี่ยนอัตราของประเภทเดียว)
+    public static synchronized CompiledPricing update(UnaryOperator<PricingRules> change) {
+        return install(change.apply(active.rules()));
+    }
+
+    public static CompiledPricing reset() {
+        return install(PricingRules.defaults());
+    }
+}
@@ -0,0 +1,79 @@
+package com.bookstore.pricing;
+
+import java.math.BigDecimal;
+
+import com.bookstore.customer.Customer;
+
+// กฎราคาแบบข้อมูล: ประกาศไว้ใน PricingRules แล้วคอมไพล์เป็น PricePipeline ต่อ (ประเภทหนังสือ, ประเภทลูกค้า)
+public sealed interface PricingRule permits PricingRule.TypeAdjustment, PricingRule.Promotion,
+        PricingRule.TierDiscount, PricingRule.QuantityBreak, PricingRule.PointsMultiplier {
+
+    // ปรับราคาตามประเภทหนังสือ: rate ติดลบคือส่วนลด (EBook -0.10) บวกคือค่าธรรมเนียม (AudioBook 0.05)
+    record TypeAdjustment(String bookType, BigDecimal rate) implements PricingRule {
+        public TypeAdjustment {
+            requireType(bookType);
+            requireRate(rate, -1);
+        }
+    }
+
+    // ส่วนลดโปรโมชันที่แสดงในราคาหนังสือ bookType เป็น null หมายถึงทุกประเภท
+    record Promotion(String name, String bookType, BigDecimal rate) implements PricingRule {
+        public Promotion {
+            requireDiscount(rate);
+        }
+    }
+
+    // ส่วนลดตามประเภทลูกค้า (เช่น VIP 15%) ใช้กับราคาต่อหน่วยตอนคิดเงิน
+    record TierDiscount(Customer.CustomerType customerType, BigDecimal rate) implements PricingRule {
+        public TierDiscount {
+            if (customerType == null) {
+                throw new IllegalArgumentException("customerType is required");
+            }
+            requireDiscount(rate);
+        }
+    }
+
+    // ตัวคูณแต้มสะสมของประเภทลูกค้า (เช่น VIP x2) ประเภทที่ไม่มีกฎนี้ได้ x1 ถ้ามีหลายกฎใช้กฎสุดท้าย
+    record PointsMultiplier(Customer.CustomerType customerType, int multiplier) implements PricingRule {
+        public PointsMultiplier {
+            if (customerType == null) {
+                throw new IllegalArgumentException("customerType is required");
+            }
+            if (multiplier < 0 || multiplier > 100) {
+                throw new IllegalArgumentException("multiplier must be between 0 and 100: " + multiplier);
+            }
+        }
+    }
+
+    // ส่วนลดเมื่อซื้อเล่มเดียวกันตั้งแต่ minQuantity ขึ้นไป ถ้าเข้าหลายขั้นใช้ขั้นที่ minQuantity สูงสุด
+    record QuantityBreak(String bookType, int minQuantity, BigDecimal rate) implements PricingRule {
+        public QuantityBreak {
+            if (minQuantity < 1) {
+                throw new IllegalArgumentException("minQuantity must be positive: " + minQuantity);
+            }
+            requireDiscount(rate);
+        }
+    }
+
+    private static void requireType(String bookType) {
+        if (bookType == null || bookType.isBlank()) {
+            throw new IllegalArgumentException("bookType is required");
+        }
+    }
+
+    private static void requireRate(BigDecimal rate, int minimum) {
+        if (rate == null) {
+            throw new IllegalArgumentException("rate is required");
+        }
+        if (rate.compareTo(BigDecimal.valueOf(minimum)) < 0) {
+            throw new IllegalArgumentException("rate must not be below " + minimum + ": " + rate);
+        }
+    }
+
+    private static void requireDiscount(BigDecimal rate) {
+        requireRate(rate, 0);
+        if (rate.compareTo(BigDecimal.ONE) > 0) {
+            throw new IllegalArgumentException("discount rate must not exceed 1: " + rate);
+        }
+    }
+}
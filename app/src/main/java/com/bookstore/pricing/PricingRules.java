@@ -0,0 +1,68 @@
+package com.bookstore.pricing;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import com.bookstore.customer.Customer;
+
+// ชุดกฎราคาที่ประกาศไว้ (ลำดับในรายการคือลำดับที่กฎชนิดเดียวกันถูกใช้)
+public record PricingRules(List<PricingRule> rules) {
+
+    // กฎเดิมของร้าน: EBook ลด 10%, AudioBook บวก 5%, VIP ลด 15% แต้ม x2
+    // ระดับที่เพิ่มภายหลัง: SILVER ลด 5%, GOLD ลด 10% แต้ม x2
+    private static final PricingRules DEFAULTS = new PricingRules(List.of(
+            new PricingRule.TypeAdjustment("EBook", new BigDecimal("-0.10")),
+            new PricingRule.TypeAdjustment("AudioBook", new BigDecimal("0.05")),
+            new PricingRule.TierDiscount(Customer.CustomerType.VIP, new BigDecimal("0.15")),
+            new PricingRule.TierDiscount(Customer.CustomerType.GOLD, new BigDecimal("0.10")),
+            new PricingRule.TierDiscount(Customer.CustomerType.SILVER, new BigDecimal("0.05")),
+            new PricingRule.PointsMultiplier(Customer.CustomerType.VIP, 2),
+            new PricingRule.PointsMultiplier(Customer.CustomerType.GOLD, 2)));
+
+    public PricingRules {
+        rules = List.copyOf(rules);
+    }
+
+    public static PricingRules defaults() {
+        return DEFAULTS;
+    }
+
+    public PricingRules with(PricingRule rule) {
+        List<PricingRule> updated = new ArrayList<>(rules);
+        updated.add(rule);
+        return new PricingRules(updated);
+    }
+
+    // แทนที่การปรับราคาของประเภทนี้ทั้งหมดด้วยกฎเดียว
+    public PricingRules withTypeAdjustment(String bookType, BigDecimal rate) {
+        List<PricingRule> updated = new ArrayList<>(rules.size());
+        PricingRule replacement = new PricingRule.TypeAdjustment(bookType, rate);
+        boolean replaced = false;
+        for (PricingRule rule : rules) {
+            if (rule instanceof PricingRule.TypeAdjustment adjustment && adjustment.bookType().equals(bookType)) {
+                if (!replaced) {
+                    updated.add(replacement);
+                    replaced = true;
+                }
+            } else {
+                updated.add(rule);
+            }
+        }
+        if (!replaced) {
+            updated.add(replacement);
+        }
+        return new PricingRules(updated);
+    }
+
+    // อัตราของกฎปรับราคาแรกที่ตรงกับประเภทหนังสือ
+    public Optional<BigDecimal> typeAdjustment(String bookType) {
+        for (PricingRule rule : rules) {
+            if (rule instanceof PricingRule.TypeAdjustment adjustment && adjustment.bookType().equals(bookType)) {
+                return Optional.of(adjustment.rate());
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,38 @@
+package com.bookstore.recommend;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.bookstore.books.Book;
+import com.bookstore.books.BookType;
+
+// หาหนังสือราคาสูงสุดของแต่ละประเภทด้วยการสแกนทุกเล่ม
+public final class FullScanRecommender {
+
+    private FullScanRecommender() {
+    }
+
+    public static Map<String, Book> highestPricedByType(Iterable<? extends Book> books) {
+        Map<String, Book> highest = new LinkedHashMap<>();
+        highestPricedByBookType(books).forEach((type, book) -> highest.put(type.label(), book));
+        return highest;
+    }
+
+    // จัดกลุ่มด้วย EnumMap (อาร์เรย์ตาม ordinal) แทน HashMap ที่ต้อง hash ชื่อประเภททุกเล่ม
+    public static Map<BookType, Book> highestPricedByBookType(Iterable<? extends Book> books) {
+        Map<BookType, Book> highestPriceBooks = new EnumMap<>(BookType.class);
+
+        for (Book book : books) {
+            BookType type = book.getType();
+            BigDecimal currentBookPrice = book.calculatePrice();
+            Book highest = highestPriceBooks.get(type);
+
+            if (highest == null || currentBookPrice.compareTo(highest.calculatePrice()) > 0) {
+                highestPriceBooks.put(type, book);
+            }
+        }
+        return highestPriceBooks;
+    }
+}
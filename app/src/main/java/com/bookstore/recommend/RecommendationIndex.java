@@ -0,0 +1,203 @@
+package com.bookstore.recommend;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import com.bookstore.books.Book;
+import com.bookstore.books.BookType;
+import com.bookstore.catalog.CatalogListener;
+
+// ดัชนีหนังสือแนะนำ: แต่ละประเภท/ผู้แต่ง/ปี เรียงตามราคาสุดท้ายไว้ล่วงหน้า
+// อัปเดตทีละเล่มเมื่อเพิ่ม ลบ หรือเปลี่ยนราคา ขอ top-K ได้ใน O(K)
+// ใช้คู่กับ Catalog.addListener การเพิ่ม/ลบ/เปลี่ยนราคาแก้ลำดับชุดที่ใช้อยู่ในที่เดิม จึงต้องมาจากเธรดเดียว
+// และไม่มีผู้อ่านพร้อมกัน (เช่นเดียวกับ Catalog) หลังจากนั้นอ่านจากหลายเธรดได้ (เช่น request ของ HTTP):
+// เมื่อกฎราคาเปลี่ยน ผู้อ่านสร้างลำดับชุดใหม่ทั้งชุดแล้วจึงสลับเข้า
+// ผู้อ่านคนอื่นจึงเห็นชุดเดิมหรือชุดใหม่ที่สมบูรณ์เสมอ ไม่เห็น TreeSet ที่กำลังถูกสร้าง
+public final class RecommendationIndex implements CatalogListener {
+
+    // ราคาสูงก่อน ราคาเท่ากันเล่มที่เพิ่มก่อนมาก่อน (ผลเดียวกับ FullScanRecommender)
+    private static final Comparator<Entry> HIGHEST_PRICE_FIRST = Comparator
+            .comparing(Entry::price, Comparator.reverseOrder())
+            .thenComparingLong(Entry::sequence);
+
+    private volatile Ordering ordering = new Ordering(Book.pricingVersion());
+    private long nextSequence;
+
+    public RecommendationIndex() {
+    }
+
+    public RecommendationIndex(Iterable<? extends Book> books) {
+        for (Book book : books) {
+            add(book);
+        }
+    }
+
+    public void add(Book book) {
+        Ordering current = current();
+        Entry previous = current.entriesByIsbn.remove(book.getIsbn());
+        if (previous != null) {
+            current.unlink(previous);
+        }
+        current.link(new Entry(book, nextSequence++, book.calculatePrice()));
+    }
+
+    public boolean remove(Book book) {
+        Ordering current = current();
+        Entry entry = current.entriesByIsbn.get(book.getIsbn());
+        if (entry == null || entry.book() != book) {
+            return false;
+        }
+        current.entriesByIsbn.remove(book.getIsbn());
+        current.unlink(entry);
+        return true;
+    }
+
+    // เรียกหลังราคาตั้งต้นของหนังสือเปลี่ยน
+    public void reprice(Book book) {
+        Ordering current = current();
+        Entry entry = current.entriesByIsbn.get(book.getIsbn());
+        if (entry == null || entry.book() != book) {
+            return;
+        }
+        current.unlink(entry);
+        current.link(new Entry(book, entry.sequence(), book.calculatePrice()));
+    }
+
+    @Override
+    public void bookAdded(Book book) {
+        add(book);
+    }
+
+    @Override
+    public void bookRemoved(Book book) {
+        remove(book);
+    }
+
+    @Override
+    public void bookRepriced(Book book) {
+        reprice(book);
+    }
+
+    public List<Book> topByType(String bookType, int k) {
+        return topByType(BookType.fromLabel(bookType).orElse(null), k);
+    }
+
+    public List<Book> topByType(BookType bookType, int k) {
+        requireK(k);
+        return top(bookType == null ? null : current().byType.get(bookType), k);
+    }
+
+    public List<Book> topByAuthor(String author, int k) {
+        requireK(k);
+        return top(current().byAuthor.get(author), k);
+    }
+
+    public List<Book> topByYear(String publishYear, int k) {
+        requireK(k);
+        return top(current().byYear.get(publishYear), k);
+    }
+
+    // ผลเดียวกับ FullScanRecommender.highestPricedByType โดยไม่ต้องสแกน
+    public Map<String, Book> highestPricedByType() {
+        Map<String, Book> highest = new LinkedHashMap<>();
+        highestPricedByBookType().forEach((type, book) -> highest.put(type.label(), book));
+        return highest;
+    }
+
+    public Map<BookType, Book> highestPricedByBookType() {
+        Map<BookType, Book> highest = new EnumMap<>(BookType.class);
+        for (Map.Entry<BookType, NavigableSet<Entry>> type : current().byType.entrySet()) {
+            highest.put(type.getKey(), type.getValue().first().book());
+        }
+        return highest;
+    }
+
+    public int size() {
+        return ordering.entriesByIsbn.size();
+    }
+
+    private static void requireK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+    }
+
+    private static List<Book> top(NavigableSet<Entry> entries, int k) {
+        if (entries == null || k == 0) {
+            return Collections.emptyList();
+        }
+        List<Book> result = new ArrayList<>(Math.min(k, entries.size()));
+        Iterator<Entry> it = entries.iterator();
+        while (result.size() < k && it.hasNext()) {
+            result.add(it.next().book());
+        }
+        return result;
+    }
+
+    // อัตราส่วนลด/ค่าธรรมเนียมเปลี่ยน ราคาสุดท้ายทุกเล่มจึงต้องจัดเรียงใหม่
+    // สร้างชุดใหม่แยกจากชุดที่ผู้อ่านอื่นอาจกำลังไล่อยู่ (ถ้าหลายเธรดสร้างพร้อมกัน ทุกชุดถูกต้องเท่ากัน)
+    // ปลอดภัยเฉพาะระหว่างผู้อ่านด้วยกัน ถ้ามีการเพิ่มพร้อมกัน ชุดที่สลับเข้าอาจไม่มีเล่มนั้น
+    private Ordering current() {
+        Ordering current = ordering;
+        long version = Book.pricingVersion();
+        if (version == current.pricingVersion) {
+            return current;
+        }
+        Ordering rebuilt = new Ordering(version);
+        for (Entry entry : current.entriesByIsbn.values()) {
+            rebuilt.link(new Entry(entry.book(), entry.sequence(), entry.book().calculatePrice()));
+        }
+        ordering = rebuilt;
+        return rebuilt;
+    }
+
+    // ลำดับของทุกเล่มตามกฎราคาเวอร์ชันเดียว
+    private static final class Ordering {
+        final long pricingVersion;
+        final Map<String, Entry> entriesByIsbn = new HashMap<>();
+        final Map<BookType, NavigableSet<Entry>> byType = new EnumMap<>(BookType.class);
+        final Map<String, NavigableSet<Entry>> byAuthor = new HashMap<>();
+        final Map<String, NavigableSet<Entry>> byYear = new HashMap<>();
+
+        Ordering(long pricingVersion) {
+            this.pricingVersion = pricingVersion;
+        }
+
+        void link(Entry entry) {
+            Book book = entry.book();
+            entriesByIsbn.put(book.getIsbn(), entry);
+            byType.computeIfAbsent(book.getType(), k -> new TreeSet<>(HIGHEST_PRICE_FIRST)).add(entry);
+            byAuthor.computeIfAbsent(book.getAuthor(), k -> new TreeSet<>(HIGHEST_PRICE_FIRST)).add(entry);
+            byYear.computeIfAbsent(book.getPublishYear(), k -> new TreeSet<>(HIGHEST_PRICE_FIRST)).add(entry);
+        }
+
+        // ไม่ลบออกจาก entriesByIsbn (ผู้เรียกจัดการเอง)
+        void unlink(Entry entry) {
+            Book book = entry.book();
+            removeFrom(byType, book.getType(), entry);
+            removeFrom(byAuthor, book.getAuthor(), entry);
+            removeFrom(byYear, book.getPublishYear(), entry);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, NavigableSet<Entry>> index, K key, Entry entry) {
+        NavigableSet<Entry> entries = index.get(key);
+        if (entries != null && entries.remove(entry) && entries.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    // price คือราคาที่ใช้จัดลำดับ เปลี่ยนราคาโดยสร้าง entry ใหม่
+    private record Entry(Book book, long sequence, BigDecimal price) {
+    }
+}
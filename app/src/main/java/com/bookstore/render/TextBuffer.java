@@ -0,0 +1,89 @@
+package com.bookstore.render;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+
+// บัฟเฟอร์ข้อความที่ใช้ซ้ำได้: เขียนลง text() แล้วเข้ารหัสเป็นไบต์ลง OutputStream ผ่าน ByteBuffer เดิม
+// ไม่สร้าง String ของทั้งหน้าเหมือน System.out.println(...) ทีละบรรทัด
+public final class TextBuffer {
+    private static final String NEWLINE = System.lineSeparator();
+
+    private final StringBuilder text;
+    private final CharsetEncoder encoder;
+    private final CharBuffer chars;
+    private final ByteBuffer bytes;
+    private final int flushThreshold;
+
+    public TextBuffer() {
+        this(Charset.defaultCharset(), 64 * 1024);
+    }
+
+    public TextBuffer(Charset charset, int flushThreshold) {
+        this.text = new StringBuilder(flushThreshold + 1024);
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.chars = CharBuffer.allocate(8192);
+        this.bytes = ByteBuffer.allocate(8192 * 4);
+        this.flushThreshold = flushThreshold;
+    }
+
+    public StringBuilder text() {
+        return text;
+    }
+
+    public TextBuffer newline() {
+        text.append(NEWLINE);
+        return this;
+    }
+
+    // เขียนออกเมื่อข้อความสะสมเกินเกณฑ์ ใช้ในลูปที่เขียนหลายบรรทัด
+    public void flushIfFull(OutputStream out) throws IOException {
+        if (text.length() >= flushThreshold) {
+            writeTo(out);
+        }
+    }
+
+    public void flush(OutputStream out) throws IOException {
+        writeTo(out);
+        out.flush();
+    }
+
+    // คัดลอกเป็นช่วงลง char[] เดิมก่อนเข้ารหัส encoder จึงใช้ทางเร็วแบบ array แทนอ่านทีละตัวอักษร
+    private void writeTo(OutputStream out) throws IOException {
+        int length = text.length();
+        if (length == 0) {
+            return;
+        }
+        encoder.reset();
+        chars.clear();
+        int position = 0;
+        while (position < length) {
+            int count = Math.min(chars.remaining(), length - position);
+            text.getChars(position, position + count, chars.array(), chars.arrayOffset() + chars.position());
+            chars.position(chars.position() + count);
+            position += count;
+            chars.flip();
+            while (encoder.encode(chars, bytes, position == length).isOverflow()) {
+                drain(out);
+            }
+            chars.compact(); // เก็บ surrogate ครึ่งหลังที่ยังไม่ครบคู่ไว้รอบถัดไป
+        }
+        while (encoder.flush(bytes).isOverflow()) {
+            drain(out);
+        }
+        drain(out);
+        text.setLength(0);
+    }
+
+    private void drain(OutputStream out) throws IOException {
+        bytes.flip();
+        out.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+        bytes.clear();
+    }
+}
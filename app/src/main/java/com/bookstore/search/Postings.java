@@ -0,0 +1,49 @@
+package com.bookstore.search;
+
+import java.util.Arrays;
+
+// รายการ doc id ของคำหนึ่งคำ เรียงจากน้อยไปมากเสมอเพราะ doc id ใหม่มากกว่าเดิมทุกครั้ง
+final class Postings {
+    final int id; // รหัสคำ (แยกกันระหว่างคำในชื่อหนังสือกับคำในชื่อผู้แต่ง) ใช้ใน forward index
+    private int[] docs = new int[2];
+    private int size;
+
+    Postings(int id) {
+        this.id = id;
+    }
+
+    void add(int doc) {
+        if (size > 0 && docs[size - 1] == doc) {
+            return; // คำซ้ำในชื่อเดียวกัน
+        }
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size * 2);
+        }
+        docs[size++] = doc;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int doc(int i) {
+        return docs[i];
+    }
+
+    // ตัด doc ที่ถูกลบออกแล้ว (renumber เป็น -1) และเปลี่ยนเป็น doc id ใหม่ คืน false ถ้าไม่เหลือ doc ใด
+    // renumber เรียงตาม doc id เดิม ผลจึงยังเรียงจากน้อยไปมาก
+    boolean retainLive(int[] renumber) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int doc = renumber[docs[i]];
+            if (doc >= 0) {
+                docs[kept++] = doc;
+            }
+        }
+        size = kept;
+        if (docs.length > 2 * Math.max(2, kept)) {
+            docs = Arrays.copyOf(docs, Math.max(2, kept));
+        }
+        return kept > 0;
+    }
+}
@@ -0,0 +1,389 @@
+package com.bookstore.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+import com.bookstore.books.Book;
+import com.bookstore.catalog.CatalogListener;
+
+// ดัชนีค้นหาแบบ inverted index บนชื่อหนังสือและชื่อผู้แต่ง
+// คำสุดท้ายของคำค้นจับคู่แบบ prefix (typeahead) ทุกคำต้องพบในชื่อหรือผู้แต่ง (AND)
+// คะแนน: ผลรวมของน้ำหนักดีที่สุดต่อคำค้น = น้ำหนักฟิลด์ x น้ำหนักการจับคู่ x idf
+// ไม่ thread-safe เช่นเดียวกับ Catalog
+public final class SearchIndex implements CatalogListener {
+    static final double TITLE_WEIGHT = 2.0;
+    static final double AUTHOR_WEIGHT = 1.0;
+    static final double PREFIX_WEIGHT = 0.6;
+    // prefix สั้น ๆ ขยายได้หลายพันคำ ใช้เฉพาะคำที่พบบ่อยที่สุด
+    static final int MAX_PREFIX_EXPANSIONS = 32;
+    // เพดานจำนวน doc ที่ตรวจต่อคำค้นเพื่อคุมเวลาตอบ (คำค้นที่ผลลัพธ์มากเกินนี้จัดอันดับจากส่วนแรกที่ตรวจ)
+    static final int MAX_CANDIDATES = 4_000;
+
+    // คะแนนน้อยกว่าแย่กว่า คะแนนเท่ากัน doc id มากกว่า (เพิ่มทีหลัง) แย่กว่า
+    private static final Comparator<Candidate> WORST_FIRST = Comparator.comparingDouble(Candidate::score)
+            .thenComparing(Comparator.comparingInt(Candidate::doc).reversed());
+
+    private final NavigableMap<String, Postings> titleTerms = new TreeMap<>();
+    private final NavigableMap<String, Postings> authorTerms = new TreeMap<>();
+    private final Map<String, Integer> docByIsbn = new HashMap<>();
+    private Book[] docs = new Book[1024];
+    private int docCount; // doc id ถัดไป
+    private int liveCount;
+    private int deadInPostings; // doc ที่ลบแล้วแต่ยังค้างอยู่ใน postings
+    private int nextTermId;
+    // forward index: รหัสคำของ doc d อยู่ที่ forwardTerms[forwardStart[d] .. forwardStart[d + 1])
+    private int[] forwardTerms = new int[4096];
+    private int[] forwardStart = new int[1025];
+
+    // ผลการค้นหาหนึ่งรายการ
+    public record Hit(Book book, double score) {
+    }
+
+    private record Candidate(int doc, double score) {
+    }
+
+    public SearchIndex() {
+    }
+
+    public SearchIndex(Iterable<? extends Book> books) {
+        for (Book book : books) {
+            add(book);
+        }
+    }
+
+    public void add(Book book) {
+        Integer previous = docByIsbn.get(book.getIsbn());
+        if (previous != null) {
+            removeDoc(previous);
+        }
+        if (docCount == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+            forwardStart = Arrays.copyOf(forwardStart, docs.length + 1);
+        }
+        int doc = docCount++;
+        docs[doc] = book;
+        liveCount++;
+        docByIsbn.put(book.getIsbn(), doc);
+        int end = forwardStart[doc];
+        List<String> titleTokens = Tokenizer.tokens(book.getTitle());
+        List<String> authorTokens = Tokenizer.tokens(book.getAuthor());
+        if (end + titleTokens.size() + authorTokens.size() > forwardTerms.length) {
+            forwardTerms = Arrays.copyOf(forwardTerms,
+                    Math.max(forwardTerms.length * 2, end + titleTokens.size() + authorTokens.size()));
+        }
+        for (String token : titleTokens) {
+            end = index(titleTerms, token, doc, end);
+        }
+        for (String token : authorTokens) {
+            end = index(authorTerms, token, doc, end);
+        }
+        forwardStart[doc + 1] = end;
+    }
+
+    private int index(NavigableMap<String, Postings> terms, String token, int doc, int end) {
+        Postings postings = terms.get(token);
+        if (postings == null) {
+            postings = new Postings(nextTermId++);
+            terms.put(token, postings);
+        }
+        postings.add(doc);
+        forwardTerms[end] = postings.id;
+        return end + 1;
+    }
+
+    public boolean remove(Book book) {
+        Integer doc = docByIsbn.get(book.getIsbn());
+        if (doc == null || docs[doc] != book) {
+            return false;
+        }
+        removeDoc(doc);
+        return true;
+    }
+
+    @Override
+    public void bookAdded(Book book) {
+        add(book);
+    }
+
+    @Override
+    public void bookRemoved(Book book) {
+        remove(book);
+    }
+
+    @Override
+    public void bookRepriced(Book book) {
+        // ราคาไม่มีผลต่อการค้นหา
+    }
+
+    public int size() {
+        return liveCount;
+    }
+
+    public List<Book> searchBooks(String query, int limit) {
+        List<Book> books = new ArrayList<>();
+        for (Hit hit : search(query, limit)) {
+            books.add(hit.book());
+        }
+        return books;
+    }
+
+    // ผลเรียงตามคะแนนมากไปน้อย คะแนนเท่ากันเล่มที่เพิ่มก่อนมาก่อน
+    public List<Hit> search(String query, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative: " + limit);
+        }
+        List<String> tokens = Tokenizer.tokens(query);
+        if (tokens.isEmpty() || limit == 0 || liveCount == 0) {
+            return new ArrayList<>();
+        }
+        List<Source[]> terms = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            Source[] sources = sources(tokens.get(i), i == tokens.size() - 1);
+            if (sources.length == 0) {
+                return new ArrayList<>(); // มีคำที่ไม่พบเลย
+            }
+            terms.add(sources);
+        }
+        // ไล่ doc จากคำที่มี doc น้อยที่สุด (driver) แล้วตรวจคำอื่นจาก forward index ของ doc นั้น
+        int driver = 0;
+        for (int i = 1; i < terms.size(); i++) {
+            if (postingsSize(terms.get(i)) < postingsSize(terms.get(driver))) {
+                driver = i;
+            }
+        }
+        TermWeights[] weights = new TermWeights[terms.size()];
+        for (int i = 0; i < terms.size(); i++) {
+            weights[i] = new TermWeights(terms.get(i));
+        }
+
+        PriorityQueue<Candidate> top = new PriorityQueue<>(limit + 1, WORST_FIRST);
+        int examined = 0;
+        Source[] driverSources = terms.get(driver);
+        scan:
+        for (int rank = 0; rank < driverSources.length; rank++) {
+            Source source = driverSources[rank];
+            // คะแนนสูงสุดที่ doc จาก source นี้ทำได้ (บวกตามลำดับคำค้นเหมือนตอนคิดคะแนนจริง)
+            double bound = 0;
+            for (int t = 0; t < terms.size(); t++) {
+                bound += t == driver ? source.weight : terms.get(t)[0].weight;
+            }
+            if (top.size() == limit && bound < top.peek().score()) {
+                break; // source ถัดไปมีน้ำหนักน้อยกว่า จึงไม่มีทางเข้าอันดับได้
+            }
+            for (int i = 0; i < source.postings.size(); i++) {
+                int doc = source.postings.doc(i);
+                if (top.size() == limit) {
+                    Candidate worst = top.peek();
+                    // doc ที่เหลือใน source นี้มี id มากขึ้นเรื่อย ๆ จึงชนะด้วยคะแนนเท่ากันไม่ได้
+                    if (bound < worst.score() || (bound == worst.score() && doc > worst.doc())) {
+                        break;
+                    }
+                }
+                if (++examined > MAX_CANDIDATES) {
+                    break scan;
+                }
+                if ((deadInPostings > 0 && docs[doc] == null)
+                        || (rank > 0 && seenInEarlierSource(weights[driver], doc, rank))) {
+                    continue;
+                }
+                double score = 0;
+                for (int t = 0; t < terms.size() && score >= 0; t++) {
+                    double best = t == driver ? source.weight : bestWeight(weights[t], doc);
+                    score = best < 0 ? -1 : score + best;
+                }
+                if (score < 0) {
+                    continue;
+                }
+                if (top.size() < limit) {
+                    top.add(new Candidate(doc, score));
+                } else if (score > top.peek().score() || (score == top.peek().score() && doc < top.peek().doc())) {
+                    top.poll();
+                    top.add(new Candidate(doc, score));
+                }
+            }
+        }
+        List<Candidate> ranked = new ArrayList<>(top);
+        ranked.sort(WORST_FIRST.reversed());
+        List<Hit> hits = new ArrayList<>(ranked.size());
+        for (Candidate candidate : ranked) {
+            hits.add(new Hit(docs[candidate.doc()], candidate.score()));
+        }
+        return hits;
+    }
+    // แหล่ง doc ของคำค้นหนึ่งคำ เรียงจากน้ำหนักมากไปน้อย
+    private Source[] sources(String token, boolean prefix) {
+        List<Source> sources = new ArrayList<>();
+        addSources(sources, titleTerms, token, prefix, TITLE_WEIGHT);
+        addSources(sources, authorTerms, token, prefix, AUTHOR_WEIGHT);
+        sources.sort(Comparator.comparingDouble((Source source) -> source.weight).reversed());
+        return sources.toArray(new Source[0]);
+    }
+
+    private void addSources(List<Source> sources, NavigableMap<String, Postings> terms, String token,
+            boolean prefix, double fieldWeight) {
+        Postings exact = terms.get(token);
+        if (exact != null && exact.size() > 0) {
+            sources.add(new Source(exact, fieldWeight * idf(exact.size())));
+        }
+        if (!prefix) {
+            return;
+        }
+        List<Postings> expansions = new ArrayList<>();
+        for (Map.Entry<String, Postings> entry : terms.subMap(token, false, token + Character.MAX_VALUE, false)
+                .entrySet()) {
+            if (entry.getValue().size() > 0) {
+                expansions.add(entry.getValue());
+            }
+        }
+        if (expansions.size() > MAX_PREFIX_EXPANSIONS) {
+            expansions.sort(Comparator.comparingInt(Postings::size).reversed());
+            expansions = expansions.subList(0, MAX_PREFIX_EXPANSIONS);
+        }
+        for (Postings postings : expansions) {
+            sources.add(new Source(postings, fieldWeight * PREFIX_WEIGHT * idf(postings.size())));
+        }
+    }
+
+    private double idf(int documentFrequency) {
+        return Math.log(1.0 + (double) liveCount / documentFrequency);
+    }
+
+    // doc ที่มีคำจาก source ก่อนหน้าถูกตรวจไปแล้วด้วยน้ำหนักที่มากกว่า
+    private boolean seenInEarlierSource(TermWeights driverWeights, int doc, int rank) {
+        for (int i = forwardStart[doc]; i < forwardStart[doc + 1]; i++) {
+            int earlier = driverWeights.rank(forwardTerms[i]);
+            if (earlier >= 0 && earlier < rank) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // น้ำหนักมากที่สุดของคำใน doc นี้ที่ตรงกับคำค้น หรือ -1 ถ้าไม่มี
+    private double bestWeight(TermWeights weights, int doc) {
+        double best = -1;
+        for (int i = forwardStart[doc]; i < forwardStart[doc + 1]; i++) {
+            best = Math.max(best, weights.get(forwardTerms[i]));
+        }
+        return best;
+    }
+
+    private static long postingsSize(Source[] sources) {
+        long size = 0;
+        for (Source source : sources) {
+            size += source.postings.size();
+        }
+        return size;
+    }
+
+    private void removeDoc(int doc) {
+        Book book = docs[doc];
+        docs[doc] = null;
+        liveCount--;
+        deadInPostings++;
+        docByIsbn.remove(book.getIsbn());
+        // doc ที่ถูกลบยังอยู่ใน postings และถูกข้ามตอนค้นหา เก็บกวาดเมื่อมีมากกว่า doc ที่ยังใช้อยู่
+        if (deadInPostings > 1024 && deadInPostings > liveCount) {
+            compact();
+        }
+    }
+
+    // ให้ doc id ใหม่ต่อเนื่องกันตามลำดับเดิม (ลำดับเมื่อคะแนนเท่ากันจึงไม่เปลี่ยน) แล้วสร้าง postings,
+    // forward index และ docs ใหม่จาก doc ที่ยังใช้อยู่ การแทนที่/ลบซ้ำๆ จึงไม่ทำให้อาร์เรย์โตไม่สิ้นสุด
+    private void compact() {
+        int[] renumber = new int[docCount];
+        int capacity = Math.max(1024, Integer.highestOneBit(Math.max(1, liveCount)) * 2);
+        Book[] liveDocs = new Book[capacity];
+        int[] liveStart = new int[capacity + 1];
+        int[] liveTerms = new int[Math.max(4096, forwardTerms.length / 2)];
+        int live = 0;
+        int end = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (docs[doc] == null) {
+                renumber[doc] = -1;
+                continue;
+            }
+            int length = forwardStart[doc + 1] - forwardStart[doc];
+            if (end + length > liveTerms.length) {
+                liveTerms = Arrays.copyOf(liveTerms, Math.max(liveTerms.length * 2, end + length));
+            }
+            System.arraycopy(forwardTerms, forwardStart[doc], liveTerms, end, length);
+            end += length;
+            renumber[doc] = live;
+            liveDocs[live] = docs[doc];
+            docByIsbn.put(docs[doc].getIsbn(), live);
+            liveStart[++live] = end;
+        }
+        titleTerms.values().removeIf(postings -> !postings.retainLive(renumber));
+        authorTerms.values().removeIf(postings -> !postings.retainLive(renumber));
+        docs = liveDocs;
+        forwardStart = liveStart;
+        forwardTerms = liveTerms;
+        docCount = live;
+        deadInPostings = 0;
+    }
+
+    // รหัสคำ -> น้ำหนักและลำดับ source ของคำค้นหนึ่งคำ (open addressing, ไม่มีการ boxing)
+    private static final class TermWeights {
+        private final int[] ids;
+        private final double[] weights;
+        private final int[] ranks;
+        private final int mask;
+
+        TermWeights(Source[] sources) {
+            int capacity = Integer.highestOneBit(Math.max(4, sources.length * 4 - 1)) * 2;
+            ids = new int[capacity];
+            weights = new double[capacity];
+            ranks = new int[capacity];
+            mask = capacity - 1;
+            Arrays.fill(ids, -1);
+            for (int rank = 0; rank < sources.length; rank++) {
+                int slot = sources[rank].postings.id & mask;
+                while (ids[slot] != -1) {
+                    slot = (slot + 1) & mask;
+                }
+                ids[slot] = sources[rank].postings.id;
+                weights[slot] = sources[rank].weight;
+                ranks[slot] = rank;
+            }
+        }
+
+        double get(int id) {
+            int slot = find(id);
+            return slot < 0 ? -1 : weights[slot];
+        }
+
+        int rank(int id) {
+            int slot = find(id);
+            return slot < 0 ? -1 : ranks[slot];
+        }
+
+        private int find(int id) {
+            int slot = id & mask;
+            while (ids[slot] != -1) {
+                if (ids[slot] == id) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+    }
+
+    private static final class Source {
+        final Postings postings;
+        final double weight;
+
+        Source(Postings postings, double weight) {
+            this.postings = postings;
+            this.weight = weight;
+        }
+    }
+}
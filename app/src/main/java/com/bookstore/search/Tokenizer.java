@@ -0,0 +1,39 @@
+package com.bookstore.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// แยกคำด้วยอักขระที่ไม่ใช่ตัวอักษร/ตัวเลข แล้วแปลงเป็นตัวพิมพ์เล็ก
+final class Tokenizer {
+
+    private Tokenizer() {
+    }
+
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && isWordChar(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // รวมสระ/วรรณยุกต์ที่เป็น combining mark (เช่น ภาษาไทย) เป็นส่วนหนึ่งของคำ
+    private static boolean isWordChar(char c) {
+        if (Character.isLetterOrDigit(c)) {
+            return true;
+        }
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+}
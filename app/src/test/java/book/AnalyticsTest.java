@@ -0,0 +1,144 @@
+package book;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.analytics.Analytics;
+import com.bookstore.analytics.BookColumns;
+import com.bookstore.analytics.OrderLineColumns;
+import com.bookstore.books.*;
+import com.bookstore.customer.Customer;
+import com.bookstore.money.Money;
+import com.bookstore.order.Order;
+import com.bookstore.order.OrderItem;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+class AnalyticsTest {
+
+    private static List<Book> books(int count) {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String author = "Author " + (i % 13);
+            BigDecimal price = BigDecimal.valueOf(1_000 + (i * 7919L) % 9_000, 2);
+            switch (i % 3) {
+                case 0:
+                    books.add(new PhysicalBook("978-" + i, "Book " + i, author, price, "100", "Paperback", "2020"));
+                    break;
+                case 1:
+                    books.add(new EBook("978-" + i, "Book " + i, author, price, "2020"));
+                    break;
+                default:
+                    books.add(new AudioBook("978-" + i, "Book " + i, author, price, "2020"));
+            }
+        }
+        return books;
+    }
+
+    // ข้อมูลมากกว่าหนึ่ง chunk เพื่อให้มีการรวมผลบางส่วนจริง
+    private static List<Order> orders(List<Book> books, int count) {
+        Customer vip = new Customer("C1", "vip", Customer.CustomerType.VIP);
+        Customer general = new Customer("C2", "general", Customer.CustomerType.GENERAL);
+        Instant start = Instant.parse("2025-03-01T10:00:00Z");
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            List<OrderItem> items = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                items.add(new OrderItem(books.get((i * 3 + j) % books.size()), 1 + (i + j) % 4));
+            }
+            orders.add(new Order(i % 3 == 0 ? vip : general, items, start.plusSeconds(3_600L * 7 * i)));
+        }
+        return orders;
+    }
+
+    private static void assertAmount(BigDecimal expected, Money actual, String message) {
+        assertNotNull(actual, message);
+        assertEquals(0, expected.compareTo(actual.toBigDecimal()), message + ": " + expected + " vs " + actual);
+    }
+
+    @Test
+    void testOrderAggregatesMatchObjectWalk() {
+        List<Book> books = books(500);
+        List<Order> orders = orders(books, 30_000);
+        OrderLineColumns columns = OrderLineColumns.of(orders, ZoneOffset.UTC);
+        assertEquals(90_000, columns.size());
+
+        Map<String, BigDecimal> revenueByType = new HashMap<>();
+        Map<String, Long> quantityByType = new HashMap<>();
+        Map<LocalDate, BigDecimal> discountByDay = new TreeMap<>();
+        BigDecimal vipRevenue = BigDecimal.ZERO;
+        for (Order order : orders) {
+            for (OrderItem item : order.getOrderItems()) {
+                revenueByType.merge(item.getBook().getBookType(), order.getLineTotalMoney(item).toBigDecimal(),
+                        BigDecimal::add);
+                quantityByType.merge(item.getBook().getBookType(), (long) item.getQuantity(), Long::sum);
+            }
+            if (order.getTotalVipDiscountApplied().signum() != 0) {
+                discountByDay.merge(order.getCreatedAt().atZone(ZoneOffset.UTC).toLocalDate(),
+                        order.getTotalVipDiscountApplied(), BigDecimal::add);
+            }
+            if (order.getCustomer().isVIP()) {
+                vipRevenue = vipRevenue.add(order.getGrandTotal());
+            }
+        }
+
+        try (Analytics analytics = new Analytics(4)) {
+            Map<String, Money> revenue = analytics.revenueByType(columns);
+            assertEquals(revenueByType.keySet(), revenue.keySet());
+            revenueByType.forEach((type, total) -> assertAmount(total, revenue.get(type), type));
+            assertEquals(quantityByType, analytics.quantityByType(columns));
+
+            Map<LocalDate, Money> discounts = analytics.vipDiscountByDay(columns);
+            assertEquals(discountByDay.keySet(), discounts.keySet());
+            discountByDay.forEach((day, total) -> assertAmount(total, discounts.get(day), day.toString()));
+
+            assertAmount(vipRevenue, analytics.revenueByCustomerType(columns).get(Customer.CustomerType.VIP), "VIP");
+        }
+    }
+
+    @Test
+    void testBookAggregatesMatchObjectWalk() {
+        List<Book> books = books(200_000);
+        BookColumns columns = BookColumns.of(books);
+
+        Map<String, List<BigDecimal>> pricesByAuthor = books.stream().collect(Collectors.groupingBy(
+                Book::getAuthor, Collectors.mapping(Book::calculatePrice, Collectors.toList())));
+        List<Book> expectedTop = books.stream()
+                .sorted(Comparator.comparing(Book::calculatePrice).reversed()).limit(25).collect(Collectors.toList());
+
+        try (Analytics analytics = new Analytics(3)) {
+            Map<String, Money> averages = analytics.averageFinalPriceByAuthor(columns);
+            assertEquals(pricesByAuthor.keySet(), averages.keySet());
+            pricesByAuthor.forEach((author, prices) -> {
+                BigDecimal sum = prices.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+                BigDecimal average = sum.divide(BigDecimal.valueOf(prices.size()), BookColumns.SCALE,
+                        RoundingMode.HALF_EVEN);
+                assertAmount(average, averages.get(author), author);
+            });
+            assertEquals(3, analytics.averageFinalPriceByType(columns).size());
+            assertEquals(expectedTop, analytics.topByFinalPrice(columns, 25));
+            assertTrue(analytics.topByFinalPrice(columns, 0).isEmpty());
+        }
+    }
+
+    @Test
+    void testEmptyColumns() {
+        OrderLineColumns lines = OrderLineColumns.of(List.of());
+        try (Analytics analytics = new Analytics(2)) {
+            assertTrue(analytics.revenueByType(lines).isEmpty());
+            assertTrue(analytics.vipDiscountByDay(lines).isEmpty());
+            assertTrue(analytics.topByFinalPrice(BookColumns.of(List.of()), 5).isEmpty());
+        }
+    }
+}
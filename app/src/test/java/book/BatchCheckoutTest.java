@@ -0,0 +1,83 @@
+package book;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.books.*;
+import com.bookstore.checkout.*;
+import com.bookstore.customer.Customer;
+import com.bookstore.order.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+class BatchCheckoutTest {
+
+    private final Book[] books = {
+            new PhysicalBook("123", "Test Physical Book", "Test Author", new BigDecimal("20.00"), "100", "Paperback", "2020"),
+            new EBook("456", "Test EBook", "Test Author", new BigDecimal("32.99"), "2020"),
+            new AudioBook("789", "Test AudioBook", "Test Author", new BigDecimal("29.95"), "2020")
+    };
+
+    @Test
+    void testLoyaltyPointsRule() {
+        Customer general = new Customer("C001", "General User", Customer.CustomerType.GENERAL);
+        Customer vip = new Customer("C002", "VIP User", Customer.CustomerType.VIP);
+        assertEquals(3, CheckoutService.loyaltyPointsFor(general, new BigDecimal("39.99")));
+        assertEquals(6, CheckoutService.loyaltyPointsFor(vip, new BigDecimal("39.99")));
+        assertEquals(0, CheckoutService.loyaltyPointsFor(vip, new BigDecimal("9.99")));
+    }
+
+    @Test
+    void testParallelBatchMatchesSequentialPricing() {
+        Customer general = new Customer("C001", "General User", Customer.CustomerType.GENERAL);
+        Customer vip = new Customer("C002", "VIP User", Customer.CustomerType.VIP);
+        List<CheckoutRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            List<OrderItem> items = List.of(new OrderItem(books[i % 3], 1 + i % 4), new OrderItem(books[(i + 1) % 3], 2));
+            requests.add(new CheckoutRequest(i % 2 == 0 ? general : vip, items));
+        }
+
+        List<CheckoutResult> results;
+        try (BatchCheckout batch = new BatchCheckout(new CheckoutService(), 8)) {
+            results = batch.checkoutAll(requests.stream());
+        }
+
+        assertEquals(requests.size(), results.size());
+        int expectedGeneralPoints = 0;
+        int expectedVipPoints = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            CheckoutRequest request = requests.get(i);
+            CheckoutResult result = results.get(i);
+            assertSame(request.customer(), result.customer(), "Results keep request order");
+            BigDecimal expected = new Order(request.customer(), request.items()).getGrandTotal();
+            assertEquals(expected, result.grandTotal());
+            assertEquals(CheckoutService.loyaltyPointsFor(request.customer(), expected), result.pointsEarned());
+            if (request.customer() == general) {
+                expectedGeneralPoints += result.pointsEarned();
+            } else {
+                expectedVipPoints += result.pointsEarned();
+            }
+        }
+        // ไม่มีแต้มหายเมื่อหลายเธรดเพิ่มแต้มให้ลูกค้าคนเดียวกัน
+        assertEquals(expectedGeneralPoints, general.getLoyaltyPoints());
+        assertEquals(expectedVipPoints, vip.getLoyaltyPoints());
+    }
+
+    @Test
+    void testStreamingResults() {
+        Customer vip = new Customer("C002", "VIP User", Customer.CustomerType.VIP);
+        Stream<CheckoutRequest> requests = IntStream.range(0, 1_000)
+                .mapToObj(i -> new CheckoutRequest(vip, List.of(new OrderItem(books[0], 1))));
+        AtomicInteger count = new AtomicInteger();
+        try (BatchCheckout batch = new BatchCheckout(new CheckoutService())) {
+            batch.checkoutEach(requests, result -> count.incrementAndGet());
+        }
+        assertEquals(1_000, count.get());
+        assertEquals(1_000 * 2, vip.getLoyaltyPoints());
+    }
+}
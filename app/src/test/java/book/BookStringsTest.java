@@ -0,0 +1,49 @@
+package book;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.books.*;
+
+import java.lang.ref.WeakReference;
+import java.math.BigDecimal;
+
+class BookStringsTest {
+
+    @Test
+    void testRepeatedAuthorAndCoverShareOneInstance() {
+        PhysicalBook first = new PhysicalBook("1", "A", new String("Same Author"), new BigDecimal("10.00"), "100",
+                new String("Hardcover"), "2001");
+        PhysicalBook second = new PhysicalBook("2", "B", new String("Same Author"), new BigDecimal("12.00"), "200",
+                new String("Hardcover"), "2002");
+        assertSame(first.getAuthor(), second.getAuthor());
+        assertSame(first.getCoverType(), second.getCoverType());
+    }
+
+    @Test
+    void testYearAndPagesAreStoredAsNumbers() {
+        PhysicalBook book = new PhysicalBook("1", "A", "Author", new BigDecimal("10.00"), " 320 ", "Paperback", "1997");
+        assertEquals(1997, book.getPublishYearValue());
+        assertEquals("1997", book.getPublishYear());
+        assertEquals(320, book.getPageNumberValue());
+        assertEquals("320", book.getPageNumber());
+        assertSame(book.getPublishYear(), BookStrings.numberString(1997));
+    }
+
+    @Test
+    void testNonNumericYearIsRejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new EBook("1", "A", "Author", new BigDecimal("10.00"), "unknown"));
+        assertTrue(e.getMessage().contains("publish year"));
+    }
+
+    @Test
+    void testUnusedValuesAreNotKeptAlive() throws InterruptedException {
+        WeakReference<String> author = new WeakReference<>(BookStrings.canonical(new String("Forgotten Author 42")));
+        for (int i = 0; i < 50 && author.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(author.get());
+    }
+}
@@ -0,0 +1,102 @@
+package book;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.books.*;
+import com.bookstore.catalog.Catalog;
+import com.bookstore.customer.Customer;
+import com.bookstore.pricing.CompiledPricing;
+import com.bookstore.pricing.PricingEngine;
+import com.bookstore.recommend.FullScanRecommender;
+import com.bookstore.recommend.RecommendationIndex;
+
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+class BookTypeTest {
+
+    @AfterEach
+    void restoreDefaults() {
+        PricingEngine.reset();
+    }
+
+    private static List<Book> books() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            String isbn = "978-" + i;
+            BigDecimal price = BigDecimal.valueOf(1_000 + i * 17L, 2);
+            switch (i % 3) {
+                case 0 -> books.add(new PhysicalBook(isbn, "P" + i, "A", price, "100", "Paperback", "2020"));
+                case 1 -> books.add(new EBook(isbn, "E" + i, "A", price, "2020"));
+                default -> books.add(new AudioBook(isbn, "B" + i, "A", price, "2020"));
+            }
+        }
+        return books;
+    }
+
+    @Test
+    void testTypesAndLabels() {
+        assertEquals(BookType.PHYSICAL, books().get(0).getType());
+        assertEquals(BookType.EBOOK, books().get(1).getType());
+        assertEquals(BookType.AUDIO, books().get(2).getType());
+        for (Book book : books()) {
+            assertEquals(book.getType().label(), book.getBookType());
+            assertEquals(Optional.of(book.getType()), BookType.fromLabel(book.getBookType()));
+        }
+        assertEquals(Optional.empty(), BookType.fromLabel("Unknown"));
+        assertEquals(Optional.empty(), BookType.fromLabel(null));
+    }
+
+    @Test
+    void testHierarchyIsClosed() {
+        assertTrue(Book.class.isSealed());
+        Set<Class<?>> permitted = Arrays.stream(Book.class.getPermittedSubclasses()).collect(Collectors.toSet());
+        assertEquals(Set.of(PhysicalBook.class, EBook.class, AudioBook.class), permitted);
+        for (Class<?> type : permitted) {
+            assertTrue(Modifier.isFinal(type.getModifiers()), type.getName());
+        }
+    }
+
+    @Test
+    void testEnumLookupMatchesLabelLookup() {
+        EBook.setDiscountRate(new BigDecimal("0.20"));
+        CompiledPricing pricing = PricingEngine.active();
+        for (BookType type : BookType.values()) {
+            for (Customer.CustomerType customerType : Customer.CustomerType.values()) {
+                assertSame(pricing.pipeline(type.label(), customerType), pricing.pipeline(type, customerType));
+            }
+        }
+        assertEquals(0, new BigDecimal("8.00").compareTo(
+                new EBook("978-1", "E", "A", new BigDecimal("10.00"), "2020").calculatePrice()));
+    }
+
+    @Test
+    void testEnumGroupingMatchesLabelGrouping() {
+        List<Book> books = books();
+        Map<BookType, Book> byType = FullScanRecommender.highestPricedByBookType(books);
+        assertEquals(List.of(BookType.values()), new ArrayList<>(byType.keySet()));
+        assertEquals("978-29", byType.get(BookType.AUDIO).getIsbn());
+
+        RecommendationIndex index = new RecommendationIndex(books);
+        assertEquals(byType, index.highestPricedByBookType());
+        assertEquals(FullScanRecommender.highestPricedByType(books), index.highestPricedByType());
+        assertEquals(index.topByType(BookType.EBOOK, 3), index.topByType("EBook", 3));
+        assertTrue(index.topByType("Unknown", 3).isEmpty());
+
+        Catalog catalog = new Catalog();
+        catalog.addAll(books);
+        assertEquals(10, catalog.findByType(BookType.PHYSICAL).size());
+        assertEquals(catalog.findByType(BookType.AUDIO).size(), catalog.findByType("AudioBook").size());
+        assertTrue(catalog.findByType("Unknown").isEmpty());
+        assertEquals(Set.of("PhysicalBook", "EBook", "AudioBook"), catalog.bookTypes());
+    }
+}
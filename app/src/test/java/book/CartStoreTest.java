@@ -0,0 +1,85 @@
+package book;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.books.*;
+import com.bookstore.order.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class CartStoreTest {
+
+    private final PhysicalBook physicalBook = new PhysicalBook("123", "Test Physical Book", "Test Author",
+            new BigDecimal("20.00"), "100", "Paperback", "2020");
+    private final EBook ebook = new EBook("456", "Test EBook", "Test Author", new BigDecimal("20.00"), "2020");
+
+    @Test
+    void testDuplicateIsbnLinesAreMerged() {
+        ShoppingCart cart = new ShoppingCart();
+        cart.addItem(new OrderItem(physicalBook, 2));
+        cart.addItem(new OrderItem(ebook, 1));
+        cart.addItem(new OrderItem(physicalBook, 3));
+
+        List<OrderItem> items = cart.getItems();
+        assertEquals(2, items.size());
+        assertSame(physicalBook, items.get(0).getBook(), "Merged line keeps its original position");
+        assertEquals(5, items.get(0).getQuantity());
+        assertEquals(0, cart.calculateSubTotalBeforeVipDiscount().compareTo(new BigDecimal("118.00")));
+    }
+
+    @Test
+    void testUpdateQuantityAndRemove() {
+        ShoppingCart cart = new ShoppingCart();
+        cart.addItem(new OrderItem(physicalBook, 2));
+        assertTrue(cart.updateQuantity("123", 7));
+        assertEquals(7, cart.getItem("123").getQuantity());
+        assertFalse(cart.updateQuantity("456", 1), "Missing ISBN cannot be updated");
+        assertTrue(cart.updateQuantity("123", 0));
+        assertTrue(cart.isEmpty());
+        assertFalse(cart.removeItem("123"));
+    }
+
+    @Test
+    void testCartsAreKeptPerCustomer() {
+        CartStore store = new CartStore();
+        store.addItem("C001", new OrderItem(physicalBook, 1));
+        store.addItem("C002", new OrderItem(ebook, 2));
+        assertSame(store.cartFor("C001"), store.cartFor("C001"));
+        assertEquals(1, store.cartFor("C001").getItems().size());
+        assertTrue(store.updateQuantity("C002", "456", 4));
+        assertEquals(4, store.cartFor("C002").getItem("456").getQuantity());
+        assertTrue(store.removeCart("C001").isPresent());
+        assertTrue(store.findCart("C001").isEmpty());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testConcurrentAddsToSharedCartAreNotLost() throws Exception {
+        CartStore store = new CartStore();
+        int threads = 64;
+        int addsPerThread = 200;
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < addsPerThread; i++) {
+                        store.addItem("C001", new OrderItem(i % 2 == 0 ? physicalBook : ebook, 1));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        ShoppingCart cart = store.cartFor("C001");
+        assertEquals(2, cart.getItems().size());
+        assertEquals(threads * addsPerThread / 2, cart.getItem("123").getQuantity());
+        assertEquals(threads * addsPerThread / 2, cart.getItem("456").getQuantity());
+    }
+}
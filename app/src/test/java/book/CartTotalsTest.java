@@ -0,0 +1,212 @@
+package book;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.books.*;
+import com.bookstore.customer.Customer;
+import com.bookstore.money.Money;
+import com.bookstore.order.Order;
+import com.bookstore.order.OrderItem;
+import com.bookstore.order.ShoppingCart;
+import com.bookstore.pricing.PricingEngine;
+import com.bookstore.pricing.PricingRule;
+import com.bookstore.pricing.PricingRules;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class CartTotalsTest {
+
+    // ทศนิยมหลายแบบ เพื่อให้ scale ของยอดรวมเปลี่ยนเมื่อเพิ่มหรือลบบรรทัด
+    private static final String[] PRICES = { "10", "12.5", "49.99", "7.125", "100.00", "0.3333", "19.9" };
+
+    @AfterEach
+    void restoreDefaults() {
+        PricingEngine.reset();
+    }
+
+    private static Book book(int i, Random random) {
+        String isbn = String.format("978-%010d", i);
+        BigDecimal price = new BigDecimal(PRICES[random.nextInt(PRICES.length)]);
+        switch (i % 3) {
+            case 0:
+                return new PhysicalBook(isbn, "Book " + i, "Author", price, "300", "Paperback", "2020");
+            case 1:
+                return new EBook(isbn, "Book " + i, "Author", price, "2020");
+            default:
+                return new AudioBook(isbn, "Book " + i, "Author", price, "2020");
+        }
+    }
+
+    // คิดใหม่ทั้งตะกร้าแบบเดิม แล้วเทียบกับยอดสะสม ทั้งค่าและ scale ของ BigDecimal
+    private static void assertMatchesFullRecompute(ShoppingCart cart, String step) {
+        assertMatchesFullRecompute(cart, step, null);
+    }
+
+    private static void assertMatchesFullRecompute(ShoppingCart cart, String step, Customer.CustomerType skippedTier) {
+        List<OrderItem> items = cart.getItems();
+        Money subTotal = Money.ZERO;
+        for (OrderItem item : items) {
+            subTotal = subTotal.plus(item.getLineItemTotalMoney());
+        }
+        assertEquals(subTotal.toBigDecimal(), cart.calculateSubTotalBeforeVipDiscount(), step);
+        for (BookType type : BookType.values()) {
+            Money typeTotal = Money.ZERO;
+            for (OrderItem item : items) {
+                if (item.getBook().getType() == type) {
+                    typeTotal = typeTotal.plus(item.getLineItemTotalMoney());
+                }
+            }
+            assertEquals(typeTotal.toBigDecimal(), cart.subTotal(type), step + " " + type);
+        }
+        for (Customer.CustomerType tier : Customer.CustomerType.values()) {
+            if (tier == skippedTier) {
+                continue;
+            }
+            Customer customer = new Customer("C", "c", tier);
+            assertEquals(new Order(customer, items).getGrandTotal(), cart.projectedTotal(tier), step + " " + tier);
+        }
+    }
+
+    @Test
+    void testRandomChangesMatchFullRecompute() {
+        Random random = new Random(24);
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            books.add(book(i, random));
+        }
+        ShoppingCart cart = new ShoppingCart();
+        assertMatchesFullRecompute(cart, "empty");
+        for (int step = 0; step < 3_000; step++) {
+            Book book = books.get(random.nextInt(books.size()));
+            int action = random.nextInt(20);
+            if (action < 8) {
+                cart.addItem(new OrderItem(book, 1 + random.nextInt(12)));
+            } else if (action < 12) {
+                cart.updateQuantity(book.getIsbn(), random.nextInt(15) - 2);
+            } else if (action < 16) {
+                cart.removeItem(book.getIsbn());
+            } else if (action < 18) {
+                book.setBasePrice(new BigDecimal(PRICES[random.nextInt(PRICES.length)]));
+            } else if (action == 18) {
+                PricingEngine.install(PricingRules.defaults()
+                        .with(new PricingRule.TierDiscount(Customer.CustomerType.VIP,
+                                BigDecimal.valueOf(random.nextInt(30), 2)))
+                        .with(new PricingRule.QuantityBreak(null, 2 + random.nextInt(8), new BigDecimal("0.05"))));
+            } else if (random.nextInt(10) == 0) {
+                cart.clearCart();
+            }
+            assertMatchesFullRecompute(cart, "step " + step);
+        }
+    }
+
+    @Test
+    void testViewsFollowRuleAndPriceChanges() {
+        Book ebook = new EBook("978-1", "E", "A", new BigDecimal("100.00"), "2020");
+        Book audio = new AudioBook("978-2", "B", "A", new BigDecimal("20"), "2020");
+        ShoppingCart cart = new ShoppingCart();
+        cart.addItem(new OrderItem(ebook, 1));
+        cart.addItem(new OrderItem(audio, 2));
+        // EBook 90.00 + AudioBook 21.00 x 2
+        assertEquals(0, new BigDecimal("132.00").compareTo(cart.calculateSubTotalBeforeVipDiscount()));
+        assertEquals(0, new BigDecimal("90.00").compareTo(cart.subTotal(BookType.EBOOK)));
+        assertEquals(0, BigDecimal.ZERO.compareTo(cart.subTotal(BookType.PHYSICAL)));
+        assertEquals(0, new BigDecimal("112.20").compareTo(cart.projectedTotal(Customer.CustomerType.VIP)));
+
+        ebook.setBasePrice(new BigDecimal("200.00"));
+        assertEquals(0, new BigDecimal("180.00").compareTo(cart.subTotal(BookType.EBOOK)));
+        PricingEngine.install(PricingRules.defaults().withTypeAdjustment("EBook", BigDecimal.ZERO));
+        assertEquals(0, new BigDecimal("242.00").compareTo(cart.calculateSubTotalBeforeVipDiscount()));
+
+        assertTrue(cart.updateQuantity("978-2", 0));
+        assertFalse(cart.removeItem("978-2"));
+        assertEquals(1, cart.size());
+        cart.clearCart();
+        assertEquals(BigDecimal.ZERO, cart.calculateSubTotalBeforeVipDiscount());
+        assertEquals(BigDecimal.ZERO, cart.projectedTotal(Customer.CustomerType.GOLD));
+    }
+
+    @Test
+    void testOverflowingTierDoesNotBreakTheCart() {
+        // ส่วนลด VIP ทศนิยม 8 หลัก ทำให้ยอดของ VIP เกินช่วง long ขณะที่ยอดก่อนส่วนลดยังอยู่ในช่วง
+        PricingEngine.install(PricingRules.defaults()
+                .with(new PricingRule.TierDiscount(Customer.CustomerType.VIP, new BigDecimal("0.12345678"))));
+        Book ebook = new EBook("978-1", "E", "A", new BigDecimal("100000000.00"), "2020");
+        Book audio = new AudioBook("978-2", "B", "A", new BigDecimal("20"), "2020");
+        ShoppingCart cart = new ShoppingCart();
+        cart.addItem(new OrderItem(audio, 1));
+        cart.addItem(new OrderItem(ebook, 5_000));
+        assertTrue(cart.updateQuantity("978-1", 10_000));
+        assertThrows(ArithmeticException.class, () -> cart.projectedTotal(Customer.CustomerType.VIP));
+        assertMatchesFullRecompute(cart, "without VIP", Customer.CustomerType.VIP);
+
+        cart.addItem(new OrderItem(audio, 1));
+        assertEquals(2, cart.getItem("978-2").getQuantity());
+        assertTrue(cart.removeItem("978-1"));
+        assertMatchesFullRecompute(cart, "after removing the large line", null);
+    }
+
+    @Test
+    void testOverflowingChangeLeavesLinesAndTotalsUnchanged() {
+        // EBook 90,000,000.0000 x 6,000,000 อยู่ในช่วง long แต่สองบรรทัดรวมกันเกิน
+        Book first = new EBook("978-1", "E1", "A", new BigDecimal("100000000.00"), "2020");
+        Book second = new EBook("978-2", "E2", "A", new BigDecimal("100000000.00"), "2020");
+        Book audio = new AudioBook("978-3", "B", "A", new BigDecimal("20"), "2020");
+        ShoppingCart cart = new ShoppingCart();
+        cart.addItem(new OrderItem(first, 6_000_000));
+        BigDecimal before = cart.calculateSubTotalBeforeVipDiscount();
+
+        assertThrows(ArithmeticException.class, () -> cart.addItem(new OrderItem(second, 6_000_000)));
+        assertNull(cart.getItem("978-2"));
+        assertEquals(1, cart.size());
+        assertEquals(before, cart.calculateSubTotalBeforeVipDiscount());
+        assertEquals(before, cart.subTotal(BookType.EBOOK));
+
+        cart.addItem(new OrderItem(second, 1));
+        assertThrows(ArithmeticException.class, () -> cart.updateQuantity("978-2", 6_000_000));
+        assertEquals(1, cart.getItem("978-2").getQuantity());
+        assertTrue(cart.removeItem("978-1"));
+        cart.addItem(new OrderItem(audio, 2));
+        assertMatchesFullRecompute(cart, "after the failed changes");
+    }
+
+    @Test
+    void testConcurrentChangesToOneCartKeepTotalsConsistent() throws Exception {
+        Random random = new Random(5);
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            books.add(book(i, random));
+        }
+        ShoppingCart cart = new ShoppingCart();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int seed = t;
+            threads.add(Thread.ofPlatform().start(() -> {
+                Random own = new Random(seed);
+                for (int step = 0; step < 5_000; step++) {
+                    Book book = books.get(own.nextInt(books.size()));
+                    int action = own.nextInt(10);
+                    if (action < 5) {
+                        cart.addItem(new OrderItem(book, 1 + own.nextInt(5)));
+                    } else if (action < 7) {
+                        cart.updateQuantity(book.getIsbn(), own.nextInt(6));
+                    } else if (action < 9) {
+                        cart.removeItem(book.getIsbn());
+                    } else {
+                        // ราคาที่เปลี่ยนระหว่างที่เธรดอื่นเพิ่มเล่มเดียวกัน ต้องถูกคิดใหม่ในการอ่านครั้งถัดไป
+                        book.setBasePrice(new BigDecimal(PRICES[own.nextInt(PRICES.length)]));
+                        cart.projectedTotal(Customer.CustomerType.GOLD);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertMatchesFullRecompute(cart, "after concurrent changes");
+    }
+}
@@ -0,0 +1,97 @@
+package book;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.books.*;
+import com.bookstore.catalog.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+class CatalogImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCsvImportSkipsMalformedRows() throws IOException {
+        Path file = tempDir.resolve("catalog.csv");
+        Files.writeString(file, String.join("\r\n",
+                "isbn,title,author,price,type,pages,cover,year",
+                "978-0684832722,The Sovereign Individual,James Dale Davidson,59.99,PhysicalBook,320,Hardcover,1997",
+                "978-1098150097,\"Bitcoin, for \"\"Everyone\"\"\",Andreas M. Antonopoulos,32.99,EBook,,,2020",
+                "978-1098150110,Bitcoin: The Future of Money,Andreas M. Antonopoulos,abc,AudioBook,,,2020",
+                "978-0000000000,Too few columns,Nobody",
+                "",
+                "978-1544526488,The Fiat Standard,Saifedean Ammous,39.95,AudioBook,,,2021"), StandardCharsets.UTF_8);
+
+        // chunk และ batch ขนาดเล็กเพื่อให้บรรทัดคร่อมหลาย chunk/batch
+        Catalog catalog = new Catalog();
+        List<Book> imported = new ArrayList<>();
+        ImportReport report = new CatalogImporter(3, 16, 2).importFile(file, CatalogImporter.Format.CSV, books -> {
+            imported.addAll(books);
+            catalog.addAll(books);
+        });
+
+        assertEquals(5, report.rowsRead());
+        assertEquals(3, report.booksImported());
+        assertEquals(2, report.malformedRows());
+        assertEquals(4, report.errors().get(0).lineNumber());
+        assertEquals(5, report.errors().get(1).lineNumber());
+        assertEquals(List.of("978-0684832722", "978-1098150097", "978-1544526488"),
+                imported.stream().map(Book::getIsbn).toList(), "Books arrive in file order");
+
+        Book ebook = catalog.findByIsbn("978-1098150097").orElseThrow();
+        assertEquals("Bitcoin, for \"Everyone\"", ebook.getTitle());
+        assertTrue(ebook instanceof EBook);
+        PhysicalBook physicalBook = (PhysicalBook) catalog.findByIsbn("978-0684832722").orElseThrow();
+        assertEquals("Hardcover", physicalBook.getCoverType());
+        assertEquals(0, physicalBook.getBasePrice().compareTo(new BigDecimal("59.99")));
+    }
+
+    @Test
+    void testPricesMoneyCannotHoldAreMalformed() throws IOException {
+        Path file = tempDir.resolve("catalog.csv");
+        Files.writeString(file, String.join("\n",
+                "978-0684832722,The Sovereign Individual,James Dale Davidson,59.99,PhysicalBook,320,Hardcover,1997",
+                "978-1098150097,Bitcoin for Everyone,Andreas M. Antonopoulos,99999999999999999999,EBook,,,2020",
+                "978-1544526488,The Fiat Standard,Saifedean Ammous,0.0000000000000000001,AudioBook,,,2021"),
+                StandardCharsets.UTF_8);
+
+        Catalog catalog = new Catalog();
+        ImportReport report = new CatalogImporter().importFile(file, CatalogImporter.Format.CSV, catalog::addAll);
+
+        assertEquals(1, report.booksImported());
+        assertEquals(2, report.malformedRows());
+        assertEquals(1, catalog.size());
+        assertTrue(catalog.findByIsbn("978-1544526488").isEmpty());
+    }
+
+    @Test
+    void testJsonLinesImport() throws IOException {
+        Path file = tempDir.resolve("catalog.jsonl");
+        Files.writeString(file, String.join("\n",
+                "{\"isbn\":\"978-1491954386\",\"title\":\"Mastering Bitcoin\",\"author\":\"Andreas M. Antonopoulos\",\"price\":47.50,\"type\":\"PhysicalBook\",\"pages\":\"300\",\"cover\":\"Paperback\",\"year\":2017}",
+                "{\"isbn\":\"978-1492054863\",\"title\":\"Mastering the \\\"Lightning\\\" Network\",\"author\":\"Andreas M. Antonopoulos\",\"price\":\"39.99\",\"type\":\"EBook\",\"year\":\"2018\"}",
+                "{\"isbn\":\"978-1099876550\",\"title\":\"Broken\"",
+                "{\"isbn\":\"978-1099876551\",\"title\":\"Unknown type\",\"author\":\"Various Authors\",\"price\":1,\"type\":\"Scroll\",\"year\":\"2025\"}"),
+                StandardCharsets.UTF_8);
+
+        Catalog catalog = new Catalog();
+        ImportReport report = new CatalogImporter().importInto(file, catalog);
+
+        assertEquals(4, report.rowsRead());
+        assertEquals(2, catalog.size());
+        assertEquals(2, report.malformedRows());
+        assertEquals("Mastering the \"Lightning\" Network", catalog.findByIsbn("978-1492054863").orElseThrow().getTitle());
+        assertEquals("2017", catalog.findByIsbn("978-1491954386").orElseThrow().getPublishYear());
+        assertTrue(report.errors().get(1).message().contains("Unknown book type"));
+    }
+}
@@ -0,0 +1,153 @@
+package book;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.books.*;
+import com.bookstore.catalog.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+class CatalogPagingTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Book book(int i) {
+        String isbn = String.format("978-%010d", i);
+        String author = "Author " + i % 7;
+        String year = String.valueOf(2000 + i % 5);
+        BigDecimal price = BigDecimal.valueOf(1_000 + (i * 37L) % 500, 2); // ราคาซ้ำกันหลายเล่ม
+        switch (i % 3) {
+            case 0:
+                return new PhysicalBook(isbn, "Book " + i, author, price, "300", "Paperback", year);
+            case 1:
+                return new EBook(isbn, "Book " + i, author, price, year);
+            default:
+                return new AudioBook(isbn, "Book " + i, author, price, year);
+        }
+    }
+
+    private static Catalog catalog(int count) {
+        Catalog catalog = new Catalog();
+        // เพิ่มแบบไม่เรียง ISBN เพื่อให้ลำดับของหน้าไม่ได้มาจากลำดับการเพิ่ม
+        for (int i = count - 1; i >= 0; i--) {
+            catalog.add(book(i));
+        }
+        return catalog;
+    }
+
+    private static List<String> allPages(Catalog catalog, CatalogOrder order, BookFilter filter, int limit) {
+        List<String> isbns = new ArrayList<>();
+        PageCursor after = null;
+        while (true) {
+            BookPage page = catalog.page(order, filter, after, limit);
+            assertTrue(page.books().size() <= limit);
+            page.books().forEach(book -> isbns.add(book.getIsbn()));
+            if (page.next().isEmpty()) {
+                return isbns;
+            }
+            // ส่งผ่านรูปแบบข้อความเหมือนที่ client ของ HTTP ทำ
+            after = PageCursor.parse(page.next().get().token());
+        }
+    }
+
+    private static List<String> expected(Catalog catalog, Comparator<Book> order, BookFilter filter) {
+        return catalog.books().stream().filter(filter::matches).sorted(order)
+                .map(Book::getIsbn).collect(Collectors.toList());
+    }
+
+    @Test
+    void testIsbnPagesCoverCatalogInOrder() {
+        Catalog catalog = catalog(1_000);
+        List<String> isbns = allPages(catalog, CatalogOrder.ISBN, BookFilter.ANY, 37);
+        assertEquals(expected(catalog, Comparator.comparing(Book::getIsbn), BookFilter.ANY), isbns);
+
+        BookPage last = catalog.page(CatalogOrder.ISBN, BookFilter.ANY, new PageCursor(null, "978-0000000998"), 5);
+        assertEquals(1, last.books().size());
+        assertEquals(Optional.empty(), last.next());
+        assertThrows(IllegalArgumentException.class,
+                () -> catalog.page(CatalogOrder.ISBN, BookFilter.ANY, null, 0));
+    }
+
+    @Test
+    void testPriceOrderBreaksTiesByIsbn() {
+        Catalog catalog = catalog(1_000);
+        Comparator<Book> byPrice = Comparator.comparing(Book::calculatePrice).thenComparing(Book::getIsbn);
+        assertEquals(expected(catalog, byPrice, BookFilter.ANY),
+                allPages(catalog, CatalogOrder.PRICE, BookFilter.ANY, 10));
+
+        BookFilter ebooks2003 = BookFilter.ANY.withType("EBook").withYear("2003");
+        assertEquals(expected(catalog, byPrice, ebooks2003), allPages(catalog, CatalogOrder.PRICE, ebooks2003, 7));
+        assertThrows(IllegalArgumentException.class, () -> catalog.page(CatalogOrder.PRICE, BookFilter.ANY,
+                new PageCursor(null, "978-0000000001"), 10), "ISBN cursor used for price order");
+    }
+
+    @Test
+    void testFiltersUseSecondaryIndexes() {
+        Catalog catalog = catalog(1_000);
+        Comparator<Book> byIsbn = Comparator.comparing(Book::getIsbn);
+        for (BookFilter filter : List.of(BookFilter.ANY.withAuthor("Author 3"),
+                BookFilter.ANY.withType("AudioBook").withAuthor("Author 1"),
+                BookFilter.ANY.withYear("2004").withType("PhysicalBook"),
+                BookFilter.ANY.withAuthor("Nobody"))) {
+            assertEquals(expected(catalog, byIsbn, filter), allPages(catalog, CatalogOrder.ISBN, filter, 11),
+                    filter.toString());
+        }
+    }
+
+    @Test
+    void testCursorSurvivesChangesBetweenPages() {
+        Catalog catalog = catalog(10);
+        BookPage first = catalog.page(CatalogOrder.ISBN, BookFilter.ANY, null, 4);
+        PageCursor after = first.next().orElseThrow();
+        catalog.remove(after.isbn()); // ลบเล่มที่เป็น cursor ไปแล้ว หน้าถัดไปยังเริ่มต่อได้ถูกที่
+        catalog.add(book(1)); // เพิ่มซ้ำในช่วงที่อ่านไปแล้ว ไม่ทำให้หน้าถัดไปซ้ำ
+        BookPage second = catalog.page(CatalogOrder.ISBN, BookFilter.ANY, after, 4);
+        assertEquals("978-0000000004", second.books().get(0).getIsbn());
+    }
+
+    @Test
+    void testStreamIsLazy() {
+        Catalog catalog = catalog(10_000);
+        List<String> firstThree = catalog.stream(CatalogOrder.PRICE, BookFilter.ANY.withType("EBook"))
+                .limit(3).map(Book::getIsbn).collect(Collectors.toList());
+        assertEquals(3, firstThree.size());
+        assertEquals(catalog.findByType("EBook").size(),
+                catalog.stream(CatalogOrder.ISBN, BookFilter.ANY.withType("EBook")).count());
+    }
+
+    @Test
+    void testSnapshotPagesMatchCatalog() throws IOException {
+        Catalog catalog = catalog(500);
+        Path file = tempDir.resolve("catalog.snap");
+        CatalogSnapshot.write(catalog.books(), file);
+        BookFilter filter = BookFilter.ANY.withAuthor("Author 2");
+
+        try (MappedCatalog snapshot = MappedCatalog.open(file)) {
+            for (BookFilter f : List.of(BookFilter.ANY, filter)) {
+                List<String> isbns = new ArrayList<>();
+                PageCursor after = null;
+                do {
+                    BookPage page = snapshot.page(f, after, 13);
+                    page.books().forEach(book -> isbns.add(book.getIsbn()));
+                    after = page.next().orElse(null);
+                } while (after != null);
+                assertEquals(allPages(catalog, CatalogOrder.ISBN, f, 13), isbns);
+            }
+            assertEquals(List.of("978-0000000002", "978-0000000009"),
+                    snapshot.stream(filter).limit(2).map(Book::getIsbn).collect(Collectors.toList()));
+            assertEquals("978-0000000101",
+                    snapshot.page(BookFilter.ANY, new PageCursor(null, "978-0000000100x"), 1).books().get(0).getIsbn(),
+                    "Cursor between two ISBNs");
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package book;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.books.*;
+import com.bookstore.catalog.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+class CatalogSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSnapshotRoundTrip() throws IOException {
+        List<Book> books = List.of(
+                new PhysicalBook("978-1544526474", "The Bitcoin Standard", "Saifedean Ammous",
+                        new BigDecimal("49.99"), "400", "Hardcover", "2018"),
+                new EBook("978-1098150097", "Bitcoin for Everyone", "Andreas M. Antonopoulos",
+                        new BigDecimal("32.99"), "2020"),
+                new AudioBook("978-1099876550", "The Bitcoin Enlightenment (2025, Co-Authored)", "Various Authors",
+                        new BigDecimal("37.950"), "2025"));
+        Path file = tempDir.resolve("catalog.snap");
+        CatalogSnapshot.write(books, file);
+
+        try (MappedCatalog snapshot = MappedCatalog.open(file)) {
+            assertEquals(3, snapshot.size());
+            List<String> isbns = new ArrayList<>();
+            snapshot.forEach(book -> isbns.add(book.getIsbn()));
+            assertEquals(List.of("978-1098150097", "978-1099876550", "978-1544526474"), isbns);
+
+            PhysicalBook physicalBook = (PhysicalBook) snapshot.findByIsbn("978-1544526474").orElseThrow();
+            assertEquals("The Bitcoin Standard", physicalBook.getTitle());
+            assertEquals("Saifedean Ammous", physicalBook.getAuthor());
+            assertEquals("400", physicalBook.getPageNumber());
+            assertEquals("Hardcover", physicalBook.getCoverType());
+            assertEquals("2018", physicalBook.getPublishYear());
+
+            Book audiobook = snapshot.findByIsbn("978-1099876550").orElseThrow();
+            assertTrue(audiobook instanceof AudioBook);
+            assertEquals(new BigDecimal("37.950"), audiobook.getBasePrice(), "Price keeps its scale");
+            assertEquals(books.get(2).calculatePrice(), audiobook.calculatePrice());
+            assertTrue(snapshot.findByIsbn("978-0000000000").isEmpty());
+        }
+    }
+
+    @Test
+    void testRejectsOtherFiles() throws IOException {
+        Path file = tempDir.resolve("not-a-snapshot.snap");
+        Files.write(file, new byte[64]);
+        assertThrows(IOException.class, () -> MappedCatalog.open(file));
+    }
+}
@@ -0,0 +1,89 @@
+package book;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.books.*;
+import com.bookstore.catalog.Catalog;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+class CatalogTest {
+
+    private Catalog catalog;
+    private PhysicalBook bitcoinStandard;
+    private EBook lightningEbook;
+    private AudioBook fiatAudio;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new Catalog();
+        bitcoinStandard = new PhysicalBook("978-1544526474", "The Bitcoin Standard", "Saifedean Ammous",
+                new BigDecimal("49.99"), "400", "Hardcover", "2018");
+        lightningEbook = new EBook("978-1492054863", "Mastering the Lightning Network", "Andreas M. Antonopoulos",
+                new BigDecimal("39.99"), "2018");
+        fiatAudio = new AudioBook("978-1544526488", "The Fiat Standard", "Saifedean Ammous",
+                new BigDecimal("39.95"), "2021");
+        catalog.add(bitcoinStandard);
+        catalog.add(lightningEbook);
+        catalog.add(fiatAudio);
+    }
+
+    @Test
+    void testLookupByIsbn() {
+        assertSame(lightningEbook, catalog.findByIsbn("978-1492054863").orElseThrow());
+        assertTrue(catalog.findByIsbn("000-0000000000").isEmpty());
+        assertEquals(3, catalog.size());
+    }
+
+    @Test
+    void testSecondaryIndexes() {
+        assertEquals(2, catalog.findByAuthor("Saifedean Ammous").size());
+        assertEquals(1, catalog.findByType("EBook").size());
+        assertEquals(2, catalog.findByYear("2018").size());
+        assertTrue(catalog.findByAuthor("Nobody").isEmpty());
+    }
+
+    @Test
+    void testPriceRangeIsSortedByFinalPrice() {
+        // EBook 35.991, AudioBook 41.9475, PhysicalBook 49.99
+        List<Book> books = catalog.findByPriceRange(new BigDecimal("30"), new BigDecimal("50"));
+        assertEquals(List.of(lightningEbook, fiatAudio, bitcoinStandard), books);
+        assertEquals(List.of(fiatAudio), catalog.findByPriceRange(new BigDecimal("40"), new BigDecimal("45")));
+    }
+
+    @Test
+    void testReplaceAndRemoveKeepIndexesConsistent() {
+        EBook repriced = new EBook("978-1492054863", "Mastering the Lightning Network", "Andreas M. Antonopoulos",
+                new BigDecimal("19.99"), "2018");
+        catalog.add(repriced);
+        assertEquals(3, catalog.size());
+        assertEquals(List.of(repriced), catalog.findByPriceRange(BigDecimal.ZERO, new BigDecimal("20")));
+
+        assertSame(repriced, catalog.remove("978-1492054863").orElseThrow());
+        assertTrue(catalog.findByType("EBook").isEmpty());
+        assertFalse(catalog.bookTypes().contains("EBook"));
+        assertEquals(1, catalog.findByYear("2018").size());
+    }
+
+    @Test
+    void testDirectBasePriceChangeLeavesNoStalePriceEntry() {
+        // เปลี่ยนราคาโดยไม่ผ่าน Catalog ดัชนีราคาต้องตามทันตอนอ่าน และลบเล่มออกได้ด้วยราคาที่เคยใช้เป็นคีย์
+        lightningEbook.setBasePrice(new BigDecimal("9.99"));
+        assertEquals(List.of(lightningEbook), catalog.findByPriceRange(BigDecimal.ZERO, new BigDecimal("20")));
+        assertEquals(List.of(fiatAudio, bitcoinStandard),
+                catalog.findByPriceRange(new BigDecimal("20"), new BigDecimal("100")));
+
+        fiatAudio.setBasePrice(new BigDecimal("5.00"));
+        assertTrue(catalog.remove("978-1544526488").isPresent());
+        assertEquals(List.of(lightningEbook, bitcoinStandard),
+                catalog.findByPriceRange(BigDecimal.ZERO, new BigDecimal("100")));
+
+        bitcoinStandard.setBasePrice(new BigDecimal("1.00"));
+        assertTrue(catalog.updateBasePrice("978-1544526474", new BigDecimal("60.00")));
+        assertEquals(List.of(lightningEbook, bitcoinStandard),
+                catalog.findByPriceRange(BigDecimal.ZERO, new BigDecimal("100")));
+    }
+}
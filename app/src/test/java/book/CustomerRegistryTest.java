@@ -0,0 +1,139 @@
+package book;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.books.*;
+import com.bookstore.checkout.CheckoutService;
+import com.bookstore.customer.Customer;
+import com.bookstore.customer.CustomerRegistry;
+import com.bookstore.order.Order;
+import com.bookstore.order.OrderItem;
+import com.bookstore.pricing.PricingEngine;
+import com.bookstore.pricing.PricingRule;
+import com.bookstore.pricing.PricingRules;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class CustomerRegistryTest {
+
+    @AfterEach
+    void restoreDefaults() {
+        PricingEngine.reset();
+    }
+
+    @Test
+    void testLookupByIdAndUsername() {
+        CustomerRegistry registry = new CustomerRegistry();
+        assertTrue(registry.register("C001", "demo1", Customer.CustomerType.VIP));
+        assertFalse(registry.register("C001", "other", Customer.CustomerType.GENERAL), "Duplicate ID");
+        assertFalse(registry.register("C999", "demo1", Customer.CustomerType.GENERAL), "Duplicate username");
+        assertEquals(1, registry.size());
+
+        Customer byId = registry.findById("C001").orElseThrow();
+        assertEquals("demo1", byId.getUsername());
+        assertEquals(Customer.CustomerType.VIP, byId.getCustomerType());
+        assertSame(byId, registry.findByUsername("demo1").orElseThrow(), "One Customer per account");
+        byId.addLoyaltyPoints(10);
+        assertEquals(10, registry.findById("C001").orElseThrow().getLoyaltyPoints());
+
+        Customer prebuilt = new Customer("C002", "demo2", Customer.CustomerType.GENERAL);
+        assertTrue(registry.add(prebuilt));
+        assertSame(prebuilt, registry.findByUsername("demo2").orElseThrow());
+        assertEquals(Optional.empty(), registry.findById("C003"));
+        assertEquals(Optional.empty(), registry.findByUsername(null));
+
+        assertThrows(IllegalArgumentException.class, () -> registry.register(" ", "x", Customer.CustomerType.GENERAL));
+        assertThrows(IllegalArgumentException.class, () -> registry.register("C3", "x", null));
+        assertThrows(IllegalArgumentException.class, () -> new CustomerRegistry(3));
+        assertThrows(IllegalArgumentException.class, () -> CustomerRegistry.of(List.of(prebuilt,
+                new Customer("C002", "someone", Customer.CustomerType.GENERAL))));
+    }
+
+    @Test
+    void testManyAccountsAcrossShardCounts() {
+        for (int shards : new int[] { 1, 8, 64 }) {
+            CustomerRegistry registry = new CustomerRegistry(shards);
+            for (int i = 0; i < 50_000; i++) {
+                assertTrue(registry.register("C" + i, "user" + i, Customer.CustomerType.values()[i % 4]));
+            }
+            assertEquals(50_000, registry.size());
+            for (int i = 0; i < 50_000; i += 7) {
+                assertEquals("user" + i, registry.findById("C" + i).orElseThrow().getUsername());
+                assertEquals("C" + i, registry.findByUsername("user" + i).orElseThrow().getCustomerId());
+            }
+            assertTrue(registry.findById("C50000").isEmpty());
+        }
+    }
+
+    // หลายเธรดสมัครชุด ID ที่ทับกันและค้นหาไปพร้อมกัน แต่ละ ID ต้องมีผู้ชนะคนเดียว และค้นแล้วต้องได้บัญชีที่ถูก
+    @Test
+    void testConcurrentRegistrationAndLookup() throws Exception {
+        CustomerRegistry registry = new CustomerRegistry(4);
+        int accounts = 20_000;
+        int writers = 8;
+        AtomicInteger registered = new AtomicInteger();
+        AtomicInteger mismatches = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < writers; w++) {
+                int offset = w * 1_000;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int n = 0; n < accounts; n++) {
+                        int i = (n + offset) % accounts;
+                        if (registry.register("C" + i, "user" + i, Customer.CustomerType.GENERAL)) {
+                            registered.incrementAndGet();
+                        }
+                        Optional<Customer> found = registry.findByUsername("user" + (i / 2));
+                        if (found.isPresent() && !found.get().getCustomerId().equals("C" + (i / 2))) {
+                            mismatches.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        assertEquals(accounts, registered.get());
+        assertEquals(accounts, registry.size());
+        assertEquals(0, mismatches.get());
+    }
+
+    @Test
+    void testTiersComeFromPricingRules() {
+        Book ebook = new EBook("978-1", "E", "A", new BigDecimal("100.00"), "2020");
+        Customer silver = new Customer("S", "silver", Customer.CustomerType.SILVER);
+        Customer gold = new Customer("G", "gold", Customer.CustomerType.GOLD);
+        // 100 - 10% (EBook) = 90, SILVER ลดอีก 5% = 85.50, GOLD ลด 10% = 81.00
+        assertEquals(0, new BigDecimal("85.50").compareTo(new Order(silver, List.of(new OrderItem(ebook, 1)))
+                .getGrandTotal()));
+        Order goldOrder = new Order(gold, List.of(new OrderItem(ebook, 1)));
+        assertEquals(0, new BigDecimal("81.00").compareTo(goldOrder.getGrandTotal()));
+        assertTrue(goldOrder.toReceipt().format().contains("(GOLD Price: $81.00"));
+        assertTrue(goldOrder.toReceipt().format().contains("Total GOLD Discount Applied: $9.00"));
+        assertEquals(8, CheckoutService.loyaltyPointsFor(silver, new BigDecimal("85.50")));
+        assertEquals(16, CheckoutService.loyaltyPointsFor(gold, new BigDecimal("81.00")));
+
+        PricingEngine.install(PricingRules.defaults().with(new PricingRule.PointsMultiplier(
+                Customer.CustomerType.SILVER, 3)));
+        assertEquals(24, CheckoutService.loyaltyPointsFor(silver, new BigDecimal("85.50")));
+        assertEquals(8, CheckoutService.loyaltyPointsFor(new Customer("C", "general", Customer.CustomerType.GENERAL),
+                new BigDecimal("85.50")));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PricingRule.PointsMultiplier(Customer.CustomerType.GOLD, -1));
+    }
+}
@@ -0,0 +1,130 @@
+package book;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.books.EBook;
+import com.bookstore.customer.Customer;
+import com.bookstore.metrics.Counter;
+import com.bookstore.metrics.LatencyHistogram;
+import com.bookstore.metrics.Metrics;
+import com.bookstore.metrics.Timer;
+import com.bookstore.order.Order;
+import com.bookstore.order.OrderItem;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+class MetricsTest {
+
+    @AfterEach
+    void tearDown() {
+        Metrics.setEnabled(false);
+    }
+
+    private static Timer.Snapshot timer(String name) {
+        return Metrics.timers().stream().filter(timer -> timer.name().equals(name)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void testHistogramPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100_000, snapshot.count());
+        assertEquals(50_000.5, snapshot.mean(), 0.001);
+        assertEquals(50_000, snapshot.p50(), 50_000 / 16.0);
+        assertEquals(99_000, snapshot.p99(), 99_000 / 16.0);
+        assertTrue(snapshot.p999() >= 99_900 && snapshot.max() >= 100_000, snapshot.toString());
+        assertTrue(snapshot.max() <= 100_000 * 17 / 16, snapshot.toString());
+
+        LatencyHistogram small = new LatencyHistogram();
+        small.record(3);
+        small.record(-5); // นาฬิกาย้อนถือเป็น 0
+        assertEquals(3, small.snapshot().max());
+        assertEquals(0, small.snapshot().p50());
+        small.reset();
+        assertEquals(0, small.snapshot().count());
+    }
+
+    @Test
+    void testTimerRecordsOnlyWhenEnabled() {
+        Timer timer = Metrics.timer("test.everyCall", 1);
+        for (int i = 0; i < 100; i++) {
+            timer.stop(timer.start());
+        }
+        assertEquals(0, timer.snapshot().samples(), "Disabled metrics record nothing");
+
+        Metrics.setEnabled(true);
+        List<byte[]> kept = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            long start = timer.start();
+            kept.add(new byte[1_024]);
+            timer.stop(start);
+        }
+        Timer.Snapshot snapshot = timer.snapshot();
+        assertEquals(1_000, snapshot.samples());
+        assertEquals(1_000, snapshot.estimatedCalls());
+        assertTrue(snapshot.allocatedBytesPerCall() >= 1_024, snapshot.toString());
+        assertEquals(1_000, kept.size());
+        assertSame(timer, Metrics.timer("test.everyCall", 1));
+        assertThrows(IllegalArgumentException.class, () -> Metrics.timer("test.everyCall", 64));
+        assertThrows(IllegalArgumentException.class, () -> Metrics.timer("test.odd", 3));
+    }
+
+    @Test
+    void testSampledTimerEstimatesCalls() {
+        Timer timer = Metrics.timer("test.sampled", 16);
+        Metrics.setEnabled(true);
+        for (int i = 0; i < 160_000; i++) {
+            timer.stop(timer.start());
+        }
+        Timer.Snapshot snapshot = timer.snapshot();
+        assertEquals(10_000, snapshot.samples(), 500);
+        assertEquals(16 * snapshot.samples(), snapshot.estimatedCalls());
+    }
+
+    @Test
+    void testCountersAreExactAcrossThreads() throws InterruptedException {
+        Counter counter = Metrics.counter("test.counter");
+        counter.increment(); // ปิดอยู่ ไม่นับ
+        Metrics.setEnabled(true);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    counter.increment();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        counter.add(5);
+        assertEquals(80_005, counter.count());
+        assertEquals(80_005, (long) Metrics.counters().get("test.counter"));
+    }
+
+    @Test
+    void testHotPathsAreInstrumented() {
+        Metrics.setEnabled(true);
+        Customer vip = new Customer("C001", "demo1", Customer.CustomerType.VIP);
+        List<OrderItem> items = List.of(new OrderItem(new EBook("978-1098150097", "Bitcoin for Everyone",
+                "Andreas M. Antonopoulos", new BigDecimal("32.99"), "2020"), 2));
+        long before = timer("order.grandTotal").samples();
+        for (int i = 0; i < 10_000; i++) {
+            new Order(vip, items);
+        }
+        assertTrue(timer("order.grandTotal").samples() > before, "Some orders are sampled");
+
+        String text = Metrics.appendText(new StringBuilder()).toString();
+        assertTrue(text.contains("order.grandTotal"), text);
+        assertTrue(text.contains("p99_us"), text);
+    }
+}
@@ -0,0 +1,156 @@
+package book;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.books.*;
+import com.bookstore.customer.Customer;
+import com.bookstore.money.Money;
+import com.bookstore.order.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class MoneyTest {
+
+    private static final BigDecimal EBOOK_DISCOUNT_RATE = new BigDecimal("0.10");
+    private static final BigDecimal AUDIOBOOK_FEE_RATE = new BigDecimal("0.05");
+    private static final BigDecimal VIP_DISCOUNT_RATE = new BigDecimal("0.15");
+
+    @Test
+    void testHalfEvenMatchesBigDecimal() {
+        // ค่าเดียวกับ RoundingModeTest
+        String[] values = { "12.125", "12.135", "12.145", "12.155", "12.165", "12.175",
+                "59.995", "25.225", "33.335", "41.245", "-12.125", "-12.135", "0.005", "-0.015" };
+        for (String value : values) {
+            BigDecimal expected = new BigDecimal(value).setScale(2, RoundingMode.HALF_EVEN);
+            assertEquals(expected, Money.of(value).setScale(2, RoundingMode.HALF_EVEN).toBigDecimal(), value);
+        }
+    }
+
+    @Test
+    void testAppendToMatchesSetScaleText() {
+        String[] values = { "12.125", "12.135", "-12.125", "-12.135", "0.005", "-0.005", "-0.015", "7", "-7",
+                "0.1", "49.99", "29.6910", "1234567.895", "-0.0001" };
+        StringBuilder text = new StringBuilder();
+        for (String value : values) {
+            for (int decimals = 0; decimals <= 4; decimals++) {
+                text.setLength(0);
+                String expected = new BigDecimal(value).setScale(decimals, RoundingMode.HALF_EVEN).toPlainString();
+                assertEquals(expected, Money.of(value).appendTo(text, decimals).toString(), value + " @" + decimals);
+            }
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal amount = randomAmount(random);
+            text.setLength(0);
+            assertEquals(amount.setScale(2, RoundingMode.HALF_EVEN).toPlainString(),
+                    Money.of(amount).appendTo(text, 2).toString());
+        }
+    }
+
+    @Test
+    void testArithmeticMatchesBigDecimalExactly() {
+        Random random = new Random(20240501);
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal a = randomAmount(random);
+            BigDecimal b = randomAmount(random);
+            long quantity = 1 + random.nextInt(10_000);
+            int newScale = random.nextInt(4);
+
+            assertEquals(a.add(b), Money.of(a).plus(Money.of(b)).toBigDecimal());
+            assertEquals(a.subtract(b), Money.of(a).minus(Money.of(b)).toBigDecimal());
+            assertEquals(a.multiply(new BigDecimal(quantity)), Money.of(a).times(quantity).toBigDecimal());
+            assertEquals(a.multiply(VIP_DISCOUNT_RATE), Money.of(a).times(Money.of(VIP_DISCOUNT_RATE)).toBigDecimal());
+            assertEquals(a.setScale(newScale, RoundingMode.HALF_EVEN),
+                    Money.of(a).setScale(newScale, RoundingMode.HALF_EVEN).toBigDecimal());
+            assertEquals(Integer.signum(a.compareTo(b)), Integer.signum(Money.of(a).compareTo(Money.of(b))));
+        }
+    }
+
+    @Test
+    void testOrderTotalsMatchBigDecimalReference() {
+        Random random = new Random(7);
+        Customer general = new Customer("C001", "General User", Customer.CustomerType.GENERAL);
+        Customer vip = new Customer("C002", "VIP User", Customer.CustomerType.VIP);
+        for (int order = 0; order < 2_000; order++) {
+            List<OrderItem> items = new ArrayList<>();
+            int lines = 1 + random.nextInt(20);
+            for (int line = 0; line < lines; line++) {
+                items.add(new OrderItem(randomBook(random, line), 1 + random.nextInt(50)));
+            }
+
+            ShoppingCart cart = new ShoppingCart();
+            items.forEach(cart::addItem);
+            assertEquals(referenceSubtotal(items), cart.calculateSubTotalBeforeVipDiscount());
+            for (OrderItem item : items) {
+                assertEquals(referencePrice(item.getBook()), item.getItemPriceBeforeVipDiscount());
+                assertEquals(referencePrice(item.getBook()).multiply(new BigDecimal(item.getQuantity())),
+                        item.getLineItemTotalBeforeVipDiscount());
+            }
+            assertEquals(referenceGrandTotal(items, false), new Order(general, items).getGrandTotal());
+            assertEquals(referenceGrandTotal(items, true), new Order(vip, items).getGrandTotal());
+        }
+    }
+
+    @Test
+    void testOverflowIsReported() {
+        Money large = Money.ofUnits(Long.MAX_VALUE / 2, 2);
+        assertThrows(ArithmeticException.class, () -> large.times(3));
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1e30")));
+    }
+
+    // สูตร BigDecimal เดิมก่อนเปลี่ยนมาใช้ Money
+    private static BigDecimal referencePrice(Book book) {
+        BigDecimal base = book.getBasePrice();
+        if (book instanceof EBook) {
+            return base.subtract(base.multiply(EBOOK_DISCOUNT_RATE));
+        }
+        if (book instanceof AudioBook) {
+            return base.add(base.multiply(AUDIOBOOK_FEE_RATE));
+        }
+        return base;
+    }
+
+    private static BigDecimal referenceSubtotal(List<OrderItem> items) {
+        BigDecimal subTotal = BigDecimal.ZERO;
+        for (OrderItem item : items) {
+            subTotal = subTotal.add(referencePrice(item.getBook()).multiply(new BigDecimal(item.getQuantity())));
+        }
+        return subTotal;
+    }
+
+    private static BigDecimal referenceGrandTotal(List<OrderItem> items, boolean vip) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (OrderItem item : items) {
+            BigDecimal price = referencePrice(item.getBook());
+            BigDecimal quantity = new BigDecimal(item.getQuantity());
+            if (vip) {
+                BigDecimal vipPrice = price.subtract(price.multiply(VIP_DISCOUNT_RATE));
+                total = total.add(vipPrice.multiply(quantity));
+            } else {
+                total = total.add(price.multiply(quantity));
+            }
+        }
+        return total;
+    }
+
+    private static BigDecimal randomAmount(Random random) {
+        return BigDecimal.valueOf(random.nextInt(2_000_000) - 1_000_000, random.nextInt(5));
+    }
+
+    private static Book randomBook(Random random, int line) {
+        BigDecimal price = BigDecimal.valueOf(100 + random.nextInt(20_000), 2);
+        switch (random.nextInt(3)) {
+            case 0:
+                return new PhysicalBook("P" + line, "Physical " + line, "Author", price, "300", "Paperback", "2020");
+            case 1:
+                return new EBook("E" + line, "EBook " + line, "Author", price, "2020");
+            default:
+                return new AudioBook("A" + line, "AudioBook " + line, "Author", price, "2020");
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package book;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.books.*;
+import com.bookstore.checkout.CheckoutResult;
+import com.bookstore.checkout.CheckoutService;
+import com.bookstore.customer.Customer;
+import com.bookstore.history.OrderHistory;
+import com.bookstore.journal.JournalEntry;
+import com.bookstore.journal.OrderJournal;
+import com.bookstore.order.Order;
+import com.bookstore.order.OrderItem;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class OrderHistoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final Book PHYSICAL = new PhysicalBook("978-1544526474", "The Bitcoin Standard",
+            "Saifedean Ammous", new BigDecimal("49.99"), "400", "Hardcover", "2018");
+    private static final Book EBOOK = new EBook("978-1098150097", "Bitcoin for Everyone",
+            "Andreas M. Antonopoulos", new BigDecimal("32.99"), "2020");
+
+    // 2024-01-01T00:00:00Z
+    private static final long START = 1_704_067_200L;
+
+    private static JournalEntry entry(int customer, Instant createdAt, int quantity) {
+        Customer owner = new Customer("C" + customer, "user" + customer,
+                Customer.CustomerType.values()[customer % Customer.CustomerType.values().length]);
+        Order order = new Order(owner, List.of(new OrderItem(PHYSICAL, quantity), new OrderItem(EBOOK, 1)),
+                createdAt);
+        return JournalEntry.of(order, CheckoutService.loyaltyPointsFor(owner, order.getGrandTotal()));
+    }
+
+    // คำสั่งซื้อกระจายตลอดปี 2024 ลูกค้า 50 ราย
+    private static List<JournalEntry> randomOrders(int count, long seed) {
+        Random random = new Random(seed);
+        List<JournalEntry> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Instant createdAt = Instant.ofEpochSecond(START + random.nextInt(366 * 86_400), random.nextInt(1_000_000));
+            entries.add(entry(random.nextInt(50), createdAt, 1 + random.nextInt(5)));
+        }
+        return entries;
+    }
+
+    private static List<JournalEntry> expected(List<JournalEntry> all, String customerId, Instant from, Instant to) {
+        return all.stream()
+                .filter(e -> e.customerId().equals(customerId) && !e.createdAt().isBefore(from)
+                        && e.createdAt().isBefore(to))
+                .sorted(Comparator.comparing(JournalEntry::createdAt).thenComparing(JournalEntry::orderId))
+                .collect(Collectors.toList());
+    }
+
+    private static void assertSameHistory(List<JournalEntry> all, OrderHistory history) {
+        Random random = new Random(3);
+        for (int query = 0; query < 200; query++) {
+            String customerId = "C" + random.nextInt(52); // C50, C51 ไม่มีคำสั่งซื้อ
+            Instant from = Instant.ofEpochSecond(START - 86_400 + random.nextInt(380 * 86_400), random.nextInt(1000));
+            Instant to = from.plusSeconds(random.nextInt(90 * 86_400));
+            assertEquals(expected(all, customerId, from, to), history.ordersOf(customerId, from, to),
+                    customerId + " " + from + " " + to);
+        }
+        YearMonth march = YearMonth.of(2024, 3);
+        assertEquals(expected(all, "C1", Instant.parse("2024-03-01T00:00:00Z"), Instant.parse("2024-04-01T00:00:00Z")),
+                history.ordersOf("C1", march));
+        assertEquals(all.size(), history.size());
+    }
+
+    private static List<Path> segmentFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".seg")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void testRangeScansMatchBruteForceAcrossFlushesAndReopen() throws IOException {
+        List<JournalEntry> all = randomOrders(5_000, 11);
+        Path directory = tempDir.resolve("history");
+        try (OrderHistory history = OrderHistory.open(directory, 700)) {
+            for (int i = 0; i < all.size(); i++) {
+                history.append(all.get(i));
+                if (i == 2_345) {
+                    // บางส่วนอยู่ใน segment บางส่วนยังพักอยู่ใน heap
+                    assertSameHistory(all.subList(0, i + 1), history);
+                }
+            }
+            assertSameHistory(all, history);
+        }
+        try (OrderHistory reopened = OrderHistory.open(directory)) {
+            assertSameHistory(all, reopened);
+            assertTrue(reopened.segmentCount() <= 12 * OrderHistory.MAX_SEGMENTS_PER_MONTH);
+            for (Path file : segmentFiles(directory)) {
+                assertTrue(file.getFileName().toString().matches("orders-2024-\\d\\d-\\d{6}\\.seg"), file.toString());
+            }
+        }
+    }
+
+    @Test
+    void testSmallSegmentsOfAMonthAreCompacted() throws IOException {
+        Path directory = tempDir.resolve("history");
+        List<JournalEntry> all = new ArrayList<>();
+        // เปิดปิดหลายรอบ แต่ละรอบได้ segment เล็กของเดือนเดียวกัน
+        for (int session = 0; session < OrderHistory.MAX_SEGMENTS_PER_MONTH + 3; session++) {
+            try (OrderHistory history = OrderHistory.open(directory)) {
+                for (int i = 0; i < 20; i++) {
+                    JournalEntry entry = entry(i % 4, Instant.ofEpochSecond(START + session * 3_600L + i), 1);
+                    history.append(entry);
+                    all.add(entry);
+                }
+            }
+        }
+        assertTrue(segmentFiles(directory).size() <= OrderHistory.MAX_SEGMENTS_PER_MONTH,
+                segmentFiles(directory).toString());
+        try (OrderHistory history = OrderHistory.open(directory)) {
+            assertSameHistory(all, history);
+        }
+    }
+
+    @Test
+    void testCompactionLeavesLargeSegmentsAlone() throws IOException {
+        Path directory = tempDir.resolve("history");
+        List<JournalEntry> all = new ArrayList<>();
+        Random random = new Random(7);
+        try (OrderHistory history = OrderHistory.open(directory, 1_000)) {
+            for (int i = 0; i < 1_000; i++) {
+                Instant createdAt = Instant.ofEpochSecond(START + random.nextInt(86_400));
+                JournalEntry entry = entry(random.nextInt(50), createdAt, 1);
+                history.append(entry);
+                all.add(entry);
+            }
+        }
+        Path large = segmentFiles(directory).get(0);
+        // segment เล็กของเดือนเดียวกันถูกรวมกันเอง ลูกค้า C1 มีเกิน BLOCK_ORDERS รายการในไฟล์ที่รวมแล้ว
+        for (int session = 0; session < 3 * OrderHistory.SEGMENTS_PER_MERGE + 1; session++) {
+            try (OrderHistory history = OrderHistory.open(directory)) {
+                for (int i = 0; i < 40; i++) {
+                    JournalEntry entry = entry(random.nextInt(10) == 0 ? 2 : 1,
+                            Instant.ofEpochSecond(START + 86_400 + session * 3_600L + random.nextInt(3_600)), 1);
+                    history.append(entry);
+                    all.add(entry);
+                }
+            }
+        }
+        assertTrue(Files.exists(large), "Large segment was rewritten");
+        assertEquals(5, segmentFiles(directory).size(), segmentFiles(directory).toString());
+        try (OrderHistory history = OrderHistory.open(directory)) {
+            assertSameHistory(all, history);
+            assertEquals(all.stream().filter(e -> e.customerId().equals("C1")).count(),
+                    history.ordersOf("C1", YearMonth.of(2024, 1)).size());
+        }
+    }
+
+    @Test
+    void testLeftoversFromCrashAreIgnored() throws IOException {
+        Path directory = tempDir.resolve("history");
+        List<JournalEntry> all = new ArrayList<>();
+        Path saved = tempDir.resolve("saved");
+        Files.createDirectories(saved);
+        for (int session = 0; session < OrderHistory.SEGMENTS_PER_MERGE; session++) {
+            if (session == OrderHistory.SEGMENTS_PER_MERGE - 1) {
+                // เก็บ segment ก่อน compact ไว้ เพื่อจำลองเครื่องล่มหลังเขียนไฟล์รวมแต่ยังไม่ได้ลบไฟล์เดิม
+                for (Path file : segmentFiles(directory)) {
+                    Files.copy(file, saved.resolve(file.getFileName()));
+                }
+            }
+            try (OrderHistory history = OrderHistory.open(directory)) {
+                JournalEntry entry = entry(1, Instant.ofEpochSecond(START + session), 2);
+                history.append(entry);
+                all.add(entry);
+            }
+        }
+        try (Stream<Path> files = Files.list(saved)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                Files.copy(file, directory.resolve(file.getFileName()));
+            }
+        }
+        Files.write(directory.resolve("orders-2024-01-999999.seg.tmp"), new byte[] { 1, 2, 3 });
+
+        try (OrderHistory history = OrderHistory.open(directory)) {
+            assertSameHistory(all, history);
+            assertEquals(1, history.segmentCount());
+        }
+        assertEquals(1, segmentFiles(directory).size());
+        assertFalse(Files.exists(directory.resolve("orders-2024-01-999999.seg.tmp")));
+    }
+
+    @Test
+    void testCheckoutIsRecordedAndBackfilledFromJournal() throws IOException {
+        Path journalFile = tempDir.resolve("orders.journal");
+        Path directory = tempDir.resolve("history");
+        Customer vip = new Customer("C001", "demo1", Customer.CustomerType.VIP);
+        List<CheckoutResult> results = new ArrayList<>();
+        OrderHistory crashed = OrderHistory.open(directory, 2);
+        try (OrderJournal journal = OrderJournal.open(journalFile)) {
+            CheckoutService service = new CheckoutService(journal, crashed);
+            for (int i = 0; i < 5; i++) {
+                results.add(service.checkout(vip, List.of(new OrderItem(EBOOK, 1 + i))));
+            }
+        }
+        // ไม่ได้ปิด history: คำสั่งซื้อสุดท้ายยังค้างใน heap เหมือนโปรแกรมถูกปิดกลางคัน
+        assertEquals(5, crashed.ordersOf("C001", Instant.EPOCH, Instant.now().plusSeconds(60)).size());
+        crashed.awaitWrites();
+
+        try (OrderHistory history = OrderHistory.open(directory, 2)) {
+            assertEquals(4, history.size());
+            int[] added = new int[1];
+            OrderJournal.replay(journalFile, entry -> added[0] += history.backfill(entry) ? 1 : 0);
+            assertEquals(1, added[0]);
+            OrderJournal.replay(journalFile, entry -> assertFalse(history.backfill(entry), "Already present"));
+            List<JournalEntry> orders = history.ordersOf("C001", Instant.EPOCH, Instant.now().plusSeconds(60));
+            assertEquals(results.stream().map(r -> r.order().getOrderId()).collect(Collectors.toList()),
+                    orders.stream().map(JournalEntry::orderId).collect(Collectors.toList()));
+            JournalEntry last = orders.get(4);
+            assertEquals(results.get(4).order().getGrandTotal(), last.grandTotal());
+            assertEquals(results.get(4).pointsEarned(), last.pointsAwarded());
+            assertEquals("VIP", last.customerType());
+        }
+        try (OrderHistory reopened = OrderHistory.open(directory)) {
+            assertEquals(5, reopened.size());
+        }
+    }
+
+    @Test
+    void testAppendStopsQueueingWhileTheWriterFails() throws IOException {
+        Path directory = tempDir.resolve("history");
+        List<JournalEntry> accepted = new ArrayList<>();
+        try (OrderHistory history = OrderHistory.open(directory, 1)) {
+            // เขียน segment ไม่ได้เพราะไม่มีโฟลเดอร์
+            Files.delete(directory);
+            assertThrows(UncheckedIOException.class, () -> {
+                for (int i = 0; i < 1_000; i++) {
+                    JournalEntry entry = entry(i % 4, Instant.ofEpochSecond(START + i), 1);
+                    history.append(entry);
+                    accepted.add(entry);
+                }
+            });
+            assertTrue(accepted.size() < 10, "Queued " + accepted.size() + " batches while failing");
+            assertEquals(accepted.size(), history.size());
+
+            Files.createDirectories(directory);
+            history.flush();
+            assertSameHistory(accepted, history);
+        }
+        try (OrderHistory reopened = OrderHistory.open(directory)) {
+            assertSameHistory(accepted, reopened);
+        }
+    }
+
+    @Test
+    void testCheckoutSucceedsWhenHistoryRejectsTheOrder() throws IOException {
+        Path journalFile = tempDir.resolve("orders.journal");
+        OrderHistory closed = OrderHistory.open(tempDir.resolve("history"));
+        closed.close();
+        Customer vip = new Customer("C001", "demo1", Customer.CustomerType.VIP);
+        CheckoutResult result;
+        try (OrderJournal journal = OrderJournal.open(journalFile)) {
+            result = new CheckoutService(journal, closed).checkout(vip, List.of(new OrderItem(EBOOK, 1)));
+        }
+        // อยู่ใน journal แล้ว จึงได้แต้ม และประวัติเติมได้จาก journal
+        assertEquals(result.pointsEarned(), vip.getLoyaltyPoints());
+        List<String> journaled = new ArrayList<>();
+        OrderJournal.replay(journalFile, entry -> journaled.add(entry.orderId()));
+        assertEquals(List.of(result.order().getOrderId()), journaled);
+    }
+}
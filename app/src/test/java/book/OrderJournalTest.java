@@ -0,0 +1,304 @@
+package book;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.books.*;
+import com.bookstore.checkout.CheckoutResult;
+import com.bookstore.checkout.CheckoutService;
+import com.bookstore.customer.Customer;
+import com.bookstore.journal.JournalEntry;
+import com.bookstore.journal.OrderJournal;
+import com.bookstore.order.Order;
+import com.bookstore.order.OrderItem;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+class OrderJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final Book PHYSICAL = new PhysicalBook("978-1544526474", "The Bitcoin Standard",
+            "Saifedean Ammous", new BigDecimal("49.99"), "400", "Hardcover", "2018");
+    private static final Book EBOOK = new EBook("978-1098150097", "Bitcoin for Everyone",
+            "Andreas M. Antonopoulos", new BigDecimal("32.99"), "2020");
+
+    private static JournalEntry entry(int i) {
+        Customer customer = new Customer("C" + (i % 3), "user" + (i % 3),
+                i % 2 == 0 ? Customer.CustomerType.VIP : Customer.CustomerType.GENERAL);
+        Order order = new Order(customer, List.of(new OrderItem(PHYSICAL, 1 + i % 4), new OrderItem(EBOOK, 1)),
+                Instant.ofEpochSecond(1_700_000_000L + i, 123));
+        return JournalEntry.of(order, CheckoutService.loyaltyPointsFor(customer, order.getGrandTotal()));
+    }
+
+    private static List<JournalEntry> replayAll(Path file) throws IOException {
+        List<JournalEntry> entries = new ArrayList<>();
+        OrderJournal.replay(file, entries::add);
+        return entries;
+    }
+
+    @Test
+    void testCheckoutIsJournaledAndPointsReplay() throws IOException {
+        Path file = tempDir.resolve("orders.journal");
+        Customer vip = new Customer("C001", "demo1", Customer.CustomerType.VIP);
+        Customer general = new Customer("C002", "demo2", Customer.CustomerType.GENERAL);
+        List<CheckoutResult> results = new ArrayList<>();
+        try (OrderJournal journal = OrderJournal.open(file)) {
+            CheckoutService service = new CheckoutService(journal);
+            results.add(service.checkout(vip, List.of(new OrderItem(PHYSICAL, 2), new OrderItem(EBOOK, 1))));
+            results.add(service.checkout(general, List.of(new OrderItem(EBOOK, 3))));
+            results.add(service.checkout(vip, List.of(new OrderItem(PHYSICAL, 1))));
+        }
+
+        List<JournalEntry> entries = replayAll(file);
+        assertEquals(3, entries.size());
+        for (int i = 0; i < results.size(); i++) {
+            Order order = results.get(i).order();
+            JournalEntry entry = entries.get(i);
+            assertEquals(order.getOrderId(), entry.orderId());
+            assertEquals(order.getCustomer().getCustomerId(), entry.customerId());
+            assertEquals(order.getCustomer().getCustomerType().name(), entry.customerType());
+            assertEquals(order.getCreatedAt(), entry.createdAt());
+            assertEquals(order.getGrandTotal(), entry.grandTotal());
+            assertEquals(order.getTotalVipDiscountApplied(), entry.vipDiscount());
+            assertEquals(results.get(i).pointsEarned(), entry.pointsAwarded());
+            assertEquals(order.getOrderItems().size(), entry.lines().size());
+            BigDecimal linesTotal = BigDecimal.ZERO;
+            for (JournalEntry.Line line : entry.lines()) {
+                linesTotal = linesTotal.add(line.lineTotal());
+            }
+            assertEquals(0, order.getGrandTotal().compareTo(linesTotal));
+        }
+
+        Map<String, Integer> points = new HashMap<>();
+        try (OrderJournal reopened = OrderJournal.open(file, 4,
+                entry -> points.merge(entry.customerId(), entry.pointsAwarded(), Integer::sum))) {
+            assertEquals(new OrderJournal.ReplayResult(3, Files.size(file), 0), reopened.recovered());
+        }
+        assertEquals(vip.getLoyaltyPoints(), (int) points.get("C001"));
+        assertEquals(general.getLoyaltyPoints(), (int) points.get("C002"));
+    }
+
+    @Test
+    void testPointsAreNotAwardedWhenTheJournalRejectsTheOrder() throws IOException {
+        Customer vip = new Customer("C001", "demo1", Customer.CustomerType.VIP);
+        OrderJournal journal = OrderJournal.open(tempDir.resolve("orders.journal"));
+        journal.close();
+        CheckoutService service = new CheckoutService(journal);
+        assertThrows(IllegalStateException.class, () -> service.checkout(vip, List.of(new OrderItem(PHYSICAL, 2))));
+        assertEquals(0, vip.getLoyaltyPoints());
+    }
+
+    @Test
+    void testRedemptionsAreJournaledAndReplayed() throws IOException {
+        Path file = tempDir.resolve("orders.journal");
+        Customer vip = new Customer("C001", "demo1", Customer.CustomerType.VIP);
+        try (OrderJournal journal = OrderJournal.open(file)) {
+            CheckoutService service = new CheckoutService(journal);
+            service.checkout(vip, List.of(new OrderItem(PHYSICAL, 2)));
+            assertTrue(service.redeemPoints(vip, "R-1", 15));
+            assertTrue(service.redeemPoints(vip, "R-1", 15), "Repeated redemption is not journaled again");
+            assertFalse(service.redeemPoints(vip, "R-2", 1_000));
+        }
+        Map<String, Integer> points = new HashMap<>();
+        List<JournalEntry> redemptions = new ArrayList<>();
+        OrderJournal.replay(file, entry -> {
+            points.merge(entry.customerId(), entry.pointsAwarded(), Integer::sum);
+            if (entry.isRedemption()) {
+                redemptions.add(entry);
+            }
+        });
+        assertEquals(vip.getLoyaltyPoints(), (int) points.get("C001"));
+        assertEquals(1, redemptions.size());
+        assertEquals("R-1", redemptions.get(0).orderId());
+
+        // บันทึกไม่ได้ แต้มไม่หาย
+        OrderJournal closed = OrderJournal.open(tempDir.resolve("closed.journal"));
+        closed.close();
+        int before = vip.getLoyaltyPoints();
+        assertThrows(IllegalStateException.class, () -> new CheckoutService(closed).redeemPoints(vip, "R-3", 1));
+        assertEquals(before, vip.getLoyaltyPoints());
+    }
+
+    @Test
+    void testConcurrentAppendsAreGroupCommitted() throws IOException {
+        Path file = tempDir.resolve("orders.journal");
+        int count = 500;
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        try (OrderJournal journal = OrderJournal.open(file, 64, entry -> {
+        })) {
+            for (int i = 0; i < count; i++) {
+                pending.add(journal.append(entry(i)));
+            }
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+            assertEquals(count, journal.entriesWritten());
+            assertTrue(journal.batches() < count, "Queued records share an fsync");
+            assertTrue(journal.batches() >= count / 64);
+        }
+        List<JournalEntry> entries = replayAll(file);
+        assertEquals(count, entries.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(entry(i).createdAt(), entries.get(i).createdAt(), "Entries keep append order");
+        }
+    }
+
+    @Test
+    void testTornTailIsDiscardedAtEveryCutPoint() throws IOException {
+        Path complete = tempDir.resolve("complete.journal");
+        long[] ends = new long[3];
+        try (OrderJournal journal = OrderJournal.open(complete)) {
+            for (int i = 0; i < ends.length; i++) {
+                journal.appendAndSync(entry(i));
+                ends[i] = Files.size(complete);
+            }
+        }
+        byte[] bytes = Files.readAllBytes(complete);
+
+        // ตัดไฟล์ทุกตำแหน่งภายใน record สุดท้าย เหมือนเครื่องล่มระหว่างเขียน
+        for (long cut = ends[1]; cut < ends[2]; cut++) {
+            Path torn = tempDir.resolve("torn-" + cut + ".journal");
+            Files.write(torn, Arrays.copyOf(bytes, (int) cut));
+            OrderJournal.ReplayResult result = OrderJournal.replay(torn, entry -> {
+            });
+            assertEquals(new OrderJournal.ReplayResult(2, ends[1], cut - ends[1]), result);
+
+            try (OrderJournal journal = OrderJournal.open(torn)) {
+                assertEquals(ends[1], Files.size(torn), "Open truncates the incomplete record");
+                journal.appendAndSync(entry(7));
+            }
+            List<JournalEntry> entries = replayAll(torn);
+            assertEquals(3, entries.size());
+            assertEquals(entry(7).createdAt(), entries.get(2).createdAt());
+            assertEquals(0, OrderJournal.replay(torn, entry -> {
+            }).discardedBytes());
+            Files.delete(torn);
+        }
+    }
+
+    @Test
+    void testCorruptRecordStopsReplay() throws IOException {
+        Path file = tempDir.resolve("orders.journal");
+        long firstEnd;
+        try (OrderJournal journal = OrderJournal.open(file)) {
+            journal.appendAndSync(entry(0));
+            firstEnd = Files.size(file);
+            journal.appendAndSync(entry(1));
+            journal.appendAndSync(entry(2));
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[(int) firstEnd + 12] ^= 0x5A; // ไบต์ใน payload ของ record ที่สอง
+        Files.write(file, bytes);
+
+        OrderJournal.ReplayResult result = OrderJournal.replay(file, entry -> {
+        });
+        assertEquals(1, result.entries());
+        assertEquals(firstEnd, result.validBytes());
+        assertEquals(bytes.length - firstEnd, result.discardedBytes());
+    }
+
+    @Test
+    void testMissingAndForeignFiles() throws IOException {
+        assertEquals(new OrderJournal.ReplayResult(0, 0, 0),
+                OrderJournal.replay(tempDir.resolve("missing.journal"), entry -> {
+                }));
+        Path foreign = tempDir.resolve("foreign.journal");
+        Files.write(foreign, new byte[64]);
+        assertThrows(IOException.class, () -> OrderJournal.open(foreign));
+        assertEquals(64, Files.size(foreign), "Unknown files are left untouched");
+    }
+
+    @Test
+    void testAppendAfterCloseFails() throws IOException {
+        OrderJournal journal = OrderJournal.open(tempDir.resolve("orders.journal"));
+        journal.close();
+        assertThrows(IllegalStateException.class, () -> journal.append(entry(0)));
+    }
+
+    // กระบวนการลูกเขียน journal ไม่หยุดแล้วถูก kill กลางคัน record ที่ยืนยันแล้วต้องกู้ได้ครบ
+    @Test
+    void testInterruptedAppendFailsWithUncheckedIOException() throws IOException {
+        Path file = tempDir.resolve("orders.journal");
+        try (OrderJournal journal = OrderJournal.open(file)) {
+            Thread.currentThread().interrupt();
+            try {
+                assertThrows(UncheckedIOException.class, () -> journal.appendAndSync(entry(0)));
+            } finally {
+                assertTrue(Thread.interrupted(), "Interrupt flag is kept");
+            }
+            journal.appendAndSync(entry(1));
+        }
+        assertEquals(List.of("C1"),
+                replayAll(file).stream().map(JournalEntry::customerId).toList());
+    }
+
+    @Test
+    void testRecoveryAfterProcessKill() throws Exception {
+        Path file = tempDir.resolve("killed.journal");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process child = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                CrashingWriter.class.getName(), file.toString())
+                .redirectErrorStream(true)
+                .start();
+        int acknowledged = 0;
+        try (BufferedReader out = new BufferedReader(
+                new InputStreamReader(child.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                acknowledged = Integer.parseInt(line.trim());
+                if (acknowledged >= 200) {
+                    child.destroyForcibly();
+                    break;
+                }
+            }
+        } finally {
+            child.destroyForcibly();
+            assertTrue(child.waitFor(30, TimeUnit.SECONDS));
+        }
+        assertTrue(acknowledged >= 200, "Child process wrote records before being killed");
+
+        List<JournalEntry> entries = new ArrayList<>();
+        try (OrderJournal journal = OrderJournal.open(file, 16, entries::add)) {
+            journal.appendAndSync(entry(0));
+        }
+        assertTrue(entries.size() >= acknowledged, "Every acknowledged record survives the kill");
+        for (int i = 0; i < entries.size(); i++) {
+            assertEquals(entry(i).createdAt(), entries.get(i).createdAt());
+        }
+        assertEquals(entries.size() + 1, replayAll(file).size());
+    }
+
+    static class CrashingWriter {
+        public static void main(String[] args) throws Exception {
+            try (OrderJournal journal = OrderJournal.open(Path.of(args[0]), 8, entry -> {
+            })) {
+                List<CompletableFuture<Void>> window = new ArrayList<>();
+                for (int i = 0; ; i += 8) {
+                    for (int j = i; j < i + 8; j++) {
+                        window.add(journal.append(entry(j)));
+                    }
+                    CompletableFuture.allOf(window.toArray(new CompletableFuture<?>[0])).join();
+                    window.clear();
+                    System.out.println(i + 8);
+                    System.out.flush();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package book;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.customer.Customer;
+import com.bookstore.customer.PointsLedger;
+import com.bookstore.order.Order;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+class PointsLedgerTest {
+
+    @Test
+    void testAccrueAndRedeem() {
+        PointsLedger ledger = new PointsLedger();
+        assertEquals(12, ledger.accrue("ORD-1", 12));
+        assertEquals(20, ledger.accrue("ORD-2", 8));
+        assertEquals(12, ledger.accruedFor("ORD-1"));
+        assertEquals(0, ledger.accruedFor("ORD-3"));
+        assertEquals(20, ledger.accrue("ORD-1", 5), "An order accrues once");
+        assertEquals(12, ledger.accruedFor("ORD-1"));
+        assertEquals(20, ledger.balance());
+
+        assertTrue(ledger.redeem("R-1", 15));
+        assertEquals(5, ledger.balance());
+        assertEquals(15, ledger.redeemedFor("R-1"));
+        assertFalse(ledger.redeem("R-2", 6), "Balance never goes negative");
+        assertEquals(0, ledger.redeemedFor("R-2"), "Refused redemption is not recorded");
+        assertTrue(ledger.redeem("R-2", 5), "Refused reference can be retried");
+        assertEquals(0, ledger.balance());
+
+        assertThrows(IllegalArgumentException.class, () -> ledger.add(0));
+        assertThrows(IllegalArgumentException.class, () -> ledger.redeem(-1));
+    }
+
+    @Test
+    void testCustomerUsesLedger() {
+        Customer vip = new Customer("C001", "demo1", Customer.CustomerType.VIP);
+        vip.earnLoyaltyPoints("ORD-1", 40);
+        vip.addLoyaltyPoints(2);
+        assertEquals(42, vip.getLoyaltyPoints());
+        assertEquals(40, vip.getPointsLedger().accruedFor("ORD-1"));
+        assertTrue(vip.redeemLoyaltyPoints("R-1", 42));
+        assertFalse(vip.redeemLoyaltyPoints("R-2", 1));
+        assertEquals(0, vip.getLoyaltyPoints());
+        vip.restoreLoyaltyPoints(7);
+        assertEquals(7, vip.getLoyaltyPoints());
+    }
+
+    // หลายเธรดสะสมและแลกแต้มบัญชีเดียวกัน ยอดต้องตรงกับผลรวมของรายการที่สำเร็จ และไม่เคยติดลบ
+    @Test
+    void testConcurrentAccrualAndRedemptionStayConsistent() throws InterruptedException {
+        PointsLedger ledger = new PointsLedger();
+        int threads = 16;
+        int opsPerThread = 20_000;
+        AtomicLong accrued = new AtomicLong();
+        AtomicLong redeemed = new AtomicLong();
+        AtomicBoolean negativeSeen = new AtomicBoolean();
+        AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                if (ledger.balance() < 0) {
+                    negativeSeen.set(true);
+                }
+            }
+        });
+        reader.start();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < opsPerThread; i++) {
+                    int points = 1 + random.nextInt(20);
+                    if (random.nextBoolean()) {
+                        ledger.accrue("ORD-" + id + "-" + i, points);
+                        accrued.addAndGet(points);
+                    } else if (ledger.redeem("R-" + id + "-" + i, points)) {
+                        redeemed.addAndGet(points);
+                    }
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        done.set(true);
+        reader.join();
+
+        assertFalse(negativeSeen.get(), "Balance was observed negative");
+        assertTrue(redeemed.get() > 0);
+        assertEquals(accrued.get() - redeemed.get(), ledger.balance());
+
+        // จำเฉพาะรายการล่าสุด
+        assertTrue(ledger.accrualCount() <= PointsLedger.RECENT_ENTRIES, "Accruals kept: " + ledger.accrualCount());
+    }
+
+    @Test
+    void testOnlyRecentOrdersAreKept() {
+        PointsLedger ledger = new PointsLedger();
+        int orders = PointsLedger.RECENT_ENTRIES * 5;
+        for (int i = 0; i < orders; i++) {
+            ledger.accrue("ORD-" + i, 1);
+        }
+        assertEquals(orders, ledger.balance());
+        assertEquals(PointsLedger.RECENT_ENTRIES, ledger.accrualCount());
+        assertEquals(0, ledger.accruedFor("ORD-0"));
+        assertEquals(1, ledger.accruedFor("ORD-" + (orders - 1)));
+        assertEquals(orders, ledger.accrue("ORD-" + (orders - 1), 1), "Recent order is not accrued twice");
+    }
+
+    @Test
+    void testRepeatedRedemptionIsIgnoredLikeRepeatedAccrual() {
+        PointsLedger ledger = new PointsLedger();
+        ledger.add(30);
+        assertTrue(ledger.redeem("R-1", 15));
+        assertTrue(ledger.redeem("R-1", 15), "Same reference is not debited twice");
+        assertEquals(15, ledger.balance());
+        assertThrows(IllegalStateException.class, () -> ledger.redeem("R-2", 5, () -> {
+            throw new IllegalStateException("journal closed");
+        }));
+        assertEquals(15, ledger.balance(), "Points come back when the redemption cannot be recorded");
+        assertEquals(0, ledger.redeemedFor("R-2"));
+    }
+
+    @Test
+    void testRefusedRedemptionsDoNotShrinkTheWindow() {
+        PointsLedger ledger = new PointsLedger();
+        int window = PointsLedger.RECENT_ENTRIES;
+        ledger.add(window + 10);
+        for (int i = 0; i < window; i++) {
+            assertTrue(ledger.redeem("R-" + i, 1));
+        }
+        for (int i = 0; i < 10; i++) {
+            assertFalse(ledger.redeem("X-" + i, 1_000));
+        }
+        for (int i = window; i < window + 10; i++) {
+            assertTrue(ledger.redeem("R-" + i, 1));
+        }
+        // รายการที่ถูกปฏิเสธไม่ค้างในคิว ช่วงที่จำได้ยังเต็ม RECENT_ENTRIES (R-10 ถึงรายการล่าสุด)
+        assertEquals(1, ledger.redeemedFor("R-10"));
+        assertEquals(0, ledger.redeemedFor("R-9"));
+        assertEquals(0, ledger.balance());
+    }
+
+    @Test
+    void testOrderIdsDoNotCollide() {
+        Customer customer = new Customer("C001", "demo1", Customer.CustomerType.GENERAL);
+        Set<String> ids = new HashSet<>();
+        // เลขสุ่ม 32 บิตแบบเดิมมีโอกาสชนกันเกินครึ่งเมื่อถึงราว 77,000 คำสั่งซื้อ
+        for (int i = 0; i < 200_000; i++) {
+            assertTrue(ids.add(new Order(customer, List.of()).getOrderId()));
+        }
+    }
+}
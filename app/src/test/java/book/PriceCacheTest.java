@@ -0,0 +1,61 @@
+package book;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.books.*;
+import com.bookstore.catalog.Catalog;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+class PriceCacheTest {
+
+    @Test
+    void testFinalPriceIsComputedOnce() {
+        EBook ebook = new EBook("456", "Test EBook", "Test Author", new BigDecimal("20.00"), "2020");
+        BigDecimal first = ebook.calculatePrice();
+        assertSame(first, ebook.calculatePrice(), "Cached price should be reused");
+        assertEquals(0, first.compareTo(new BigDecimal("18.00")));
+    }
+
+    @Test
+    void testBasePriceChangeInvalidatesCache() {
+        AudioBook audiobook = new AudioBook("789", "Test AudioBook", "Test Author", new BigDecimal("20.00"), "2020");
+        assertEquals(0, audiobook.calculatePrice().compareTo(new BigDecimal("21.00")));
+        audiobook.setBasePrice(new BigDecimal("10.00"));
+        assertEquals(0, audiobook.calculatePrice().compareTo(new BigDecimal("10.50")));
+    }
+
+    @Test
+    void testRateChangeInvalidatesCacheAndCatalogPriceIndex() {
+        EBook ebook = new EBook("456", "Test EBook", "Test Author", new BigDecimal("20.00"), "2020");
+        PhysicalBook physicalBook = new PhysicalBook("123", "Test Physical Book", "Test Author",
+                new BigDecimal("17.00"), "100", "Paperback", "2020");
+        Catalog catalog = new Catalog();
+        catalog.add(ebook);
+        catalog.add(physicalBook);
+        assertEquals(List.of(physicalBook, ebook), catalog.findByPriceRange(BigDecimal.ZERO, new BigDecimal("100")));
+
+        BigDecimal originalRate = EBook.getDiscountRate();
+        try {
+            EBook.setDiscountRate(new BigDecimal("0.25"));
+            assertEquals(0, ebook.calculatePrice().compareTo(new BigDecimal("15.00")));
+            assertEquals(List.of(ebook, physicalBook), catalog.findByPriceRange(BigDecimal.ZERO, new BigDecimal("100")));
+        } finally {
+            EBook.setDiscountRate(originalRate);
+        }
+        assertEquals(0, ebook.calculatePrice().compareTo(new BigDecimal("18.00")));
+    }
+
+    @Test
+    void testCatalogBasePriceUpdateReindexes() {
+        PhysicalBook physicalBook = new PhysicalBook("123", "Test Physical Book", "Test Author",
+                new BigDecimal("20.00"), "100", "Paperback", "2020");
+        Catalog catalog = new Catalog();
+        catalog.add(physicalBook);
+        assertTrue(catalog.updateBasePrice("123", new BigDecimal("5.00")));
+        assertEquals(List.of(physicalBook), catalog.findByPriceRange(BigDecimal.ZERO, new BigDecimal("5")));
+        assertTrue(catalog.findByPriceRange(new BigDecimal("19"), new BigDecimal("21")).isEmpty());
+    }
+}
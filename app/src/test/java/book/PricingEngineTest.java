@@ -0,0 +1,215 @@
+package book;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.books.*;
+import com.bookstore.customer.Customer;
+import com.bookstore.money.Money;
+import com.bookstore.order.Order;
+import com.bookstore.order.OrderItem;
+import com.bookstore.pricing.CompiledPricing;
+import com.bookstore.pricing.PricePipeline;
+import com.bookstore.pricing.PricingEngine;
+import com.bookstore.pricing.PricingRule;
+import com.bookstore.pricing.PricingRules;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class PricingEngineTest {
+
+    @AfterEach
+    void restoreDefaults() {
+        PricingEngine.reset();
+    }
+
+    private static Book book(int type, BigDecimal price) {
+        switch (type) {
+            case 0:
+                return new PhysicalBook("978-" + price, "Physical", "Author", price, "100", "Paperback", "2020");
+            case 1:
+                return new EBook("978-" + price, "Digital", "Author", price, "2020");
+            default:
+                return new AudioBook("978-" + price, "Audio", "Author", price, "2020");
+        }
+    }
+
+    // สูตรเดิมก่อนมี rule engine (ค่าคงที่ 10% / 5% / 15%) ใช้เป็นค่าอ้างอิง
+    private static BigDecimal legacyTypePrice(Book book) {
+        BigDecimal base = book.getBasePrice();
+        if (book instanceof EBook) {
+            return base.subtract(base.multiply(new BigDecimal("0.10")));
+        } else if (book instanceof AudioBook) {
+            return base.add(base.multiply(new BigDecimal("0.05")));
+        }
+        return base;
+    }
+
+    @Test
+    void testDefaultRulesMatchLegacyPricesExactly() {
+        Random random = new Random(13);
+        Customer vip = new Customer("V", "vip", Customer.CustomerType.VIP);
+        Customer general = new Customer("G", "general", Customer.CustomerType.GENERAL);
+        BigDecimal vipRate = new BigDecimal("0.15");
+
+        for (int round = 0; round < 2_000; round++) {
+            List<OrderItem> items = new ArrayList<>();
+            for (int line = 0; line < 1 + random.nextInt(5); line++) {
+                BigDecimal price = BigDecimal.valueOf(random.nextInt(1_000_000), random.nextInt(4));
+                items.add(new OrderItem(book(random.nextInt(3), price), 1 + random.nextInt(20)));
+            }
+            for (Customer customer : List.of(vip, general)) {
+                BigDecimal total = BigDecimal.ZERO;
+                BigDecimal discount = BigDecimal.ZERO;
+                for (OrderItem item : items) {
+                    BigDecimal typePrice = legacyTypePrice(item.getBook());
+                    assertEquals(typePrice, item.getBook().calculatePrice());
+                    BigDecimal before = typePrice.multiply(BigDecimal.valueOf(item.getQuantity()));
+                    if (customer.isVIP()) {
+                        BigDecimal unit = typePrice.subtract(typePrice.multiply(vipRate));
+                        BigDecimal after = unit.multiply(BigDecimal.valueOf(item.getQuantity()));
+                        discount = discount.add(before.subtract(after));
+                        total = total.add(after);
+                    } else {
+                        total = total.add(before);
+                    }
+                }
+                Order order = new Order(customer, items);
+                assertEquals(total, order.getGrandTotal());
+                assertEquals(discount, order.getTotalVipDiscountApplied());
+            }
+        }
+    }
+
+    @Test
+    void testPromotionsAndQuantityBreaks() {
+        PricingEngine.install(PricingRules.defaults()
+                .with(new PricingRule.Promotion("spring sale", "PhysicalBook", new BigDecimal("0.20")))
+                .with(new PricingRule.QuantityBreak(null, 10, new BigDecimal("0.05")))
+                .with(new PricingRule.QuantityBreak(null, 50, new BigDecimal("0.10"))));
+
+        Book physical = book(0, new BigDecimal("100.00"));
+        Book ebook = book(1, new BigDecimal("100.00"));
+        assertEquals(0, physical.calculatePrice().compareTo(new BigDecimal("80.00")));
+        assertEquals(0, ebook.calculatePrice().compareTo(new BigDecimal("90.00")));
+
+        Customer general = new Customer("G", "general", Customer.CustomerType.GENERAL);
+        Customer vip = new Customer("V", "vip", Customer.CustomerType.VIP);
+        // 9 เล่ม: ไม่ถึงขั้นส่วนลด, 10 เล่ม: ลด 5%, 50 เล่ม: ลด 10% (ใช้ขั้นสูงสุดขั้นเดียว)
+        assertEquals(0, new Order(general, List.of(new OrderItem(physical, 9))).getGrandTotal()
+                .compareTo(new BigDecimal("720.00")));
+        assertEquals(0, new Order(general, List.of(new OrderItem(physical, 10))).getGrandTotal()
+                .compareTo(new BigDecimal("760.00")));
+        assertEquals(0, new Order(general, List.of(new OrderItem(physical, 50))).getGrandTotal()
+                .compareTo(new BigDecimal("3600.00")));
+        // VIP: 90 * 0.85 = 76.50 แล้วลดตามจำนวนอีก 5% = 72.675
+        Order vipOrder = new Order(vip, List.of(new OrderItem(ebook, 10)));
+        assertEquals(0, vipOrder.getGrandTotal().compareTo(new BigDecimal("726.75")));
+        assertEquals(0, vipOrder.getTotalVipDiscountApplied().compareTo(new BigDecimal("173.25")));
+    }
+
+    // ขั้นเดียวของ pipeline: ตรงตัวจนกว่า scale จะเกิน WORKING_SCALE แล้วปัด HALF_EVEN
+    private static BigDecimal step(BigDecimal price, String rate) {
+        BigDecimal next = price.add(price.multiply(new BigDecimal(rate)));
+        return next.scale() > PricePipeline.WORKING_SCALE
+                ? next.setScale(PricePipeline.WORKING_SCALE, RoundingMode.HALF_EVEN) : next;
+    }
+
+    @Test
+    void testStackedPromotionsKeepABoundedScale() {
+        PricingEngine.install(PricingRules.defaults()
+                .with(new PricingRule.Promotion("member week", null, new BigDecimal("0.125")))
+                .with(new PricingRule.Promotion("ebook fair", "EBook", new BigDecimal("0.075")))
+                .with(new PricingRule.Promotion("clearance", null, new BigDecimal("0.333")))
+                .with(new PricingRule.QuantityBreak(null, 5, new BigDecimal("0.05"))));
+
+        Book ebook = book(1, new BigDecimal("99.99"));
+        // ตรงตัวจะได้ 48.581922571875 (scale 12) ต่อด้วย VIP และส่วนลดตามจำนวนจน long ล้น
+        BigDecimal catalog = step(step(step(step(new BigDecimal("99.99"), "-0.10"), "-0.125"), "-0.075"), "-0.333");
+        assertEquals(new BigDecimal("48.58192257"), catalog);
+        assertEquals(catalog, ebook.calculatePrice());
+
+        Customer vip = new Customer("V", "vip", Customer.CustomerType.VIP);
+        Order order = new Order(vip, List.of(new OrderItem(ebook, 10)));
+        BigDecimal unit = step(step(catalog, "-0.15"), "-0.05");
+        assertEquals(unit.multiply(BigDecimal.TEN), order.getGrandTotal());
+        assertTrue(order.getGrandTotal().scale() <= PricePipeline.WORKING_SCALE);
+        assertEquals(0, catalog.multiply(BigDecimal.TEN).subtract(order.getGrandTotal())
+                .compareTo(order.getTotalVipDiscountApplied()));
+        assertNotNull(order.toReceipt().format());
+    }
+
+    @Test
+    void testRateSettersUpdateRulesAndVersion() {
+        long version = Book.pricingVersion();
+        EBook.setDiscountRate(new BigDecimal("0.30"));
+        assertTrue(Book.pricingVersion() > version);
+        assertEquals(0, EBook.getDiscountRate().compareTo(new BigDecimal("0.30")));
+        assertEquals(new BigDecimal("-0.30"), PricingEngine.rules().typeAdjustment("EBook").orElseThrow());
+        assertEquals(1, PricingEngine.rules().rules().stream()
+                .filter(rule -> rule instanceof PricingRule.TypeAdjustment adjustment
+                        && adjustment.bookType().equals("EBook"))
+                .count());
+    }
+
+    @Test
+    void testInvalidRulesAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PricingRule.TierDiscount(Customer.CustomerType.VIP, new BigDecimal("1.5")));
+        assertThrows(IllegalArgumentException.class, () -> new PricingRule.QuantityBreak(null, 0, BigDecimal.ONE));
+        assertThrows(IllegalArgumentException.class, () -> new PricingRule.TypeAdjustment("", BigDecimal.ONE));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PricingRule.Promotion("bad", null, new BigDecimal("-0.1")));
+    }
+
+    @Test
+    void testOrdersStayConsistentWhileRulesAreSwapped() throws Exception {
+        Customer vip = new Customer("V", "vip", Customer.CustomerType.VIP);
+        Book ebook = book(1, new BigDecimal("100.00"));
+        PricingRules deepDiscount = PricingRules.defaults().withTypeAdjustment("EBook", new BigDecimal("-0.50"));
+        // ยอดที่ถูกต้องมีได้สองค่าเท่านั้น: 100 * 0.90 * 0.85 หรือ 100 * 0.50 * 0.85
+        BigDecimal defaultTotal = new BigDecimal("76.50");
+        BigDecimal discountedTotal = new BigDecimal("42.50");
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<Integer>> checkouts = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                checkouts.add(executor.submit(() -> {
+                    int priced = 0;
+                    while (running.get()) {
+                        BigDecimal total = new Order(vip, List.of(new OrderItem(ebook, 1))).getGrandTotal();
+                        assertTrue(total.compareTo(defaultTotal) == 0 || total.compareTo(discountedTotal) == 0,
+                                total.toString());
+                        priced++;
+                    }
+                    return priced;
+                }));
+            }
+            for (int swap = 0; swap < 2_000; swap++) {
+                CompiledPricing installed = PricingEngine.install(swap % 2 == 0 ? deepDiscount : PricingRules.defaults());
+                assertSame(installed, PricingEngine.active());
+            }
+            running.set(false);
+            for (Future<Integer> checkout : checkouts) {
+                assertTrue(checkout.get() > 0);
+            }
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+        PricingEngine.reset();
+        assertEquals(0, ebook.calculatePrice().compareTo(new BigDecimal("90.00")));
+        assertEquals(Money.of("90.00").compareTo(ebook.calculatePriceMoney()), 0);
+    }
+}
@@ -0,0 +1,152 @@
+package book;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.books.*;
+import com.bookstore.catalog.Catalog;
+import com.bookstore.recommend.FullScanRecommender;
+import com.bookstore.recommend.RecommendationIndex;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+class RecommendationIndexTest {
+
+    private static Book book(int i, int price) {
+        String isbn = "978-" + i;
+        String author = "Author " + (i % 7);
+        String year = String.valueOf(2000 + i % 5);
+        BigDecimal basePrice = BigDecimal.valueOf(price, 2);
+        switch (i % 3) {
+            case 0:
+                return new PhysicalBook(isbn, "Book " + i, author, basePrice, "100", "Paperback", year);
+            case 1:
+                return new EBook(isbn, "Book " + i, author, basePrice, year);
+            default:
+                return new AudioBook(isbn, "Book " + i, author, basePrice, year);
+        }
+    }
+
+    @Test
+    void testMatchesFullScanThroughAddsRemovesAndReprices() {
+        Catalog catalog = new Catalog();
+        RecommendationIndex index = new RecommendationIndex();
+        catalog.addListener(index);
+        Random random = new Random(11);
+        List<Book> added = new ArrayList<>();
+
+        for (int step = 0; step < 3_000; step++) {
+            int action = random.nextInt(10);
+            if (action < 6 || added.isEmpty()) {
+                // ราคาซ้ำกันบ่อยเพื่อทดสอบลำดับเมื่อราคาเท่ากัน
+                Book book = book(step, 1_000 + random.nextInt(50) * 100);
+                catalog.add(book);
+                added.add(book);
+            } else if (action < 8) {
+                Book book = added.remove(random.nextInt(added.size()));
+                catalog.remove(book.getIsbn());
+            } else {
+                Book book = added.get(random.nextInt(added.size()));
+                catalog.updateBasePrice(book.getIsbn(), BigDecimal.valueOf(1_000 + random.nextInt(50) * 100, 2));
+            }
+            if (step % 100 == 0) {
+                assertEquals(FullScanRecommender.highestPricedByType(catalog.books()), index.highestPricedByType());
+            }
+        }
+        assertEquals(catalog.size(), index.size());
+        assertEquals(FullScanRecommender.highestPricedByType(catalog.books()), index.highestPricedByType());
+    }
+
+    @Test
+    void testTopKPerAuthorAndYear() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            books.add(book(i, 1_000 + (i * 37) % 500));
+        }
+        RecommendationIndex index = new RecommendationIndex(books);
+
+        Comparator<Book> byPriceDesc = Comparator.comparing(Book::calculatePrice).reversed();
+        List<Book> expectedAuthor = books.stream().filter(b -> b.getAuthor().equals("Author 3"))
+                .sorted(byPriceDesc).limit(5).collect(Collectors.toList());
+        List<Book> expectedYear = books.stream().filter(b -> b.getPublishYear().equals("2002"))
+                .sorted(byPriceDesc).limit(3).collect(Collectors.toList());
+
+        assertEquals(expectedAuthor, index.topByAuthor("Author 3", 5));
+        assertEquals(expectedYear, index.topByYear("2002", 3));
+        assertTrue(index.topByType("Unknown", 5).isEmpty());
+        assertTrue(index.topByAuthor("Author 3", 0).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> index.topByType("EBook", -1));
+    }
+
+    @Test
+    void testRateChangeReordersIndex() {
+        PhysicalBook paper = new PhysicalBook("1", "Paper", "A", new BigDecimal("20.00"), "100", "Paperback", "2020");
+        EBook ebook = new EBook("2", "Digital", "A", new BigDecimal("21.00"), "2020");
+        RecommendationIndex index = new RecommendationIndex(List.of(paper, ebook));
+        // 20.00 * 1.00 vs 21.00 * 0.90 = 18.90
+        assertEquals(List.of(paper, ebook), index.topByAuthor("A", 2));
+
+        BigDecimal originalRate = EBook.getDiscountRate();
+        try {
+            EBook.setDiscountRate(BigDecimal.ZERO);
+            assertEquals(List.of(ebook, paper), index.topByAuthor("A", 2));
+            assertTrue(index.remove(ebook));
+            assertEquals(List.of(paper), index.topByAuthor("A", 2));
+        } finally {
+            EBook.setDiscountRate(originalRate);
+        }
+    }
+
+    // request ของ HTTP อ่านพร้อมกันขณะกฎราคาเปลี่ยน ทุกเธรดต้องได้ผลที่เรียงถูกและครบ ไม่มี exception
+    @Test
+    void testConcurrentReadersSeeCompleteOrderingWhileRatesChange() throws Exception {
+        Catalog catalog = new Catalog();
+        RecommendationIndex index = new RecommendationIndex();
+        catalog.addListener(index);
+        for (int i = 0; i < 3_000; i++) {
+            catalog.add(book(i, 1_000 + (i * 37) % 5_000));
+        }
+        BigDecimal originalRate = EBook.getDiscountRate();
+        AtomicBoolean done = new AtomicBoolean();
+        List<Future<?>> readers = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int t = 0; t < 4; t++) {
+                readers.add(executor.submit(() -> {
+                    while (!done.get()) {
+                        List<Book> byPrice = catalog.findByPriceRange(BigDecimal.ZERO, new BigDecimal("1000"));
+                        assertEquals(3_000, byPrice.size());
+                        List<Book> top = index.topByType(BookType.EBOOK, 1_000);
+                        assertEquals(1_000, top.size());
+                        assertEquals(3, index.highestPricedByType().size());
+                    }
+                    return null;
+                }));
+            }
+            for (int round = 0; round < 200; round++) {
+                EBook.setDiscountRate(BigDecimal.valueOf(round % 20, 2));
+                Thread.sleep(1);
+            }
+        } finally {
+            done.set(true);
+            executor.shutdown();
+            EBook.setDiscountRate(originalRate);
+        }
+        for (Future<?> reader : readers) {
+            reader.get();
+        }
+        List<BigDecimal> prices = catalog.findByPriceRange(BigDecimal.ZERO, new BigDecimal("1000")).stream()
+                .map(Book::calculatePrice).collect(Collectors.toList());
+        assertEquals(prices.stream().sorted().collect(Collectors.toList()), prices);
+        assertEquals(FullScanRecommender.highestPricedByType(catalog.books()), index.highestPricedByType());
+    }
+}
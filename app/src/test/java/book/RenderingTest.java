@@ -0,0 +1,142 @@
+package book;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.books.*;
+import com.bookstore.customer.Customer;
+import com.bookstore.order.*;
+import com.bookstore.pricing.PricingEngine;
+import com.bookstore.render.TextBuffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class RenderingTest {
+
+    @AfterEach
+    void resetPricing() {
+        PricingEngine.reset();
+    }
+
+    // รูปแบบเดิมที่ต่อ String ด้วย + และ setScale ทุกครั้ง
+    private static String legacyDetails(Book book) {
+        String base = "ISBN: " + book.getIsbn() + ", Title: '" + book.getTitle() + "', Author: '" + book.getAuthor()
+                + "', Publish Year: " + book.getPublishYear() + ", Base Price: $"
+                + book.getBasePrice().setScale(2, RoundingMode.HALF_EVEN);
+        String finalPrice = ", Final Price (after type adjustment): $"
+                + book.calculatePrice().setScale(2, RoundingMode.HALF_EVEN);
+        if (book instanceof PhysicalBook physical) {
+            return " " + base + ", Page Number: " + physical.getPageNumber() + ", Cover Type: "
+                    + physical.getCoverType() + finalPrice;
+        }
+        if (book instanceof EBook) {
+            return " " + base + ", Discount: "
+                    + EBook.getDiscountRate().movePointRight(2).stripTrailingZeros().toPlainString() + "%" + finalPrice;
+        }
+        return " " + base + ", Fee: "
+                + AudioBook.getFeeRate().movePointRight(2).stripTrailingZeros().toPlainString() + "%" + finalPrice;
+    }
+
+    private static List<Book> books(int count) {
+        Random random = new Random(99);
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            BigDecimal price = BigDecimal.valueOf(random.nextInt(2_000_000), random.nextInt(5));
+            switch (i % 3) {
+                case 0 -> books.add(new PhysicalBook("P" + i, "Physical " + i, "Author " + i % 7, price,
+                        String.valueOf(50 + i), i % 2 == 0 ? "Hardcover" : "Paperback", "2020"));
+                case 1 -> books.add(new EBook("E" + i, "หนังสือ " + i, "Author " + i % 7, price, "2019"));
+                default -> books.add(new AudioBook("A" + i, "Audio " + i, "Author " + i % 7, price, "2021"));
+            }
+        }
+        return books;
+    }
+
+    @Test
+    void testDetailsMatchLegacyFormat() {
+        List<Book> books = books(3_000);
+        StringBuilder reused = new StringBuilder();
+        for (Book book : books) {
+            assertEquals(legacyDetails(book), book.displayDetails());
+            reused.setLength(0);
+            assertEquals(legacyDetails(book), book.appendDetails(reused).toString());
+        }
+
+        // ป้ายเปอร์เซ็นต์ในแคชต้องเปลี่ยนตามกฎราคาใหม่
+        EBook.setDiscountRate(new BigDecimal("0.125"));
+        AudioBook.setFeeRate(new BigDecimal("0.07"));
+        for (Book book : books.subList(0, 30)) {
+            assertEquals(legacyDetails(book), book.displayDetails());
+        }
+        assertTrue(books.get(1).displayDetails().contains("Discount: 12.5%"));
+        assertTrue(books.get(2).displayDetails().contains("Fee: 7%"));
+    }
+
+    @Test
+    void testOrderSummaryMatchesReceipt() {
+        List<Book> books = books(300);
+        Random random = new Random(5);
+        for (Customer.CustomerType type : Customer.CustomerType.values()) {
+            Customer customer = new Customer("C1", "Customer", type);
+            List<OrderItem> items = new ArrayList<>();
+            for (Book book : books) {
+                items.add(new OrderItem(book, 1 + random.nextInt(5)));
+            }
+            Order order = new Order(customer, items);
+            assertEquals(order.toReceipt().format(), order.appendSummary(new StringBuilder()).toString());
+        }
+    }
+
+    @Test
+    void testCartTextMatchesLegacyFormat() {
+        ShoppingCart cart = new ShoppingCart();
+        List<Book> books = books(40);
+        for (int i = 0; i < books.size(); i++) {
+            cart.addItem(new OrderItem(books.get(i), 1 + i % 4));
+        }
+        String newline = System.lineSeparator();
+        StringBuilder expected = new StringBuilder("\n--- Shopping Cart ---").append(newline);
+        List<OrderItem> items = cart.getItems();
+        for (int i = 0; i < items.size(); i++) {
+            OrderItem item = items.get(i);
+            expected.append((i + 1) + ". " + item.getBook().getTitle() + " (Type: " + item.getBook().getBookType()
+                    + ")" + " - Qty: " + item.getQuantity() + " - Price per unit (after type adj.): $"
+                    + item.getItemPriceBeforeVipDiscount().setScale(2, RoundingMode.HALF_EVEN)
+                    + " - Line Total (before VIP): $"
+                    + item.getLineItemTotalBeforeVipDiscount().setScale(2, RoundingMode.HALF_EVEN)).append(newline);
+        }
+        expected.append("---------------------").append(newline)
+                .append("Subtotal (before VIP discount): $"
+                        + cart.calculateSubTotalBeforeVipDiscount().setScale(2, RoundingMode.HALF_EVEN))
+                .append(newline).append("---------------------").append(newline);
+        assertEquals(expected.toString(), cart.appendCart(new StringBuilder()).toString());
+    }
+
+    @Test
+    void testTextBufferEncodesAcrossFlushes() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TextBuffer buffer = new TextBuffer(StandardCharsets.UTF_8, 1_000);
+        StringBuilder expected = new StringBuilder();
+        for (Book book : books(2_000)) {
+            book.appendDetails(buffer.text());
+            buffer.newline().flushIfFull(out);
+            expected.append(book.displayDetails()).append(System.lineSeparator());
+        }
+        // surrogate pair ที่คร่อมขอบของช่วงที่คัดลอก (ทุก 8192 ตัวอักษร) ต้องเข้ารหัสถูกต้อง
+        buffer.flush(out);
+        String emoji = "x".repeat(8_191) + "\uD83D\uDCDA" + "a\uD83D\uDCDA".repeat(5_000);
+        buffer.text().append(emoji);
+        expected.append(emoji);
+        buffer.flush(out);
+        assertEquals(0, buffer.text().length());
+        assertEquals(expected.toString(), out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,178 @@
+package book;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.books.*;
+import com.bookstore.catalog.Catalog;
+import com.bookstore.search.SearchIndex;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+class SearchIndexTest {
+
+    private static final String[] WORDS = { "bitcoin", "bit", "bitter", "standard", "fiat", "money", "mastering",
+            "lightning", "network", "economics", "principles", "sovereign", "individual", "the", "of", "future" };
+    private static final String[] AUTHORS = { "Saifedean Ammous", "Andreas Antonopoulos", "Gregory Mankiw",
+            "James Davidson", "Bitner Ames" };
+
+    private static Book book(int i, String title, String author) {
+        return new EBook("978-" + i, title, author, new BigDecimal("10.00"), "2020");
+    }
+
+    @Test
+    void testFindsByTitleAuthorAndPrefix() {
+        Catalog catalog = new Catalog();
+        SearchIndex index = new SearchIndex();
+        catalog.addListener(index);
+        Book standard = book(1, "The Bitcoin Standard", "Saifedean Ammous");
+        Book fiat = book(2, "The Fiat Standard", "Saifedean Ammous");
+        Book mastering = book(3, "Mastering Bitcoin", "Andreas M. Antonopoulos");
+        catalog.addAll(List.of(standard, fiat, mastering));
+
+        assertEquals(List.of(standard, mastering), index.searchBooks("bitcoin", 10));
+        assertEquals(List.of(fiat), index.searchBooks("fiat stand", 10));
+        assertEquals(List.of(mastering), index.searchBooks("Antonop", 10));
+        assertEquals(List.of(fiat), index.searchBooks("ammous fi", 10));
+        assertTrue(index.searchBooks("ammous lightning", 10).isEmpty());
+        assertTrue(index.searchBooks("  ", 10).isEmpty());
+
+        catalog.remove(mastering.getIsbn());
+        assertEquals(List.of(standard), index.searchBooks("bitcoin", 10));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void testTitleMatchesRankAboveAuthorMatches() {
+        Book byAuthor = book(1, "Economics", "Lightning Smith");
+        Book byTitle = book(2, "Lightning", "Someone Else");
+        SearchIndex index = new SearchIndex(List.of(byAuthor, byTitle));
+        assertEquals(List.of(byTitle, byAuthor), index.searchBooks("lightning", 10));
+    }
+
+    @Test
+    void testThaiTitlesAreTokenizedAsWords() {
+        Book thai = book(1, "เศรษฐศาสตร์ บิตคอยน์", "ผู้เขียน");
+        SearchIndex index = new SearchIndex(List.of(thai));
+        assertEquals(List.of(thai), index.searchBooks("บิตคอ", 5));
+        assertEquals(List.of(thai), index.searchBooks("เศรษฐศาสตร์", 5));
+    }
+
+    // ค่าอ้างอิงแบบสแกนทุกเล่ม (คำศัพท์น้อยพอที่ prefix ไม่ถูกจำกัดจำนวนคำที่ขยาย)
+    private static List<Book> bruteForce(List<Book> books, String query, int limit) {
+        List<String> tokens = List.of(query.toLowerCase(Locale.ROOT).split(" "));
+        Map<String, Integer> titleDf = new LinkedHashMap<>();
+        Map<String, Integer> authorDf = new LinkedHashMap<>();
+        for (Book book : books) {
+            for (String token : new HashSet<>(words(book.getTitle()))) {
+                titleDf.merge(token, 1, Integer::sum);
+            }
+            for (String token : new HashSet<>(words(book.getAuthor()))) {
+                authorDf.merge(token, 1, Integer::sum);
+            }
+        }
+        List<Object[]> scored = new ArrayList<>();
+        for (int d = 0; d < books.size(); d++) {
+            Book book = books.get(d);
+            double score = 0;
+            for (int t = 0; t < tokens.size() && score >= 0; t++) {
+                boolean prefix = t == tokens.size() - 1;
+                double best = Math.max(
+                        bestWeight(words(book.getTitle()), tokens.get(t), prefix, titleDf, 2.0, books.size()),
+                        bestWeight(words(book.getAuthor()), tokens.get(t), prefix, authorDf, 1.0, books.size()));
+                score = best < 0 ? -1 : score + best;
+            }
+            if (score >= 0) {
+                scored.add(new Object[] { book, score, d });
+            }
+        }
+        scored.sort(Comparator.comparingDouble((Object[] s) -> -(double) s[1]).thenComparingInt(s -> (int) s[2]));
+        List<Book> result = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, scored.size()); i++) {
+            result.add((Book) scored.get(i)[0]);
+        }
+        return result;
+    }
+
+    private static double bestWeight(Set<String> words, String token, boolean prefix, Map<String, Integer> df,
+            double fieldWeight, int n) {
+        double best = -1;
+        for (String word : words) {
+            if (word.equals(token)) {
+                best = Math.max(best, fieldWeight * Math.log(1.0 + (double) n / df.get(word)));
+            } else if (prefix && word.startsWith(token)) {
+                best = Math.max(best, fieldWeight * 0.6 * Math.log(1.0 + (double) n / df.get(word)));
+            }
+        }
+        return best;
+    }
+
+    private static Set<String> words(String text) {
+        return new HashSet<>(List.of(text.toLowerCase(Locale.ROOT).split(" ")));
+    }
+
+    @Test
+    void testRankingMatchesBruteForce() {
+        Random random = new Random(5);
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            StringBuilder title = new StringBuilder();
+            for (int w = 0; w < 1 + random.nextInt(4); w++) {
+                title.append(w == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            books.add(book(i, title.toString(), AUTHORS[random.nextInt(AUTHORS.length)]));
+        }
+        SearchIndex index = new SearchIndex(books);
+        String[] queries = { "bit", "bitcoin", "the stand", "money f", "ammous bit", "b", "saifedean", "of the",
+                "lightning network mast", "economics principles" };
+        for (String query : queries) {
+            for (int limit : new int[] { 1, 5, 50 }) {
+                assertEquals(bruteForce(books, query, limit), index.searchBooks(query, limit), query + " / " + limit);
+            }
+        }
+    }
+
+    @Test
+    void testRankingSurvivesRepeatedReplaceAndRemove() {
+        Random random = new Random(14);
+        List<Book> books = new ArrayList<>();
+        SearchIndex index = new SearchIndex();
+        for (int i = 0; i < 1_500; i++) {
+            Book book = book(i, WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)],
+                    AUTHORS[random.nextInt(AUTHORS.length)]);
+            books.add(book);
+            index.add(book);
+        }
+        // แทนที่/ลบหลายรอบจน compact หลายครั้ง เล่มที่แทนที่ย้ายไปท้ายลำดับเหมือนเพิ่มใหม่
+        for (int step = 0; step < 12_000; step++) {
+            int i = random.nextInt(books.size());
+            Book old = books.remove(i);
+            if (random.nextInt(10) == 0) {
+                assertTrue(index.remove(old));
+                continue;
+            }
+            Book replacement = book(Integer.parseInt(old.getIsbn().substring(4)),
+                    WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)],
+                    AUTHORS[random.nextInt(AUTHORS.length)]);
+            books.add(replacement);
+            index.add(replacement);
+        }
+        assertEquals(books.size(), index.size());
+        // idf นับ doc ที่ลบแล้วแต่ยังไม่ compact ด้วย จึงเทียบชุดผลลัพธ์ ไม่เทียบอันดับ
+        for (String query : new String[] { "bit", "the stand", "money f", "ammous bit", "b", "antonopoulos" }) {
+            assertEquals(new HashSet<>(bruteForce(books, query, books.size())),
+                    new HashSet<>(index.searchBooks(query, books.size())), query);
+        }
+        // คะแนนเท่ากันทุกเล่ม: doc id ที่ได้ใหม่ตอน compact ต้องยังเรียงตามลำดับที่เพิ่ม
+        assertEquals(bruteForce(books, "saifedean", books.size()), index.searchBooks("saifedean", books.size()));
+    }
+}
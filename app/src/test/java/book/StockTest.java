@@ -0,0 +1,236 @@
+package book;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.books.*;
+import com.bookstore.catalog.Catalog;
+import com.bookstore.checkout.CheckoutService;
+import com.bookstore.customer.Customer;
+import com.bookstore.customer.CustomerRegistry;
+import com.bookstore.http.Storefront;
+import com.bookstore.inventory.Stock;
+import com.bookstore.inventory.StockLevel;
+import com.bookstore.journal.OrderJournal;
+import com.bookstore.order.OrderItem;
+import com.bookstore.recommend.RecommendationIndex;
+import com.bookstore.search.SearchIndex;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class StockTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final PhysicalBook hardcover = new PhysicalBook("978-1544526474", "The Bitcoin Standard",
+            "Saifedean Ammous", new BigDecimal("49.99"), "400", "Hardcover", "2018");
+    private final EBook ebook = new EBook("978-1098150097", "Bitcoin for Everyone",
+            "Andreas M. Antonopoulos", new BigDecimal("32.99"), "2020");
+    private final AudioBook audiobook = new AudioBook("978-1098150110", "Bitcoin: The Future of Money",
+            "Andreas M. Antonopoulos", new BigDecimal("29.95"), "2020");
+
+    @Test
+    void testReserveReleaseCommit() {
+        Stock stock = new Stock();
+        StockLevel level = stock.stock(hardcover.getIsbn(), 5);
+
+        assertTrue(stock.reserve(hardcover, 3));
+        assertEquals(2, stock.available(hardcover));
+        assertFalse(stock.reserve(hardcover, 3), "Only 2 left to reserve");
+        assertEquals(3, level.reserved(), "Refused reservation changes nothing");
+
+        stock.release(hardcover, 1);
+        assertEquals(3, stock.available(hardcover));
+        stock.commit(List.of(new OrderItem(hardcover, 2)));
+        assertEquals(3, level.onHand());
+        assertEquals(0, level.reserved());
+
+        assertThrows(IllegalStateException.class, () -> stock.release(hardcover, 1), "Nothing reserved");
+        assertThrows(IllegalStateException.class, () -> stock.commit(List.of(new OrderItem(hardcover, 1))));
+        assertThrows(IllegalArgumentException.class, () -> stock.reserve(hardcover, 0));
+
+        stock.stock(hardcover.getIsbn(), 4); // ตั้งซ้ำคือเติมของ
+        assertEquals(7, level.onHand());
+    }
+
+    @Test
+    void testDigitalAndUntrackedBooksAreUnlimited() {
+        Stock stock = new Stock();
+        stock.stock(ebook.getIsbn(), 0);
+        assertFalse(stock.isTracked(ebook), "E-books never run out");
+        assertTrue(stock.reserve(ebook, 1_000));
+        assertTrue(stock.reserve(audiobook, 1_000));
+        assertTrue(stock.reserve(hardcover, 1_000), "No stock level set for this ISBN");
+        assertEquals(Integer.MAX_VALUE, stock.available(audiobook));
+        stock.release(ebook, 1_000);
+        stock.commit(List.of(new OrderItem(audiobook, 1_000)));
+    }
+
+    @Test
+    void testStorefrontReservesAtAddAndCommitsAtCheckout() {
+        Catalog catalog = new Catalog();
+        catalog.add(hardcover);
+        catalog.add(ebook);
+        Stock stock = new Stock();
+        StockLevel level = stock.stock(hardcover.getIsbn(), 4);
+        Customer customer = new Customer("C001", "demo1", Customer.CustomerType.VIP);
+        Storefront storefront = new Storefront(catalog, new RecommendationIndex(), new SearchIndex(),
+                List.of(customer), new CheckoutService(), stock);
+
+        Storefront.Session first = storefront.openSession("C001").orElseThrow();
+        Storefront.Session second = storefront.openSession("C001").orElseThrow();
+        assertEquals(Storefront.CartChange.OK, storefront.addToCart(first, hardcover.getIsbn(), 3));
+        assertEquals(Storefront.CartChange.OUT_OF_STOCK, storefront.addToCart(second, hardcover.getIsbn(), 2));
+        assertEquals(Storefront.CartChange.OK, storefront.addToCart(second, ebook.getIsbn(), 50));
+        assertEquals(Storefront.CartChange.NO_SUCH_BOOK, storefront.addToCart(second, "000", 1));
+
+        assertEquals(Storefront.CartChange.OK, storefront.updateCartItem(first, hardcover.getIsbn(), 1));
+        assertEquals(1, level.reserved(), "Lowering the quantity releases the difference");
+        assertEquals(Storefront.CartChange.OK, storefront.addToCart(second, hardcover.getIsbn(), 2));
+        assertEquals(Storefront.CartChange.OUT_OF_STOCK, storefront.updateCartItem(first, hardcover.getIsbn(), 3));
+        assertEquals(1, storefront.cart(first).getItem(hardcover.getIsbn()).getQuantity());
+
+        assertTrue(storefront.checkout(first).isPresent());
+        assertEquals(3, level.onHand());
+        assertEquals(2, level.reserved());
+
+        assertTrue(storefront.closeSession(second.id()));
+        assertEquals(3, level.onHand());
+        assertEquals(0, level.reserved(), "Abandoned cart gives its reservation back");
+    }
+
+    @Test
+    void testFailedCheckoutKeepsTheCartAndItsReservation() throws IOException {
+        Catalog catalog = new Catalog();
+        catalog.add(hardcover);
+        Stock stock = new Stock();
+        StockLevel level = stock.stock(hardcover.getIsbn(), 4);
+        Customer customer = new Customer("C001", "demo1", Customer.CustomerType.VIP);
+        OrderJournal journal = OrderJournal.open(tempDir.resolve("orders.journal"));
+        journal.close();
+        Storefront storefront = new Storefront(catalog, new RecommendationIndex(), new SearchIndex(),
+                List.of(customer), new CheckoutService(journal), stock);
+
+        Storefront.Session session = storefront.openSession("C001").orElseThrow();
+        assertThrows(IllegalArgumentException.class, () -> storefront.addToCart(session, hardcover.getIsbn(), 0));
+        assertEquals(0, level.reserved());
+        assertEquals(Storefront.CartChange.OK, storefront.addToCart(session, hardcover.getIsbn(), 3));
+        assertThrows(IllegalStateException.class, () -> storefront.checkout(session));
+        assertEquals(4, level.onHand(), "Stock is only taken once the order is journaled");
+        assertEquals(3, level.reserved());
+        assertEquals(3, storefront.cart(session).getItem(hardcover.getIsbn()).getQuantity());
+    }
+
+    @Test
+    void testCommitIsAllOrNothing() {
+        Stock stock = new Stock();
+        StockLevel level = stock.stock(hardcover.getIsbn(), 4);
+        PhysicalBook other = new PhysicalBook("978-0", "Other", "A", new BigDecimal("10"), "100", "Paperback", "2020");
+        StockLevel otherLevel = stock.stock(other.getIsbn(), 4);
+        assertTrue(stock.reserve(hardcover, 2));
+        assertTrue(stock.reserve(other, 1));
+        assertThrows(IllegalStateException.class,
+                () -> stock.commit(List.of(new OrderItem(hardcover, 2), new OrderItem(other, 3))));
+        assertEquals(4, level.onHand());
+        assertEquals(2, level.reserved());
+        assertEquals(4, otherLevel.onHand());
+        assertEquals(1, otherLevel.reserved());
+    }
+
+    @Test
+    void testIdleSessionsExpireAndReleaseReservations() throws InterruptedException {
+        Catalog catalog = new Catalog();
+        catalog.add(hardcover);
+        Stock stock = new Stock();
+        StockLevel level = stock.stock(hardcover.getIsbn(), 4);
+        Storefront storefront = new Storefront(catalog, new RecommendationIndex(), new SearchIndex(),
+                CustomerRegistry.of(List.of(new Customer("C001", "demo1", Customer.CustomerType.GENERAL))),
+                new CheckoutService(), stock, Duration.ofMillis(200));
+
+        Storefront.Session idle = storefront.openSession("C001").orElseThrow();
+        Storefront.Session active = storefront.openSession("C001").orElseThrow();
+        assertEquals(Storefront.CartChange.OK, storefront.addToCart(idle, hardcover.getIsbn(), 3));
+        assertEquals(Storefront.CartChange.OK, storefront.addToCart(active, hardcover.getIsbn(), 1));
+        for (int i = 0; i < 6; i++) {
+            Thread.sleep(60);
+            assertTrue(storefront.findSession(active.id()).isPresent(), "Used sessions stay open");
+        }
+        assertEquals(1, storefront.evictIdleSessions());
+        assertEquals(1, storefront.sessionCount());
+        assertEquals(1, level.reserved(), "Expired cart gives its reservation back");
+        assertTrue(storefront.findSession(idle.id()).isEmpty());
+
+        // request ที่ถือ session เดิมไว้ก่อนหมดอายุต้องไม่จองสต็อกให้ตะกร้าที่ไม่มีใครเห็นแล้ว
+        assertEquals(Storefront.CartChange.NO_SUCH_SESSION, storefront.addToCart(idle, hardcover.getIsbn(), 2));
+        assertEquals(1, level.reserved());
+        assertTrue(storefront.cart(idle).isEmpty());
+        assertTrue(storefront.checkout(idle).isEmpty());
+
+        Thread.sleep(250);
+        assertTrue(storefront.findSession(active.id()).isEmpty(), "Expired on lookup before the next sweep");
+        assertEquals(0, storefront.sessionCount());
+        assertEquals(0, level.reserved());
+    }
+
+    // ผู้ซื้อหลายพันคนแย่งหนังสือเล่มเดียว บางคนจ่ายเงิน บางคนทิ้งตะกร้า ต้องไม่ขายเกินของที่มี
+    @Test
+    void testConcurrentBuyersNeverOversell() throws Exception {
+        int initial = 500;
+        int buyers = 5_000;
+        Stock stock = new Stock();
+        StockLevel level = stock.stock(hardcover.getIsbn(), initial);
+        AtomicInteger committed = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        AtomicInteger oversold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < buyers; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    int quantity = 1 + random.nextInt(3);
+                    if (!stock.reserve(hardcover, quantity)) {
+                        refused.incrementAndGet();
+                        return null;
+                    }
+                    if (level.available() < 0) {
+                        oversold.incrementAndGet();
+                    }
+                    Thread.yield();
+                    if (random.nextInt(4) == 0) {
+                        stock.release(hardcover, quantity);
+                    } else {
+                        stock.commit(List.of(new OrderItem(hardcover, quantity)));
+                        committed.addAndGet(quantity);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertEquals(0, oversold.get());
+        assertTrue(committed.get() <= initial, "Sold " + committed.get() + " of " + initial);
+        assertTrue(refused.get() > 0, "Demand exceeds supply, some buyers must be refused");
+        assertEquals(initial - committed.get(), level.onHand());
+        assertEquals(0, level.reserved());
+    }
+}
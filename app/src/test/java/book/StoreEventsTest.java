@@ -0,0 +1,120 @@
+package book;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.books.*;
+import com.bookstore.checkout.CheckoutService;
+import com.bookstore.customer.Customer;
+import com.bookstore.event.*;
+import com.bookstore.journal.OrderJournal;
+import com.bookstore.order.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+
+class StoreEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final EBook ebook = new EBook("456", "Test EBook", "Test Author", new BigDecimal("20.00"), "2020");
+
+    @AfterEach
+    void resetSink() {
+        StoreEvents.setSink(null);
+    }
+
+    @Test
+    void testDomainEventsAreCollected() {
+        CollectingSink sink = new CollectingSink();
+        StoreEvents.setSink(sink);
+        Customer vip = new Customer("C002", "VIP User", Customer.CustomerType.VIP);
+
+        ShoppingCart cart = new ShoppingCart();
+        cart.addItem(new OrderItem(ebook, 2));
+        new CheckoutService().checkout(vip, cart.getItems());
+
+        assertEquals(List.of(new StoreEvent.CartItemAdded("456", "Test EBook", 2)),
+                sink.eventsOf(StoreEvent.CartItemAdded.class));
+        // 36.00 - 15% = 30.60 -> 3 x 2 แต้ม
+        assertEquals(List.of(new StoreEvent.PointsEarned("C002", "VIP User", 6, 6)),
+                sink.eventsOf(StoreEvent.PointsEarned.class));
+        Receipt receipt = sink.eventsOf(StoreEvent.OrderPriced.class).get(0).receipt();
+        assertEquals(0, receipt.grandTotal().compareTo(new BigDecimal("30.60")));
+        assertEquals(0, receipt.totalVipDiscountApplied().compareTo(new BigDecimal("5.40")));
+        assertEquals(3, sink.events().size());
+    }
+
+    @Test
+    void testNoReceiptWhenTheOrderIsNotJournaled() throws IOException {
+        CollectingSink sink = new CollectingSink();
+        StoreEvents.setSink(sink);
+        Customer vip = new Customer("C002", "VIP User", Customer.CustomerType.VIP);
+        OrderJournal journal = OrderJournal.open(tempDir.resolve("orders.journal"));
+        journal.close();
+
+        CheckoutService service = new CheckoutService(journal);
+        assertThrows(IllegalStateException.class, () -> service.checkout(vip, List.of(new OrderItem(ebook, 2))));
+        assertEquals(List.of(), sink.events());
+    }
+
+    @Test
+    void testNoopSinkIsDefault() {
+        assertSame(EventSink.NOOP, StoreEvents.sink());
+        assertFalse(StoreEvents.isEnabled());
+    }
+
+    @Test
+    void testReceiptKeepsConsoleSummaryFormat() {
+        Customer vip = new Customer("C002", "VIP User", Customer.CustomerType.VIP);
+        Order order = new Order(vip, List.of(new OrderItem(ebook, 2)));
+        String expected = "\n--- Order Summary ---\n"
+                + "Order ID: " + order.getOrderId() + "\n"
+                + "Customer: VIP User (VIP)\n"
+                + "Items:\n"
+                + "  - 2 x Test EBook @ $15.30 each (VIP Price: $15.30, Original Item Price (after type adj.): $18.00)\n"
+                + "Total VIP Discount Applied: $5.40\n"
+                + "Grand Total: $30.60\n"
+                + "--------------------";
+        assertEquals(expected, order.toReceipt().format());
+    }
+
+    @Test
+    void testAsyncConsoleSinkWritesInOrderOnFlush() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (AsyncConsoleSink sink = new AsyncConsoleSink(new PrintStream(buffer, true), 4)) {
+            for (int i = 1; i <= 100; i++) {
+                sink.publish(new StoreEvent.CartItemAdded("456", "Test EBook", i));
+            }
+            sink.flush();
+            String[] lines = buffer.toString().split(System.lineSeparator());
+            assertEquals(100, lines.length);
+            assertEquals("Added to cart: 1 x Test EBook", lines[0]);
+            assertEquals("Added to cart: 100 x Test EBook", lines[99]);
+        }
+    }
+
+    @Test
+    void testAsyncConsoleSinkCanBeClosedTwiceAndDropsLateEvents() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        AsyncConsoleSink sink = new AsyncConsoleSink(new PrintStream(buffer, true), 4);
+        sink.publish(new StoreEvent.CartItemAdded("456", "Test EBook", 1));
+        sink.close();
+        assertEquals("Added to cart: 1 x Test EBook" + System.lineSeparator(), buffer.toString());
+
+        // หลังปิด คิวขนาด 4 ต้องไม่บล็อกผู้ส่ง และ flush/close ต้องคืนทันที
+        for (int i = 0; i < 100; i++) {
+            sink.publish(new StoreEvent.CartItemAdded("456", "Test EBook", 2));
+        }
+        sink.flush();
+        sink.close();
+        assertEquals("Added to cart: 1 x Test EBook" + System.lineSeparator(), buffer.toString());
+    }
+}
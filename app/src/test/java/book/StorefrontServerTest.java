@@ -0,0 +1,207 @@
+package book;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.bookstore.books.*;
+import com.bookstore.catalog.Catalog;
+import com.bookstore.checkout.CheckoutService;
+import com.bookstore.customer.Customer;
+import com.bookstore.http.Storefront;
+import com.bookstore.http.StorefrontServer;
+import com.bookstore.recommend.RecommendationIndex;
+import com.bookstore.search.SearchIndex;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+class StorefrontServerTest {
+
+    private Customer vip;
+    private List<Customer> customers;
+    private StorefrontServer server;
+    private HttpClient client;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Catalog catalog = new Catalog();
+        RecommendationIndex recommendations = new RecommendationIndex();
+        SearchIndex searchIndex = new SearchIndex();
+        catalog.addListener(recommendations);
+        catalog.addListener(searchIndex);
+        catalog.add(new PhysicalBook("978-1544526474", "The Bitcoin Standard", "Saifedean Ammous",
+                new BigDecimal("49.99"), "400", "Hardcover", "2018"));
+        catalog.add(new PhysicalBook("978-1544526478", "The Fiat Standard", "Saifedean Ammous",
+                new BigDecimal("54.99"), "350", "Hardcover", "2021"));
+        catalog.add(new EBook("978-1098150097", "Bitcoin for Everyone", "Andreas M. Antonopoulos",
+                new BigDecimal("32.99"), "2020"));
+        catalog.add(new AudioBook("978-1098150110", "Bitcoin: The Future of Money", "Andreas M. Antonopoulos",
+                new BigDecimal("29.95"), "2020"));
+
+        vip = new Customer("C001", "demo1", Customer.CustomerType.VIP);
+        customers = new ArrayList<>(List.of(vip, new Customer("C002", "demo2", Customer.CustomerType.GENERAL)));
+        for (int i = 0; i < 50; i++) {
+            customers.add(new Customer("L" + i, "load" + i, Customer.CustomerType.GENERAL));
+        }
+        Storefront storefront = new Storefront(catalog, recommendations, searchIndex, customers,
+                new CheckoutService());
+        server = StorefrontServer.start(storefront, new InetSocketAddress("127.0.0.1", 0), 256);
+        baseUrl = "http://127.0.0.1:" + server.address().getPort();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private HttpResponse<String> send(String method, String path, String session) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .method(method, HttpRequest.BodyPublishers.noBody());
+        if (session != null) {
+            request.header(StorefrontServer.SESSION_HEADER, session);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String field(String json, String name) {
+        Matcher matcher = Pattern.compile("\"" + name + "\":(\"([^\"]*)\"|[^,}\\]]+)").matcher(json);
+        assertTrue(matcher.find(), name + " in " + json);
+        return matcher.group(2) != null ? matcher.group(2) : matcher.group(1);
+    }
+
+    private String openSession(String customerId) throws Exception {
+        HttpResponse<String> response = send("POST", "/sessions?customerId=" + customerId, null);
+        assertEquals(201, response.statusCode(), response.body());
+        return field(response.body(), "sessionId");
+    }
+
+    @Test
+    void testCatalogEndpoints() throws Exception {
+        HttpResponse<String> books = send("GET", "/books?limit=2", null);
+        assertEquals(200, books.statusCode());
+        assertEquals("4", field(books.body(), "total"));
+        assertEquals(2, books.body().split("\"isbn\"").length - 1);
+        assertEquals("978-1098150110", field(books.body(), "next"));
+        HttpResponse<String> lastPage = send("GET", "/books?limit=2&after=978-1098150110", null);
+        assertEquals("978-1544526474", field(lastPage.body(), "isbn"));
+        assertEquals("null", field(lastPage.body(), "next"));
+        HttpResponse<String> cheapest = send("GET", "/books?sort=price&type=PhysicalBook&limit=1", null);
+        assertEquals("978-1544526474", field(cheapest.body(), "isbn"));
+        assertEquals(400, send("GET", "/books?sort=title", null).statusCode());
+        assertEquals(400, send("GET", "/books?sort=price&after=978-1098150110", null).statusCode());
+
+        HttpResponse<String> book = send("GET", "/books/978-1098150097", null);
+        assertEquals(200, book.statusCode());
+        assertEquals("Bitcoin for Everyone", field(book.body(), "title"));
+        assertEquals("EBook", field(book.body(), "type"));
+        assertEquals(0, new BigDecimal("29.691").compareTo(new BigDecimal(field(book.body(), "price"))));
+        assertEquals(404, send("GET", "/books/000", null).statusCode());
+
+        HttpResponse<String> search = send("GET", "/search?q=fiat%20standard", null);
+        assertEquals(200, search.statusCode());
+        assertEquals("978-1544526478", field(search.body(), "isbn"), "Best hit first");
+        assertEquals(400, send("GET", "/search", null).statusCode());
+
+        HttpResponse<String> recommendations = send("GET", "/recommendations", null);
+        assertEquals(200, recommendations.statusCode());
+        assertTrue(recommendations.body().contains("\"PhysicalBook\":{\"isbn\":\"978-1544526478\""),
+                recommendations.body());
+        HttpResponse<String> topAudio = send("GET", "/recommendations?type=AudioBook&limit=1", null);
+        assertEquals("978-1098150110", field(topAudio.body(), "isbn"));
+
+        HttpResponse<String> metrics = send("GET", "/metrics", null);
+        assertEquals(200, metrics.statusCode());
+        assertTrue(metrics.headers().firstValue("Content-Type").orElse("").startsWith("text/plain"));
+        assertTrue(metrics.body().contains("recommendations"), metrics.body());
+
+        assertEquals(405, send("DELETE", "/books", null).statusCode());
+        assertEquals(404, send("GET", "/nothing-here", null).statusCode());
+    }
+
+    @Test
+    void testCartAndCheckout() throws Exception {
+        assertEquals(401, send("GET", "/cart", null).statusCode());
+        assertEquals(401, send("GET", "/cart", "not-a-session").statusCode());
+        assertEquals(404, send("POST", "/sessions?customerId=C999", null).statusCode());
+
+        String session = openSession("C001");
+        assertEquals(409, send("POST", "/checkout", session).statusCode(), "Empty cart");
+        assertEquals(200, send("POST", "/cart/items?isbn=978-1544526474&quantity=2", session).statusCode());
+        assertEquals(200, send("POST", "/cart/items?isbn=978-1098150097", session).statusCode());
+        assertEquals(404, send("POST", "/cart/items?isbn=000", session).statusCode());
+        assertEquals(400, send("POST", "/cart/items?isbn=978-1098150097&quantity=0", session).statusCode());
+        assertEquals(400, send("POST", "/cart/items?isbn=978-1098150097&quantity=x", session).statusCode());
+
+        HttpResponse<String> updated = send("PUT", "/cart/items/978-1544526474?quantity=1", session);
+        assertEquals(200, updated.statusCode());
+        assertEquals("1", field(updated.body(), "quantity"));
+        assertEquals(404, send("DELETE", "/cart/items/978-1544526478", session).statusCode());
+
+        HttpResponse<String> cart = send("GET", "/cart", session);
+        assertEquals(2, cart.body().split("\"isbn\"").length - 1);
+
+        HttpResponse<String> checkout = send("POST", "/checkout", session);
+        assertEquals(200, checkout.statusCode(), checkout.body());
+        // 49.99 + 29.691 = 79.681, VIP ลด 15% = 67.72885
+        assertEquals(0, new BigDecimal("67.72885").compareTo(new BigDecimal(field(checkout.body(), "grandTotal"))),
+                checkout.body());
+        assertEquals("12", field(checkout.body(), "pointsEarned"));
+        assertEquals(12, vip.getLoyaltyPoints());
+        assertTrue(send("GET", "/cart", session).body().startsWith("{\"items\":[]"), "Checkout empties the cart");
+
+        assertEquals(204, send("DELETE", "/sessions", session).statusCode());
+        assertEquals(401, send("GET", "/cart", session).statusCode());
+    }
+
+    @Test
+    void testSessionsKeepSeparateCarts() throws Exception {
+        String first = openSession("C002");
+        String second = openSession("C002");
+        send("POST", "/cart/items?isbn=978-1544526474", first);
+        assertTrue(send("GET", "/cart", second).body().startsWith("{\"items\":[]"));
+    }
+
+    @Test
+    void testConcurrentSessions() throws Exception {
+        int sessions = 50;
+        int rounds = 5;
+        List<Future<Integer>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < sessions; i++) {
+                String customerId = "L" + i;
+                results.add(executor.submit(() -> {
+                    String session = openSession(customerId);
+                    int points = 0;
+                    for (int round = 0; round < rounds; round++) {
+                        send("POST", "/cart/items?isbn=978-1544526478&quantity=2", session);
+                        HttpResponse<String> checkout = send("POST", "/checkout", session);
+                        assertEquals(200, checkout.statusCode(), checkout.body());
+                        points += Integer.parseInt(field(checkout.body(), "pointsEarned"));
+                    }
+                    return points;
+                }));
+            }
+        }
+        for (int i = 0; i < sessions; i++) {
+            // 54.99 x 2 = 109.98 -> 10 แต้มต่อคำสั่งซื้อ
+            assertEquals(rounds * 10, (int) results.get(i).get());
+            assertEquals(rounds * 10, customers.get(2 + i).getLoyaltyPoints());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.bookstore.test;
+
+import com.bookstore.books.*;
+import com.bookstore.catalog.Catalog;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class CatalogBenchmark {
+    private static final int LOOKUPS = 1_000_000;
+
+    public static void main(String[] args) {
+        // ขนาดสูงสุดของแคตตาล็อก (10M ต้องใช้ heap ประมาณ -Xmx8g)
+        int maxSize = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        System.out.println("=== CATALOG LOOKUP BENCHMARK ===");
+        System.out.printf("%-12s | %-16s | %-16s | %s%n", "Books", "List scan (ns)", "Catalog (ns)", "Speedup");
+        System.out.println("-------------|------------------|------------------|--------");
+
+        for (int size = 10; size <= maxSize; size *= 10) {
+            List<Book> inventory = new ArrayList<>(size);
+            Catalog catalog = new Catalog();
+            for (int i = 0; i < size; i++) {
+                Book book = createBook(i);
+                inventory.add(book);
+                catalog.add(book);
+            }
+
+            Random random = new Random(42);
+            String[] isbns = new String[1024];
+            for (int i = 0; i < isbns.length; i++) {
+                isbns[i] = isbnOf(random.nextInt(size));
+            }
+
+            // วัดแบบเดิมเฉพาะขนาดเล็ก เพราะการสแกนทั้งลิสต์ใช้เวลานานมาก
+            double scanNanos = size <= 100_000 ? measureScan(inventory, isbns) : Double.NaN;
+            double catalogNanos = measureCatalog(catalog, isbns);
+
+            boolean scanned = !Double.isNaN(scanNanos);
+            System.out.printf("%-12d | %-16s | %-16.1f | %s%n", size,
+                    scanned ? String.format("%.1f", scanNanos) : "-", catalogNanos,
+                    scanned ? String.format("%.0fx", scanNanos / catalogNanos) : "-");
+        }
+    }
+
+    private static double measureScan(List<Book> inventory, String[] isbns) {
+        int lookups = Math.max(1_000, LOOKUPS / Math.max(1, inventory.size() / 100));
+        long checksum = 0;
+        for (int warmup = 0; warmup < 2; warmup++) {
+            checksum += scan(inventory, isbns, lookups);
+        }
+        long start = System.nanoTime();
+        checksum += scan(inventory, isbns, lookups);
+        long elapsed = System.nanoTime() - start;
+        blackhole(checksum);
+        return (double) elapsed / lookups;
+    }
+
+    private static long scan(List<Book> inventory, String[] isbns, int lookups) {
+        long checksum = 0;
+        for (int i = 0; i < lookups; i++) {
+            String isbn = isbns[i & (isbns.length - 1)];
+            for (Book book : inventory) {
+                if (book.getIsbn().equals(isbn)) {
+                    checksum += book.getTitle().length();
+                    break;
+                }
+            }
+        }
+        return checksum;
+    }
+
+    private static double measureCatalog(Catalog catalog, String[] isbns) {
+        long checksum = 0;
+        for (int warmup = 0; warmup < 5; warmup++) {
+            checksum += lookup(catalog, isbns);
+        }
+        long start = System.nanoTime();
+        checksum += lookup(catalog, isbns);
+        long elapsed = System.nanoTime() - start;
+        blackhole(checksum);
+        return (double) elapsed / LOOKUPS;
+    }
+
+    private static long lookup(Catalog catalog, String[] isbns) {
+        long checksum = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            checksum += catalog.findByIsbn(isbns[i & (isbns.length - 1)]).map(b -> b.getTitle().length()).orElse(0);
+        }
+        return checksum;
+    }
+
+    private static Book createBook(int i) {
+        String isbn = isbnOf(i);
+        String author = "Author " + (i % 5_000);
+        String year = String.valueOf(1990 + i % 35);
+        BigDecimal price = BigDecimal.valueOf(1_000 + i % 9_000, 2);
+        switch (i % 3) {
+            case 0:
+                return new PhysicalBook(isbn, "Book " + i, author, price, "300", "Paperback", year);
+            case 1:
+                return new EBook(isbn, "Book " + i, author, price, year);
+            default:
+                return new AudioBook(isbn, "Book " + i, author, price, year);
+        }
+    }
+
+    private static String isbnOf(int i) {
+        return String.format("978-%010d", i);
+    }
+
+    private static void blackhole(long value) {
+        if (value == 42) {
+            System.out.println();
+        }
+    }
+}
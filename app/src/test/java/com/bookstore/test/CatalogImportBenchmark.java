@@ -0,0 +1,77 @@
+package com.bookstore.test;
+
+import com.bookstore.catalog.CatalogImporter;
+import com.bookstore.catalog.ImportReport;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CatalogImportBenchmark {
+    public static void main(String[] args) throws IOException {
+        // จำนวนแถว (ค่าเริ่มต้น 5 ล้าน) และไฟล์ที่จะใช้ซ้ำได้
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        Path file = args.length > 1 ? Path.of(args[1]) : Files.createTempFile("catalog-", ".csv");
+
+        if (!Files.exists(file) || Files.size(file) == 0) {
+            generate(file, rows);
+        }
+        System.out.println("=== CATALOG IMPORT BENCHMARK ===");
+        System.out.printf("File: %s (%.1f MB)%n", file, Files.size(file) / 1_048_576.0);
+
+        for (int run = 1; run <= 3; run++) {
+            System.gc();
+            resetPeakHeap();
+            AtomicLong books = new AtomicLong();
+            // นับจำนวนอย่างเดียว เพื่อวัดตัว importer โดยไม่รวมหน่วยความจำของแคตตาล็อก
+            ImportReport report = new CatalogImporter().importFile(file, CatalogImporter.Format.CSV,
+                    batch -> books.addAndGet(batch.size()));
+            System.out.printf("Run %d: %s, peak heap %.1f MB%n", run, report, peakHeap() / 1_048_576.0);
+        }
+    }
+
+    private static void generate(Path file, int rows) throws IOException {
+        String[] covers = { "Hardcover", "Paperback" };
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("isbn,title,author,price,type,pages,cover,year\n");
+            for (int i = 0; i < rows; i++) {
+                String price = (10 + i % 90) + "." + (10 + i % 89);
+                String year = String.valueOf(1990 + i % 35);
+                String common = String.format("978-%010d,Book %d,Author %d,%s,", i, i, i % 50_000, price);
+                switch (i % 3) {
+                    case 0:
+                        writer.write(common + "PhysicalBook," + (100 + i % 900) + "," + covers[i % 2] + "," + year + "\n");
+                        break;
+                    case 1:
+                        writer.write(common + "EBook,,," + year + "\n");
+                        break;
+                    default:
+                        writer.write(common + "AudioBook,,," + year + "\n");
+                }
+            }
+        }
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
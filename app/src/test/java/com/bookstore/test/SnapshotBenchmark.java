@@ -0,0 +1,59 @@
+package com.bookstore.test;
+
+import com.bookstore.books.Book;
+import com.bookstore.catalog.Catalog;
+import com.bookstore.catalog.CatalogImporter;
+import com.bookstore.catalog.CatalogSnapshot;
+import com.bookstore.catalog.MappedCatalog;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class SnapshotBenchmark {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: SnapshotBenchmark <catalog.csv> <catalog.snap>");
+            return;
+        }
+        Path csv = Path.of(args[0]);
+        Path snap = Path.of(args[1]);
+
+        if (!Files.exists(snap)) {
+            long start = System.nanoTime();
+            Catalog catalog = new Catalog();
+            new CatalogImporter().importInto(csv, catalog);
+            long imported = System.nanoTime();
+            System.out.printf("Text import: %d books in %.0f ms, heap used %.0f MB%n", catalog.size(),
+                    (imported - start) / 1e6, usedHeap() / 1_048_576.0);
+            CatalogSnapshot.write(catalog.books(), snap);
+            System.out.printf("Snapshot written in %.0f ms (%.1f MB)%n", (System.nanoTime() - imported) / 1e6,
+                    Files.size(snap) / 1_048_576.0);
+            return; // เปิด snapshot ใน JVM ใหม่เพื่อวัด cold start จริง
+        }
+
+        System.out.println("=== SNAPSHOT COLD START ===");
+        long start = System.nanoTime();
+        try (MappedCatalog catalog = MappedCatalog.open(snap)) {
+            long opened = System.nanoTime();
+            Random random = new Random(42);
+            int found = 0;
+            for (int i = 0; i < 10_000; i++) {
+                String isbn = String.format("978-%010d", random.nextInt(catalog.size()));
+                found += catalog.findByIsbn(isbn).isPresent() ? 1 : 0;
+            }
+            long looked = System.nanoTime();
+            Book first = catalog.get(0);
+            System.out.printf("Open: %.2f ms for %d books%n", (opened - start) / 1e6, catalog.size());
+            System.out.printf("10k random ISBN lookups: %.1f ms (%d found)%n", (looked - opened) / 1e6, found);
+            System.out.printf("First book: %s%n", first.getTitle());
+            System.gc();
+            System.out.printf("Heap used after lookups: %.1f MB%n", usedHeap() / 1_048_576.0);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,208 @@
+package com.bookstore.test;
+
+import com.bookstore.books.*;
+import com.bookstore.catalog.Catalog;
+import com.bookstore.checkout.CheckoutService;
+import com.bookstore.customer.Customer;
+import com.bookstore.http.Storefront;
+import com.bookstore.http.StorefrontServer;
+import com.bookstore.recommend.RecommendationIndex;
+import com.bookstore.search.SearchIndex;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// load generator ในเครื่อง: ผู้ใช้จำลอง 1 virtual thread ต่อ session วนค้นหา/เพิ่มตะกร้า/ดูตะกร้า/checkout
+// จำนวน connection ที่ส่งพร้อมกันจำกัดด้วย semaphore (file descriptor ของ client และ server อยู่ใน process เดียวกัน)
+// latency วัดตั้งแต่ได้ permit จนได้ response ครบ
+public class StorefrontLoadBenchmark {
+    private static final String[] WORDS = { "bitcoin", "standard", "money", "lightning", "network", "economics",
+            "sovereign", "individual", "mastering", "future", "fiat", "history", "banking", "crypto", "markets" };
+    private static final Pattern SESSION_ID = Pattern.compile("\"sessionId\":\"([0-9a-f]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        int[] sessionCounts = args.length > 0
+                ? Arrays.stream(args[0].split(",")).mapToInt(Integer::parseInt).toArray()
+                : new int[] { 1_000, 2_000, 5_000, 10_000 };
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int maxInFlight = args.length > 2 ? Integer.parseInt(args[2]) : 128;
+        int books = 10_000;
+        int maxSessions = Arrays.stream(sessionCounts).max().orElse(0);
+
+        Catalog catalog = new Catalog();
+        RecommendationIndex recommendations = new RecommendationIndex();
+        SearchIndex searchIndex = new SearchIndex();
+        catalog.addListener(recommendations);
+        catalog.addListener(searchIndex);
+        for (int i = 0; i < books; i++) {
+            catalog.add(createBook(i));
+        }
+        List<Customer> customers = new ArrayList<>(maxSessions);
+        for (int i = 0; i < maxSessions; i++) {
+            customers.add(new Customer(String.format("C%06d", i), "user" + i,
+                    i % 4 == 0 ? Customer.CustomerType.VIP : Customer.CustomerType.GENERAL));
+        }
+        Storefront storefront = new Storefront(catalog, recommendations, searchIndex, customers,
+                new CheckoutService());
+
+        try (StorefrontServer server = StorefrontServer.start(storefront, new InetSocketAddress("127.0.0.1", 0),
+                8_192);
+                ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            String baseUrl = "http://127.0.0.1:" + server.address().getPort();
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(clientExecutor)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+
+            System.out.println("=== STOREFRONT HTTP LOAD ===");
+            System.out.printf("%d books, %d s per run, at most %d requests in flight%n", books, seconds,
+                    maxInFlight);
+            System.out.printf("%-9s | %-10s | %-9s | %-9s | %-9s | %-9s | %s%n", "Sessions", "Requests", "req/s",
+                    "p50 (ms)", "p99 (ms)", "max (ms)", "Errors");
+            System.out.println("----------|------------|-----------|-----------|-----------|-----------|-------");
+            run(client, baseUrl, Math.min(200, sessionCounts[0]), 3, maxInFlight, false); // warmup
+            for (int sessions : sessionCounts) {
+                run(client, baseUrl, sessions, seconds, maxInFlight, true);
+            }
+        }
+    }
+
+    private static void run(HttpClient client, String baseUrl, int sessions, int seconds, int maxInFlight,
+            boolean report) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicLong errors = new AtomicLong();
+        long[][] latencies = new long[sessions][];
+        int[] counts = new int[sessions];
+        long start = System.nanoTime();
+        long deadline = start + seconds * 1_000_000_000L;
+        List<Thread> users = new ArrayList<>(sessions);
+        for (int s = 0; s < sessions; s++) {
+            int user = s;
+            users.add(Thread.ofVirtual().start(() -> {
+                LatencyLog log = new LatencyLog();
+                SplittableRandom random = new SplittableRandom(user);
+                try {
+                    String body = request(client, inFlight, log, errors,
+                            HttpRequest.newBuilder(URI.create(baseUrl + "/sessions?customerId="
+                                    + String.format("C%06d", user))).POST(HttpRequest.BodyPublishers.noBody()));
+                    Matcher matcher = body == null ? null : SESSION_ID.matcher(body);
+                    if (matcher == null || !matcher.find()) {
+                        return;
+                    }
+                    String session = matcher.group(1);
+                    for (int step = 0; System.nanoTime() < deadline; step++) {
+                        HttpRequest.Builder next = switch (step % 4) {
+                            case 0 -> HttpRequest.newBuilder(URI.create(baseUrl + "/search?limit=10&q="
+                                    + WORDS[random.nextInt(WORDS.length)])).GET();
+                            case 1 -> HttpRequest.newBuilder(URI.create(baseUrl + "/cart/items?isbn="
+                                    + isbnOf(random.nextInt(10_000)) + "&quantity=" + (1 + random.nextInt(3))))
+                                    .POST(HttpRequest.BodyPublishers.noBody());
+                            case 2 -> HttpRequest.newBuilder(URI.create(baseUrl + "/cart")).GET();
+                            default -> HttpRequest.newBuilder(URI.create(baseUrl + "/checkout"))
+                                    .POST(HttpRequest.BodyPublishers.noBody());
+                        };
+                        request(client, inFlight, log, errors,
+                                next.header(StorefrontServer.SESSION_HEADER, session));
+                    }
+                    request(client, inFlight, log, errors, HttpRequest.newBuilder(URI.create(baseUrl + "/sessions"))
+                            .DELETE().header(StorefrontServer.SESSION_HEADER, session));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    latencies[user] = log.values;
+                    counts[user] = log.size;
+                }
+            }));
+        }
+        for (Thread user : users) {
+            user.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (!report) {
+            return;
+        }
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int position = 0;
+        for (int s = 0; s < sessions; s++) {
+            System.arraycopy(latencies[s], 0, all, position, counts[s]);
+            position += counts[s];
+        }
+        Arrays.sort(all);
+        System.out.printf("%-9d | %-10d | %-9.0f | %-9.2f | %-9.2f | %-9.2f | %d%n", sessions, total,
+                total / (elapsed / 1e9), percentile(all, 0.50) / 1e6, percentile(all, 0.99) / 1e6,
+                total == 0 ? 0 : all[total - 1] / 1e6, errors.get());
+    }
+
+    // คืน body ถ้าสำเร็จ (2xx/404/409 ถือว่าเป็นคำตอบปกติของ API), null ถ้าเชื่อมต่อไม่ได้หรือ 5xx
+    private static String request(HttpClient client, Semaphore inFlight, LatencyLog log, AtomicLong errors,
+            HttpRequest.Builder request) throws InterruptedException {
+        inFlight.acquire();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            log.add(System.nanoTime() - start);
+            if (response.statusCode() >= 500) {
+                errors.incrementAndGet();
+                return null;
+            }
+            return response.body();
+        } catch (IOException e) {
+            errors.incrementAndGet();
+            return null;
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static final class LatencyLog {
+        long[] values = new long[64];
+        int size;
+
+        void add(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+    }
+
+    private static Book createBook(int i) {
+        String isbn = isbnOf(i);
+        String title = WORDS[i % WORDS.length] + " " + WORDS[(i / WORDS.length) % WORDS.length] + " " + i;
+        String author = "Author " + (i % 500);
+        String year = String.valueOf(1990 + i % 35);
+        BigDecimal price = BigDecimal.valueOf(1_000 + i % 9_000, 2);
+        switch (i % 3) {
+            case 0:
+                return new PhysicalBook(isbn, title, author, price, "300", "Paperback", year);
+            case 1:
+                return new EBook(isbn, title, author, price, year);
+            default:
+                return new AudioBook(isbn, title, author, price, year);
+        }
+    }
+
+    private static String isbnOf(int i) {
+        return String.format("978-%010d", i);
+    }
+}